@@ -31,8 +31,16 @@ public class DefaultLayouter implements ILayouter {
 
 	public static final String Y_AXIS_VARIATION = "yaxis";
 
+	public static final String SEED = "seed";
+
 	private Random random = new Random();
 
+	/**
+	 * The seed from which the random numbers used to place a word are derived.
+	 * If <code>null</code>, the placement of words is not reproducible.
+	 */
+	private Long seed;
+
 	/**
 	 * Percentage of the x axis variation. By default, searching for free space is
 	 * started in the center of the available area. By increasing this value,
@@ -55,6 +63,11 @@ public class DefaultLayouter implements ILayouter {
 	}
 
 	public Point getInitialOffset(Word word, Rectangle cloudArea) {
+		if (seed != null) {
+			// derive the random numbers for each word from the seed, so that
+			// the placement does not depend on previous layout passes
+			random.setSeed(seed.longValue() * 31 + word.string.hashCode());
+		}
 		int xOff = 0;
 		if (xAxisVariation > 0) {
 			int range = (cloudArea.width - word.width) / 200 * xAxisVariation;
@@ -146,6 +159,11 @@ public class DefaultLayouter implements ILayouter {
 			this.yAxisVariation = value;
 			return;
 		}
+		if (SEED.equals(optionName)) {
+			Assert.isLegal(object == null || object instanceof Number, "Parameter must be a number or null: " + object);
+			this.seed = object == null ? null : ((Number) object).longValue();
+			return;
+		}
 		System.err.println("Unrecognized option: " + optionName);
 	}
 
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.benchmarks;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.geometry.convert.awt.AWT2Geometry;
+import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
+import org.eclipse.gef.geometry.euclidean.Angle;
+import org.eclipse.gef.geometry.planar.Ellipse;
+import org.eclipse.gef.geometry.planar.Path;
+import org.eclipse.gef.geometry.planar.Pie;
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.geometry.planar.RoundedRectangle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the boolean operations of {@link Path} with the equivalent
+ * operations of {@link Area} (including the conversion from and to
+ * {@link Path}), for pairs of overlapping shapes of the same kind and for a
+ * combination of straight and curved shapes.
+ * <p>
+ * When started via {@link #main(String[])}, the GC profiler is added, so that
+ * the allocation rate is reported alongside the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class PathBooleanOperationsBenchmarks {
+
+	/**
+	 * The kinds of shapes that are combined.
+	 */
+	public enum Shapes {
+		/**
+		 * Two overlapping rectangles.
+		 */
+		RECTANGLES,
+		/**
+		 * Two overlapping ellipses.
+		 */
+		ELLIPSES,
+		/**
+		 * Two overlapping rounded rectangles.
+		 */
+		ROUNDED_RECTANGLES,
+		/**
+		 * A polygon overlapping an ellipse.
+		 */
+		POLYGON_ELLIPSE,
+		/**
+		 * Two overlapping pies.
+		 */
+		PIES
+	}
+
+	/**
+	 * The boolean operations.
+	 */
+	public enum Operation {
+		/**
+		 * {@link Path#add(Path, Path)}
+		 */
+		UNION,
+		/**
+		 * {@link Path#intersect(Path, Path)}
+		 */
+		INTERSECTION,
+		/**
+		 * {@link Path#subtract(Path, Path)}
+		 */
+		DIFFERENCE,
+		/**
+		 * {@link Path#exclusiveOr(Path, Path)}
+		 */
+		EXCLUSIVE_OR
+	}
+
+	/**
+	 * The kind of shapes.
+	 */
+	@Param({ "RECTANGLES", "ELLIPSES", "ROUNDED_RECTANGLES", "POLYGON_ELLIPSE",
+			"PIES" })
+	public Shapes shapes;
+
+	/**
+	 * The boolean operation.
+	 */
+	@Param({ "UNION", "INTERSECTION", "DIFFERENCE", "EXCLUSIVE_OR" })
+	public Operation operation;
+
+	private Path first;
+	private Path second;
+
+	/**
+	 * Creates the operands for the current parameters.
+	 */
+	@Setup(Level.Trial)
+	public void createShapes() {
+		switch (shapes) {
+		case RECTANGLES:
+			first = new Rectangle(0, 0, 100, 60).toPath();
+			second = new Rectangle(40, 20, 100, 60).toPath();
+			break;
+		case ELLIPSES:
+			first = new Ellipse(0, 0, 100, 60).toPath();
+			second = new Ellipse(40, 20, 100, 60).toPath();
+			break;
+		case ROUNDED_RECTANGLES:
+			first = new RoundedRectangle(0, 0, 100, 60, 20, 20).toPath();
+			second = new RoundedRectangle(40, 20, 100, 60, 20, 20).toPath();
+			break;
+		case POLYGON_ELLIPSE:
+			first = new Polygon(0, 0, 100, 10, 80, 90, 10, 70).toPath();
+			second = new Ellipse(40, 20, 100, 60).toPath();
+			break;
+		case PIES:
+			first = new Pie(0, 0, 100, 100, Angle.fromDeg(0),
+					Angle.fromDeg(270)).toPath();
+			second = new Pie(40, 20, 100, 100, Angle.fromDeg(45),
+					Angle.fromDeg(180)).toPath();
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown shapes: " + shapes);
+		}
+	}
+
+	/**
+	 * Computes the boolean operation using {@link Path}.
+	 *
+	 * @return The resulting {@link Path}.
+	 */
+	@Benchmark
+	public Path path() {
+		switch (operation) {
+		case UNION:
+			return Path.add(first, second);
+		case INTERSECTION:
+			return Path.intersect(first, second);
+		case DIFFERENCE:
+			return Path.subtract(first, second);
+		default:
+			return Path.exclusiveOr(first, second);
+		}
+	}
+
+	/**
+	 * Computes the boolean operation using {@link Area}, including the
+	 * conversion of the operands and the result.
+	 *
+	 * @return The resulting {@link Path}.
+	 */
+	@Benchmark
+	public Path area() {
+		Area a = new Area(Geometry2AWT.toAWTPath(first));
+		Area b = new Area(Geometry2AWT.toAWTPath(second));
+		switch (operation) {
+		case UNION:
+			a.add(b);
+			break;
+		case INTERSECTION:
+			a.intersect(b);
+			break;
+		case DIFFERENCE:
+			a.subtract(b);
+			break;
+		default:
+			a.exclusiveOr(b);
+		}
+		return AWT2Geometry.toPath(new Path2D.Double(a));
+	}
+
+	/**
+	 * Runs the boolean operation benchmarks with the GC profiler. All JMH
+	 * command line options are supported.
+	 *
+	 * @param args
+	 *            The JMH command line options.
+	 * @throws RunnerException
+	 *             if the benchmarks cannot be run.
+	 * @throws CommandLineOptionException
+	 *             if the command line options are invalid.
+	 */
+	public static void main(String[] args)
+			throws RunnerException, CommandLineOptionException {
+		Options options = new OptionsBuilder()
+				.parent(new CommandLineOptions(args))
+				.include(PathBooleanOperationsBenchmarks.class.getName())
+				.addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
@@ -22,12 +22,12 @@ import org.junit.runners.Suite.SuiteClasses;
 		AWTConversionTests.class, BezierCurveTests.class, CubicCurveTests.class,
 		CurvedPolygonTests.class, CurveUtilsTests.class, DimensionTests.class,
 		EllipseTests.class, IGeometryTests.class, LineTests.class,
-		PathTests.class, PieTests.class, PointListUtilsTests.class,
-		PointTests.class, PolygonTests.class, PolylineTests.class,
-		PrecisionUtilsTests.class, QuadraticCurveTests.class,
-		RectangleTests.class, RegionTests.class, RingTests.class,
-		RoundedRectangleTests.class, StraightTests.class, VectorTests.class,
-		Vector3DTests.class })
+		PathTests.class, PieTests.class, PointBufferTests.class,
+		PointListUtilsTests.class, PointTests.class, PolygonTests.class,
+		PolylineTests.class, PrecisionUtilsTests.class,
+		QuadraticCurveTests.class, RectangleTests.class, RegionTests.class,
+		RingTests.class, RoundedRectangleTests.class, RTreeTests.class,
+		StraightTests.class, VectorTests.class, Vector3DTests.class })
 public class AllTests {
 
 }
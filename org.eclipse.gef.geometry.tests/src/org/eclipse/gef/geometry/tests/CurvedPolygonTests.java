@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 itemis AG and others.
+ * Copyright (c) 2012, 2017 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -17,6 +17,7 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.eclipse.gef.geometry.planar.CurvedPolygon;
+import org.eclipse.gef.geometry.planar.Ellipse;
 import org.eclipse.gef.geometry.planar.Line;
 import org.eclipse.gef.geometry.planar.Path.Segment;
 import org.eclipse.gef.geometry.planar.Point;
@@ -44,6 +45,22 @@ public class CurvedPolygonTests {
 		assertTrue(curvedPolygon.contains(new Point(100, 100)));
 	}
 
+	@Test
+	public void test_contains_Point_curved() {
+		CurvedPolygon curvedPolygon = new CurvedPolygon(
+				new Ellipse(0, 0, 100, 60).getOutlineSegments());
+
+		assertTrue(curvedPolygon.contains(new Point(50, 30)));
+		assertTrue(curvedPolygon.contains(new Point(50, 0.1)));
+		assertFalse(curvedPolygon.contains(new Point(50, -0.1)));
+		assertFalse(curvedPolygon.contains(new Point(10, 5)));
+
+		// points on the outline are contained
+		assertTrue(curvedPolygon.contains(new Point(50, 0)));
+		assertTrue(curvedPolygon.contains(new Point(100, 30)));
+		assertTrue(curvedPolygon.contains(new Point(50, 60)));
+	}
+
 	@Test
 	public void test_getBounds() {
 		// TODO: store points in variables
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 itemis AG and others.
+ * Copyright (c) 2012, 2017 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -18,14 +18,62 @@ import static org.junit.Assert.assertTrue;
 
 import java.util.List;
 
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.Ellipse;
 import org.eclipse.gef.geometry.planar.ICurve;
 import org.eclipse.gef.geometry.planar.Path;
+import org.eclipse.gef.geometry.planar.Path.Segment;
 import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.junit.Test;
 
 public class PathTests {
 
+	// checks the results of all boolean operations of the given paths against
+	// the containment of sample points (that are not close to an outline) in
+	// the operands
+	private static void assertCAG(Path a, Path b) {
+		Path union = Path.add(a, b);
+		Path intersection = Path.intersect(a, b);
+		Path difference = Path.subtract(a, b);
+		Path xor = Path.exclusiveOr(a, b);
+		Rectangle bounds = a.getBounds().union(b.getBounds()).expand(5, 5);
+		double right = bounds.getX() + bounds.getWidth();
+		double bottom = bounds.getY() + bounds.getHeight();
+		double d = 0.5;
+		for (double x = bounds.getX(); x <= right; x += 2.5) {
+			for (double y = bounds.getY(); y <= bottom; y += 2.5) {
+				Point p = new Point(x, y);
+				boolean inA = a.contains(p);
+				boolean inB = b.contains(p);
+				boolean interior = true;
+				for (Point q : new Point[] { new Point(x - d, y),
+						new Point(x + d, y), new Point(x, y - d),
+						new Point(x, y + d) }) {
+					interior &= a.contains(q) == inA && b.contains(q) == inB;
+				}
+				if (interior) {
+					assertEquals(p.toString(), inA || inB, union.contains(p));
+					assertEquals(p.toString(), inA && inB,
+							intersection.contains(p));
+					assertEquals(p.toString(), inA && !inB,
+							difference.contains(p));
+					assertEquals(p.toString(), inA != inB, xor.contains(p));
+				}
+			}
+		}
+	}
+
+	private static int getNumberOfSubPaths(Path path) {
+		int count = 0;
+		for (Segment segment : path.getSegments()) {
+			if (segment.getType() == Segment.MOVE_TO) {
+				count++;
+			}
+		}
+		return count;
+	}
+
 	@Test
 	public void test_CAG_add() {
 		Rectangle r0 = new Rectangle(0, 0, 100, 100);
@@ -69,6 +117,182 @@ public class PathTests {
 		assertFalse(differencePath.contains(new Point(125, 125)));
 	}
 
+	@Test
+	public void test_CAG_curved() {
+		Ellipse e0 = new Ellipse(0, 0, 100, 60);
+		Ellipse e1 = new Ellipse(50, 0, 100, 60);
+
+		// the result is composed of the original curves (no flattening)
+		Path intersectionPath = Path.intersect(e0.toPath(), e1.toPath());
+		Segment[] segments = intersectionPath.getSegments();
+		assertTrue(segments.length < 10);
+		for (int i = 1; i < segments.length - 1; i++) {
+			assertEquals(Segment.CUBIC_TO, segments[i].getType());
+		}
+		assertTrue(intersectionPath.contains(new Point(75, 30)));
+		assertFalse(intersectionPath.contains(new Point(25, 30)));
+		assertFalse(intersectionPath.contains(new Point(75, 2)));
+
+		Path unionPath = Path.add(e0.toPath(), e1.toPath());
+		assertTrue(unionPath.contains(new Point(5, 30)));
+		assertTrue(unionPath.contains(new Point(145, 30)));
+		assertFalse(unionPath.contains(new Point(75, 1)));
+
+		Path differencePath = Path.subtract(e0.toPath(), e1.toPath());
+		assertTrue(differencePath.contains(new Point(25, 30)));
+		assertFalse(differencePath.contains(new Point(75, 30)));
+		assertFalse(differencePath.contains(new Point(125, 30)));
+
+		Path xorPath = Path.exclusiveOr(e0.toPath(), e1.toPath());
+		assertTrue(xorPath.contains(new Point(25, 30)));
+		assertFalse(xorPath.contains(new Point(75, 30)));
+		assertTrue(xorPath.contains(new Point(125, 30)));
+	}
+
+	@Test
+	public void test_CAG_disjointAndNested() {
+		Path outer = new Rectangle(0, 0, 100, 100).toPath();
+		Path inner = new Ellipse(25, 25, 50, 50).toPath();
+		Path disjoint = new Rectangle(200, 0, 100, 100).toPath();
+
+		assertEquals(0, Path.intersect(outer, disjoint).getSegments().length);
+		Path unionPath = Path.add(outer, disjoint);
+		assertTrue(unionPath.contains(new Point(50, 50)));
+		assertTrue(unionPath.contains(new Point(250, 50)));
+		assertFalse(unionPath.contains(new Point(150, 50)));
+
+		// a hole is cut out of the outer rectangle
+		Path differencePath = Path.subtract(outer, inner);
+		assertTrue(differencePath.contains(new Point(10, 10)));
+		assertFalse(differencePath.contains(new Point(50, 50)));
+		assertEquals(0, Path.subtract(inner, outer).getSegments().length);
+		Path intersectionPath = Path.intersect(outer, inner);
+		assertTrue(intersectionPath.contains(new Point(50, 50)));
+		assertFalse(intersectionPath.contains(new Point(10, 10)));
+	}
+
+	@Test
+	public void test_CAG_selfIntersecting() {
+		// a bow tie of two successive quadratic curves that cross each other
+		Path quads = new Path().moveTo(0, 0).quadTo(150, 100, 100, 0)
+				.quadTo(-50, 100, 0, 0).close();
+		assertTrue(quads.contains(new Point(20, 20)));
+		assertTrue(quads.contains(new Point(80, 20)));
+		assertFalse(quads.contains(new Point(50, 60)));
+		assertCAG(quads, new Rectangle(30, 10, 100, 100).toPath());
+		assertCAG(new Rectangle(-20, 30, 140, 20).toPath(), quads);
+
+		// a cubic curve with a loop
+		Path cubic = new Path().moveTo(0, 0).cubicTo(200, 100, -100, 100, 100,
+				0).close();
+		assertTrue(cubic.contains(new Point(50, 65)));
+		assertCAG(cubic, new Rectangle(40, 20, 100, 100).toPath());
+		assertCAG(new Rectangle(-20, 50, 140, 10).toPath(), cubic);
+		cubic.setWindingRule(Path.WIND_NON_ZERO);
+		assertCAG(cubic, new Rectangle(40, 20, 100, 100).toPath());
+
+		// successive cubic curves that cross each other
+		Path cubics = new Path().moveTo(0, 0).cubicTo(100, 0, 150, 100, 100,
+				100).cubicTo(50, 100, 0, -50, 100, 0).close();
+		assertCAG(cubics, new Rectangle(50, 20, 100, 50).toPath());
+	}
+
+	@Test
+	public void test_CAG_selfIntersectingCurves() {
+		// a cubic curve with a loop, which is crossed by the successive
+		// quadratic curves
+		Path mixed = new Path().moveTo(48, 1).cubicTo(30, 71, 11, 4, 81, 32)
+				.quadTo(94, 60, 30, 8).quadTo(71, 40, 93, 30).lineTo(64, 11)
+				.lineTo(90, 62).quadTo(92, 98, 58, 51).close();
+		// a cubic curve with a loop, closed by crossing quadratic curves
+		Path curves = new Path().moveTo(10, 50).cubicTo(110, 0, -10, 0, 90, 50)
+				.quadTo(0, 100, 60, 10).quadTo(100, 90, 10, 50).close();
+		for (int windingRule : new int[] { Path.WIND_EVEN_ODD,
+				Path.WIND_NON_ZERO }) {
+			mixed.setWindingRule(windingRule);
+			curves.setWindingRule(windingRule);
+			assertCAG(mixed, mixed);
+			assertCAG(curves, curves);
+			assertCAG(mixed, curves);
+			assertCAG(curves, mixed.getTransformed(
+					new AffineTransform().setToTranslation(7, -3)));
+			assertCAG(mixed, new Ellipse(20, 15, 60, 40).toPath());
+		}
+	}
+
+	@Test
+	public void test_CAG_sharedEdges() {
+		Path left = new Rectangle(0, 0, 100, 100).toPath();
+		Path right = new Rectangle(100, 0, 100, 100).toPath();
+
+		// the shared edge is removed from the union
+		Path unionPath = Path.add(left, right);
+		assertEquals(new Rectangle(0, 0, 200, 100), unionPath.getBounds());
+		assertTrue(unionPath.contains(new Point(100, 50)));
+		assertEquals(1, getNumberOfSubPaths(unionPath));
+		assertEquals(0, Path.intersect(left, right).getSegments().length);
+
+		// identical paths
+		Path ellipse = new Ellipse(0, 0, 100, 50).toPath();
+		assertEquals(0,
+				Path.subtract(ellipse, ellipse.getCopy()).getSegments().length);
+		assertEquals(0, Path.exclusiveOr(ellipse, ellipse.getCopy())
+				.getSegments().length);
+		Path intersectionPath = Path.intersect(ellipse, ellipse.getCopy());
+		assertEquals(ellipse.getBounds(), intersectionPath.getBounds());
+		assertTrue(intersectionPath.contains(new Point(50, 25)));
+	}
+
+	@Test
+	public void test_CAG_windingRule() {
+		// two overlapping squares within a single path
+		Path path = new Path(Path.WIND_EVEN_ODD).moveTo(0, 0).lineTo(100, 0)
+				.lineTo(100, 100).lineTo(0, 100).close().moveTo(50, 50)
+				.lineTo(150, 50).lineTo(150, 150).lineTo(50, 150).close();
+		Path rectangle = new Rectangle(0, 0, 200, 200).toPath();
+		Path intersectionPath = Path.intersect(path, rectangle);
+		assertTrue(intersectionPath.contains(new Point(25, 25)));
+		assertFalse(intersectionPath.contains(new Point(75, 75)));
+		assertTrue(intersectionPath.contains(new Point(125, 125)));
+
+		path.setWindingRule(Path.WIND_NON_ZERO);
+		intersectionPath = Path.intersect(path, rectangle);
+		assertTrue(intersectionPath.contains(new Point(75, 75)));
+		assertEquals(1, getNumberOfSubPaths(intersectionPath));
+	}
+
+	@Test
+	public void test_contains_Point() {
+		// a square with a square hole, both oriented the same way
+		Path path = new Path(Path.WIND_NON_ZERO).moveTo(0, 0).lineTo(100, 0)
+				.lineTo(100, 100).lineTo(0, 100).close().moveTo(25, 25)
+				.lineTo(75, 25).lineTo(75, 75).lineTo(25, 75).close();
+		assertTrue(path.contains(new Point(10, 10)));
+		assertTrue(path.contains(new Point(50, 50)));
+		assertFalse(path.contains(new Point(150, 50)));
+
+		path.setWindingRule(Path.WIND_EVEN_ODD);
+		assertTrue(path.contains(new Point(10, 10)));
+		assertFalse(path.contains(new Point(50, 50)));
+
+		// sub-paths are closed implicitly
+		path = new Path().moveTo(0, 0).quadTo(50, -50, 100, 0).cubicTo(150,
+				50, 100, 100, 50, 100);
+		assertTrue(path.contains(new Point(50, 0)));
+		assertTrue(path.contains(new Point(50, -20)));
+		assertTrue(path.contains(new Point(110, 50)));
+		assertFalse(path.contains(new Point(50, -30)));
+		assertFalse(path.contains(new Point(10, 80)));
+		assertFalse(path.contains(new Point(140, 50)));
+
+		// curved segments are evaluated precisely
+		Path ellipse = new Ellipse(0, 0, 100, 60).toPath();
+		assertTrue(ellipse.contains(new Point(50, 0.1)));
+		assertFalse(ellipse.contains(new Point(50, -0.1)));
+		assertTrue(ellipse.contains(new Point(0.1, 30)));
+		assertFalse(ellipse.contains(new Point(10, 5)));
+	}
+
 	@Test
 	public void test_getBounds_cubic() {
 		// create path using all segment types
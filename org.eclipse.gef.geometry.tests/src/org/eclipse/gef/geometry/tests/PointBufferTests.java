@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.eclipse.gef.geometry.euclidean.Angle;
+import org.eclipse.gef.geometry.planar.AffineTransform;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.PointBuffer;
+import org.eclipse.gef.geometry.planar.Polygon;
+import org.eclipse.gef.geometry.planar.Polyline;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.junit.Test;
+
+public class PointBufferTests {
+
+	@Test
+	public void test_add() {
+		PointBuffer buffer = new PointBuffer(1);
+		assertTrue(buffer.isEmpty());
+		for (int i = 0; i < 100; i++) {
+			buffer.add(i, 2 * i);
+		}
+		buffer.add(new Point(-1, -2));
+		assertEquals(101, buffer.size());
+		assertEquals(50, buffer.getX(50), 0);
+		assertEquals(100, buffer.getY(50), 0);
+		assertEquals(new Point(-1, -2), buffer.getPoint(100));
+
+		buffer.addAll(new PointBuffer(1, 1, 2, 2));
+		assertEquals(103, buffer.size());
+		assertEquals(new Point(2, 2), buffer.getPoint(102));
+
+		buffer.set(0, 5, 6);
+		assertEquals(new Point(5, 6), buffer.getPoint(0));
+
+		buffer.clear();
+		assertTrue(buffer.isEmpty());
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void test_getPoint_outOfBounds() {
+		new PointBuffer(10).add(1, 1).getPoint(1);
+	}
+
+	@Test
+	public void test_getBounds() {
+		assertEquals(new Rectangle(), new PointBuffer().getBounds());
+		Point[] points = new Point[] { new Point(3, -1), new Point(-2, 4),
+				new Point(7, 2), new Point(0, 0) };
+		assertEquals(Point.getBounds(points),
+				new PointBuffer(points).getBounds());
+	}
+
+	@Test
+	public void test_getCentroid() {
+		assertNull(new PointBuffer().getCentroid());
+		Point[] points = new Point[] { new Point(0, 0), new Point(10, 0),
+				new Point(10, 10), new Point(4, 16), new Point(0, 10) };
+		assertEquals(Point.getCentroid(points),
+				new PointBuffer(points).getCentroid());
+	}
+
+	@Test
+	public void test_getConvexHull() {
+		// square with inner, duplicate, and collinear points
+		PointBuffer buffer = new PointBuffer(5, 5, 0, 0, 10, 10, 10, 0, 0, 10,
+				5, 0, 0, 0, 3, 7, 10, 10);
+		PointBuffer hull = buffer.getConvexHull();
+		assertEquals(new PointBuffer(0, 0, 10, 0, 10, 10, 0, 10), hull);
+
+		// degenerate cases
+		assertTrue(new PointBuffer().getConvexHull().isEmpty());
+		assertEquals(new PointBuffer(1, 1),
+				new PointBuffer(1, 1, 1, 1).getConvexHull());
+		assertEquals(new PointBuffer(0, 0, 2, 2),
+				new PointBuffer(2, 2, 1, 1, 0, 0).getConvexHull());
+
+		// compare with Point#getConvexHull(), which retains collinear points
+		Random random = new Random(0);
+		for (int n = 4; n < 200; n += 13) {
+			Point[] points = new Point[n];
+			for (int i = 0; i < n; i++) {
+				points[i] = new Point(random.nextInt(100), random.nextInt(100));
+			}
+			Set<Point> expected = new HashSet<>(
+					Arrays.asList(Point.getConvexHull(points)));
+			hull = new PointBuffer(points).getConvexHull();
+			assertTrue(expected.containsAll(Arrays.asList(hull.toPoints())));
+			Polygon polygon = hull.toPolygon();
+			for (Point p : points) {
+				assertTrue(polygon.contains(p));
+			}
+		}
+	}
+
+	@Test
+	public void test_getNearestIndex() {
+		assertEquals(-1, new PointBuffer().getNearestIndex(0, 0));
+		PointBuffer buffer = new PointBuffer(0, 0, 10, 0, 10, 10, 0, 10);
+		assertEquals(0, buffer.getNearestIndex(1, 2));
+		assertEquals(2, buffer.getNearestIndex(8, 7));
+		assertEquals(3, buffer.getNearestIndex(-5, 20));
+	}
+
+	@Test
+	public void test_polygonAndPolyline() {
+		Polygon polygon = new Polygon(0, 0, 10, 0, 5, 5);
+		PointBuffer buffer = new PointBuffer(polygon);
+		assertArrayEquals(polygon.getCoordinates(), buffer.getCoordinates(),
+				0);
+		assertEquals(polygon, buffer.toPolygon());
+
+		Polyline polyline = new Polyline(0, 0, 10, 0, 5, 5);
+		buffer = new PointBuffer(polyline);
+		assertArrayEquals(polyline.getCoordinates(), buffer.getCoordinates(),
+				0);
+		assertEquals(polyline, buffer.toPolyline());
+	}
+
+	@Test
+	public void test_transformations() {
+		Point[] points = new Point[] { new Point(1, 2), new Point(-3, 4),
+				new Point(5, -6) };
+		PointBuffer buffer = new PointBuffer(points);
+
+		buffer.translate(3, -2);
+		Point.translate(points, 3, -2);
+		assertEquals(new PointBuffer(points), buffer);
+
+		buffer.scale(2, 0.5, 1, 1);
+		Point.scale(points, 2, 0.5, 1, 1);
+		assertEquals(new PointBuffer(points), buffer);
+
+		buffer.rotateCW(Angle.fromDeg(30), 2, 3);
+		Point.rotateCW(points, Angle.fromDeg(30), 2, 3);
+		assertEquals(new PointBuffer(points), buffer);
+
+		buffer.rotateCCW(Angle.fromDeg(75), -1, 0);
+		Point.rotateCCW(points, Angle.fromDeg(75), -1, 0);
+		assertEquals(new PointBuffer(points), buffer);
+
+		AffineTransform t = new AffineTransform().rotate(1).scale(2, 3)
+				.translate(5, 7);
+		buffer.transform(t);
+		assertEquals(new PointBuffer(t.getTransformed(points)), buffer);
+		assertFalse(new PointBuffer(points).equals(buffer));
+	}
+
+}
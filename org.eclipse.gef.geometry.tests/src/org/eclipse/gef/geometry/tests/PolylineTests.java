@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2008, 2016 IBM Corporation and others.
+ * Copyright (c) 2008, 2017 IBM Corporation and others.
  * 
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -55,6 +55,34 @@ public class PolylineTests {
 		assertEquals(POLYLINE, new Polyline(points.toArray(new Point[] {})));
 	}
 
+	@Test
+	public void test_getIntersections() {
+		// zig-zag line, which is crossed by a horizontal line once per segment
+		Point[] zigZag = new Point[201];
+		for (int i = 0; i < zigZag.length; i++) {
+			zigZag[i] = new Point(i, i % 2 == 0 ? 0 : 10);
+		}
+		Polyline polyline = new Polyline(zigZag);
+		Polyline horizontal = new Polyline(-10, 5, 100, 5, 210, 5);
+		Point[] intersections = polyline.getIntersections(horizontal);
+		assertEquals(200, intersections.length);
+		for (Point p : intersections) {
+			assertEquals(5, p.y, 0.001);
+			assertEquals(0.5, p.x - Math.floor(p.x), 0.001);
+		}
+		assertEquals(200, horizontal.getIntersections(polyline).length);
+
+		// shared vertices are only reported once
+		assertEquals(201, polyline
+				.getIntersections(new Polyline(-10, 0, 100, 0, 210, 0)).length
+				+ polyline.getIntersections(
+						new Polyline(-10, 10, 100, 10, 210, 10)).length);
+
+		// no intersections outside of the bounds
+		Polyline above = new Polyline(0, 20, 100, 30, 200, 20);
+		assertEquals(0, polyline.getIntersections(above).length);
+	}
+
 	@Test
 	public void test_toBezier() {
 		Line[] beziers = new Polyline(new double[] {}).toBezier();
@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.gef.geometry.index.ConcurrentRTree;
+import org.eclipse.gef.geometry.index.RTree;
+import org.eclipse.gef.geometry.planar.Ellipse;
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Line;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.junit.Test;
+
+public class RTreeTests {
+
+	private static final long SEED = 123;
+
+	private static void assertSameElements(List<? extends IGeometry> expected,
+			List<? extends IGeometry> actual) {
+		assertEquals(expected.size(), actual.size());
+		Map<IGeometry, Boolean> set = new IdentityHashMap<>();
+		for (IGeometry g : expected) {
+			set.put(g, true);
+		}
+		for (IGeometry g : actual) {
+			assertTrue(set.containsKey(g));
+		}
+	}
+
+	// checks all queries of the given tree against a linear scan of the
+	// given geometries
+	private static void checkQueries(RTree<Rectangle> tree,
+			List<Rectangle> geometries, Random random) {
+		assertEquals(geometries.size(), tree.size());
+		for (int i = 0; i < 50; i++) {
+			Rectangle query = new Rectangle(random.nextInt(1000),
+					random.nextInt(1000), random.nextInt(200),
+					random.nextInt(200));
+			List<Rectangle> expected = new ArrayList<>();
+			for (Rectangle r : geometries) {
+				if (r.getX() <= query.getX() + query.getWidth()
+						&& query.getX() <= r.getX() + r.getWidth()
+						&& r.getY() <= query.getY() + query.getHeight()
+						&& query.getY() <= r.getY() + r.getHeight()) {
+					expected.add(r);
+				}
+			}
+			assertSameElements(expected, tree.getIntersecting(query));
+
+			final Point p = query.getLocation();
+			expected.clear();
+			for (Rectangle r : geometries) {
+				if (r.getX() <= p.x && p.x <= r.getX() + r.getWidth()
+						&& r.getY() <= p.y && p.y <= r.getY() + r.getHeight()) {
+					expected.add(r);
+				}
+			}
+			assertSameElements(expected, tree.getContaining(p));
+
+			List<Rectangle> nearest = tree.getNearest(p, 5);
+			assertEquals(Math.min(5, geometries.size()), nearest.size());
+			List<Double> distances = new ArrayList<>();
+			for (Rectangle r : geometries) {
+				distances.add(getDistance(r, p));
+			}
+			Collections.sort(distances);
+			for (int j = 0; j < nearest.size(); j++) {
+				assertEquals(distances.get(j), getDistance(nearest.get(j), p),
+						0);
+			}
+		}
+	}
+
+	private static List<Rectangle> createRectangles(Random random, int n) {
+		List<Rectangle> rectangles = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			rectangles.add(new Rectangle(random.nextInt(1000),
+					random.nextInt(1000), random.nextInt(50),
+					random.nextInt(50)));
+		}
+		return rectangles;
+	}
+
+	private static double getDistance(Rectangle r, Point p) {
+		double dx = Math.max(0,
+				Math.max(r.getX() - p.x, p.x - r.getX() - r.getWidth()));
+		double dy = Math.max(0,
+				Math.max(r.getY() - p.y, p.y - r.getY() - r.getHeight()));
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	@Test
+	public void test_add_remove() {
+		Random random = new Random(SEED);
+		List<Rectangle> rectangles = createRectangles(random, 1000);
+		RTree<Rectangle> tree = new RTree<>(4);
+		for (Rectangle r : rectangles) {
+			assertTrue(tree.add(r));
+		}
+		assertFalse(tree.add(rectangles.get(0)));
+		checkQueries(tree, rectangles, random);
+
+		// remove every other rectangle
+		List<Rectangle> remaining = new ArrayList<>();
+		for (int i = 0; i < rectangles.size(); i++) {
+			if (i % 2 == 0) {
+				assertTrue(tree.remove(rectangles.get(i)));
+			} else {
+				remaining.add(rectangles.get(i));
+			}
+		}
+		assertFalse(tree.remove(rectangles.get(0)));
+		assertFalse(tree.contains(rectangles.get(0)));
+		assertTrue(tree.contains(rectangles.get(1)));
+		checkQueries(tree, remaining, random);
+
+		for (Rectangle r : remaining) {
+			assertTrue(tree.remove(r));
+		}
+		assertTrue(tree.isEmpty());
+		assertNull(tree.getBounds());
+		assertTrue(tree.getIntersecting(new Rectangle(0, 0, 1000, 1000))
+				.isEmpty());
+		assertTrue(tree.getNearest(new Point(), 1).isEmpty());
+	}
+
+	@Test
+	public void test_addAll() {
+		Random random = new Random(SEED);
+		List<Rectangle> rectangles = createRectangles(random, 2000);
+		RTree<Rectangle> tree = new RTree<>();
+		assertTrue(tree.addAll(rectangles));
+		assertFalse(tree.addAll(rectangles.subList(0, 10)));
+		checkQueries(tree, rectangles, random);
+
+		// the bounds enclose all rectangles
+		Rectangle bounds = rectangles.get(0).getCopy();
+		for (Rectangle r : rectangles) {
+			bounds.union(r);
+		}
+		assertEquals(bounds, tree.getBounds());
+
+		// insertion into a bulk loaded tree
+		List<Rectangle> more = createRectangles(random, 500);
+		tree.addAll(more);
+		rectangles.addAll(more);
+		checkQueries(tree, rectangles, random);
+	}
+
+	@Test
+	public void test_addAll_null() {
+		Rectangle r1 = new Rectangle(0, 0, 10, 10);
+		Rectangle r2 = new Rectangle(20, 20, 10, 10);
+		RTree<Rectangle> tree = new RTree<>();
+		try {
+			tree.addAll(Arrays.asList(r1, null, r2));
+			fail("IllegalArgumentException expected.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		// the tree is left unchanged
+		assertTrue(tree.isEmpty());
+		assertFalse(tree.contains(r1));
+		assertFalse(tree.remove(r1));
+
+		tree.add(r1);
+		try {
+			tree.addAll(Arrays.asList(r2, null));
+			fail("IllegalArgumentException expected.");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(1, tree.size());
+		assertFalse(tree.contains(r2));
+		assertSameElements(Collections.singletonList(r1),
+				tree.getIntersecting(new Rectangle(0, 0, 100, 100)));
+		assertTrue(tree.remove(r1));
+		assertTrue(tree.isEmpty());
+	}
+
+	@Test
+	public void test_concurrentAccess() throws InterruptedException {
+		final ConcurrentRTree<Rectangle> tree = new ConcurrentRTree<>();
+		final List<Rectangle> rectangles = createRectangles(new Random(SEED),
+				1000);
+		tree.addAll(rectangles.subList(0, 500));
+		final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+		Thread writer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 500; i < 1000; i++) {
+						tree.add(rectangles.get(i));
+						tree.remove(rectangles.get(i - 500));
+					}
+				} catch (Throwable t) {
+					failure.set(t);
+				}
+			}
+		});
+		Thread reader = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					// the writer adds a rectangle before removing one, so that
+					// each query observes either 500 or 501 rectangles
+					Rectangle all = new Rectangle(0, 0, 2000, 2000);
+					for (int i = 0; i < 500; i++) {
+						int size = tree.getIntersecting(all).size();
+						assertTrue(size == 500 || size == 501);
+					}
+				} catch (Throwable t) {
+					failure.set(t);
+				}
+			}
+		});
+		writer.start();
+		reader.start();
+		writer.join();
+		reader.join();
+		assertNull(failure.get());
+		assertEquals(500, tree.size());
+		checkQueries(tree, rectangles.subList(500, 1000), new Random(SEED));
+	}
+
+	@Test
+	public void test_geometries() {
+		RTree<IGeometry> tree = new RTree<>();
+		Line line = new Line(0, 0, 100, 100);
+		Ellipse ellipse = new Ellipse(200, 0, 50, 50);
+		Rectangle rectangle = new Rectangle(0, 200, 50, 50);
+		tree.add(line);
+		tree.add(ellipse);
+		tree.add(rectangle);
+
+		assertSameElements(Collections.singletonList(line),
+				tree.getContaining(new Point(90, 10)));
+		assertSameElements(Collections.singletonList(ellipse),
+				tree.getNearest(new Point(300, 25), 1));
+		assertEquals(3, tree.getNearest(new Point(300, 25), 5).size());
+
+		// equal geometries are distinguished by identity
+		assertTrue(tree.add(line.getCopy()));
+		assertEquals(4, tree.size());
+		assertEquals(2, tree.getContaining(new Point(90, 10)).size());
+
+		tree.clear();
+		assertTrue(tree.isEmpty());
+		assertTrue(tree.getContaining(new Point(90, 10)).isEmpty());
+	}
+
+	@Test
+	public void test_update() {
+		Random random = new Random(SEED);
+		List<Rectangle> rectangles = createRectangles(random, 1000);
+		RTree<Rectangle> tree = new RTree<>(8);
+		tree.addAll(rectangles);
+		for (int i = 0; i < rectangles.size(); i += 3) {
+			Rectangle r = rectangles.get(i);
+			if (i % 2 == 0) {
+				// move far away
+				r.translate(random.nextInt(200) - 100,
+						random.nextInt(200) - 100);
+			} else {
+				// shrink in place
+				r.shrink(1, 1, 1, 1);
+			}
+			assertTrue(tree.update(r));
+		}
+		assertFalse(tree.update(new Rectangle()));
+		checkQueries(tree, rectangles, random);
+	}
+
+}
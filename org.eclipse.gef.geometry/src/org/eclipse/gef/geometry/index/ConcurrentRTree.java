@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.index;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+/**
+ * A thread-safe {@link RTree}, which is optimized for read-mostly access:
+ * queries are guarded by a shared read lock, so that they can be performed
+ * concurrently, while modifications are guarded by an exclusive write lock.
+ *
+ * @param <T>
+ *            The type of the indexed {@link IGeometry}s.
+ */
+public class ConcurrentRTree<T extends IGeometry> extends RTree<T> {
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Constructs a new, empty {@link ConcurrentRTree} with the
+	 * {@link #DEFAULT_MAX_CHILDREN default maximum number of children} per
+	 * node.
+	 */
+	public ConcurrentRTree() {
+		super();
+	}
+
+	/**
+	 * Constructs a new, empty {@link ConcurrentRTree} with the given maximum
+	 * number of children per node.
+	 *
+	 * @param maxChildren
+	 *            The maximum number of children per node, which has to be at
+	 *            least 4.
+	 * @see RTree#RTree(int)
+	 */
+	public ConcurrentRTree(int maxChildren) {
+		super(maxChildren);
+	}
+
+	@Override
+	public boolean add(T geometry) {
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			return super.add(geometry);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean addAll(Collection<? extends T> geometries) {
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			return super.addAll(geometries);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public void clear() {
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			super.clear();
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean contains(T geometry) {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return super.contains(geometry);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public List<T> getAll() {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return super.getAll();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public Rectangle getBounds() {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return super.getBounds();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public List<T> getContaining(Point p) {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return super.getContaining(p);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public List<T> getIntersecting(Rectangle bounds) {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return super.getIntersecting(bounds);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public List<T> getNearest(Point p, int k) {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return super.getNearest(p, k);
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean isEmpty() {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return super.isEmpty();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean remove(T geometry) {
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			return super.remove(geometry);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+	@Override
+	public int size() {
+		Lock readLock = lock.readLock();
+		readLock.lock();
+		try {
+			return super.size();
+		} finally {
+			readLock.unlock();
+		}
+	}
+
+	@Override
+	public boolean update(T geometry) {
+		Lock writeLock = lock.writeLock();
+		writeLock.lock();
+		try {
+			return super.update(geometry);
+		} finally {
+			writeLock.unlock();
+		}
+	}
+
+}
@@ -0,0 +1,761 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import org.eclipse.gef.geometry.planar.IGeometry;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
+/**
+ * An {@link RTree} is a spatial index for {@link IGeometry}s, which allows to
+ * efficiently query the geometries whose bounds intersect a given
+ * {@link Rectangle}, contain a given {@link Point}, or are nearest to a given
+ * {@link Point}.
+ * <p>
+ * The geometries are indexed by their bounds ({@link IGeometry#getBounds()}),
+ * which are determined when a geometry is added. As geometries are mutable,
+ * {@link #update(IGeometry)} has to be called after a geometry is changed, so
+ * that the index reflects its new bounds. Geometries are identified by
+ * identity (and not by {@link Object#equals(Object)}), i.e. the same geometry
+ * instance can only be contained once, while different instances that are
+ * equal can be contained at the same time.
+ * <p>
+ * Geometries are inserted using the quadratic split strategy of Guttman's
+ * R-tree. When a collection of geometries is added to an empty tree, it is
+ * bulk loaded using the Sort-Tile-Recursive (STR) algorithm instead, which
+ * results in a better structure and is considerably faster than inserting the
+ * geometries one by one.
+ * <p>
+ * An {@link RTree} is not thread-safe. Use a {@link ConcurrentRTree} if it is
+ * accessed by multiple threads.
+ *
+ * @param <T>
+ *            The type of the indexed {@link IGeometry}s.
+ */
+public class RTree<T extends IGeometry> {
+
+	/**
+	 * Common super class of inner nodes and leaf entries, which stores the
+	 * bounds and the parent node.
+	 */
+	private static class Box {
+		double minX, minY, maxX, maxY;
+		Node parent;
+
+		double getArea() {
+			return (maxX - minX) * (maxY - minY);
+		}
+
+		double getCenterX() {
+			return (minX + maxX) / 2;
+		}
+
+		double getCenterY() {
+			return (minY + maxY) / 2;
+		}
+
+		// returns the squared distance of the given point to these bounds
+		double getDistanceSquared(double x, double y) {
+			double dx = x < minX ? minX - x : x > maxX ? x - maxX : 0;
+			double dy = y < minY ? minY - y : y > maxY ? y - maxY : 0;
+			return dx * dx + dy * dy;
+		}
+
+		// returns the area of these bounds enlarged to include the given box
+		double getEnlargedArea(Box b) {
+			return (Math.max(maxX, b.maxX) - Math.min(minX, b.minX))
+					* (Math.max(maxY, b.maxY) - Math.min(minY, b.minY));
+		}
+
+		boolean contains(Box b) {
+			return minX <= b.minX && b.maxX <= maxX && minY <= b.minY
+					&& b.maxY <= maxY;
+		}
+
+		boolean intersects(double minX, double minY, double maxX,
+				double maxY) {
+			return this.minX <= maxX && minX <= this.maxX && this.minY <= maxY
+					&& minY <= this.maxY;
+		}
+
+		void setBounds(Rectangle bounds) {
+			minX = bounds.getX();
+			minY = bounds.getY();
+			maxX = minX + bounds.getWidth();
+			maxY = minY + bounds.getHeight();
+		}
+
+		void union(Box b) {
+			minX = Math.min(minX, b.minX);
+			minY = Math.min(minY, b.minY);
+			maxX = Math.max(maxX, b.maxX);
+			maxY = Math.max(maxY, b.maxY);
+		}
+	}
+
+	/**
+	 * A box that is queued for the nearest neighbor search, ordered by its
+	 * (squared) distance to the reference point.
+	 */
+	private static class Candidate implements Comparable<Candidate> {
+		final Box box;
+		final double distanceSquared;
+
+		Candidate(Box box, double distanceSquared) {
+			this.box = box;
+			this.distanceSquared = distanceSquared;
+		}
+
+		@Override
+		public int compareTo(Candidate other) {
+			return Double.compare(distanceSquared, other.distanceSquared);
+		}
+	}
+
+	/**
+	 * A leaf entry, which stores an indexed geometry.
+	 */
+	private static class Entry<T> extends Box {
+		final T geometry;
+
+		Entry(T geometry) {
+			this.geometry = geometry;
+		}
+	}
+
+	/**
+	 * An inner node, whose children are either all {@link Entry}s (leaf node)
+	 * or all {@link Node}s.
+	 */
+	private static class Node extends Box {
+		final boolean leaf;
+		Box[] children;
+		int size;
+
+		Node(boolean leaf, int capacity) {
+			this.leaf = leaf;
+			children = new Box[capacity];
+		}
+
+		void add(Box child) {
+			children[size++] = child;
+			child.parent = this;
+		}
+
+		void remove(Box child) {
+			for (int i = 0; i < size; i++) {
+				if (children[i] == child) {
+					children[i] = children[--size];
+					children[size] = null;
+					child.parent = null;
+					return;
+				}
+			}
+		}
+
+		// recomputes the bounds from the children
+		void updateBounds() {
+			minX = minY = Double.POSITIVE_INFINITY;
+			maxX = maxY = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < size; i++) {
+				union(children[i]);
+			}
+		}
+	}
+
+	private static final Comparator<Box> CENTER_X_COMPARATOR = new Comparator<Box>() {
+		@Override
+		public int compare(Box b1, Box b2) {
+			return Double.compare(b1.getCenterX(), b2.getCenterX());
+		}
+	};
+
+	private static final Comparator<Box> CENTER_Y_COMPARATOR = new Comparator<Box>() {
+		@Override
+		public int compare(Box b1, Box b2) {
+			return Double.compare(b1.getCenterY(), b2.getCenterY());
+		}
+	};
+
+	/**
+	 * The default maximum number of children per node.
+	 */
+	public static final int DEFAULT_MAX_CHILDREN = 16;
+
+	private final int maxChildren;
+	private final int minChildren;
+	private final Map<T, Entry<T>> entries = new IdentityHashMap<>();
+	private Node root;
+
+	/**
+	 * Constructs a new, empty {@link RTree} with the
+	 * {@link #DEFAULT_MAX_CHILDREN default maximum number of children} per
+	 * node.
+	 */
+	public RTree() {
+		this(DEFAULT_MAX_CHILDREN);
+	}
+
+	/**
+	 * Constructs a new, empty {@link RTree} with the given maximum number of
+	 * children per node. The minimum number of children per node (apart from
+	 * the root) is 40% of the maximum.
+	 *
+	 * @param maxChildren
+	 *            The maximum number of children per node, which has to be at
+	 *            least 4.
+	 */
+	public RTree(int maxChildren) {
+		if (maxChildren < 4) {
+			throw new IllegalArgumentException(
+					"The maximum number of children has to be at least 4, "
+							+ "but is " + maxChildren + ".");
+		}
+		this.maxChildren = maxChildren;
+		this.minChildren = Math.max(2, (int) (maxChildren * 0.4));
+		root = new Node(true, maxChildren + 1);
+	}
+
+	/**
+	 * Adds the given {@link IGeometry} to this {@link RTree}. The
+	 * {@link IGeometry} is indexed by its current bounds.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} to add.
+	 * @return <code>true</code> if the {@link IGeometry} was added,
+	 *         <code>false</code> if it is already contained.
+	 */
+	public boolean add(T geometry) {
+		if (geometry == null) {
+			throw new IllegalArgumentException(
+					"The given geometry may not be null.");
+		}
+		if (entries.containsKey(geometry)) {
+			return false;
+		}
+		Entry<T> entry = new Entry<>(geometry);
+		entry.setBounds(geometry.getBounds());
+		entries.put(geometry, entry);
+		insert(entry, 0);
+		return true;
+	}
+
+	/**
+	 * Adds all given {@link IGeometry}s to this {@link RTree}. If this
+	 * {@link RTree} is empty, it is bulk loaded (using the Sort-Tile-Recursive
+	 * algorithm), otherwise the {@link IGeometry}s are inserted one by one.
+	 * {@link IGeometry}s that are already contained are ignored.
+	 *
+	 * @param geometries
+	 *            The {@link IGeometry}s to add.
+	 * @return <code>true</code> if this {@link RTree} changed,
+	 *         <code>false</code> otherwise.
+	 * @throws IllegalArgumentException
+	 *             if the given collection contains <code>null</code>, in
+	 *             which case this {@link RTree} is not changed.
+	 */
+	public boolean addAll(Collection<? extends T> geometries) {
+		// validate before any state is changed, so that the tree stays
+		// consistent if an exception is thrown
+		for (T geometry : geometries) {
+			if (geometry == null) {
+				throw new IllegalArgumentException(
+						"The given geometries may not contain null.");
+			}
+		}
+		if (!entries.isEmpty()) {
+			boolean changed = false;
+			for (T geometry : geometries) {
+				changed |= add(geometry);
+			}
+			return changed;
+		}
+
+		List<Box> level = new ArrayList<>(geometries.size());
+		for (T geometry : geometries) {
+			if (!entries.containsKey(geometry)) {
+				Entry<T> entry = new Entry<>(geometry);
+				entry.setBounds(geometry.getBounds());
+				entries.put(geometry, entry);
+				level.add(entry);
+			}
+		}
+		if (level.isEmpty()) {
+			return false;
+		}
+		boolean leaf = true;
+		while (level.size() > maxChildren || leaf) {
+			level = pack(level, leaf);
+			leaf = false;
+		}
+		if (level.size() == 1) {
+			root = (Node) level.get(0);
+			root.parent = null;
+		} else {
+			root = new Node(false, maxChildren + 1);
+			for (Box node : level) {
+				root.add(node);
+			}
+			root.updateBounds();
+		}
+		return true;
+	}
+
+	// adds the geometries below the given node whose bounds intersect the
+	// given bounds to the given list
+	private void addIntersecting(Node node, double minX, double minY,
+			double maxX, double maxY, List<T> result) {
+		for (int i = 0; i < node.size; i++) {
+			Box child = node.children[i];
+			if (child.intersects(minX, minY, maxX, maxY)) {
+				if (node.leaf) {
+					result.add(getGeometry(child));
+				} else {
+					addIntersecting((Node) child, minX, minY, maxX, maxY,
+							result);
+				}
+			}
+		}
+	}
+
+	// chooses the child of the given node into which the given box is
+	// inserted, i.e. the one that needs the least enlargement
+	private Node chooseSubtree(Node node, Box box) {
+		Node best = null;
+		double bestEnlargement = Double.POSITIVE_INFINITY;
+		double bestArea = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < node.size; i++) {
+			Node child = (Node) node.children[i];
+			double area = child.getArea();
+			double enlargement = child.getEnlargedArea(box) - area;
+			if (enlargement < bestEnlargement
+					|| enlargement == bestEnlargement && area < bestArea) {
+				best = child;
+				bestEnlargement = enlargement;
+				bestArea = area;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Removes all {@link IGeometry}s from this {@link RTree}.
+	 */
+	public void clear() {
+		entries.clear();
+		root = new Node(true, maxChildren + 1);
+	}
+
+	// collects all leaf entries below the given node
+	private void collectEntries(Node node, List<Box> result) {
+		for (int i = 0; i < node.size; i++) {
+			if (node.leaf) {
+				result.add(node.children[i]);
+			} else {
+				collectEntries((Node) node.children[i], result);
+			}
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if the given {@link IGeometry} is contained in
+	 * this {@link RTree}, otherwise <code>false</code>.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} to test.
+	 * @return <code>true</code> if the given {@link IGeometry} is contained,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean contains(T geometry) {
+		return entries.containsKey(geometry);
+	}
+
+	/**
+	 * Returns a list of all {@link IGeometry}s contained in this
+	 * {@link RTree}.
+	 *
+	 * @return A new list containing all {@link IGeometry}s.
+	 */
+	public List<T> getAll() {
+		return new ArrayList<>(entries.keySet());
+	}
+
+	/**
+	 * Returns the smallest {@link Rectangle} that contains the bounds of all
+	 * {@link IGeometry}s of this {@link RTree}, or <code>null</code> if this
+	 * {@link RTree} is empty.
+	 *
+	 * @return The bounds of this {@link RTree}.
+	 */
+	public Rectangle getBounds() {
+		if (root.size == 0) {
+			return null;
+		}
+		return new Rectangle(root.minX, root.minY, root.maxX - root.minX,
+				root.maxY - root.minY);
+	}
+
+	/**
+	 * Returns all {@link IGeometry}s whose bounds contain the given
+	 * {@link Point} (including the border of the bounds).
+	 *
+	 * @param p
+	 *            The {@link Point} to test.
+	 * @return A new list containing the {@link IGeometry}s whose bounds
+	 *         contain the given {@link Point}.
+	 */
+	public List<T> getContaining(Point p) {
+		List<T> result = new ArrayList<>();
+		addIntersecting(root, p.x, p.y, p.x, p.y, result);
+		return result;
+	}
+
+	@SuppressWarnings("unchecked")
+	private T getGeometry(Box entry) {
+		return ((Entry<T>) entry).geometry;
+	}
+
+	private int getHeight() {
+		int height = 0;
+		for (Node node = root; !node.leaf; node = (Node) node.children[0]) {
+			height++;
+		}
+		return height;
+	}
+
+	/**
+	 * Returns all {@link IGeometry}s whose bounds intersect (or touch) the
+	 * given {@link Rectangle}.
+	 *
+	 * @param bounds
+	 *            The {@link Rectangle} to test.
+	 * @return A new list containing the {@link IGeometry}s whose bounds
+	 *         intersect the given {@link Rectangle}.
+	 */
+	public List<T> getIntersecting(Rectangle bounds) {
+		List<T> result = new ArrayList<>();
+		addIntersecting(root, bounds.getX(), bounds.getY(),
+				bounds.getX() + bounds.getWidth(),
+				bounds.getY() + bounds.getHeight(), result);
+		return result;
+	}
+
+	/**
+	 * Returns the (at most) <i>k</i> {@link IGeometry}s whose bounds are
+	 * nearest to the given {@link Point}, ordered by increasing distance. The
+	 * distance of a {@link Point} that is contained in the bounds of an
+	 * {@link IGeometry} is 0.
+	 *
+	 * @param p
+	 *            The reference {@link Point}.
+	 * @param k
+	 *            The maximum number of {@link IGeometry}s to return.
+	 * @return A new list containing the nearest {@link IGeometry}s.
+	 */
+	public List<T> getNearest(Point p, int k) {
+		List<T> result = new ArrayList<>(Math.min(k, entries.size()));
+		if (k <= 0 || root.size == 0) {
+			return result;
+		}
+
+		// best-first search: boxes are expanded (nodes) or reported (entries)
+		// in the order of their distance to the point, so that the first k
+		// reported entries are the nearest ones
+		PriorityQueue<Candidate> queue = new PriorityQueue<>();
+		queue.add(new Candidate(root, 0));
+		while (!queue.isEmpty() && result.size() < k) {
+			Box box = queue.poll().box;
+			if (box instanceof Node) {
+				Node node = (Node) box;
+				for (int i = 0; i < node.size; i++) {
+					Box child = node.children[i];
+					queue.add(new Candidate(child,
+							child.getDistanceSquared(p.x, p.y)));
+				}
+			} else {
+				result.add(getGeometry(box));
+			}
+		}
+		return result;
+	}
+
+	// inserts the given box into a node at the given level (0 refers to the
+	// leaf nodes), i.e. the box is either an entry or a node whose height
+	// equals the level
+	private void insert(Box box, int level) {
+		Node node = root;
+		for (int height = getHeight(); height > level; height--) {
+			node = chooseSubtree(node, box);
+		}
+		node.add(box);
+		if (node.size == 1) {
+			// the node was empty before
+			node.minX = box.minX;
+			node.minY = box.minY;
+			node.maxX = box.maxX;
+			node.maxY = box.maxY;
+		}
+
+		// enlarge the ancestors and split overflowing nodes (a split does not
+		// change the union of the bounds of the node and its new sibling)
+		for (; node != null; node = node.parent) {
+			node.union(box);
+			if (node.size > maxChildren) {
+				Node sibling = split(node);
+				if (node == root) {
+					root = new Node(false, maxChildren + 1);
+					root.add(node);
+					root.add(sibling);
+					root.updateBounds();
+					return;
+				}
+				node.parent.add(sibling);
+			}
+		}
+	}
+
+	/**
+	 * Returns <code>true</code> if this {@link RTree} does not contain any
+	 * {@link IGeometry}s, otherwise <code>false</code>.
+	 *
+	 * @return <code>true</code> if this {@link RTree} is empty, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isEmpty() {
+		return entries.isEmpty();
+	}
+
+	// packs the given boxes into nodes using the Sort-Tile-Recursive
+	// algorithm
+	private List<Box> pack(List<Box> boxes, boolean leaf) {
+		Box[] sorted = boxes.toArray(new Box[boxes.size()]);
+		int numNodes = (sorted.length + maxChildren - 1) / maxChildren;
+		int numSlices = (int) Math.ceil(Math.sqrt(numNodes));
+		int sliceSize = numSlices * maxChildren;
+
+		// sort into vertical slices by x, and each slice by y
+		Arrays.sort(sorted, CENTER_X_COMPARATOR);
+		List<Box> nodes = new ArrayList<>(numNodes);
+		for (int s = 0; s < sorted.length; s += sliceSize) {
+			int sliceEnd = Math.min(s + sliceSize, sorted.length);
+			Arrays.sort(sorted, s, sliceEnd, CENTER_Y_COMPARATOR);
+			for (int i = s; i < sliceEnd; i += maxChildren) {
+				Node node = new Node(leaf, maxChildren + 1);
+				for (int j = i; j < Math.min(i + maxChildren, sliceEnd); j++) {
+					node.add(sorted[j]);
+				}
+				node.updateBounds();
+				nodes.add(node);
+			}
+		}
+		return nodes;
+	}
+
+	/**
+	 * Removes the given {@link IGeometry} from this {@link RTree}.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} to remove.
+	 * @return <code>true</code> if the {@link IGeometry} was removed,
+	 *         <code>false</code> if it is not contained.
+	 */
+	public boolean remove(T geometry) {
+		Entry<T> entry = entries.remove(geometry);
+		if (entry == null) {
+			return false;
+		}
+		removeEntry(entry);
+		return true;
+	}
+
+	private void removeEntry(Entry<T> entry) {
+		Node node = entry.parent;
+		node.remove(entry);
+
+		// condense the tree: underflowing nodes are removed and their
+		// entries are reinserted later on
+		List<Node> removed = new ArrayList<>();
+		while (node != root) {
+			Node parent = node.parent;
+			if (node.size < minChildren) {
+				parent.remove(node);
+				removed.add(node);
+			} else {
+				node.updateBounds();
+			}
+			node = parent;
+		}
+		root.updateBounds();
+
+		// shorten the tree if the root has only a single child
+		while (!root.leaf && root.size == 1) {
+			root = (Node) root.children[0];
+			root.parent = null;
+		}
+		if (root.size == 0 && !root.leaf) {
+			root = new Node(true, maxChildren + 1);
+		}
+
+		List<Box> orphans = new ArrayList<>();
+		for (Node n : removed) {
+			collectEntries(n, orphans);
+		}
+		for (Box orphan : orphans) {
+			insert(orphan, 0);
+		}
+	}
+
+	/**
+	 * Returns the number of {@link IGeometry}s contained in this
+	 * {@link RTree}.
+	 *
+	 * @return The number of {@link IGeometry}s.
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	// splits the given overflowing node using Guttman's quadratic split and
+	// returns the new sibling node
+	private Node split(Node node) {
+		Box[] children = Arrays.copyOf(node.children, node.size);
+		int n = children.length;
+
+		// pick the two seeds that would waste the most area
+		int seed1 = 0, seed2 = 1;
+		double maxWaste = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			for (int j = i + 1; j < n; j++) {
+				double waste = children[i].getEnlargedArea(children[j])
+						- children[i].getArea() - children[j].getArea();
+				if (waste > maxWaste) {
+					maxWaste = waste;
+					seed1 = i;
+					seed2 = j;
+				}
+			}
+		}
+
+		Node sibling = new Node(node.leaf, maxChildren + 1);
+		Arrays.fill(node.children, null);
+		node.size = 0;
+		node.add(children[seed1]);
+		node.updateBounds();
+		sibling.add(children[seed2]);
+		sibling.updateBounds();
+		children[seed1] = null;
+		children[seed2] = null;
+
+		// distribute the remaining children
+		int remaining = n - 2;
+		while (remaining > 0) {
+			if (node.size + remaining == minChildren) {
+				for (Box child : children) {
+					if (child != null) {
+						node.add(child);
+						node.union(child);
+					}
+				}
+				break;
+			}
+			if (sibling.size + remaining == minChildren) {
+				for (Box child : children) {
+					if (child != null) {
+						sibling.add(child);
+						sibling.union(child);
+					}
+				}
+				break;
+			}
+
+			// pick the child with the greatest preference for one node
+			int next = -1;
+			double maxDifference = Double.NEGATIVE_INFINITY;
+			double d1 = 0, d2 = 0;
+			for (int i = 0; i < n; i++) {
+				if (children[i] == null) {
+					continue;
+				}
+				double e1 = node.getEnlargedArea(children[i]) - node.getArea();
+				double e2 = sibling.getEnlargedArea(children[i])
+						- sibling.getArea();
+				double difference = Math.abs(e1 - e2);
+				if (difference > maxDifference) {
+					maxDifference = difference;
+					next = i;
+					d1 = e1;
+					d2 = e2;
+				}
+			}
+			Box child = children[next];
+			children[next] = null;
+			remaining--;
+			Node target;
+			if (d1 < d2) {
+				target = node;
+			} else if (d2 < d1) {
+				target = sibling;
+			} else if (node.getArea() != sibling.getArea()) {
+				target = node.getArea() < sibling.getArea() ? node : sibling;
+			} else {
+				target = node.size <= sibling.size ? node : sibling;
+			}
+			target.add(child);
+			target.union(child);
+		}
+		return sibling;
+	}
+
+	/**
+	 * Updates the index for the given {@link IGeometry}, which has to be
+	 * called after the {@link IGeometry} was changed, so that its new bounds
+	 * are taken into account.
+	 *
+	 * @param geometry
+	 *            The {@link IGeometry} that changed.
+	 * @return <code>true</code> if the {@link IGeometry} is contained in this
+	 *         {@link RTree} (and was updated), otherwise <code>false</code>.
+	 */
+	public boolean update(T geometry) {
+		Entry<T> entry = entries.get(geometry);
+		if (entry == null) {
+			return false;
+		}
+		Rectangle bounds = geometry.getBounds();
+		Entry<T> updated = new Entry<>(geometry);
+		updated.setBounds(bounds);
+		if (entry.parent.contains(updated)) {
+			// the entry stays within its leaf, so that only the bounds of
+			// the ancestors need to be adjusted (which can only shrink)
+			entry.setBounds(bounds);
+			for (Node node = entry.parent; node != null; node = node.parent) {
+				node.updateBounds();
+			}
+		} else {
+			removeEntry(entry);
+			entries.put(geometry, updated);
+			insert(updated, 0);
+		}
+		return true;
+	}
+
+}
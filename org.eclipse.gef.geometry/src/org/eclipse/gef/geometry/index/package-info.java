@@ -0,0 +1,16 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials are made
+ * available under the terms of the Eclipse Public License v1.0 which
+ * accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors: itemis AG - initial text
+ *
+ *******************************************************************************/
+/**
+ * This package provides spatial indices, which support efficient queries for
+ * geometries based on their bounds.
+ */
+package org.eclipse.gef.geometry.index;
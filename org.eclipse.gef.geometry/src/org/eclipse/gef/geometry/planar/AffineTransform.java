@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 itemis AG and others.
+ * Copyright (c) 2011, 2017 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -19,6 +19,7 @@ import org.eclipse.gef.geometry.convert.awt.AWT2Geometry;
 import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
 import org.eclipse.gef.geometry.euclidean.Angle;
 import org.eclipse.gef.geometry.euclidean.Vector;
+import org.eclipse.gef.geometry.internal.utils.PointListUtils;
 
 /**
  * <p>
@@ -306,13 +307,11 @@ public class AffineTransform implements Cloneable {
 	 * @return an array of new, transformed {@link Point}s
 	 */
 	public Point[] getTransformed(Point[] points) {
-		Point[] result = new Point[points.length];
-
-		for (int i = 0; i < points.length; i++) {
-			result[i] = getTransformed(points[i]);
-		}
-
-		return result;
+		// transform all coordinates at once instead of converting each point
+		// to and from AWT
+		double[] coordinates = PointListUtils.toCoordinatesArray(points);
+		delegate.transform(coordinates, 0, coordinates, 0, points.length);
+		return PointListUtils.toPointsArray(coordinates);
 	}
 
 	/**
@@ -797,6 +796,32 @@ public class AffineTransform implements Cloneable {
 		return delegate.toString();
 	}
 
+	/**
+	 * Transforms an array of {@link Point}s specified by their coordinate
+	 * values with this {@link AffineTransform}. The source and destination
+	 * arrays may be the same array, so that the {@link Point}s are transformed
+	 * in-place.
+	 *
+	 * @param srcPts
+	 *            the array of x and y coordinates specifying the {@link Point}s
+	 *            that are transformed
+	 * @param srcOff
+	 *            the index of the <i>srcPts</i> array where the x coordinate of
+	 *            the first {@link Point} to transform is found
+	 * @param dstPts
+	 *            the destination array of x and y coordinates for the result of
+	 *            the transformation
+	 * @param dstOff
+	 *            the index of the <i>dstPts</i> array where the x coordinate of
+	 *            the first transformed {@link Point} is stored
+	 * @param numPts
+	 *            the number of {@link Point}s to transform
+	 */
+	public void transform(double[] srcPts, int srcOff, double[] dstPts,
+			int dstOff, int numPts) {
+		delegate.transform(srcPts, srcOff, dstPts, dstOff, numPts);
+	}
+
 	/**
 	 * Sets the translation values of the x and y coordinates of the
 	 * transformation matrix of this {@link AffineTransform}.
@@ -3296,11 +3296,70 @@ public class BezierCurve extends AbstractGeometry
 		return getCopy().translate(d.x, d.y);
 	}
 
+	/**
+	 * Computes the contribution of this {@link BezierCurve} to the winding
+	 * number of the given point (see {@link WindingNumbers}). No objects are
+	 * allocated for curves up to degree 3.
+	 *
+	 * @param x
+	 *            The x-coordinate of the point.
+	 * @param y
+	 *            The y-coordinate of the point.
+	 * @return The winding number contribution.
+	 */
+	int getWindingNumber(double x, double y) {
+		return getWindingNumber(x, y, 0);
+	}
+
+	private int getWindingNumber(double x, double y, int depth) {
+		int n = points.length - 1;
+		switch (n) {
+		case 1:
+			return WindingNumbers.line(getX(0), getY(0), getX(1), getY(1), x,
+					y);
+		case 2:
+			return WindingNumbers.quadratic(getX(0), getY(0), getX(1),
+					getY(1), getX(2), getY(2), x, y);
+		case 3:
+			return WindingNumbers.cubic(getX(0), getY(0), getX(1), getY(1),
+					getX(2), getY(2), getX(3), getY(3), x, y);
+		default:
+			if (n < 1) {
+				return 0;
+			}
+		}
+
+		// higher degrees: subdivide until all crossings are located to the
+		// right of the point (the curve is contained in its control bounds)
+		double minX = getX(0), maxX = minX, minY = getY(0), maxY = minY;
+		for (int i = 1; i <= n; i++) {
+			minX = Math.min(minX, getX(i));
+			maxX = Math.max(maxX, getX(i));
+			minY = Math.min(minY, getY(i));
+			maxY = Math.max(maxY, getY(i));
+		}
+		if (y < minY || y >= maxY || x >= maxX) {
+			return 0;
+		}
+		if (x < minX || depth > 32) {
+			return WindingNumbers.line(getX(0), getY(0), getX(n), getY(n), x,
+					y);
+		}
+		BezierCurve[] parts = split(0.5);
+		return parts[0].getWindingNumber(x, y, depth + 1)
+				+ parts[1].getWindingNumber(x, y, depth + 1);
+	}
+
+	private double getX(int i) {
+		return points[i].x / points[i].z;
+	}
+
 	@Override
 	public double getX1() {
 		return getP1().x;
 	}
 
+
 	@Override
 	public double getX2() {
 		return getP2().x;
@@ -3311,6 +3370,10 @@ public class BezierCurve extends AbstractGeometry
 		return getP1().y;
 	}
 
+	private double getY(int i) {
+		return points[i].y / points[i].z;
+	}
+
 	@Override
 	public double getY2() {
 		return getP2().y;
@@ -3321,6 +3384,29 @@ public class BezierCurve extends AbstractGeometry
 		return getIntersections(c).length > 0;
 	}
 
+	/**
+	 * Checks if the given point is located within the bounds of the control
+	 * points of this {@link BezierCurve} (with respect to the imprecision of
+	 * {@link PrecisionUtils}), without allocating any objects.
+	 *
+	 * @param x
+	 *            The x-coordinate of the point.
+	 * @param y
+	 *            The y-coordinate of the point.
+	 * @return <code>true</code> if the point is located within the control
+	 *         bounds, otherwise <code>false</code>.
+	 */
+	boolean isInControlBounds(double x, double y) {
+		boolean left = false, right = false, above = false, below = false;
+		for (int i = 0; i < points.length; i++) {
+			left |= PrecisionUtils.smallerEqual(getX(i), x);
+			right |= PrecisionUtils.greaterEqual(getX(i), x);
+			above |= PrecisionUtils.smallerEqual(getY(i), y);
+			below |= PrecisionUtils.greaterEqual(getY(i), y);
+		}
+		return left && right && above && below;
+	}
+
 	/**
 	 * Checks if this {@link BezierCurve} and the given other
 	 * {@link BezierCurve} overlap, i.e. an infinite set of intersection
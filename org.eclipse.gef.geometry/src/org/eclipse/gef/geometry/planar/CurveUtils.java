@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 itemis AG and others.
+ * Copyright (c) 2011, 2017 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -12,10 +12,15 @@
  *******************************************************************************/
 package org.eclipse.gef.geometry.planar;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+
 /**
  * The {@link CurveUtils} class provides functionality that can be used for all
  * {@link ICurve}s, independent on their construction kind.
@@ -25,6 +30,12 @@ import java.util.Set;
  */
 class CurveUtils {
 
+	// the slack that is added to the control bounds of the segments, so that
+	// the bounds of segments that intersect within the imprecision of
+	// BezierCurve#getIntersections(BezierCurve) are regarded to overlap
+	private static final double BOUNDS_TOLERANCE = PrecisionUtils
+			.calculateFraction(-1);
+
 	/**
 	 * Creates copies of the given {@link BezierCurve}s.
 	 *
@@ -41,7 +52,122 @@ class CurveUtils {
 	}
 
 	/**
-	 * Delegates to the {@link BezierCurve#getIntersections(ICurve)} method.
+	 * Computes all pairs of the given {@link BezierCurve}s, one out of each
+	 * array, whose control bounds overlap. Only these pairs can intersect or
+	 * overlap.
+	 * <p>
+	 * The pairs are determined by sweeping over the segments in x-direction
+	 * (sorted by the left side of their control bounds), maintaining the
+	 * segments whose x-range contains the sweep position (sweep and prune).
+	 * Therefore, the effort is proportional to the number of segments (apart
+	 * from sorting) plus the number of candidate pairs, instead of the product
+	 * of the numbers of segments.
+	 *
+	 * @param curves1
+	 *            the first array of {@link BezierCurve}s
+	 * @param curves2
+	 *            the second array of {@link BezierCurve}s
+	 * @return an array that alternately contains the index into
+	 *         <i>curves1</i> and the index into <i>curves2</i> of each
+	 *         candidate pair
+	 */
+	static int[] getCandidatePairs(BezierCurve[] curves1,
+			BezierCurve[] curves2) {
+		final int n1 = curves1.length;
+		int n = n1 + curves2.length;
+		if (n1 == 0 || n == n1) {
+			return new int[0];
+		}
+
+		// control bounds (min x, min y, max x, max y) of all segments, where
+		// the segments of curves2 follow the segments of curves1
+		final double[] bounds = new double[4 * n];
+		Integer[] sorted = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			Rectangle r = (i < n1 ? curves1[i] : curves2[i - n1])
+					.getControlBounds();
+			bounds[4 * i] = r.getX() - BOUNDS_TOLERANCE;
+			bounds[4 * i + 1] = r.getY() - BOUNDS_TOLERANCE;
+			bounds[4 * i + 2] = r.getX() + r.getWidth() + BOUNDS_TOLERANCE;
+			bounds[4 * i + 3] = r.getY() + r.getHeight() + BOUNDS_TOLERANCE;
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i, Integer j) {
+				return Double.compare(bounds[4 * i], bounds[4 * j]);
+			}
+		});
+
+		// the active segments of curves1 and curves2, respectively
+		int[] active1 = new int[n1];
+		int[] active2 = new int[n - n1];
+		int numActive1 = 0, numActive2 = 0;
+		int[] pairs = new int[2 * n];
+		int numPairs = 0;
+		for (int s = 0; s < n; s++) {
+			int i = sorted[s];
+			boolean first = i < n1;
+			int[] others = first ? active2 : active1;
+			int numOthers = first ? numActive2 : numActive1;
+			int kept = 0;
+			for (int k = 0; k < numOthers; k++) {
+				int j = others[k];
+				if (bounds[4 * j + 2] < bounds[4 * i]) {
+					// the sweep position passed the segment
+					continue;
+				}
+				others[kept++] = j;
+				if (bounds[4 * j + 1] <= bounds[4 * i + 3]
+						&& bounds[4 * i + 1] <= bounds[4 * j + 3]) {
+					if (2 * numPairs + 2 > pairs.length) {
+						pairs = Arrays.copyOf(pairs, 2 * pairs.length);
+					}
+					pairs[2 * numPairs] = first ? i : j;
+					pairs[2 * numPairs + 1] = (first ? j : i) - n1;
+					numPairs++;
+				}
+			}
+			if (first) {
+				numActive2 = kept;
+				active1[numActive1++] = i;
+			} else {
+				numActive1 = kept;
+				active2[numActive2++] = i;
+			}
+		}
+		return Arrays.copyOf(pairs, 2 * numPairs);
+	}
+
+	/**
+	 * Computes the intersections of the given {@link BezierCurve}s, one out of
+	 * each array, by intersecting only those pairs whose control bounds
+	 * overlap.
+	 *
+	 * @param curves1
+	 *            the first array of {@link BezierCurve}s
+	 * @param curves2
+	 *            the second array of {@link BezierCurve}s
+	 * @return an array of intersection {@link Point}s
+	 * @see #getCandidatePairs(BezierCurve[], BezierCurve[])
+	 */
+	static Point[] getIntersections(BezierCurve[] curves1,
+			BezierCurve[] curves2) {
+		Set<Point> intersections = new HashSet<>();
+
+		int[] pairs = getCandidatePairs(curves1, curves2);
+		for (int i = 0; i < pairs.length; i += 2) {
+			intersections.addAll(Arrays.asList(curves1[pairs[i]]
+					.getIntersections(curves2[pairs[i + 1]])));
+		}
+
+		return intersections.toArray(new Point[] {});
+	}
+
+	/**
+	 * Delegates to the {@link BezierCurve#getIntersections(BezierCurve)}
+	 * method for all pairs of {@link BezierCurve}s of the given {@link ICurve}
+	 * s whose control bounds overlap.
 	 *
 	 * @param curve1
 	 *            The first {@link ICurve} to intersect
@@ -50,14 +176,7 @@ class CurveUtils {
 	 * @return An array of intersection {@link Point}s
 	 */
 	public static Point[] getIntersections(ICurve curve1, ICurve curve2) {
-		Set<Point> intersections = new HashSet<>();
-
-		for (BezierCurve bezier : curve1.toBezier()) {
-			intersections
-					.addAll(Arrays.asList(bezier.getIntersections(curve2)));
-		}
-
-		return intersections.toArray(new Point[] {});
+		return getIntersections(curve1.toBezier(), curve2.toBezier());
 	}
 
 	/**
@@ -74,19 +193,12 @@ class CurveUtils {
 	 * @see #getIntersections(ICurve, IMultiShape)
 	 */
 	public static Point[] getIntersections(ICurve curve, IGeometry geom) {
-		if (geom instanceof ICurve) {
-			return getIntersections(curve, (ICurve) geom);
-		} else if (geom instanceof IShape) {
-			return getIntersections(curve, (IShape) geom);
-		} else if (geom instanceof IMultiShape) {
-			return getIntersections(curve, (IMultiShape) geom);
-		} else {
-			throw new UnsupportedOperationException("Not yet implemented.");
-		}
+		return getIntersections(curve.toBezier(), toBezier(geom));
 	}
 
 	/**
-	 * Delegates to the {@link #getIntersections(ICurve, IShape)} method.
+	 * Intersects the given {@link ICurve} with the outline segments of all
+	 * {@link IShape}s of the given {@link IMultiShape}.
 	 *
 	 * @param curve
 	 *            the {@link ICurve} to intersect
@@ -96,17 +208,12 @@ class CurveUtils {
 	 */
 	public static Point[] getIntersections(ICurve curve,
 			IMultiShape multiShape) {
-		Set<Point> intersections = new HashSet<>();
-
-		for (IShape shape : multiShape.getShapes()) {
-			intersections.addAll(Arrays.asList(getIntersections(curve, shape)));
-		}
-
-		return intersections.toArray(new Point[] {});
+		return getIntersections(curve.toBezier(), toBezier(multiShape));
 	}
 
 	/**
-	 * Delegates to the {@link #getIntersections(ICurve, ICurve)} method.
+	 * Intersects the given {@link ICurve} with the outline segments of the
+	 * given {@link IShape}.
 	 *
 	 * @param curve
 	 *            the {@link ICurve} to intersect
@@ -115,18 +222,13 @@ class CurveUtils {
 	 * @return an array of intersection {@link Point}s
 	 */
 	public static Point[] getIntersections(ICurve curve, IShape shape) {
-		Set<Point> intersections = new HashSet<>();
-
-		for (ICurve curve2 : shape.getOutlineSegments()) {
-			intersections
-					.addAll(Arrays.asList(getIntersections(curve, curve2)));
-		}
-
-		return intersections.toArray(new Point[] {});
+		return getIntersections(curve.toBezier(), toBezier(shape));
 	}
 
 	/**
-	 * Delegates to the {@link #getIntersections(ICurve, IGeometry)} method.
+	 * Intersects the outline segments of the given {@link IGeometry}s. The
+	 * outline segments of an {@link IMultiShape} are the outline segments of
+	 * all of its {@link IShape}s.
 	 *
 	 * @param geom1
 	 *            the first {@link IGeometry} to intersect
@@ -135,29 +237,7 @@ class CurveUtils {
 	 * @return points of intersection
 	 */
 	public static Point[] getIntersections(IGeometry geom1, IGeometry geom2) {
-		if (geom1 instanceof ICurve) {
-			return getIntersections((ICurve) geom1, geom2);
-		} else {
-			Set<Point> intersections = new HashSet<>();
-
-			if (geom1 instanceof IShape) {
-				for (ICurve curve : ((IShape) geom1).getOutlineSegments()) {
-					intersections.addAll(
-							Arrays.asList(getIntersections(curve, geom2)));
-				}
-			} else if (geom1 instanceof IMultiShape) {
-				for (IShape shape : ((IMultiShape) geom1).getShapes()) {
-					for (ICurve curve : shape.getOutlineSegments()) {
-						intersections.addAll(
-								Arrays.asList(getIntersections(curve, geom2)));
-					}
-				}
-			} else {
-				throw new UnsupportedOperationException("Not yet implemented.");
-			}
-
-			return intersections.toArray(new Point[] {});
-		}
+		return getIntersections(toBezier(geom1), toBezier(geom2));
 	}
 
 	/**
@@ -175,12 +255,14 @@ class CurveUtils {
 	public static ICurve[] getOverlaps(ICurve curve1, ICurve curve2) {
 		Set<ICurve> overlaps = new HashSet<>();
 
-		for (BezierCurve bezier1 : curve1.toBezier()) {
-			for (BezierCurve bezier2 : curve2.toBezier()) {
-				BezierCurve overlap = bezier1.getOverlap(bezier2);
-				if (overlap != null) {
-					overlaps.add(overlap);
-				}
+		BezierCurve[] beziers1 = curve1.toBezier();
+		BezierCurve[] beziers2 = curve2.toBezier();
+		int[] pairs = getCandidatePairs(beziers1, beziers2);
+		for (int i = 0; i < pairs.length; i += 2) {
+			BezierCurve overlap = beziers1[pairs[i]]
+					.getOverlap(beziers2[pairs[i + 1]]);
+			if (overlap != null) {
+				overlaps.add(overlap);
 			}
 		}
 
@@ -216,11 +298,12 @@ class CurveUtils {
 	 *         <code>false</code>
 	 */
 	public static boolean overlap(ICurve c1, ICurve c2) {
-		for (BezierCurve seg1 : c1.toBezier()) {
-			for (BezierCurve seg2 : c2.toBezier()) {
-				if (seg1.overlaps(seg2)) {
-					return true;
-				}
+		BezierCurve[] segs1 = c1.toBezier();
+		BezierCurve[] segs2 = c2.toBezier();
+		int[] pairs = getCandidatePairs(segs1, segs2);
+		for (int i = 0; i < pairs.length; i += 2) {
+			if (segs1[pairs[i]].overlaps(segs2[pairs[i + 1]])) {
+				return true;
 			}
 		}
 
@@ -309,6 +392,33 @@ class CurveUtils {
 		return segments;
 	}
 
+	/**
+	 * Returns the {@link BezierCurve}s that constitute the given
+	 * {@link IGeometry}, i.e. the {@link BezierCurve}s of an {@link ICurve},
+	 * or of the outline segments of an {@link IShape}, or of the outline
+	 * segments of all {@link IShape}s of an {@link IMultiShape}.
+	 */
+	private static BezierCurve[] toBezier(IGeometry geom) {
+		if (geom instanceof ICurve) {
+			return ((ICurve) geom).toBezier();
+		}
+		List<BezierCurve> beziers = new ArrayList<>();
+		if (geom instanceof IShape) {
+			for (ICurve curve : ((IShape) geom).getOutlineSegments()) {
+				beziers.addAll(Arrays.asList(curve.toBezier()));
+			}
+		} else if (geom instanceof IMultiShape) {
+			for (IShape shape : ((IMultiShape) geom).getShapes()) {
+				for (ICurve curve : shape.getOutlineSegments()) {
+					beziers.addAll(Arrays.asList(curve.toBezier()));
+				}
+			}
+		} else {
+			throw new UnsupportedOperationException("Not yet implemented.");
+		}
+		return beziers.toArray(new BezierCurve[beziers.size()]);
+	}
+
 	private CurveUtils() {
 		// this class should not be instantiated by clients
 	}
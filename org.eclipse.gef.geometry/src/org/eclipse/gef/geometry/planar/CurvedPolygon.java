@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2012, 2016 itemis AG and others.
+ * Copyright (c) 2012, 2017 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -16,7 +16,6 @@ import java.util.Arrays;
 import java.util.List;
 
 import org.eclipse.gef.geometry.euclidean.Angle;
-import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
 
 /**
  * A {@link CurvedPolygon} is an {@link IShape} with {@link BezierCurve} edges.
@@ -84,87 +83,6 @@ public class CurvedPolygon extends AbstractGeometry
 		this(curvedSides.toArray(new BezierCurve[] {}));
 	}
 
-	private int computeLineWindingNumber(BezierCurve seg, Point p) {
-		// seg left of p?
-		double sx = seg.getX1();
-		double ex = seg.getX2();
-		if (sx < p.x && ex < p.x) {
-			return 0;
-		}
-
-		// seg below or above p?
-		double sy = seg.getY1();
-		double ey = seg.getY2();
-		if (sy < p.y && ey < p.y) {
-			return 0;
-		}
-		if (sy > p.y && ey > p.y) {
-			return 0;
-		}
-
-		// static x or y?
-		if (sx == ex) {
-			return ey >= sy ? 1 : -1;
-		}
-		if (sy == ey) {
-			return 0;
-		}
-
-		// compute intersection
-		double m = (ey - sy) / (ex - sx);
-		double xi = (p.y - sy + m * sx) / m;
-
-		// intersection left of p?
-		if (p.x > xi) {
-			return 0;
-		}
-
-		return ey >= sy ? 1 : -1;
-	}
-
-	/*
-	 * Computes the winding number for the Point relative to the BezierCurve. A
-	 * ray is cast from the Point, to the right, parallel to the x-axis. If the
-	 * BezierCurve crosses that ray from top to bottom, the winding number is
-	 * +1. If it crosses the ray from bottom to top, the winding number is -1.
-	 * Otherwise, 0 is returned.
-	 *
-	 * The algorithm implemented here is a generalized version of the one
-	 * realized within the sun.awt.geom.Curve#pointCrossingsFor*() methods.
-	 */
-	private int computeWindingNumber(BezierCurve seg, Point p) {
-		if (isLinear(seg)) {
-			int lineWindingNumber = computeLineWindingNumber(seg, p);
-			// System.out.println("lineWindingNumber = " + lineWindingNumber);
-			return lineWindingNumber;
-		}
-
-		// if the BezierCurve is left of p, above, or below p, than we can
-		// unworried return 0
-		if (isLeftOfP(seg, p) || isAboveP(seg, p) || isBelowP(seg, p)) {
-			return 0;
-		}
-
-		// if the BezierCurve is right of p, we have to check for a crossing
-		if (isRightEqualP(seg, p)) {
-			if (p.y >= seg.getY1() && p.y < seg.getY2()) {
-				return 1;
-			}
-			if (p.y < seg.getY1() && p.y >= seg.getY2()) {
-				return -1;
-			}
-			return 0;
-		}
-
-		// none of the return conditions evaluates to true, so we have to
-		// subdivide the BezierCurve and check the left and right parts
-		// individually
-		BezierCurve[] split = seg.split(0.5);
-
-		return computeWindingNumber(split[0], p)
-				+ computeWindingNumber(split[1], p);
-	}
-
 	@Override
 	public boolean contains(IGeometry g) {
 		return ShapeUtils.contains(this, g);
@@ -181,14 +99,20 @@ public class CurvedPolygon extends AbstractGeometry
 		// compute the winding number for the given Point
 		int w = 0;
 		for (BezierCurve seg : edges) {
-			if (seg.contains(p)) {
+			w += seg.getWindingNumber(p.x, p.y);
+		}
+		if (w != 0) {
+			return true;
+		}
+
+		// the winding number is 0 if the Point is outside of this
+		// CurvedPolygon or located on one of its edges
+		for (BezierCurve seg : edges) {
+			if (seg.isInControlBounds(p.x, p.y) && seg.contains(p)) {
 				return true;
 			}
-			w += computeWindingNumber(seg, p);
 		}
-
-		// the winding number is 0 if the Point is outside of this CurvedPolygon
-		return w != 0;
+		return false;
 	}
 
 	@Override
@@ -321,52 +245,6 @@ public class CurvedPolygon extends AbstractGeometry
 		return getTranslated(d.x, d.y);
 	}
 
-	private boolean isAboveP(BezierCurve seg, Point p) {
-		for (Point cp : seg.getPoints()) {
-			if (cp.y >= p.y) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	private boolean isBelowP(BezierCurve seg, Point p) {
-		for (Point cp : seg.getPoints()) {
-			if (cp.y <= p.y) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	private boolean isLeftOfP(BezierCurve seg, Point p) {
-		for (Point cp : seg.getPoints()) {
-			if (cp.x >= p.x) {
-				return false;
-			}
-		}
-		return true;
-	}
-
-	private boolean isLinear(BezierCurve seg) {
-		double d0 = seg.getP1().getDistance(seg.getP2());
-		double d1 = 0;
-		Point[] points = seg.getPoints();
-		for (int i = 0; i < points.length - 1; i++) {
-			d1 += points[i].getDistance(points[i + 1]);
-		}
-		return PrecisionUtils.greaterEqual(d0, d1);
-	}
-
-	private boolean isRightEqualP(BezierCurve seg, Point p) {
-		for (Point cp : seg.getPoints()) {
-			if (cp.x < p.x) {
-				return false;
-			}
-		}
-		return true;
-	}
-
 	/**
 	 * Rotates this {@link CurvedPolygon} counter-clockwise (CCW) by the given
 	 * {@link Angle} around the center {@link Point} of this
@@ -12,7 +12,6 @@
  *******************************************************************************/
 package org.eclipse.gef.geometry.planar;
 
-import java.awt.geom.Area;
 import java.awt.geom.Path2D;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -254,10 +253,8 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 * @return the sum of the areas
 	 */
 	public static Path add(Path pa, Path pb) {
-		Area a = new Area(Geometry2AWT.toAWTPath(pa));
-		Area b = new Area(Geometry2AWT.toAWTPath(pb));
-		a.add(b);
-		return AWT2Geometry.toPath(new Path2D.Double(a));
+		return PathBooleanOperations.compute(pa, pb,
+				PathBooleanOperations.UNION);
 	}
 
 	/**
@@ -271,10 +268,8 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 * @return the exclusive-or of the areas
 	 */
 	public static Path exclusiveOr(Path pa, Path pb) {
-		Area a = new Area(Geometry2AWT.toAWTPath(pa));
-		Area b = new Area(Geometry2AWT.toAWTPath(pb));
-		a.exclusiveOr(b);
-		return AWT2Geometry.toPath(new Path2D.Double(a));
+		return PathBooleanOperations.compute(pa, pb,
+				PathBooleanOperations.EXCLUSIVE_OR);
 	}
 
 	/**
@@ -288,10 +283,8 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 *         areas
 	 */
 	public static Path intersect(Path pa, Path pb) {
-		Area a = new Area(Geometry2AWT.toAWTPath(pa));
-		Area b = new Area(Geometry2AWT.toAWTPath(pb));
-		a.intersect(b);
-		return AWT2Geometry.toPath(new Path2D.Double(a));
+		return PathBooleanOperations.compute(pa, pb,
+				PathBooleanOperations.INTERSECTION);
 	}
 
 	/**
@@ -304,10 +297,8 @@ public class Path extends AbstractGeometry implements IGeometry {
 	 * @return the area covered by the first but not the second given area
 	 */
 	public static Path subtract(Path pa, Path pb) {
-		Area a = new Area(Geometry2AWT.toAWTPath(pa));
-		Area b = new Area(Geometry2AWT.toAWTPath(pb));
-		a.subtract(b);
-		return AWT2Geometry.toPath(new Path2D.Double(a));
+		return PathBooleanOperations.compute(pa, pb,
+				PathBooleanOperations.DIFFERENCE);
 	}
 
 	private int windingRule = WIND_NON_ZERO;
@@ -396,8 +387,53 @@ public class Path extends AbstractGeometry implements IGeometry {
 
 	@Override
 	public boolean contains(Point p) {
-		return Geometry2AWT.toAWTPath(this)
-				.contains(Geometry2AWT.toAWTPoint(p));
+		// sum up the winding numbers of all segments, closing all sub-paths
+		// implicitly
+		double x = p.x, y = p.y;
+		double startX = 0, startY = 0, currentX = 0, currentY = 0;
+		int winding = 0;
+		for (int i = 0; i < segments.size(); i++) {
+			Segment segment = segments.get(i);
+			Point[] points = segment.points;
+			switch (segment.type) {
+			case Segment.MOVE_TO:
+				winding += WindingNumbers.line(currentX, currentY, startX,
+						startY, x, y);
+				startX = currentX = points[0].x;
+				startY = currentY = points[0].y;
+				break;
+			case Segment.LINE_TO:
+				winding += WindingNumbers.line(currentX, currentY, points[0].x,
+						points[0].y, x, y);
+				currentX = points[0].x;
+				currentY = points[0].y;
+				break;
+			case Segment.QUAD_TO:
+				winding += WindingNumbers.quadratic(currentX, currentY,
+						points[0].x, points[0].y, points[1].x, points[1].y, x,
+						y);
+				currentX = points[1].x;
+				currentY = points[1].y;
+				break;
+			case Segment.CUBIC_TO:
+				winding += WindingNumbers.cubic(currentX, currentY,
+						points[0].x, points[0].y, points[1].x, points[1].y,
+						points[2].x, points[2].y, x, y);
+				currentX = points[2].x;
+				currentY = points[2].y;
+				break;
+			case Segment.CLOSE:
+				winding += WindingNumbers.line(currentX, currentY, startX,
+						startY, x, y);
+				currentX = startX;
+				currentY = startY;
+				break;
+			}
+		}
+		winding += WindingNumbers.line(currentX, currentY, startX, startY, x,
+				y);
+		return windingRule == WIND_EVEN_ODD ? (winding & 1) != 0
+				: winding != 0;
 	}
 
 	/**
@@ -0,0 +1,1325 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import java.awt.geom.Area;
+import java.awt.geom.Path2D;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gef.geometry.convert.awt.AWT2Geometry;
+import org.eclipse.gef.geometry.convert.awt.Geometry2AWT;
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+
+/**
+ * Computes the boolean operations of two {@link Path}s directly on their
+ * {@link Line}, {@link QuadraticCurve}, and {@link CubicCurve} segments, i.e.
+ * without flattening them. The computation consists of the following steps:
+ * <ol>
+ * <li>The segments of both {@link Path}s are collected as edges. Open
+ * sub-paths are closed implicitly, as they are when filling a {@link Path}.
+ * </li>
+ * <li>Pairs of edges whose control bounds overlap are determined by sweeping
+ * over the edges in x-direction. If at least one of the edges of such a pair
+ * is straight, the intersections are computed as the roots of the signed
+ * distance of the other edge to the straight one. Two curves are
+ * subdivided until their pieces are almost straight, and the intersections of
+ * the chords are refined using Newton's method. Only if the curves overlap,
+ * {@link BezierCurve#getIntersections(BezierCurve)} and
+ * {@link BezierCurve#getOverlap(BezierCurve)} are used. Successive segments
+ * of a path are intersected as well (ignoring their common end point), and a
+ * cubic edge is split at its self-intersection, which is computed
+ * analytically.</li>
+ * <li>The edges are split at their intersections. Vertices at the same
+ * location are merged, and coincident pieces (of overlapping edges) are only
+ * retained once.</li>
+ * <li>For every piece, the winding numbers of both {@link Path}s are evaluated
+ * slightly to the left and to the right of its middle. If the operation's
+ * result differs between both sides, the piece belongs to the outline of the
+ * result, and it is oriented so that the result is located to its left.</li>
+ * <li>The oriented pieces are linked to closed contours, which form the
+ * resulting {@link Path} (using the {@link Path#WIND_NON_ZERO} rule).</li>
+ * </ol>
+ * If two curves that do not overlap cannot be separated by the subdivision
+ * (because they touch or cross at a very small angle), their intersections
+ * cannot be determined reliably. In this case, the operation is computed using
+ * {@link Area} instead.
+ */
+final class PathBooleanOperations {
+
+	/**
+	 * The union of two areas.
+	 */
+	static final int UNION = 0;
+
+	/**
+	 * The intersection of two areas.
+	 */
+	static final int INTERSECTION = 1;
+
+	/**
+	 * The difference of two areas.
+	 */
+	static final int DIFFERENCE = 2;
+
+	/**
+	 * The exclusive-or of two areas.
+	 */
+	static final int EXCLUSIVE_OR = 3;
+
+	/**
+	 * A segment of one of the input {@link Path}s, together with the
+	 * parameters and vertices of its intersections.
+	 */
+	private static final class Edge {
+		// control points
+		final double[] xs;
+		final double[] ys;
+		// 0 for the first, 1 for the second path
+		final int owner;
+		final int start;
+		final int end;
+		// control bounds
+		final double minX, maxX, minY, maxY;
+		double[] splitParameters = new double[2];
+		int[] splitVertices = new int[2];
+		int numSplits;
+
+		Edge(double[] xs, double[] ys, int owner, int start, int end) {
+			this.xs = xs;
+			this.ys = ys;
+			this.owner = owner;
+			this.start = start;
+			this.end = end;
+			double minX = xs[0], maxX = xs[0], minY = ys[0], maxY = ys[0];
+			for (int i = 1; i < xs.length; i++) {
+				minX = Math.min(minX, xs[i]);
+				maxX = Math.max(maxX, xs[i]);
+				minY = Math.min(minY, ys[i]);
+				maxY = Math.max(maxY, ys[i]);
+			}
+			this.minX = minX;
+			this.maxX = maxX;
+			this.minY = minY;
+			this.maxY = maxY;
+		}
+
+		void addSplit(double t, int vertex) {
+			if (numSplits == splitParameters.length) {
+				splitParameters = Arrays.copyOf(splitParameters,
+						2 * numSplits);
+				splitVertices = Arrays.copyOf(splitVertices, 2 * numSplits);
+			}
+			splitParameters[numSplits] = t;
+			splitVertices[numSplits] = vertex;
+			numSplits++;
+		}
+
+		boolean isStraight() {
+			return xs.length == 2;
+		}
+	}
+
+	/**
+	 * A piece of an {@link Edge} between two successive intersections.
+	 */
+	private static final class Piece {
+		double[] xs;
+		double[] ys;
+		int start;
+		int end;
+		boolean used;
+
+		Piece(double[] xs, double[] ys, int start, int end) {
+			this.xs = xs;
+			this.ys = ys;
+			this.start = start;
+			this.end = end;
+		}
+
+		void reverse() {
+			for (int i = 0, j = xs.length - 1; i < j; i++, j--) {
+				double x = xs[i];
+				xs[i] = xs[j];
+				xs[j] = x;
+				double y = ys[i];
+				ys[i] = ys[j];
+				ys[j] = y;
+			}
+			int v = start;
+			start = end;
+			end = v;
+		}
+	}
+
+	// the maximum distance of points regarded to be equal
+	private static final double TOLERANCE = PrecisionUtils
+			.calculateFraction(0);
+
+	// the maximum difference of parameters regarded to be equal
+	private static final double PARAMETER_TOLERANCE = 1e-9;
+
+	// the maximum distance of the control points of a curve from its chord
+	// for which the curve is approximated by its chord
+	private static final double FLATNESS = TOLERANCE * 1e-3;
+
+	// the maximum number of subdivisions when intersecting two curves, before
+	// they are regarded to overlap
+	private static final int MAX_SUBDIVISIONS = 4096;
+
+	// the maximum distance of the control points of a curve from its chord
+	// (relative to the chord's length) for which the intersection of the
+	// chords is used as starting point for refinement
+	private static final double COARSE_FLATNESS = 1e-3;
+
+	// the minimum sine of the angle between the chords for which the
+	// intersection of the chords is used as starting point for refinement
+	private static final double TRANSVERSALITY = 0.1;
+
+	// the parameter range by which the chords are extended when intersecting
+	// them, to account for the deviation of the curves from their chords
+	private static final double CHORD_SLACK = 0.05;
+
+	private static final Comparator<Edge> MIN_X_COMPARATOR = new Comparator<Edge>() {
+		@Override
+		public int compare(Edge e1, Edge e2) {
+			return Double.compare(e1.minX, e2.minX);
+		}
+	};
+
+	/**
+	 * Computes the given boolean operation for the given {@link Path}s.
+	 *
+	 * @param pa
+	 *            The first operand.
+	 * @param pb
+	 *            The second operand.
+	 * @param operation
+	 *            One of {@link #UNION}, {@link #INTERSECTION},
+	 *            {@link #DIFFERENCE}, or {@link #EXCLUSIVE_OR}.
+	 * @return A new {@link Path} representing the result of the operation.
+	 */
+	static Path compute(Path pa, Path pb, int operation) {
+		Path result = new PathBooleanOperations(pa, pb, operation).compute();
+		if (result == null) {
+			result = computeArea(pa, pb, operation);
+		}
+		return result;
+	}
+
+	/**
+	 * Computes the given boolean operation for the given {@link Path}s using
+	 * {@link Area}.
+	 */
+	private static Path computeArea(Path pa, Path pb, int operation) {
+		Area a = new Area(Geometry2AWT.toAWTPath(pa));
+		Area b = new Area(Geometry2AWT.toAWTPath(pb));
+		switch (operation) {
+		case UNION:
+			a.add(b);
+			break;
+		case INTERSECTION:
+			a.intersect(b);
+			break;
+		case DIFFERENCE:
+			a.subtract(b);
+			break;
+		default:
+			a.exclusiveOr(b);
+		}
+		return AWT2Geometry.toPath(new Path2D.Double(a));
+	}
+
+	/**
+	 * Evaluates the Bezier curve with the given control coordinates at the
+	 * given parameter value (using the algorithm of de Casteljau).
+	 *
+	 * @param cs
+	 *            The x- or y-coordinates of the control points.
+	 * @param t
+	 *            The parameter value.
+	 * @return The x- or y-coordinate at the given parameter value.
+	 */
+	static double evaluate(double[] cs, double t) {
+		switch (cs.length) {
+		case 2:
+			return cs[0] + t * (cs[1] - cs[0]);
+		case 3: {
+			double u = 1 - t;
+			return u * u * cs[0] + 2 * u * t * cs[1] + t * t * cs[2];
+		}
+		default: {
+			double u = 1 - t;
+			return u * u * u * cs[0] + 3 * u * u * t * cs[1]
+					+ 3 * u * t * t * cs[2] + t * t * t * cs[3];
+		}
+		}
+	}
+
+	/**
+	 * Evaluates the derivative of the Bezier curve with the given control
+	 * coordinates at the given parameter value.
+	 */
+	private static double evaluateDerivative(double[] cs, double t) {
+		switch (cs.length) {
+		case 2:
+			return cs[1] - cs[0];
+		case 3:
+			return 2 * ((1 - t) * (cs[1] - cs[0]) + t * (cs[2] - cs[1]));
+		default: {
+			double u = 1 - t;
+			return 3 * (u * u * (cs[1] - cs[0]) + 2 * u * t * (cs[2] - cs[1])
+					+ t * t * (cs[3] - cs[2]));
+		}
+		}
+	}
+
+	/**
+	 * Computes the parameter values in [0;1] for which the Bezier curve with
+	 * the given control coordinates (of degree 1 to 3) takes the given value.
+	 * The curve is divided into monotone pieces at its extrema, and each piece
+	 * containing the value is bisected.
+	 *
+	 * @param cs
+	 *            The x- or y-coordinates of the control points.
+	 * @param value
+	 *            The value to find.
+	 * @param roots
+	 *            An array (of length 3 at least) to store the parameter
+	 *            values.
+	 * @return The number of parameter values.
+	 */
+	static int solve(double[] cs, double value, double[] roots) {
+		double[] bounds = new double[4];
+		int numBounds = getMonotonePieces(cs, bounds);
+		int numRoots = 0;
+		double lo = bounds[0];
+		double flo = evaluate(cs, lo) - value;
+		for (int i = 1; i < numBounds; i++) {
+			double hi = bounds[i];
+			double fhi = evaluate(cs, hi) - value;
+			if (Math.abs(flo) <= TOLERANCE * PARAMETER_TOLERANCE) {
+				numRoots = addRoot(roots, numRoots, lo);
+			} else if (flo < 0 != fhi < 0 && fhi != 0) {
+				numRoots = addRoot(roots, numRoots,
+						findParameter(cs, value, lo, hi, flo < 0));
+			}
+			lo = hi;
+			flo = fhi;
+		}
+		if (Math.abs(flo) <= TOLERANCE * PARAMETER_TOLERANCE) {
+			numRoots = addRoot(roots, numRoots, lo);
+		}
+		return numRoots;
+	}
+
+	private static int addRoot(double[] roots, int numRoots, double t) {
+		if (numRoots > 0 && Math.abs(roots[numRoots - 1] - t) <= 1e-12) {
+			return numRoots;
+		}
+		if (numRoots < roots.length) {
+			roots[numRoots++] = t;
+		}
+		return numRoots;
+	}
+
+	/**
+	 * Finds the parameter value within [lo;hi] for which the (monotone) Bezier
+	 * curve with the given control coordinates takes the given value, using
+	 * Newton's method safeguarded by bisection.
+	 */
+	private static double findParameter(double[] cs, double value, double lo,
+			double hi, boolean increasing) {
+		double t = (lo + hi) / 2;
+		for (int i = 0; i < 64; i++) {
+			double f = evaluate(cs, t) - value;
+			if (f == 0) {
+				return t;
+			}
+			if (f < 0 == increasing) {
+				lo = t;
+			} else {
+				hi = t;
+			}
+			double derivative = evaluateDerivative(cs, t);
+			double next = derivative == 0 ? lo : t - f / derivative;
+			if (next <= lo || next >= hi) {
+				next = (lo + hi) / 2;
+			}
+			if (Math.abs(next - t) <= 1e-15) {
+				return next;
+			}
+			t = next;
+		}
+		return t;
+	}
+
+	/**
+	 * Stores 0, the parameter values of the extrema of the Bezier curve with
+	 * the given control coordinates, and 1 in the given array (in ascending
+	 * order).
+	 *
+	 * @return The number of stored parameter values.
+	 */
+	private static int getMonotonePieces(double[] cs, double[] bounds) {
+		int n = 0;
+		bounds[n++] = 0;
+		if (cs.length == 3) {
+			double d = cs[0] - 2 * cs[1] + cs[2];
+			if (d != 0) {
+				double t = (cs[0] - cs[1]) / d;
+				if (t > 0 && t < 1) {
+					bounds[n++] = t;
+				}
+			}
+		} else if (cs.length == 4) {
+			// derivative: 3 * (a t^2 + 2 b t + c)
+			double a = -cs[0] + 3 * cs[1] - 3 * cs[2] + cs[3];
+			double b = cs[0] - 2 * cs[1] + cs[2];
+			double c = cs[1] - cs[0];
+			double t1 = -1, t2 = -1;
+			if (Math.abs(a) < 1e-12 * (Math.abs(b) + Math.abs(c))) {
+				if (b != 0) {
+					t1 = -c / (2 * b);
+				}
+			} else {
+				double disc = b * b - a * c;
+				if (disc >= 0) {
+					double sqrt = Math.sqrt(disc);
+					t1 = (-b - sqrt) / a;
+					t2 = (-b + sqrt) / a;
+					if (t1 > t2) {
+						double t = t1;
+						t1 = t2;
+						t2 = t;
+					}
+				}
+			}
+			if (t1 > 0 && t1 < 1) {
+				bounds[n++] = t1;
+			}
+			if (t2 > 0 && t2 < 1 && t2 > bounds[n - 1]) {
+				bounds[n++] = t2;
+			}
+		}
+		bounds[n++] = 1;
+		return n;
+	}
+
+	/**
+	 * Splits the Bezier curve with the given control coordinates at the given
+	 * parameter value (using the algorithm of de Casteljau).
+	 *
+	 * @return The control coordinates of the two parts.
+	 */
+	private static double[][] split(double[] cs, double t) {
+		int n = cs.length;
+		double[] left = new double[n];
+		double[] right = new double[n];
+		double[] work = cs.clone();
+		left[0] = work[0];
+		right[n - 1] = work[n - 1];
+		for (int level = 1; level < n; level++) {
+			for (int i = 0; i < n - level; i++) {
+				work[i] = work[i] + t * (work[i + 1] - work[i]);
+			}
+			left[level] = work[0];
+			right[n - 1 - level] = work[n - 1 - level];
+		}
+		return new double[][] { left, right };
+	}
+
+	private final int operation;
+	private final int[] windingRules = new int[2];
+	private final List<Edge> edges = new ArrayList<>();
+	private final List<List<Edge>> edgesByOwner = new ArrayList<>();
+
+	// vertices (with union-find structure to merge coincident ones)
+	private double[] vertexX = new double[16];
+	private double[] vertexY = new double[16];
+	private int[] vertexParent = new int[16];
+	private int numVertices;
+
+	// parameter pairs of the intersections of two curves
+	private double[] curveIntersections = new double[16];
+	private int numCurveIntersections;
+	private int numSubdivisions;
+	// whether the intersections of two curves could not be determined
+	private boolean unresolved;
+
+	private PathBooleanOperations(Path pa, Path pb, int operation) {
+		this.operation = operation;
+		windingRules[0] = pa.getWindingRule();
+		windingRules[1] = pb.getWindingRule();
+		edgesByOwner.add(new ArrayList<Edge>());
+		edgesByOwner.add(new ArrayList<Edge>());
+		addEdges(pa, 0);
+		addEdges(pb, 1);
+	}
+
+	private void addEdges(Path path, int owner) {
+		int moveTo = -1;
+		int current = -1;
+		for (Path.Segment segment : path.getSegments()) {
+			Point[] points = segment.getPoints();
+			switch (segment.getType()) {
+			case Path.Segment.MOVE_TO:
+				closeSubPath(current, moveTo, owner);
+				moveTo = current = createVertex(points[0].x, points[0].y);
+				break;
+			case Path.Segment.CLOSE:
+				closeSubPath(current, moveTo, owner);
+				current = moveTo;
+				break;
+			default:
+				if (current < 0) {
+					throw new IllegalStateException(
+							"This Path does not start with a MOVE_TO, therefore, no start position could be determined.");
+				}
+				double[] xs = new double[points.length + 1];
+				double[] ys = new double[points.length + 1];
+				xs[0] = vertexX[current];
+				ys[0] = vertexY[current];
+				for (int i = 0; i < points.length; i++) {
+					xs[i + 1] = points[i].x;
+					ys[i + 1] = points[i].y;
+				}
+				int end = createVertex(xs[points.length], ys[points.length]);
+				addEdge(xs, ys, owner, current, end);
+				current = end;
+			}
+		}
+		closeSubPath(current, moveTo, owner);
+	}
+
+	private void closeSubPath(int current, int moveTo, int owner) {
+		if (current >= 0 && current != moveTo) {
+			addEdge(new double[] { vertexX[current], vertexX[moveTo] },
+					new double[] { vertexY[current], vertexY[moveTo] }, owner,
+					current, moveTo);
+		}
+	}
+
+	private void addEdge(double[] xs, double[] ys, int owner, int start,
+			int end) {
+		if (isDegenerated(xs, ys)) {
+			union(start, end);
+			return;
+		}
+		Edge edge = new Edge(xs, ys, owner, start, end);
+		edges.add(edge);
+		edgesByOwner.get(owner).add(edge);
+	}
+
+	/**
+	 * Checks if all control points of the given Bezier curve are equal.
+	 */
+	private static boolean isDegenerated(double[] xs, double[] ys) {
+		for (int i = 1; i < xs.length; i++) {
+			if (!isEqual(xs[0], ys[0], xs[i], ys[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isEqual(double x1, double y1, double x2,
+			double y2) {
+		return Math.abs(x1 - x2) <= TOLERANCE
+				&& Math.abs(y1 - y2) <= TOLERANCE;
+	}
+
+	private int createVertex(double x, double y) {
+		if (numVertices == vertexX.length) {
+			vertexX = Arrays.copyOf(vertexX, 2 * numVertices);
+			vertexY = Arrays.copyOf(vertexY, 2 * numVertices);
+			vertexParent = Arrays.copyOf(vertexParent, 2 * numVertices);
+		}
+		vertexX[numVertices] = x;
+		vertexY[numVertices] = y;
+		vertexParent[numVertices] = numVertices;
+		return numVertices++;
+	}
+
+	private int find(int vertex) {
+		while (vertexParent[vertex] != vertex) {
+			vertexParent[vertex] = vertexParent[vertexParent[vertex]];
+			vertex = vertexParent[vertex];
+		}
+		return vertex;
+	}
+
+	private void union(int v1, int v2) {
+		int r1 = find(v1);
+		int r2 = find(v2);
+		if (r1 != r2) {
+			// keep the older vertex (usually an original end point)
+			if (r1 < r2) {
+				vertexParent[r2] = r1;
+			} else {
+				vertexParent[r1] = r2;
+			}
+		}
+	}
+
+	/**
+	 * Computes the boolean operation.
+	 *
+	 * @return The resulting {@link Path}, or <code>null</code> if the
+	 *         intersections of the edges could not be determined reliably.
+	 */
+	private Path compute() {
+		findIntersections();
+		if (unresolved) {
+			return null;
+		}
+		List<Piece> pieces = splitEdges();
+		mergeCoincidentVertices();
+		pieces = removeDuplicates(pieces);
+		List<Piece> outline = new ArrayList<>();
+		for (Piece piece : pieces) {
+			if (classify(piece)) {
+				outline.add(piece);
+			}
+		}
+		return link(outline);
+	}
+
+	/**
+	 * Sweeps over the edges in x-direction, maintaining the edges whose
+	 * x-range contains the sweep position, and intersects all pairs of edges
+	 * whose control bounds overlap.
+	 */
+	private void findIntersections() {
+		Edge[] sorted = edges.toArray(new Edge[edges.size()]);
+		Arrays.sort(sorted, MIN_X_COMPARATOR);
+		Edge[] active = new Edge[sorted.length];
+		int numActive = 0;
+		for (Edge edge : sorted) {
+			if (edge.xs.length == 4) {
+				intersectSelf(edge);
+			}
+			int kept = 0;
+			for (int i = 0; i < numActive; i++) {
+				Edge other = active[i];
+				if (other.maxX + TOLERANCE < edge.minX) {
+					continue;
+				}
+				active[kept++] = other;
+				if (other.maxY + TOLERANCE >= edge.minY
+						&& edge.maxY + TOLERANCE >= other.minY) {
+					intersect(other, edge);
+				}
+			}
+			numActive = kept;
+			active[numActive++] = edge;
+		}
+	}
+
+	private void intersect(Edge e1, Edge e2) {
+		if (e1.isStraight() && e2.isStraight()) {
+			intersectLines(e1, e2);
+		} else if (e1.isStraight()) {
+			intersectLineCurve(e1, e2, false);
+		} else if (e2.isStraight()) {
+			intersectLineCurve(e2, e1, true);
+		} else {
+			intersectCurves(e1, e2);
+		}
+	}
+
+	/**
+	 * Splits the given cubic edge at its self-intersection (if any). With
+	 * B(t) = a t^3 + b t^2 + c t + d, B(t) = B(s) for t != s is equivalent to
+	 * a (u^2 - v) + b u + c = 0, where u = t + s and v = t s. Eliminating
+	 * u^2 - v from both coordinates yields u, from which v, and thereby t and
+	 * s, are derived.
+	 */
+	private void intersectSelf(Edge edge) {
+		double[] xs = edge.xs, ys = edge.ys;
+		double ax = -xs[0] + 3 * xs[1] - 3 * xs[2] + xs[3];
+		double ay = -ys[0] + 3 * ys[1] - 3 * ys[2] + ys[3];
+		double bx = 3 * (xs[0] - 2 * xs[1] + xs[2]);
+		double by = 3 * (ys[0] - 2 * ys[1] + ys[2]);
+		double cx = 3 * (xs[1] - xs[0]);
+		double cy = 3 * (ys[1] - ys[0]);
+		double denominator = ay * bx - ax * by;
+		if (Math.abs(denominator) <= PARAMETER_TOLERANCE
+				* (Math.abs(ay * bx) + Math.abs(ax * by))) {
+			// no loop (or a degenerated curve, which is not split)
+			return;
+		}
+		double u = (ax * cy - ay * cx) / denominator;
+		double v = Math.abs(ax) >= Math.abs(ay) ? u * u + (bx * u + cx) / ax
+				: u * u + (by * u + cy) / ay;
+		double discriminant = u * u - 4 * v;
+		if (discriminant <= 0) {
+			return;
+		}
+		double root = Math.sqrt(discriminant);
+		double t = (u - root) / 2, s = (u + root) / 2;
+		if (t < 0 || s > 1) {
+			return;
+		}
+		addIntersection(edge, t, edge, s,
+				(evaluate(xs, t) + evaluate(xs, s)) / 2,
+				(evaluate(ys, t) + evaluate(ys, s)) / 2);
+	}
+
+	private void intersectLines(Edge e1, Edge e2) {
+		double dx1 = e1.xs[1] - e1.xs[0], dy1 = e1.ys[1] - e1.ys[0];
+		double dx2 = e2.xs[1] - e2.xs[0], dy2 = e2.ys[1] - e2.ys[0];
+		double ox = e2.xs[0] - e1.xs[0], oy = e2.ys[0] - e1.ys[0];
+		double len1 = Math.sqrt(dx1 * dx1 + dy1 * dy1);
+		double len2 = Math.sqrt(dx2 * dx2 + dy2 * dy2);
+		double denominator = dx1 * dy2 - dy1 * dx2;
+		if (Math.abs(denominator) > PARAMETER_TOLERANCE * len1 * len2) {
+			double t = (ox * dy2 - oy * dx2) / denominator;
+			double s = (ox * dy1 - oy * dx1) / denominator;
+			double te = TOLERANCE / len1, se = TOLERANCE / len2;
+			if (t >= -te && t <= 1 + te && s >= -se && s <= 1 + se) {
+				t = Math.max(0, Math.min(1, t));
+				s = Math.max(0, Math.min(1, s));
+				addIntersection(e1, t, e2, s, e1.xs[0] + t * dx1,
+						e1.ys[0] + t * dy1);
+			}
+		} else if (Math.abs(ox * dy1 - oy * dx1) <= TOLERANCE * len1) {
+			// collinear, the end points within the other line delimit the
+			// overlap
+			for (int i = 0; i < 2; i++) {
+				double t = ((e2.xs[i] - e1.xs[0]) * dx1
+						+ (e2.ys[i] - e1.ys[0]) * dy1) / (len1 * len1);
+				if (t >= 0 && t <= 1) {
+					addIntersection(e1, t, e2, i, e2.xs[i], e2.ys[i]);
+				}
+				double s = ((e1.xs[i] - e2.xs[0]) * dx2
+						+ (e1.ys[i] - e2.ys[0]) * dy2) / (len2 * len2);
+				if (s >= 0 && s <= 1) {
+					addIntersection(e1, i, e2, s, e1.xs[i], e1.ys[i]);
+				}
+			}
+		}
+	}
+
+	private void intersectLineCurve(Edge line, Edge curve, boolean swapped) {
+		double dx = line.xs[1] - line.xs[0], dy = line.ys[1] - line.ys[0];
+		double length = Math.sqrt(dx * dx + dy * dy);
+		// signed distance of the curve to the line (as a Bezier curve)
+		double nx = -dy / length, ny = dx / length;
+		double[] ds = new double[curve.xs.length];
+		boolean onLine = true;
+		for (int i = 0; i < ds.length; i++) {
+			ds[i] = (curve.xs[i] - line.xs[0]) * nx
+					+ (curve.ys[i] - line.ys[0]) * ny;
+			onLine &= Math.abs(ds[i]) <= TOLERANCE;
+		}
+		if (onLine) {
+			// the curve is (almost) straight and collinear to the line
+			intersectOverlappingCurves(swapped ? curve : line,
+					swapped ? line : curve);
+			return;
+		}
+		double[] roots = new double[3];
+		int numRoots = solve(ds, 0, roots);
+		double se = TOLERANCE / length;
+		for (int i = 0; i < numRoots; i++) {
+			double t = roots[i];
+			double x = evaluate(curve.xs, t), y = evaluate(curve.ys, t);
+			double s = ((x - line.xs[0]) * dx + (y - line.ys[0]) * dy)
+					/ (length * length);
+			if (s >= -se && s <= 1 + se) {
+				s = Math.max(0, Math.min(1, s));
+				if (swapped) {
+					addIntersection(curve, t, line, s, x, y);
+				} else {
+					addIntersection(line, s, curve, t, x, y);
+				}
+			}
+		}
+	}
+
+	private void intersectCurves(Edge e1, Edge e2) {
+		numCurveIntersections = 0;
+		numSubdivisions = 0;
+		if (subdivide(e1, e2, e1.xs, e1.ys, 0, 1, e2.xs, e2.ys, 0, 1)) {
+			// successive segments of a path touch at their common vertex,
+			// which does not need to be recorded
+			int shared1 = -1, shared2 = -1;
+			if (e1.owner == e2.owner) {
+				if (find(e1.end) == find(e2.start)) {
+					shared1 = e1.end;
+				}
+				if (find(e2.end) == find(e1.start)) {
+					shared2 = e1.start;
+				}
+			}
+			for (int i = 0; i < numCurveIntersections; i++) {
+				double t = curveIntersections[2 * i];
+				double s = curveIntersections[2 * i + 1];
+				double x = (evaluate(e1.xs, t) + evaluate(e2.xs, s)) / 2;
+				double y = (evaluate(e1.ys, t) + evaluate(e2.ys, s)) / 2;
+				if (!isVertex(shared1, x, y) && !isVertex(shared2, x, y)) {
+					addIntersection(e1, t, e2, s, x, y);
+				}
+			}
+		} else if (!intersectOverlappingCurves(e1, e2)) {
+			// the curves do not overlap, but touch or cross at a very small
+			// angle, which cannot be resolved by the subdivision
+			unresolved = true;
+		}
+	}
+
+	/**
+	 * Recursively subdivides the given curves (which represent the parameter
+	 * ranges [t0;t1] and [s0;s1] of the given edges) as long as their control
+	 * bounds overlap. As soon as both curves are almost straight and cross
+	 * transversally, the intersection of their chords is refined on the
+	 * edges. Otherwise (for tangential intersections), the subdivision
+	 * continues until both curves are flat. The found parameter pairs are
+	 * stored in {@link #curveIntersections}.
+	 *
+	 * @return <code>false</code> if the number of subdivisions exceeded
+	 *         {@link #MAX_SUBDIVISIONS}, which is the case for overlapping
+	 *         curves, <code>true</code> otherwise.
+	 */
+	private boolean subdivide(Edge e1, Edge e2, double[] xs1, double[] ys1,
+			double t0, double t1, double[] xs2, double[] ys2, double s0,
+			double s1) {
+		if (!overlap(xs1, ys1, xs2, ys2)) {
+			return true;
+		}
+		if (++numSubdivisions > MAX_SUBDIVISIONS) {
+			return false;
+		}
+		int l1 = xs1.length - 1, l2 = xs2.length - 1;
+		double dx1 = xs1[l1] - xs1[0], dy1 = ys1[l1] - ys1[0];
+		double dx2 = xs2[l2] - xs2[0], dy2 = ys2[l2] - ys2[0];
+		double length1 = Math.sqrt(dx1 * dx1 + dy1 * dy1);
+		double length2 = Math.sqrt(dx2 * dx2 + dy2 * dy2);
+		double deviation1 = getDeviation(xs1, ys1, dx1, dy1, length1);
+		double deviation2 = getDeviation(xs2, ys2, dx2, dy2, length2);
+		double cross = dx1 * dy2 - dy1 * dx2;
+		if (deviation1 <= COARSE_FLATNESS * length1
+				&& deviation2 <= COARSE_FLATNESS * length2
+				&& Math.abs(cross) > TRANSVERSALITY * length1 * length2) {
+			double ox = xs2[0] - xs1[0], oy = ys2[0] - ys1[0];
+			double t = (ox * dy2 - oy * dx2) / cross;
+			double s = (ox * dy1 - oy * dx1) / cross;
+			if (t >= -CHORD_SLACK && t <= 1 + CHORD_SLACK && s >= -CHORD_SLACK
+					&& s <= 1 + CHORD_SLACK) {
+				refine(e1, e2, t0 + t * (t1 - t0), s0 + s * (s1 - s0), t0, t1,
+						s0, s1);
+			}
+			return true;
+		}
+		boolean flat1 = deviation1 <= FLATNESS;
+		boolean flat2 = deviation2 <= FLATNESS;
+		if (flat1 && flat2) {
+			if (cross != 0) {
+				double ox = xs2[0] - xs1[0], oy = ys2[0] - ys1[0];
+				double t = (ox * dy2 - oy * dx2) / cross;
+				double s = (ox * dy1 - oy * dx1) / cross;
+				if (t >= 0 && t <= 1 && s >= 0 && s <= 1) {
+					// the chords cross at a small angle, so that the
+					// refinement may fail
+					double t2 = t0 + t * (t1 - t0), s2 = s0 + s * (s1 - s0);
+					if (!refine(e1, e2, t2, s2, t0, t1, s0, s1)) {
+						addCurveIntersection(t2, s2);
+					}
+				}
+			}
+			return true;
+		}
+		if (!flat1 && (flat2 || getExtent(xs1, ys1) >= getExtent(xs2,
+				ys2))) {
+			double tm = (t0 + t1) / 2;
+			double[][] splitX = split(xs1, 0.5), splitY = split(ys1, 0.5);
+			return subdivide(e1, e2, splitX[0], splitY[0], t0, tm, xs2, ys2,
+					s0, s1)
+					&& subdivide(e1, e2, splitX[1], splitY[1], tm, t1, xs2,
+							ys2, s0, s1);
+		}
+		double sm = (s0 + s1) / 2;
+		double[][] splitX = split(xs2, 0.5), splitY = split(ys2, 0.5);
+		return subdivide(e1, e2, xs1, ys1, t0, t1, splitX[0], splitY[0], s0,
+				sm)
+				&& subdivide(e1, e2, xs1, ys1, t0, t1, splitX[1], splitY[1],
+						sm, s1);
+	}
+
+	/**
+	 * Refines the given approximate intersection of the given edges using
+	 * Newton's method, and records it if it is located within the given
+	 * parameter ranges.
+	 *
+	 * @return <code>true</code> if the intersection was recorded, otherwise
+	 *         <code>false</code>.
+	 */
+	private boolean refine(Edge e1, Edge e2, double t, double s, double t0,
+			double t1, double s0, double s1) {
+		for (int i = 0; i < 16; i++) {
+			double fx = evaluate(e1.xs, t) - evaluate(e2.xs, s);
+			double fy = evaluate(e1.ys, t) - evaluate(e2.ys, s);
+			double ax = evaluateDerivative(e1.xs, t);
+			double ay = evaluateDerivative(e1.ys, t);
+			double bx = -evaluateDerivative(e2.xs, s);
+			double by = -evaluateDerivative(e2.ys, s);
+			double determinant = ax * by - ay * bx;
+			if (determinant == 0) {
+				break;
+			}
+			double dt = (fx * by - fy * bx) / determinant;
+			double ds = (ax * fy - ay * fx) / determinant;
+			t -= dt;
+			s -= ds;
+			if (Math.abs(dt) <= 1e-15 && Math.abs(ds) <= 1e-15) {
+				break;
+			}
+		}
+		double te = (t1 - t0) * 1e-9, se = (s1 - s0) * 1e-9;
+		if (t >= t0 - te && t <= t1 + te && s >= s0 - se && s <= s1 + se
+				&& isEqual(evaluate(e1.xs, t), evaluate(e1.ys, t),
+						evaluate(e2.xs, s), evaluate(e2.ys, s))) {
+			addCurveIntersection(Math.max(0, Math.min(1, t)),
+					Math.max(0, Math.min(1, s)));
+			return true;
+		}
+		return false;
+	}
+
+	private void addCurveIntersection(double t, double s) {
+		if (2 * numCurveIntersections == curveIntersections.length) {
+			curveIntersections = Arrays.copyOf(curveIntersections,
+					2 * curveIntersections.length);
+		}
+		curveIntersections[2 * numCurveIntersections] = t;
+		curveIntersections[2 * numCurveIntersections + 1] = s;
+		numCurveIntersections++;
+	}
+
+	/**
+	 * Returns the maximum distance of the inner control points from the chord
+	 * (given by its direction and length).
+	 */
+	private static double getDeviation(double[] xs, double[] ys, double dx,
+			double dy, double length) {
+		double deviation = 0;
+		for (int i = 1; i < xs.length - 1; i++) {
+			double ox = xs[i] - xs[0], oy = ys[i] - ys[0];
+			deviation = Math.max(deviation,
+					length == 0 ? Math.sqrt(ox * ox + oy * oy)
+							: Math.abs(ox * dy - oy * dx) / length);
+		}
+		return deviation;
+	}
+
+	private boolean isVertex(int vertex, double x, double y) {
+		return vertex >= 0 && isEqual(x, y, vertexX[vertex], vertexY[vertex]);
+	}
+
+	private static boolean overlap(double[] xs1, double[] ys1, double[] xs2,
+			double[] ys2) {
+		return min(xs1) <= max(xs2) + TOLERANCE
+				&& min(xs2) <= max(xs1) + TOLERANCE
+				&& min(ys1) <= max(ys2) + TOLERANCE
+				&& min(ys2) <= max(ys1) + TOLERANCE;
+	}
+
+	private static double min(double[] cs) {
+		double min = cs[0];
+		for (int i = 1; i < cs.length; i++) {
+			min = Math.min(min, cs[i]);
+		}
+		return min;
+	}
+
+	private static double max(double[] cs) {
+		double max = cs[0];
+		for (int i = 1; i < cs.length; i++) {
+			max = Math.max(max, cs[i]);
+		}
+		return max;
+	}
+
+	private static double getExtent(double[] xs, double[] ys) {
+		return Math.max(max(xs) - min(xs), max(ys) - min(ys));
+	}
+
+	/**
+	 * Intersects the given edges using {@link BezierCurve}s.
+	 *
+	 * @return <code>true</code> if the edges overlap, <code>false</code>
+	 *         otherwise.
+	 */
+	private boolean intersectOverlappingCurves(Edge e1, Edge e2) {
+		BezierCurve c1 = toBezierCurve(e1.xs, e1.ys);
+		BezierCurve c2 = toBezierCurve(e2.xs, e2.ys);
+		List<Point> points = new ArrayList<>(
+				Arrays.asList(c1.getIntersections(c2)));
+		BezierCurve overlap = c1.getOverlap(c2);
+		if (overlap != null) {
+			points.add(overlap.getP1());
+			points.add(overlap.getP2());
+		}
+		for (Point p : points) {
+			try {
+				addIntersection(e1, c1.getParameterAt(p), e2,
+						c2.getParameterAt(p), p.x, p.y);
+			} catch (IllegalArgumentException x) {
+				// the point is not precisely located on both curves
+			}
+		}
+		return overlap != null;
+	}
+
+	private static BezierCurve toBezierCurve(double[] xs, double[] ys) {
+		Point[] points = new Point[xs.length];
+		for (int i = 0; i < points.length; i++) {
+			points[i] = new Point(xs[i], ys[i]);
+		}
+		return new BezierCurve(points);
+	}
+
+	/**
+	 * Records an intersection of the given edges at the given parameter
+	 * values. Intersections at the end points of an edge are mapped to the
+	 * respective end point vertex.
+	 */
+	private void addIntersection(Edge e1, double t1, Edge e2, double t2,
+			double x, double y) {
+		int v1 = getEndVertex(e1, t1, x, y);
+		int v2 = getEndVertex(e2, t2, x, y);
+		if (v1 >= 0 && v2 >= 0) {
+			union(v1, v2);
+			return;
+		}
+		int vertex = v1 >= 0 ? v1 : v2 >= 0 ? v2 : createVertex(x, y);
+		if (v1 < 0) {
+			e1.addSplit(t1, vertex);
+		}
+		if (v2 < 0) {
+			e2.addSplit(t2, vertex);
+		}
+	}
+
+	private int getEndVertex(Edge edge, double t, double x, double y) {
+		if (t <= PARAMETER_TOLERANCE
+				|| isEqual(x, y, edge.xs[0], edge.ys[0])) {
+			return edge.start;
+		}
+		int last = edge.xs.length - 1;
+		if (t >= 1 - PARAMETER_TOLERANCE
+				|| isEqual(x, y, edge.xs[last], edge.ys[last])) {
+			return edge.end;
+		}
+		return -1;
+	}
+
+	/**
+	 * Splits all edges at their (sorted) intersection parameters.
+	 */
+	private List<Piece> splitEdges() {
+		List<Piece> pieces = new ArrayList<>();
+		for (Edge edge : edges) {
+			// sort the splits by parameter
+			int n = edge.numSplits;
+			Integer[] order = new Integer[n];
+			for (int i = 0; i < n; i++) {
+				order[i] = i;
+			}
+			final double[] parameters = edge.splitParameters;
+			Arrays.sort(order, new Comparator<Integer>() {
+				@Override
+				public int compare(Integer i1, Integer i2) {
+					return Double.compare(parameters[i1], parameters[i2]);
+				}
+			});
+
+			double[] xs = edge.xs, ys = edge.ys;
+			double previousT = 0;
+			int previousVertex = edge.start;
+			for (int i = 0; i < n; i++) {
+				double t = parameters[order[i]];
+				int vertex = edge.splitVertices[order[i]];
+				double u = (t - previousT) / (1 - previousT);
+				double[][] splitX = split(xs, u);
+				double[][] splitY = split(ys, u);
+				// the end points of a piece may coincide (at the
+				// self-intersection of a cubic edge), so that only degenerated
+				// pieces are merged into their neighbors
+				if (t - previousT <= PARAMETER_TOLERANCE
+						|| isDegenerated(splitX[0], splitY[0])) {
+					union(previousVertex, vertex);
+					continue;
+				}
+				if (1 - t <= PARAMETER_TOLERANCE
+						|| isDegenerated(splitX[1], splitY[1])) {
+					union(vertex, edge.end);
+					continue;
+				}
+				pieces.add(new Piece(splitX[0], splitY[0], previousVertex,
+						vertex));
+				xs = splitX[1];
+				ys = splitY[1];
+				previousT = t;
+				previousVertex = vertex;
+			}
+			pieces.add(new Piece(xs.clone(), ys.clone(), previousVertex,
+					edge.end));
+		}
+		return pieces;
+	}
+
+	/**
+	 * Merges vertices at the same location, which are created independently
+	 * when both paths intersect themselves at the same point, by sweeping over
+	 * the vertices in x-direction.
+	 */
+	private void mergeCoincidentVertices() {
+		Integer[] sorted = new Integer[numVertices];
+		for (int i = 0; i < numVertices; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer v1, Integer v2) {
+				return Double.compare(vertexX[v1], vertexX[v2]);
+			}
+		});
+		for (int i = 0; i < numVertices; i++) {
+			int v1 = sorted[i];
+			for (int j = i + 1; j < numVertices
+					&& vertexX[sorted[j]] - vertexX[v1] <= TOLERANCE; j++) {
+				int v2 = sorted[j];
+				if (Math.abs(vertexY[v1] - vertexY[v2]) <= TOLERANCE) {
+					union(v1, v2);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes pieces that connect the same vertices and share their middle
+	 * point with another piece, as well as degenerated pieces.
+	 */
+	private List<Piece> removeDuplicates(List<Piece> pieces) {
+		Map<Long, List<Piece>> piecesByVertices = new HashMap<>();
+		List<Piece> result = new ArrayList<>(pieces.size());
+		outer: for (Piece piece : pieces) {
+			piece.start = find(piece.start);
+			piece.end = find(piece.end);
+			double mx = evaluate(piece.xs, 0.5), my = evaluate(piece.ys, 0.5);
+			if (piece.start == piece.end && isEqual(mx, my,
+					vertexX[piece.start], vertexY[piece.start])) {
+				continue;
+			}
+			long key = ((long) Math.min(piece.start, piece.end) << 32)
+					| Math.max(piece.start, piece.end);
+			List<Piece> candidates = piecesByVertices.get(key);
+			if (candidates == null) {
+				candidates = new ArrayList<>(1);
+				piecesByVertices.put(key, candidates);
+			} else {
+				for (Piece candidate : candidates) {
+					if (isEqual(mx, my, evaluate(candidate.xs, 0.5),
+							evaluate(candidate.ys, 0.5))) {
+						continue outer;
+					}
+				}
+			}
+			candidates.add(piece);
+			result.add(piece);
+		}
+		return result;
+	}
+
+	/**
+	 * Determines if the given piece is part of the outline of the result,
+	 * and orients it so that the result is located to its left.
+	 */
+	private boolean classify(Piece piece) {
+		double t = 0.5;
+		double mx = evaluate(piece.xs, t), my = evaluate(piece.ys, t);
+		double tx = evaluateDerivative(piece.xs, t);
+		double ty = evaluateDerivative(piece.ys, t);
+		double length = Math.sqrt(tx * tx + ty * ty);
+		int last = piece.xs.length - 1;
+		double cx = piece.xs[last] - piece.xs[0];
+		double cy = piece.ys[last] - piece.ys[0];
+		double chord = Math.sqrt(cx * cx + cy * cy);
+		if (length <= TOLERANCE) {
+			tx = cx;
+			ty = cy;
+			length = chord;
+			if (length <= TOLERANCE) {
+				return false;
+			}
+		}
+		double offset = Math.min(100 * TOLERANCE,
+				Math.max(chord / 4, 10 * TOLERANCE)) / length;
+		// the left side (for a y-axis pointing downwards, this is the right
+		// side on screen, which is irrelevant as long as it is consistent)
+		double lx = mx - ty * offset, ly = my + tx * offset;
+		double rx = mx + ty * offset, ry = my - tx * offset;
+		boolean left = isInsideResult(lx, ly);
+		boolean right = isInsideResult(rx, ry);
+		if (left == right) {
+			return false;
+		}
+		if (!left) {
+			piece.reverse();
+		}
+		return true;
+	}
+
+	private boolean isInsideResult(double x, double y) {
+		boolean a = isInside(0, x, y);
+		switch (operation) {
+		case UNION:
+			return a || isInside(1, x, y);
+		case INTERSECTION:
+			return a && isInside(1, x, y);
+		case DIFFERENCE:
+			return a && !isInside(1, x, y);
+		default:
+			return a != isInside(1, x, y);
+		}
+	}
+
+	private boolean isInside(int owner, double x, double y) {
+		int winding = 0;
+		for (Edge edge : edgesByOwner.get(owner)) {
+			if (y < edge.minY || y > edge.maxY || x > edge.maxX) {
+				continue;
+			}
+			double[] xs = edge.xs, ys = edge.ys;
+			switch (xs.length) {
+			case 2:
+				winding += WindingNumbers.line(xs[0], ys[0], xs[1], ys[1], x,
+						y);
+				break;
+			case 3:
+				winding += WindingNumbers.quadratic(xs[0], ys[0], xs[1], ys[1],
+						xs[2], ys[2], x, y);
+				break;
+			default:
+				winding += WindingNumbers.cubic(xs[0], ys[0], xs[1], ys[1],
+						xs[2], ys[2], xs[3], ys[3], x, y);
+			}
+		}
+		return windingRules[owner] == Path.WIND_EVEN_ODD ? (winding & 1) != 0
+				: winding != 0;
+	}
+
+	/**
+	 * Links the given (oriented) pieces to closed contours.
+	 */
+	private Path link(List<Piece> pieces) {
+		// index the outgoing pieces of every vertex
+		int[] firstOutgoing = new int[numVertices + 1];
+		for (Piece piece : pieces) {
+			firstOutgoing[piece.start + 1]++;
+		}
+		for (int i = 0; i < numVertices; i++) {
+			firstOutgoing[i + 1] += firstOutgoing[i];
+		}
+		Piece[] outgoing = new Piece[pieces.size()];
+		int[] next = Arrays.copyOf(firstOutgoing, numVertices);
+		for (Piece piece : pieces) {
+			outgoing[next[piece.start]++] = piece;
+		}
+
+		Path path = new Path(Path.WIND_NON_ZERO);
+		for (Piece first : pieces) {
+			if (first.used) {
+				continue;
+			}
+			path.moveTo(vertexX[first.start], vertexY[first.start]);
+			Piece piece = first;
+			while (piece != null) {
+				piece.used = true;
+				if (piece.end == first.start) {
+					// a straight closing segment is implied by CLOSE
+					if (piece.xs.length > 2) {
+						appendSegment(path, piece);
+					}
+					break;
+				}
+				appendSegment(path, piece);
+				Piece successor = null;
+				int end = firstOutgoing[piece.end + 1];
+				for (int i = firstOutgoing[piece.end]; i < end; i++) {
+					if (!outgoing[i].used) {
+						successor = outgoing[i];
+						break;
+					}
+				}
+				if (successor == null) {
+					successor = getNearestUnused(pieces, piece.end,
+							first.start);
+					if (successor != null) {
+						path.lineTo(vertexX[successor.start],
+								vertexY[successor.start]);
+					}
+				}
+				piece = successor;
+			}
+			path.close();
+		}
+		return path;
+	}
+
+	/**
+	 * Returns the unused piece whose start vertex is nearest to the given
+	 * vertex, or <code>null</code> if the start vertex of the current contour
+	 * is nearer. This is only needed to bridge gaps caused by imprecisely
+	 * classified pieces (within very thin regions).
+	 */
+	private Piece getNearestUnused(List<Piece> pieces, int vertex,
+			int contourStart) {
+		double x = vertexX[vertex], y = vertexY[vertex];
+		double minDistance = Math.hypot(vertexX[contourStart] - x,
+				vertexY[contourStart] - y);
+		Piece nearest = null;
+		for (Piece piece : pieces) {
+			if (!piece.used) {
+				double distance = Math.hypot(vertexX[piece.start] - x,
+						vertexY[piece.start] - y);
+				if (distance < minDistance) {
+					minDistance = distance;
+					nearest = piece;
+				}
+			}
+		}
+		return nearest;
+	}
+
+	private void appendSegment(Path path, Piece piece) {
+		double x = vertexX[piece.end], y = vertexY[piece.end];
+		switch (piece.xs.length) {
+		case 2:
+			path.lineTo(x, y);
+			break;
+		case 3:
+			path.quadTo(piece.xs[1], piece.ys[1], x, y);
+			break;
+		default:
+			path.cubicTo(piece.xs[1], piece.ys[1], piece.xs[2], piece.ys[2], x,
+					y);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2017 IBM Corporation and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -23,7 +23,6 @@ import java.util.List;
 
 import org.eclipse.gef.geometry.euclidean.Angle;
 import org.eclipse.gef.geometry.euclidean.Straight;
-import org.eclipse.gef.geometry.euclidean.Vector;
 import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
 
 /**
@@ -312,13 +311,7 @@ public class Point implements Cloneable, Serializable {
 	 */
 	public static void rotateCCW(Point[] points, Angle angle, double cx,
 			double cy) {
-		translate(points, -cx, -cy);
-		for (Point p : points) {
-			Point np = new Vector(p).rotateCCW(angle).toPoint();
-			p.x = np.x;
-			p.y = np.y;
-		}
-		translate(points, cx, cy);
+		rotateCW(points, angle.getOppositeFull(), cx, cy);
 	}
 
 	/**
@@ -336,13 +329,15 @@ public class Point implements Cloneable, Serializable {
 	 */
 	public static void rotateCW(Point[] points, Angle angle, double cx,
 			double cy) {
-		translate(points, -cx, -cy);
+		// compute the rotation matrix once (equivalent to Vector#rotateCW)
+		double cos = Math.cos(angle.rad());
+		double sin = Math.sin(angle.rad());
 		for (Point p : points) {
-			Point np = new Vector(p).rotateCW(angle).toPoint();
-			p.x = np.x;
-			p.y = np.y;
+			double x = p.x - cx;
+			double y = p.y - cy;
+			p.x = x * cos - y * sin + cx;
+			p.y = x * sin + y * cos + cy;
 		}
-		translate(points, cx, cy);
 	}
 
 	/**
@@ -0,0 +1,710 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.eclipse.gef.geometry.euclidean.Angle;
+import org.eclipse.gef.geometry.internal.utils.PrecisionUtils;
+
+/**
+ * A {@link PointBuffer} is a growable sequence of points, which stores the
+ * coordinates of all points in a single <code>double</code> array (alternating
+ * x and y coordinates) instead of individual {@link Point} objects.
+ * <p>
+ * All bulk operations (translation, scaling, rotation, affine transformation)
+ * are performed in-place on the coordinate array, and the queries (bounds,
+ * centroid, convex hull, nearest point) do not create any intermediate
+ * {@link Point}s. Therefore, a {@link PointBuffer} is well suited for large
+ * point sequences, e.g. outlines that consist of many vertices.
+ * {@link Point}s, {@link Polyline}s, and {@link Polygon}s are only created on
+ * demand.
+ */
+public class PointBuffer implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	// returns twice the signed area of the triangle (ax, ay), (bx, by),
+	// (cx, cy), which is positive for a counter-clockwise turn
+	private static double cross(double ax, double ay, double bx, double by,
+			double cx, double cy) {
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+
+	// sorts the points lexicographically by x and y coordinates
+	private static void sort(double[] coordinates, int from, int to) {
+		while (to - from > 8) {
+			// median of three pivot selection
+			int mid = (from + to) >>> 1;
+			if (less(coordinates, mid, from)) {
+				swap(coordinates, mid, from);
+			}
+			if (less(coordinates, to - 1, from)) {
+				swap(coordinates, to - 1, from);
+			}
+			if (less(coordinates, to - 1, mid)) {
+				swap(coordinates, to - 1, mid);
+			}
+			double px = coordinates[2 * mid];
+			double py = coordinates[2 * mid + 1];
+
+			// Hoare partitioning
+			int i = from, j = to - 1;
+			while (i <= j) {
+				while (less(coordinates[2 * i], coordinates[2 * i + 1], px,
+						py)) {
+					i++;
+				}
+				while (less(px, py, coordinates[2 * j],
+						coordinates[2 * j + 1])) {
+					j--;
+				}
+				if (i <= j) {
+					swap(coordinates, i++, j--);
+				}
+			}
+
+			// recurse into the smaller part to limit the stack depth
+			if (j + 1 - from < to - i) {
+				sort(coordinates, from, j + 1);
+				from = i;
+			} else {
+				sort(coordinates, i, to);
+				to = j + 1;
+			}
+		}
+
+		// insertion sort for small ranges
+		for (int i = from + 1; i < to; i++) {
+			for (int j = i; j > from && less(coordinates, j, j - 1); j--) {
+				swap(coordinates, j, j - 1);
+			}
+		}
+	}
+
+	private static boolean less(double x1, double y1, double x2, double y2) {
+		return x1 < x2 || x1 == x2 && y1 < y2;
+	}
+
+	private static boolean less(double[] coordinates, int i, int j) {
+		return less(coordinates[2 * i], coordinates[2 * i + 1],
+				coordinates[2 * j], coordinates[2 * j + 1]);
+	}
+
+	private static void swap(double[] coordinates, int i, int j) {
+		double x = coordinates[2 * i];
+		double y = coordinates[2 * i + 1];
+		coordinates[2 * i] = coordinates[2 * j];
+		coordinates[2 * i + 1] = coordinates[2 * j + 1];
+		coordinates[2 * j] = x;
+		coordinates[2 * j + 1] = y;
+	}
+
+	/**
+	 * The alternating x and y coordinates of the points. Only the first
+	 * <code>2 * size</code> entries are valid.
+	 */
+	private double[] coordinates;
+
+	/**
+	 * The number of points.
+	 */
+	private int size;
+
+	/**
+	 * Constructs a new, empty {@link PointBuffer}.
+	 */
+	public PointBuffer() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructs a new {@link PointBuffer} from an even-numbered sequence of
+	 * coordinates. The coordinates are copied.
+	 *
+	 * @param coordinates
+	 *            an alternating, even-numbered sequence of x and y coordinates,
+	 *            representing the points from which the {@link PointBuffer} is
+	 *            to be created
+	 */
+	public PointBuffer(double... coordinates) {
+		if (coordinates.length % 2 != 0) {
+			throw new IllegalArgumentException(
+					"The number of coordinates has to be even, but is "
+							+ coordinates.length + ".");
+		}
+		this.coordinates = Arrays.copyOf(coordinates,
+				Math.max(coordinates.length, 2));
+		size = coordinates.length / 2;
+	}
+
+	/**
+	 * Constructs a new, empty {@link PointBuffer}, which is able to store the
+	 * given number of points before it has to grow.
+	 *
+	 * @param capacity
+	 *            the initial capacity (number of points)
+	 */
+	public PointBuffer(int capacity) {
+		if (capacity < 0) {
+			throw new IllegalArgumentException(
+					"The capacity may not be negative, but is " + capacity
+							+ ".");
+		}
+		coordinates = new double[2 * Math.max(capacity, 1)];
+	}
+
+	/**
+	 * Constructs a new {@link PointBuffer} from the given sequence of
+	 * {@link Point}s.
+	 *
+	 * @param points
+	 *            a sequence of points, from which the {@link PointBuffer} is to
+	 *            be created
+	 */
+	public PointBuffer(Point... points) {
+		this(points.length);
+		for (Point p : points) {
+			coordinates[2 * size] = p.x;
+			coordinates[2 * size + 1] = p.y;
+			size++;
+		}
+	}
+
+	/**
+	 * Constructs a new {@link PointBuffer} from the vertices of the given
+	 * {@link Polygon}. In contrast to {@link Polygon#getPoints()}, no
+	 * intermediate {@link Point}s are created.
+	 *
+	 * @param polygon
+	 *            the {@link Polygon} whose vertices are copied
+	 */
+	public PointBuffer(Polygon polygon) {
+		this(polygon.points);
+	}
+
+	/**
+	 * Constructs a new {@link PointBuffer} from the vertices of the given
+	 * {@link Polyline}. In contrast to {@link Polyline#getPoints()}, no
+	 * intermediate {@link Point}s are created.
+	 *
+	 * @param polyline
+	 *            the {@link Polyline} whose vertices are copied
+	 */
+	public PointBuffer(Polyline polyline) {
+		this(polyline.points);
+	}
+
+	/**
+	 * Appends a point with the given coordinates to this {@link PointBuffer}.
+	 *
+	 * @param x
+	 *            the x-coordinate of the new point
+	 * @param y
+	 *            the y-coordinate of the new point
+	 * @return <code>this</code> for convenience
+	 */
+	public PointBuffer add(double x, double y) {
+		ensureCapacity(size + 1);
+		coordinates[2 * size] = x;
+		coordinates[2 * size + 1] = y;
+		size++;
+		return this;
+	}
+
+	/**
+	 * Appends the given {@link Point} to this {@link PointBuffer}.
+	 *
+	 * @param p
+	 *            the {@link Point} to append
+	 * @return <code>this</code> for convenience
+	 */
+	public PointBuffer add(Point p) {
+		return add(p.x, p.y);
+	}
+
+	/**
+	 * Appends all points of the given {@link PointBuffer} to this
+	 * {@link PointBuffer}.
+	 *
+	 * @param other
+	 *            the {@link PointBuffer} whose points are appended
+	 * @return <code>this</code> for convenience
+	 */
+	public PointBuffer addAll(PointBuffer other) {
+		int otherSize = other.size;
+		ensureCapacity(size + otherSize);
+		System.arraycopy(other.coordinates, 0, coordinates, 2 * size,
+				2 * otherSize);
+		size += otherSize;
+		return this;
+	}
+
+	private void checkIndex(int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(
+					"Index: " + index + ", Size: " + size);
+		}
+	}
+
+	/**
+	 * Removes all points from this {@link PointBuffer}. The capacity is
+	 * retained.
+	 *
+	 * @return <code>this</code> for convenience
+	 */
+	public PointBuffer clear() {
+		size = 0;
+		return this;
+	}
+
+	/**
+	 * Ensures that this {@link PointBuffer} is able to store at least the
+	 * given number of points without growing.
+	 *
+	 * @param capacity
+	 *            the minimum capacity (number of points)
+	 */
+	public void ensureCapacity(int capacity) {
+		if (2 * capacity > coordinates.length) {
+			coordinates = Arrays.copyOf(coordinates,
+					Math.max(2 * capacity, 2 * coordinates.length));
+		}
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) {
+			return true;
+		}
+		if (!(o instanceof PointBuffer)) {
+			return false;
+		}
+		PointBuffer other = (PointBuffer) o;
+		if (size != other.size) {
+			return false;
+		}
+		for (int i = 0; i < 2 * size; i++) {
+			if (!PrecisionUtils.equal(coordinates[i], other.coordinates[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the smallest {@link Rectangle} that encloses all points of this
+	 * {@link PointBuffer}. If this {@link PointBuffer} is empty, an empty
+	 * {@link Rectangle} is returned.
+	 *
+	 * @return the bounds of this {@link PointBuffer}
+	 * @see Point#getBounds(Point...)
+	 */
+	public Rectangle getBounds() {
+		if (size == 0) {
+			return new Rectangle();
+		}
+		double minX = coordinates[0], minY = coordinates[1];
+		double maxX = minX, maxY = minY;
+		for (int i = 2; i < 2 * size; i += 2) {
+			double x = coordinates[i];
+			double y = coordinates[i + 1];
+			if (x < minX) {
+				minX = x;
+			} else if (x > maxX) {
+				maxX = x;
+			}
+			if (y < minY) {
+				minY = y;
+			} else if (y > maxY) {
+				maxY = y;
+			}
+		}
+		return new Rectangle(minX, minY, maxX - minX, maxY - minY);
+	}
+
+	/**
+	 * Computes the centroid of the {@link Polygon} that is spanned by the
+	 * points of this {@link PointBuffer}. Returns <code>null</code> if this
+	 * {@link PointBuffer} is empty.
+	 *
+	 * @return the centroid of this {@link PointBuffer}
+	 * @see Point#getCentroid(Point...)
+	 */
+	public Point getCentroid() {
+		if (size == 0) {
+			return null;
+		} else if (size == 1) {
+			return new Point(coordinates[0], coordinates[1]);
+		}
+
+		double cx = 0, cy = 0, sa = 0;
+		double x1 = coordinates[2 * size - 2], y1 = coordinates[2 * size - 1];
+		for (int i = 0; i < 2 * size; i += 2) {
+			double x2 = coordinates[i];
+			double y2 = coordinates[i + 1];
+			double a = x1 * y2 - y1 * x2;
+			sa += a;
+			cx += (x1 + x2) * a;
+			cy += (y1 + y2) * a;
+			x1 = x2;
+			y1 = y2;
+		}
+
+		if (sa == 0) {
+			return new Point(cx, cy);
+		} else {
+			return new Point(cx / (3 * sa), cy / (3 * sa));
+		}
+	}
+
+	/**
+	 * Computes the convex hull of the points of this {@link PointBuffer}
+	 * (using Andrew's monotone chain algorithm). The vertices of the convex
+	 * hull are returned in counter-clockwise order (with regard to a y-axis
+	 * that points upwards), starting at the vertex with the lowest x- (and
+	 * y-) coordinate. Duplicate and collinear points are not part of the
+	 * result.
+	 *
+	 * @return a new {@link PointBuffer} containing the vertices of the convex
+	 *         hull of this {@link PointBuffer}
+	 * @see Point#getConvexHull(Point...)
+	 */
+	public PointBuffer getConvexHull() {
+		double[] sorted = Arrays.copyOf(coordinates, 2 * size);
+		sort(sorted, 0, size);
+
+		PointBuffer hull = new PointBuffer(size + 1);
+		double[] h = hull.coordinates;
+		int n = 0;
+		// lower hull
+		for (int i = 0; i < size; i++) {
+			double x = sorted[2 * i], y = sorted[2 * i + 1];
+			while (n >= 2 && cross(h[2 * n - 4], h[2 * n - 3], h[2 * n - 2],
+					h[2 * n - 1], x, y) <= 0) {
+				n--;
+			}
+			if (n == 0 || x != h[2 * n - 2] || y != h[2 * n - 1]) {
+				h[2 * n] = x;
+				h[2 * n + 1] = y;
+				n++;
+			}
+		}
+		// upper hull
+		int lower = n + 1;
+		for (int i = size - 2; i >= 0; i--) {
+			double x = sorted[2 * i], y = sorted[2 * i + 1];
+			while (n >= lower && cross(h[2 * n - 4], h[2 * n - 3],
+					h[2 * n - 2], h[2 * n - 1], x, y) <= 0) {
+				n--;
+			}
+			if (x != h[2 * n - 2] || y != h[2 * n - 1]) {
+				h[2 * n] = x;
+				h[2 * n + 1] = y;
+				n++;
+			}
+		}
+		// the last point equals the first one
+		if (n > 1 && h[2 * n - 2] == h[0] && h[2 * n - 1] == h[1]) {
+			n--;
+		}
+		hull.size = n;
+		return hull;
+	}
+
+	/**
+	 * Returns an array that alternately contains the x and y coordinates of
+	 * the points of this {@link PointBuffer}.
+	 *
+	 * @return a new array containing the coordinates of this
+	 *         {@link PointBuffer}
+	 */
+	public double[] getCoordinates() {
+		return Arrays.copyOf(coordinates, 2 * size);
+	}
+
+	/**
+	 * Returns a copy of this {@link PointBuffer}.
+	 *
+	 * @return a new {@link PointBuffer} with the same points
+	 */
+	public PointBuffer getCopy() {
+		return new PointBuffer(getCoordinates());
+	}
+
+	/**
+	 * Returns the index of (one of) the point(s) with minimal distance to the
+	 * given reference point, or <code>-1</code> if this {@link PointBuffer}
+	 * is empty.
+	 *
+	 * @param x
+	 *            the x-coordinate of the reference point
+	 * @param y
+	 *            the y-coordinate of the reference point
+	 * @return the index of the nearest point
+	 * @see Point#nearest(Point, Point...)
+	 */
+	public int getNearestIndex(double x, double y) {
+		int nearest = -1;
+		double minDistanceSquared = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			double dx = coordinates[2 * i] - x;
+			double dy = coordinates[2 * i + 1] - y;
+			double d = dx * dx + dy * dy;
+			if (d < minDistanceSquared) {
+				minDistanceSquared = d;
+				nearest = i;
+			}
+		}
+		return nearest;
+	}
+
+	/**
+	 * Returns the point at the given index.
+	 *
+	 * @param index
+	 *            the index of the point
+	 * @return a new {@link Point} with the coordinates of the point at the
+	 *         given index
+	 */
+	public Point getPoint(int index) {
+		checkIndex(index);
+		return new Point(coordinates[2 * index], coordinates[2 * index + 1]);
+	}
+
+	/**
+	 * Returns the x-coordinate of the point at the given index.
+	 *
+	 * @param index
+	 *            the index of the point
+	 * @return the x-coordinate of the point at the given index
+	 */
+	public double getX(int index) {
+		checkIndex(index);
+		return coordinates[2 * index];
+	}
+
+	/**
+	 * Returns the y-coordinate of the point at the given index.
+	 *
+	 * @param index
+	 *            the index of the point
+	 * @return the y-coordinate of the point at the given index
+	 */
+	public double getY(int index) {
+		checkIndex(index);
+		return coordinates[2 * index + 1];
+	}
+
+	@Override
+	public int hashCode() {
+		// calculating a better hashCode is not possible, because due to the
+		// imprecision, equals() is no longer transitive
+		return size;
+	}
+
+	/**
+	 * Returns <code>true</code> if this {@link PointBuffer} does not contain
+	 * any points.
+	 *
+	 * @return <code>true</code> if this {@link PointBuffer} is empty,
+	 *         otherwise <code>false</code>
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Rotates (in-place) the points of this {@link PointBuffer}
+	 * counter-clock-wise (CCW) by the given {@link Angle} around the given
+	 * pivot point.
+	 *
+	 * @param angle
+	 *            the rotation {@link Angle}
+	 * @param cx
+	 *            the x-coordinate of the rotation's pivot point
+	 * @param cy
+	 *            the y-coordinate of the rotation's pivot point
+	 * @return <code>this</code> for convenience
+	 * @see Point#rotateCCW(Point[], Angle, double, double)
+	 */
+	public PointBuffer rotateCCW(Angle angle, double cx, double cy) {
+		return rotateCW(angle.getOppositeFull(), cx, cy);
+	}
+
+	/**
+	 * Rotates (in-place) the points of this {@link PointBuffer} clock-wise
+	 * (CW) by the given {@link Angle} around the given pivot point.
+	 *
+	 * @param angle
+	 *            the rotation {@link Angle}
+	 * @param cx
+	 *            the x-coordinate of the rotation's pivot point
+	 * @param cy
+	 *            the y-coordinate of the rotation's pivot point
+	 * @return <code>this</code> for convenience
+	 * @see Point#rotateCW(Point[], Angle, double, double)
+	 */
+	public PointBuffer rotateCW(Angle angle, double cx, double cy) {
+		double cos = Math.cos(angle.rad());
+		double sin = Math.sin(angle.rad());
+		for (int i = 0; i < 2 * size; i += 2) {
+			double x = coordinates[i] - cx;
+			double y = coordinates[i + 1] - cy;
+			coordinates[i] = x * cos - y * sin + cx;
+			coordinates[i + 1] = x * sin + y * cos + cy;
+		}
+		return this;
+	}
+
+	/**
+	 * Scales (in-place) the points of this {@link PointBuffer} by the given x
+	 * and y scale factors around the given pivot point.
+	 *
+	 * @param fx
+	 *            the horizontal scale factor
+	 * @param fy
+	 *            the vertical scale factor
+	 * @param cx
+	 *            the x-coordinate of the scale's pivot point
+	 * @param cy
+	 *            the y-coordinate of the scale's pivot point
+	 * @return <code>this</code> for convenience
+	 * @see Point#scale(Point[], double, double, double, double)
+	 */
+	public PointBuffer scale(double fx, double fy, double cx, double cy) {
+		for (int i = 0; i < 2 * size; i += 2) {
+			coordinates[i] = (coordinates[i] - cx) * fx + cx;
+			coordinates[i + 1] = (coordinates[i + 1] - cy) * fy + cy;
+		}
+		return this;
+	}
+
+	/**
+	 * Sets the coordinates of the point at the given index.
+	 *
+	 * @param index
+	 *            the index of the point
+	 * @param x
+	 *            the new x-coordinate
+	 * @param y
+	 *            the new y-coordinate
+	 * @return <code>this</code> for convenience
+	 */
+	public PointBuffer set(int index, double x, double y) {
+		checkIndex(index);
+		coordinates[2 * index] = x;
+		coordinates[2 * index + 1] = y;
+		return this;
+	}
+
+	/**
+	 * Returns the number of points in this {@link PointBuffer}.
+	 *
+	 * @return the number of points
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the points of this {@link PointBuffer} as an array of
+	 * {@link Point}s.
+	 *
+	 * @return a new array of new {@link Point}s
+	 */
+	public Point[] toPoints() {
+		Point[] points = new Point[size];
+		for (int i = 0; i < size; i++) {
+			points[i] = new Point(coordinates[2 * i], coordinates[2 * i + 1]);
+		}
+		return points;
+	}
+
+	/**
+	 * Creates a {@link Polygon} from the points of this {@link PointBuffer}.
+	 * The {@link Point}s are created only once and are directly adopted by the
+	 * new {@link Polygon}.
+	 *
+	 * @return a new {@link Polygon} with the points of this
+	 *         {@link PointBuffer} as its vertices
+	 */
+	public Polygon toPolygon() {
+		Polygon polygon = new Polygon(new Point[0]);
+		polygon.points = toPoints();
+		return polygon;
+	}
+
+	/**
+	 * Creates a {@link Polyline} from the points of this {@link PointBuffer}.
+	 * The {@link Point}s are created only once and are directly adopted by the
+	 * new {@link Polyline}.
+	 *
+	 * @return a new {@link Polyline} with the points of this
+	 *         {@link PointBuffer} as its vertices
+	 */
+	public Polyline toPolyline() {
+		Polyline polyline = new Polyline(new Point[0]);
+		polyline.points = toPoints();
+		return polyline;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("PointBuffer[");
+		for (int i = 0; i < size; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append('(').append(coordinates[2 * i]).append(", ")
+					.append(coordinates[2 * i + 1]).append(')');
+		}
+		return sb.append(']').toString();
+	}
+
+	/**
+	 * Transforms (in-place) the points of this {@link PointBuffer} with the
+	 * given {@link AffineTransform}.
+	 *
+	 * @param t
+	 *            the {@link AffineTransform} to apply
+	 * @return <code>this</code> for convenience
+	 */
+	public PointBuffer transform(AffineTransform t) {
+		t.transform(coordinates, 0, coordinates, 0, size);
+		return this;
+	}
+
+	/**
+	 * Translates (in-place) the points of this {@link PointBuffer} by the
+	 * given offsets.
+	 *
+	 * @param dx
+	 *            the x offset
+	 * @param dy
+	 *            the y offset
+	 * @return <code>this</code> for convenience
+	 * @see Point#translate(Point[], double, double)
+	 */
+	public PointBuffer translate(double dx, double dy) {
+		for (int i = 0; i < 2 * size; i += 2) {
+			coordinates[i] += dx;
+			coordinates[i + 1] += dy;
+		}
+		return this;
+	}
+
+}
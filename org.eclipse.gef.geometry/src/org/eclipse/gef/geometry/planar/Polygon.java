@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2011, 2016 itemis AG and others.
+ * Copyright (c) 2011, 2017 itemis AG and others.
  *
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
@@ -313,94 +313,45 @@ public class Polygon extends AbstractPointListBasedGeometry<Polygon>
 		} else if (points.length == 2) {
 			return new Line(points[0], points[1]).contains(p);
 		} else {
-			// perform a quick rejection test via the bounds
-			Rectangle bounds = getBounds();
-			if (!bounds.contains(p)) {
-				return false;
-			}
-
-			/*
-			 * choose a point p' outside the polygon:
-			 */
-			Point pp = new Point(p.x + bounds.getWidth() + 1, p.y);
-
-			/*
-			 * construct a line from p to p':
-			 */
-			Line testLine = new Line(p, pp);
-
-			/*
-			 * compute if there is an even or odd number of intersection of the
-			 * test line with all sides of the polygon; handle the special case
-			 * the point is located on one of the sides
-			 */
-			boolean odd = false;
+			// count the crossings of the sides with a ray in positive
+			// x-direction (even-odd rule); points on a side are contained
+			double x = p.x, y = p.y;
+			int crossings = 0;
 			for (int i = 0; i < points.length; i++) {
 				Point p1 = points[i];
 				Point p2 = points[i + 1 < points.length ? i + 1 : 0];
-
-				// check whether the point is located on the current side
-				if (p1.equals(p2)) {
-					if (p1.equals(p)) {
-						return true;
-					}
-					continue;
-				}
-
-				Line segment = new Line(p1, p2);
-
-				if (segment.contains(p)) {
+				if (isOnSide(p1, p2, x, y)) {
 					return true;
 				}
-
-				/*
-				 * check if one of the two vertices of the link line is
-				 * contained by the test line. the containment test is done to
-				 * handle special cases where the intersection has to be counted
-				 * appropriately.
-				 * 
-				 * 1) if the vertex is above (greater y-component) the other
-				 * point of the line, it is counted once.
-				 * 
-				 * 2) if the vertex is below (lower y-component) or on the same
-				 * height as the other point of the line, it is omitted.
-				 */
-				boolean p1contained = testLine.contains(p1);
-				boolean p2contained = testLine.contains(p2);
-
-				// TODO: is imprecision needed for this test?
-				if (p1contained || p2contained) {
-					if (p1contained) {
-						if (p1.y > p2.y) {
-							odd = !odd;
-						}
-					}
-					if (p2contained) {
-						if (p2.y > p1.y) {
-							odd = !odd;
-						}
-					}
-					continue;
-				}
-
-				/*
-				 * check the current link for an intersection with the test
-				 * line. if there is an intersection, change state.
-				 * 
-				 * Special case error prevention: If the point in question (p)
-				 * is very near to an edge of and inside the polygon, it can
-				 * happen, that the edge.contains(p) is false, but an
-				 * intersection can be found, although p is right to the edge.
-				 * To prevent a wrong state change, the intersection has to be
-				 * right-of p.
-				 */
-				Point poi = testLine.getIntersection(segment);
-				if (poi != null && poi.x >= p.x) {
-					odd = !odd;
-				}
+				crossings += WindingNumbers.line(p1.x, p1.y, p2.x, p2.y, x, y);
 			}
-			return odd;
+			return (crossings & 1) != 0;
+		}
+	}
+
+	/**
+	 * Checks if the given point is located on the side from <i>p1</i> to
+	 * <i>p2</i>, i.e. this is equivalent to
+	 * <code>new Line(p1, p2).contains(new Point(x, y))</code> but does not
+	 * allocate any objects.
+	 */
+	private static boolean isOnSide(Point p1, Point p2, double x, double y) {
+		if (p1.equals(x, y) || p2.equals(x, y)) {
+			return true;
+		}
+		if (!PrecisionUtils.greaterEqual(x, Math.min(p1.x, p2.x))
+				|| !PrecisionUtils.smallerEqual(x, Math.max(p1.x, p2.x))
+				|| !PrecisionUtils.greaterEqual(y, Math.min(p1.y, p2.y))
+				|| !PrecisionUtils.smallerEqual(y, Math.max(p1.y, p2.y))) {
+			return false;
+		}
+		double dx = p2.x - p1.x, dy = p2.y - p1.y;
+		double length = Math.sqrt(dx * dx + dy * dy);
+		if (length == 0) {
+			return false;
 		}
+		return PrecisionUtils.equal(
+				((x - p1.x) * dy - (y - p1.y) * dx) / length, 0);
 	}
 
 	/**
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.geometry.planar;
+
+/**
+ * Computes the contributions of line and Bezier segments to the winding number
+ * of a point, without allocating any objects.
+ * <p>
+ * The contribution of a segment is the signed number of its crossings with the
+ * ray that starts at the point and points into positive x-direction: a
+ * crossing in positive y-direction counts +1, a crossing in negative
+ * y-direction counts -1. Curves are divided into pieces that are monotone in
+ * y-direction. Every piece includes its lower end point but excludes its upper
+ * one, so that a vertex shared by two segments of a closed outline is counted
+ * exactly once. Consequently, points on the right or bottom side of an outline
+ * are regarded to be outside (as it is done by AWT).
+ */
+final class WindingNumbers {
+
+	/**
+	 * Computes the winding number contribution of the line from (x1, y1) to
+	 * (x2, y2) for the point (px, py).
+	 *
+	 * @param x1
+	 *            The x-coordinate of the start point.
+	 * @param y1
+	 *            The y-coordinate of the start point.
+	 * @param x2
+	 *            The x-coordinate of the end point.
+	 * @param y2
+	 *            The y-coordinate of the end point.
+	 * @param px
+	 *            The x-coordinate of the point.
+	 * @param py
+	 *            The y-coordinate of the point.
+	 * @return The winding number contribution (-1, 0, or 1).
+	 */
+	static int line(double x1, double y1, double x2, double y2, double px,
+			double py) {
+		if (y1 <= py && py < y2) {
+			// upwards, the crossing is right of the point if the point is
+			// left of the line
+			return (x2 - x1) * (py - y1) - (px - x1) * (y2 - y1) > 0 ? 1 : 0;
+		} else if (y2 <= py && py < y1) {
+			return (x2 - x1) * (py - y1) - (px - x1) * (y2 - y1) < 0 ? -1
+					: 0;
+		}
+		return 0;
+	}
+
+	/**
+	 * Computes the winding number contribution of the quadratic Bezier curve
+	 * with the given control points for the point (px, py).
+	 *
+	 * @param x1
+	 *            The x-coordinate of the start point.
+	 * @param y1
+	 *            The y-coordinate of the start point.
+	 * @param cx
+	 *            The x-coordinate of the control point.
+	 * @param cy
+	 *            The y-coordinate of the control point.
+	 * @param x2
+	 *            The x-coordinate of the end point.
+	 * @param y2
+	 *            The y-coordinate of the end point.
+	 * @param px
+	 *            The x-coordinate of the point.
+	 * @param py
+	 *            The y-coordinate of the point.
+	 * @return The winding number contribution.
+	 */
+	static int quadratic(double x1, double y1, double cx, double cy,
+			double x2, double y2, double px, double py) {
+		// degree elevation
+		return cubic(x1, y1, x1 + 2 * (cx - x1) / 3, y1 + 2 * (cy - y1) / 3,
+				x2 + 2 * (cx - x2) / 3, y2 + 2 * (cy - y2) / 3, x2, y2, px,
+				py);
+	}
+
+	/**
+	 * Computes the winding number contribution of the cubic Bezier curve with
+	 * the given control points for the point (px, py).
+	 *
+	 * @param x1
+	 *            The x-coordinate of the start point.
+	 * @param y1
+	 *            The y-coordinate of the start point.
+	 * @param cx1
+	 *            The x-coordinate of the first control point.
+	 * @param cy1
+	 *            The y-coordinate of the first control point.
+	 * @param cx2
+	 *            The x-coordinate of the second control point.
+	 * @param cy2
+	 *            The y-coordinate of the second control point.
+	 * @param x2
+	 *            The x-coordinate of the end point.
+	 * @param y2
+	 *            The y-coordinate of the end point.
+	 * @param px
+	 *            The x-coordinate of the point.
+	 * @param py
+	 *            The y-coordinate of the point.
+	 * @return The winding number contribution.
+	 */
+	static int cubic(double x1, double y1, double cx1, double cy1, double cx2,
+			double cy2, double x2, double y2, double px, double py) {
+		// the curve is contained in the bounds of its control points
+		if (py < y1 && py < cy1 && py < cy2 && py < y2
+				|| py >= y1 && py >= cy1 && py >= cy2 && py >= y2
+				|| px >= x1 && px >= cx1 && px >= cx2 && px >= x2) {
+			return 0;
+		}
+		if (px < x1 && px < cx1 && px < cx2 && px < x2) {
+			// every crossing is located to the right
+			return line(x1, y1, x2, y2, px, py);
+		}
+
+		// power basis: a t^3 + b t^2 + c t + d
+		double ax = x2 - x1 + 3 * (cx1 - cx2);
+		double bx = 3 * (x1 - 2 * cx1 + cx2);
+		double cx = 3 * (cx1 - x1);
+		double ay = y2 - y1 + 3 * (cy1 - cy2);
+		double by = 3 * (y1 - 2 * cy1 + cy2);
+		double cy = 3 * (cy1 - y1);
+
+		// extrema in y-direction, i.e. roots of 3 a t^2 + 2 b t + c
+		double t1 = Double.NaN, t2 = Double.NaN;
+		if (Math.abs(ay) <= 1e-12 * (Math.abs(by) + Math.abs(cy))) {
+			if (by != 0) {
+				t1 = -cy / (2 * by);
+			}
+		} else {
+			double discriminant = by * by - 3 * ay * cy;
+			if (discriminant >= 0) {
+				double sqrt = Math.sqrt(discriminant);
+				t1 = (-by - sqrt) / (3 * ay);
+				t2 = (-by + sqrt) / (3 * ay);
+				if (t1 > t2) {
+					double t = t1;
+					t1 = t2;
+					t2 = t;
+				}
+			}
+		}
+		if (!(t1 > 0 && t1 < 1)) {
+			t1 = t2;
+			t2 = Double.NaN;
+		}
+		if (!(t2 > t1 && t2 < 1)) {
+			t2 = Double.NaN;
+		}
+
+		// sum up the monotone pieces
+		if (!(t1 > 0 && t1 < 1)) {
+			return monotone(ax, bx, cx, x1, ay, by, cy, y1, 0, y1, 1, y2, px,
+					py);
+		}
+		double yt1 = ((ay * t1 + by) * t1 + cy) * t1 + y1;
+		if (Double.isNaN(t2)) {
+			return monotone(ax, bx, cx, x1, ay, by, cy, y1, 0, y1, t1, yt1,
+					px, py)
+					+ monotone(ax, bx, cx, x1, ay, by, cy, y1, t1, yt1, 1, y2,
+							px, py);
+		}
+		double yt2 = ((ay * t2 + by) * t2 + cy) * t2 + y1;
+		return monotone(ax, bx, cx, x1, ay, by, cy, y1, 0, y1, t1, yt1, px, py)
+				+ monotone(ax, bx, cx, x1, ay, by, cy, y1, t1, yt1, t2, yt2,
+						px, py)
+				+ monotone(ax, bx, cx, x1, ay, by, cy, y1, t2, yt2, 1, y2, px,
+						py);
+	}
+
+	/**
+	 * Computes the winding number contribution of the piece [t0;t1] of the
+	 * cubic curve (given in power basis), which is monotone in y-direction.
+	 */
+	private static int monotone(double ax, double bx, double cx, double dx,
+			double ay, double by, double cy, double dy, double t0, double y0,
+			double t1, double y1, double px, double py) {
+		boolean up;
+		if (y0 <= py && py < y1) {
+			up = true;
+		} else if (y1 <= py && py < y0) {
+			up = false;
+		} else {
+			return 0;
+		}
+
+		// find the parameter of the crossing using Newton's method,
+		// safeguarded by bisection
+		double lo = t0, hi = t1;
+		double t = (lo + hi) / 2;
+		for (int i = 0; i < 64; i++) {
+			double f = ((ay * t + by) * t + cy) * t + dy - py;
+			if (f == 0) {
+				break;
+			}
+			if (f < 0 == up) {
+				lo = t;
+			} else {
+				hi = t;
+			}
+			double derivative = (3 * ay * t + 2 * by) * t + cy;
+			double next = derivative == 0 ? lo : t - f / derivative;
+			if (next <= lo || next >= hi) {
+				next = (lo + hi) / 2;
+			}
+			if (Math.abs(next - t) <= 1e-15) {
+				t = next;
+				break;
+			}
+			t = next;
+		}
+		double x = ((ax * t + bx) * t + cx) * t + dx;
+		if (x > px) {
+			return up ? 1 : -1;
+		}
+		return 0;
+	}
+
+	private WindingNumbers() {
+		// this class should not be instantiated by clients
+	}
+
+}
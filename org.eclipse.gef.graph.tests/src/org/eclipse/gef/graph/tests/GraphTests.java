@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.junit.Test;
+
+import javafx.collections.MapChangeListener;
+
+public class GraphTests {
+
+	@Test
+	public void deferAttributeChanges() {
+		Node n = new Node();
+		Node m = new Node();
+		n.getAttributes().put("unchanged", "value");
+		Graph graph = new Graph(Arrays.asList(n, m), Collections.<Edge> emptyList());
+		final List<MapChangeListener.Change<? extends String, ? extends Object>> changes = new ArrayList<>();
+		n.attributesProperty().addListener(new MapChangeListener<String, Object>() {
+			@Override
+			public void onChanged(MapChangeListener.Change<? extends String, ? extends Object> change) {
+				changes.add(change);
+			}
+		});
+
+		graph.beginAttributeChanges();
+		graph.beginAttributeChanges();
+		assertTrue(graph.isDeferringAttributeChanges());
+		n.getAttributes().put("key", 1);
+		n.getAttributes().put("key", 2);
+		n.getAttributes().put("unchanged", "other");
+		n.getAttributes().put("unchanged", "value");
+		// values are changed immediately, but not notified
+		assertEquals(2, n.getAttributes().get("key"));
+		assertTrue(changes.isEmpty());
+		graph.commitAttributeChanges();
+		assertTrue(changes.isEmpty());
+		graph.commitAttributeChanges();
+		assertFalse(graph.isDeferringAttributeChanges());
+
+		// a single change is notified per changed key
+		assertEquals(1, changes.size());
+		assertEquals("key", changes.get(0).getKey());
+		assertNull(changes.get(0).getValueRemoved());
+		assertEquals(2, changes.get(0).getValueAdded());
+
+		// changes are notified immediately after commit
+		n.getAttributes().remove("key");
+		assertEquals(2, changes.size());
+		assertTrue(changes.get(1).wasRemoved());
+		assertFalse(changes.get(1).wasAdded());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void commitAttributeChangesWithoutBegin() {
+		new Graph().commitAttributeChanges();
+	}
+
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.junit.Test;
+
+public class NodeTests {
+
+	@Test
+	public void adjacencyFollowsEdgeChanges() {
+		Node a = new Node();
+		Node b = new Node();
+		Node c = new Node();
+		Edge ab = new Edge(a, b);
+		Edge bc = new Edge(b, c);
+		Graph graph = new Graph(Arrays.asList(a, b, c), Arrays.asList(ab, bc));
+		assertEquals(Collections.singleton(ab), b.getIncomingEdges());
+		assertEquals(Collections.singleton(bc), b.getOutgoingEdges());
+		assertEquals(Collections.singleton(a), b.getPredecessorNodes());
+		assertEquals(Collections.singleton(c), b.getSuccessorNodes());
+		assertEquals(new HashSet<>(Arrays.asList(a, c)), b.getNeighbors());
+
+		// change the target of an edge
+		ab.setTarget(c);
+		assertTrue(b.getIncomingEdges().isEmpty());
+		assertEquals(Collections.singleton(c), b.getNeighbors());
+		assertEquals(new HashSet<>(Arrays.asList(ab, bc)), c.getIncomingEdges());
+		assertEquals(new HashSet<>(Arrays.asList(a, b)), c.getPredecessorNodes());
+
+		// remove an edge
+		graph.getEdges().remove(bc);
+		assertTrue(b.getNeighbors().isEmpty());
+		assertEquals(Collections.singleton(a), c.getPredecessorNodes());
+
+		// add an edge
+		Edge ca = new Edge(c, a);
+		graph.getEdges().add(ca);
+		assertEquals(Collections.singleton(ca), a.getIncomingEdges());
+		assertEquals(Collections.singleton(c), a.getNeighbors());
+		assertEquals(Collections.singleton(a), c.getSuccessorNodes());
+	}
+
+	@Test
+	public void adjacencyOfParallelEdges() {
+		Node a = new Node();
+		Node b = new Node();
+		Edge ab1 = new Edge(a, b);
+		Edge ab2 = new Edge(a, b);
+		Graph graph = new Graph(Arrays.asList(a, b), Arrays.asList(ab1, ab2));
+		assertEquals(new HashSet<>(Arrays.asList(ab1, ab2)), a.getOutgoingEdges());
+		assertEquals(Collections.singleton(b), a.getSuccessorNodes());
+
+		// the nodes remain adjacent as long as one of the edges remains
+		graph.getEdges().remove(ab1);
+		assertEquals(Collections.singleton(ab2), a.getOutgoingEdges());
+		assertEquals(Collections.singleton(b), a.getSuccessorNodes());
+		assertEquals(Collections.singleton(a), b.getNeighbors());
+		graph.getEdges().remove(ab2);
+		assertTrue(a.getSuccessorNodes().isEmpty());
+		assertTrue(b.getNeighbors().isEmpty());
+	}
+
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.graph;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import org.eclipse.gef.common.attributes.IAttributeStore;
+import org.eclipse.gef.common.beans.property.ReadOnlyMapWrapperEx;
+import org.eclipse.gef.common.collections.MapListenerHelperEx.AtomicChange;
+
+import javafx.collections.FXCollections;
+import javafx.collections.MapChangeListener;
+import javafx.collections.ObservableMap;
+
+/**
+ * The {@link AttributesWrapper} is the attributes property of {@link Graph}s,
+ * {@link Node}s, and {@link Edge}s. While the {@link Graph} to which the
+ * attribute store belongs (or one of its ancestors) defers attribute changes
+ * (see {@link Graph#beginAttributeChanges()}), change notifications are not
+ * fired immediately, but are recorded and coalesced per key, so that a
+ * single notification is fired for each changed key when the changes are
+ * committed.
+ */
+final class AttributesWrapper extends ReadOnlyMapWrapperEx<String, Object> {
+
+	// marks a key that was not contained before the first deferred change
+	private static final Object ABSENT = new Object();
+
+	private final IAttributeStore store;
+	private final Map<String, Object> oldValues = new LinkedHashMap<>();
+
+	/**
+	 * Creates a new {@link AttributesWrapper} for the given attribute store.
+	 *
+	 * @param store
+	 *            The {@link Graph}, {@link Node}, or {@link Edge} whose
+	 *            attributes are wrapped.
+	 */
+	AttributesWrapper(IAttributeStore store) {
+		super(store, IAttributeStore.ATTRIBUTES_PROPERTY,
+				FXCollections.<String, Object> observableHashMap());
+		this.store = store;
+	}
+
+	@Override
+	protected void fireValueChangedEvent(
+			MapChangeListener.Change<? extends String, ? extends Object> change) {
+		Graph graph = getDeferringGraph();
+		if (graph == null) {
+			super.fireValueChangedEvent(change);
+			return;
+		}
+		if (oldValues.isEmpty()) {
+			graph.deferAttributeChanges(this);
+		}
+		String key = change.getKey();
+		if (!oldValues.containsKey(key)) {
+			oldValues.put(key,
+					change.wasRemoved() ? change.getValueRemoved() : ABSENT);
+		}
+	}
+
+	/**
+	 * Fires a single change notification for each key that was changed since
+	 * the changes were deferred. Keys whose value equals the original value
+	 * are not notified.
+	 */
+	void fireDeferredChanges() {
+		if (oldValues.isEmpty()) {
+			return;
+		}
+		Map<String, Object> changes = new LinkedHashMap<>(oldValues);
+		oldValues.clear();
+		ObservableMap<String, Object> map = get();
+		for (Entry<String, Object> entry : changes.entrySet()) {
+			String key = entry.getKey();
+			Object oldValue = entry.getValue() == ABSENT ? null
+					: entry.getValue();
+			Object newValue = map.get(key);
+			if (!Objects.equals(oldValue, newValue)) {
+				super.fireValueChangedEvent(
+						new AtomicChange<>(map, key, oldValue, newValue));
+			}
+		}
+	}
+
+	private Graph getDeferringGraph() {
+		Graph graph;
+		if (store instanceof Graph) {
+			graph = (Graph) store;
+		} else if (store instanceof Node) {
+			graph = ((Node) store).getGraph();
+		} else {
+			graph = ((Edge) store).getGraph();
+		}
+		while (graph != null) {
+			if (graph.isDeferringAttributeChanges()) {
+				return graph;
+			}
+			Node nestingNode = graph.getNestingNode();
+			graph = nestingNode == null ? null : nestingNode.getGraph();
+		}
+		return null;
+	}
+
+}
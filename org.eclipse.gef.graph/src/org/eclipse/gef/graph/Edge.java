@@ -23,12 +23,12 @@ import java.util.TreeMap;
 import java.util.function.BiConsumer;
 
 import org.eclipse.gef.common.attributes.IAttributeStore;
-import org.eclipse.gef.common.beans.property.ReadOnlyMapWrapperEx;
 import org.eclipse.gef.graph.Graph.Builder.Context;
 
 import javafx.beans.property.ReadOnlyMapProperty;
 import javafx.beans.property.ReadOnlyMapWrapper;
-import javafx.collections.FXCollections;
+import javafx.beans.property.ReadOnlyObjectProperty;
+import javafx.beans.property.ReadOnlyObjectWrapper;
 import javafx.collections.ObservableMap;
 
 /**
@@ -211,11 +211,23 @@ public class Edge implements IAttributeStore {
 		}
 	}
 
-	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
-			ATTRIBUTES_PROPERTY, FXCollections.<String, Object>observableHashMap());
+	/**
+	 * The name of the {@link #sourceProperty() source property}.
+	 */
+	public static final String SOURCE_PROPERTY = "source";
+
+	/**
+	 * The name of the {@link #targetProperty() target property}.
+	 */
+	public static final String TARGET_PROPERTY = "target";
+
+	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new AttributesWrapper(this);
 	private Node source;
 	private Node target;
 	private Graph graph; // associated graph
+	// created on demand, as most edges are never observed
+	private ReadOnlyObjectWrapper<Node> sourceProperty;
+	private ReadOnlyObjectWrapper<Node> targetProperty;
 
 	/**
 	 * Constructs a new {@link Edge} which connects the given <i>source</i>
@@ -310,7 +322,14 @@ public class Edge implements IAttributeStore {
 	 *            The new source {@link Node} for this {@link Edge}.
 	 */
 	public void setSource(Node source) {
+		Node oldSource = this.source;
 		this.source = source;
+		if (graph != null && oldSource != source) {
+			graph.reindexEdge(this, oldSource, target);
+		}
+		if (sourceProperty != null) {
+			sourceProperty.set(source);
+		}
 	}
 
 	/**
@@ -320,7 +339,44 @@ public class Edge implements IAttributeStore {
 	 *            The new target {@link Node} for this {@link Edge}.
 	 */
 	public void setTarget(Node target) {
+		Node oldTarget = this.target;
 		this.target = target;
+		if (graph != null && oldTarget != target) {
+			graph.reindexEdge(this, source, oldTarget);
+		}
+		if (targetProperty != null) {
+			targetProperty.set(target);
+		}
+	}
+
+	/**
+	 * Returns a read-only property that reflects the {@link #getSource()
+	 * source} of this {@link Edge}. It is updated by {@link #setSource(Node)}
+	 * after the adjacency of the associated {@link Graph} was updated, so that
+	 * listeners can query the predecessors and successors of the nodes.
+	 *
+	 * @return A read-only property named {@link #SOURCE_PROPERTY}.
+	 */
+	public ReadOnlyObjectProperty<Node> sourceProperty() {
+		if (sourceProperty == null) {
+			sourceProperty = new ReadOnlyObjectWrapper<>(this, SOURCE_PROPERTY, source);
+		}
+		return sourceProperty.getReadOnlyProperty();
+	}
+
+	/**
+	 * Returns a read-only property that reflects the {@link #getTarget()
+	 * target} of this {@link Edge}. It is updated by {@link #setTarget(Node)}
+	 * after the adjacency of the associated {@link Graph} was updated, so that
+	 * listeners can query the predecessors and successors of the nodes.
+	 *
+	 * @return A read-only property named {@link #TARGET_PROPERTY}.
+	 */
+	public ReadOnlyObjectProperty<Node> targetProperty() {
+		if (targetProperty == null) {
+			targetProperty = new ReadOnlyObjectWrapper<>(this, TARGET_PROPERTY, target);
+		}
+		return targetProperty.getReadOnlyProperty();
 	}
 
 	@Override
@@ -17,24 +17,26 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.TreeMap;
 import java.util.UUID;
 import java.util.function.BiConsumer;
 
 import org.eclipse.gef.common.attributes.IAttributeStore;
 import org.eclipse.gef.common.beans.property.ReadOnlyListWrapperEx;
-import org.eclipse.gef.common.beans.property.ReadOnlyMapWrapperEx;
 import org.eclipse.gef.common.collections.CollectionUtils;
 
 import javafx.beans.property.ReadOnlyListProperty;
 import javafx.beans.property.ReadOnlyListWrapper;
 import javafx.beans.property.ReadOnlyMapProperty;
 import javafx.beans.property.ReadOnlyMapWrapper;
-import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.collections.ObservableList;
 import javafx.collections.ObservableMap;
@@ -297,6 +299,47 @@ public final class Graph implements IAttributeStore {
 		}
 	}
 
+	/**
+	 * The {@link Adjacency} keeps track of the local incoming and outgoing
+	 * {@link Edge}s of a single {@link Node}, as well as of its predecessor,
+	 * successor, and neighbor {@link Node}s. As an {@link Edge} may be
+	 * contained multiple times within the {@link Graph#getEdges() edges}, the
+	 * number of occurrences is stored for each element.
+	 */
+	private static final class Adjacency {
+
+		private final Map<Edge, Integer> incoming = new LinkedHashMap<>();
+		private final Map<Edge, Integer> outgoing = new LinkedHashMap<>();
+		private final Map<Node, Integer> predecessors = new LinkedHashMap<>();
+		private final Map<Node, Integer> successors = new LinkedHashMap<>();
+		private final Map<Node, Integer> neighbors = new LinkedHashMap<>();
+
+		private final Set<Edge> incomingView = Collections
+				.unmodifiableSet(incoming.keySet());
+		private final Set<Edge> outgoingView = Collections
+				.unmodifiableSet(outgoing.keySet());
+		private final Set<Node> predecessorsView = Collections
+				.unmodifiableSet(predecessors.keySet());
+		private final Set<Node> successorsView = Collections
+				.unmodifiableSet(successors.keySet());
+		private final Set<Node> neighborsView = Collections
+				.unmodifiableSet(neighbors.keySet());
+
+		private static <T> void add(Map<T, Integer> counts, T element, int delta) {
+			Integer count = counts.get(element);
+			int newCount = (count == null ? 0 : count) + delta;
+			if (newCount > 0) {
+				counts.put(element, newCount);
+			} else {
+				counts.remove(element);
+			}
+		}
+
+		private boolean isEmpty() {
+			return incoming.isEmpty() && outgoing.isEmpty();
+		}
+	}
+
 	/**
 	 * The name of the {@link #getNodes() nodes property}.
 	 */
@@ -323,8 +366,13 @@ public final class Graph implements IAttributeStore {
 	/**
 	 * Attributes of this {@link Graph}.
 	 */
-	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new ReadOnlyMapWrapperEx<>(this,
-			ATTRIBUTES_PROPERTY, FXCollections.<String, Object>observableHashMap());
+	private final ReadOnlyMapWrapper<String, Object> attributesProperty = new AttributesWrapper(this);
+
+	/**
+	 * The {@link Adjacency} of each {@link Node} that is the source or target
+	 * of one of the {@link #getEdges() edges} of this {@link Graph}.
+	 */
+	private final Map<Node, Adjacency> adjacencies = new IdentityHashMap<>();
 
 	/**
 	 * {@link Node} which contains this {@link Graph}. May be <code>null</code>
@@ -332,6 +380,18 @@ public final class Graph implements IAttributeStore {
 	 */
 	private Node nestingNode; // when contained as a nested graph within a node
 
+	/**
+	 * The number of nested {@link #beginAttributeChanges()} calls that were
+	 * not yet committed.
+	 */
+	private int attributeChangesDepth = 0;
+
+	/**
+	 * The attributes of {@link Graph}s, {@link Node}s, and {@link Edge}s, whose
+	 * change notifications are deferred until the changes are committed.
+	 */
+	private final List<AttributesWrapper> deferredAttributes = new ArrayList<>();
+
 	/**
 	 * Default constructor, using empty collections for attributes, nodes, and
 	 * edges.
@@ -386,9 +446,11 @@ public final class Graph implements IAttributeStore {
 			public void onChanged(ListChangeListener.Change<? extends Edge> c) {
 				while (c.next()) {
 					for (Edge e : c.getAddedSubList()) {
+						updateAdjacency(e, e.getSource(), e.getTarget(), 1);
 						e.setGraph(Graph.this);
 					}
 					for (Edge e : c.getRemoved()) {
+						updateAdjacency(e, e.getSource(), e.getTarget(), -1);
 						e.setGraph(null);
 					}
 				}
@@ -403,6 +465,58 @@ public final class Graph implements IAttributeStore {
 		return attributesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Starts to defer attribute change notifications of this {@link Graph},
+	 * and of all {@link Node}s and {@link Edge}s contained therein (including
+	 * nested graphs). Attribute values are changed immediately, but change
+	 * notifications are coalesced per attribute and are fired when the
+	 * changes are {@link #commitAttributeChanges() committed}. Calls may be
+	 * nested, in which case notifications are fired when the outermost call
+	 * is committed.
+	 *
+	 * @see #commitAttributeChanges()
+	 */
+	public void beginAttributeChanges() {
+		attributeChangesDepth++;
+	}
+
+	/**
+	 * Commits the attribute changes that were deferred since the
+	 * corresponding {@link #beginAttributeChanges()} call. When the outermost
+	 * call is committed, a single change notification is fired for each
+	 * attribute whose value changed in the meantime.
+	 *
+	 * @throws IllegalStateException
+	 *             if attribute changes were not deferred.
+	 */
+	public void commitAttributeChanges() {
+		if (attributeChangesDepth == 0) {
+			throw new IllegalStateException("Attribute changes were not deferred.");
+		}
+		attributeChangesDepth--;
+		if (attributeChangesDepth > 0) {
+			return;
+		}
+		// listeners may change attributes again, which are then notified
+		// immediately
+		List<AttributesWrapper> deferred = new ArrayList<>(deferredAttributes);
+		deferredAttributes.clear();
+		for (AttributesWrapper attributes : deferred) {
+			attributes.fireDeferredChanges();
+		}
+	}
+
+	/**
+	 * Registers the given attributes, whose change notifications are deferred
+	 * until the changes of this {@link Graph} are committed.
+	 *
+	 * @param attributes
+	 *            The attributes with deferred change notifications.
+	 */
+	void deferAttributeChanges(AttributesWrapper attributes) {
+		deferredAttributes.add(attributes);
+	}
+
 	/**
 	 * Returns a read-only list property containing the {@link Edge}s of this
 	 * {@link Graph}.
@@ -427,6 +541,23 @@ public final class Graph implements IAttributeStore {
 		return edgesProperty.getReadOnlyProperty();
 	}
 
+	private Adjacency getAdjacency(Node node) {
+		return node == null ? null : adjacencies.get(node);
+	}
+
+	/**
+	 * Returns an unmodifiable view on the {@link Edge}s of this {@link Graph}
+	 * that target the given {@link Node}.
+	 *
+	 * @param node
+	 *            The {@link Node} whose incoming {@link Edge}s are returned.
+	 * @return The incoming {@link Edge}s of the given {@link Node}.
+	 */
+	Set<Edge> getIncomingEdges(Node node) {
+		Adjacency adjacency = getAdjacency(node);
+		return adjacency == null ? Collections.<Edge> emptySet() : adjacency.incomingView;
+	}
+
 	/**
 	 * Returns the {@link Node} in which this {@link Graph} is nested. Returns
 	 * <code>null</code> when this {@link Graph} is not nested.
@@ -438,6 +569,20 @@ public final class Graph implements IAttributeStore {
 		return nestingNode;
 	}
 
+	/**
+	 * Returns an unmodifiable view on the sources and targets of the
+	 * {@link Edge}s of this {@link Graph} that are connected to the given
+	 * {@link Node}.
+	 *
+	 * @param node
+	 *            The {@link Node} whose neighbors are returned.
+	 * @return The neighbors of the given {@link Node}.
+	 */
+	Set<Node> getNeighbors(Node node) {
+		Adjacency adjacency = getAdjacency(node);
+		return adjacency == null ? Collections.<Node> emptySet() : adjacency.neighborsView;
+	}
+
 	/**
 	 * Returns the nodes of this Graph.
 	 *
@@ -447,6 +592,32 @@ public final class Graph implements IAttributeStore {
 		return nodesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Returns an unmodifiable view on the {@link Edge}s of this {@link Graph}
+	 * that originate at the given {@link Node}.
+	 *
+	 * @param node
+	 *            The {@link Node} whose outgoing {@link Edge}s are returned.
+	 * @return The outgoing {@link Edge}s of the given {@link Node}.
+	 */
+	Set<Edge> getOutgoingEdges(Node node) {
+		Adjacency adjacency = getAdjacency(node);
+		return adjacency == null ? Collections.<Edge> emptySet() : adjacency.outgoingView;
+	}
+
+	/**
+	 * Returns an unmodifiable view on the sources of the {@link Edge}s of this
+	 * {@link Graph} that target the given {@link Node}.
+	 *
+	 * @param node
+	 *            The {@link Node} whose predecessors are returned.
+	 * @return The predecessors of the given {@link Node}.
+	 */
+	Set<Node> getPredecessorNodes(Node node) {
+		Adjacency adjacency = getAdjacency(node);
+		return adjacency == null ? Collections.<Node> emptySet() : adjacency.predecessorsView;
+	}
+
 	/**
 	 * Returns the root graph of this Graph.
 	 *
@@ -460,6 +631,31 @@ public final class Graph implements IAttributeStore {
 		}
 	}
 
+	/**
+	 * Returns an unmodifiable view on the targets of the {@link Edge}s of this
+	 * {@link Graph} that originate at the given {@link Node}.
+	 *
+	 * @param node
+	 *            The {@link Node} whose successors are returned.
+	 * @return The successors of the given {@link Node}.
+	 */
+	Set<Node> getSuccessorNodes(Node node) {
+		Adjacency adjacency = getAdjacency(node);
+		return adjacency == null ? Collections.<Node> emptySet() : adjacency.successorsView;
+	}
+
+	/**
+	 * Returns whether attribute change notifications are currently deferred by
+	 * this {@link Graph}, i.e. whether {@link #beginAttributeChanges()} was
+	 * called without a corresponding {@link #commitAttributeChanges()}.
+	 *
+	 * @return <code>true</code> if attribute changes are deferred, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isDeferringAttributeChanges() {
+		return attributeChangesDepth > 0;
+	}
+
 	/**
 	 * Returns a read-only list property containing the {@link Node}s of this
 	 * {@link Graph}.
@@ -470,6 +666,31 @@ public final class Graph implements IAttributeStore {
 		return nodesProperty.getReadOnlyProperty();
 	}
 
+	/**
+	 * Updates the adjacency information after the source or target of the
+	 * given {@link Edge}, which is contained in the {@link #getEdges() edges}
+	 * of this {@link Graph}, was changed.
+	 *
+	 * @param edge
+	 *            The {@link Edge} whose source or target was changed.
+	 * @param oldSource
+	 *            The previous source {@link Node} of the {@link Edge}.
+	 * @param oldTarget
+	 *            The previous target {@link Node} of the {@link Edge}.
+	 */
+	void reindexEdge(Edge edge, Node oldSource, Node oldTarget) {
+		Adjacency adjacency = getAdjacency(oldSource != null ? oldSource : oldTarget);
+		if (adjacency == null) {
+			return;
+		}
+		Integer occurrences = oldSource != null ? adjacency.outgoing.get(edge) : adjacency.incoming.get(edge);
+		if (occurrences == null) {
+			return;
+		}
+		updateAdjacency(edge, oldSource, oldTarget, -occurrences);
+		updateAdjacency(edge, edge.getSource(), edge.getTarget(), occurrences);
+	}
+
 	/**
 	 * Sets the nesting {@link Node} of this {@link Graph}.
 	 *
@@ -487,6 +708,39 @@ public final class Graph implements IAttributeStore {
 		}
 	}
 
+	private void updateAdjacency(Edge edge, Node source, Node target, int delta) {
+		if (source != null) {
+			Adjacency adjacency = adjacencies.get(source);
+			if (adjacency == null) {
+				adjacency = new Adjacency();
+				adjacencies.put(source, adjacency);
+			}
+			Adjacency.add(adjacency.outgoing, edge, delta);
+			if (target != null) {
+				Adjacency.add(adjacency.successors, target, delta);
+				Adjacency.add(adjacency.neighbors, target, delta);
+			}
+			if (adjacency.isEmpty()) {
+				adjacencies.remove(source);
+			}
+		}
+		if (target != null) {
+			Adjacency adjacency = adjacencies.get(target);
+			if (adjacency == null) {
+				adjacency = new Adjacency();
+				adjacencies.put(target, adjacency);
+			}
+			Adjacency.add(adjacency.incoming, edge, delta);
+			if (source != null) {
+				Adjacency.add(adjacency.predecessors, source, delta);
+				Adjacency.add(adjacency.neighbors, source, delta);
+			}
+			if (adjacency.isEmpty()) {
+				adjacencies.remove(target);
+			}
+		}
+	}
+
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
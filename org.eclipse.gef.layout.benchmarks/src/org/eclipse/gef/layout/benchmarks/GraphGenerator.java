@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutProperties;
+
+/**
+ * Creates synthetic graphs of a given size for the layout benchmarks. All
+ * graphs are reproducible for a given seed. The nodes have random sizes
+ * between 10 and 40, are located at the origin, and the bounds of the graph
+ * grow with the square root of the number of nodes.
+ */
+public class GraphGenerator {
+
+	/**
+	 * The supported graph types.
+	 */
+	public enum Type {
+		/**
+		 * Random graph with an average degree of 3.
+		 */
+		RANDOM,
+		/**
+		 * Scale-free graph (Barabási–Albert model), where every new node
+		 * attaches to 2 existing nodes.
+		 */
+		SCALE_FREE,
+		/**
+		 * Random tree, where every node is a child of a random previous node.
+		 */
+		TREE,
+		/**
+		 * Directed acyclic graph, where every node has between 1 and 3
+		 * predecessors among the previous nodes.
+		 */
+		DAG,
+		/**
+		 * Square grid, where every node is connected to its right and bottom
+		 * neighbors.
+		 */
+		GRID
+	}
+
+	/**
+	 * Creates a new {@link Graph} of the given type.
+	 *
+	 * @param type
+	 *            The {@link Type} of the graph.
+	 * @param numNodes
+	 *            The number of nodes.
+	 * @param seed
+	 *            The seed for the random number generator.
+	 * @return The new {@link Graph}.
+	 */
+	public static Graph createGraph(Type type, int numNodes, long seed) {
+		Random random = new Random(seed);
+		List<Node> nodes = new ArrayList<>(numNodes);
+		for (int i = 0; i < numNodes; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(
+					10 + random.nextInt(31), 10 + random.nextInt(31)));
+			LayoutProperties.setLocation(node, new Point());
+			nodes.add(node);
+		}
+
+		List<Edge> edges;
+		switch (type) {
+		case RANDOM:
+			edges = createRandomEdges(nodes, random);
+			break;
+		case SCALE_FREE:
+			edges = createScaleFreeEdges(nodes, random);
+			break;
+		case TREE:
+			edges = createTreeEdges(nodes, random);
+			break;
+		case DAG:
+			edges = createDagEdges(nodes, random);
+			break;
+		case GRID:
+			edges = createGridEdges(nodes);
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown graph type: " + type);
+		}
+
+		Graph graph = new Graph(nodes, edges);
+		double extent = 50 * Math.sqrt(numNodes);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, extent, extent));
+		return graph;
+	}
+
+	private static List<Edge> createRandomEdges(List<Node> nodes,
+			Random random) {
+		int n = nodes.size();
+		List<Edge> edges = new ArrayList<>();
+		if (n < 2) {
+			return edges;
+		}
+		for (int i = 0; i < 3 * n / 2; i++) {
+			int source = random.nextInt(n);
+			int target = random.nextInt(n - 1);
+			if (target >= source) {
+				target++;
+			}
+			edges.add(new Edge(nodes.get(source), nodes.get(target)));
+		}
+		return edges;
+	}
+
+	private static List<Edge> createScaleFreeEdges(List<Node> nodes,
+			Random random) {
+		// every edge contributes both end points, so that picking a random
+		// entry is proportional to the degree (preferential attachment)
+		List<Edge> edges = new ArrayList<>();
+		int[] endPoints = new int[4 * nodes.size()];
+		int numEndPoints = 0;
+		for (int i = 1; i < nodes.size(); i++) {
+			int first = -1;
+			for (int j = 0; j < 2 && j < i; j++) {
+				int target = numEndPoints == 0 ? 0
+						: endPoints[random.nextInt(numEndPoints)];
+				if (target == first) {
+					continue;
+				}
+				first = target;
+				edges.add(new Edge(nodes.get(i), nodes.get(target)));
+				endPoints[numEndPoints++] = i;
+				endPoints[numEndPoints++] = target;
+			}
+		}
+		return edges;
+	}
+
+	private static List<Edge> createTreeEdges(List<Node> nodes,
+			Random random) {
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 1; i < nodes.size(); i++) {
+			edges.add(new Edge(nodes.get(random.nextInt(i)), nodes.get(i)));
+		}
+		return edges;
+	}
+
+	private static List<Edge> createDagEdges(List<Node> nodes,
+			Random random) {
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 1; i < nodes.size(); i++) {
+			int numPredecessors = Math.min(i, 1 + random.nextInt(3));
+			int previous = -1;
+			for (int j = 0; j < numPredecessors; j++) {
+				int source = random.nextInt(i);
+				if (source != previous) {
+					edges.add(new Edge(nodes.get(source), nodes.get(i)));
+					previous = source;
+				}
+			}
+		}
+		return edges;
+	}
+
+	private static List<Edge> createGridEdges(List<Node> nodes) {
+		List<Edge> edges = new ArrayList<>();
+		int columns = (int) Math.ceil(Math.sqrt(nodes.size()));
+		for (int i = 0; i < nodes.size(); i++) {
+			if ((i + 1) % columns != 0 && i + 1 < nodes.size()) {
+				edges.add(new Edge(nodes.get(i), nodes.get(i + 1)));
+			}
+			if (i + columns < nodes.size()) {
+				edges.add(new Edge(nodes.get(i), nodes.get(i + columns)));
+			}
+		}
+		return edges;
+	}
+}
@@ -0,0 +1,253 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.algorithms.BoxLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.GridLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.HorizontalShiftAlgorithm;
+import org.eclipse.gef.layout.algorithms.MultilevelLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.RadialLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpaceTreeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.Direction;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.LongestPathLayerProvider;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.WalkerTreeLayoutAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the time of a single (clean) layout pass for every supported
+ * combination of layout algorithm, graph type, and graph size. The graph and
+ * the layout algorithm are created anew before every pass, so that no state
+ * (e.g. the tree that is maintained by the tree based algorithms) is carried
+ * over from a previous pass, i.e. every pass measures a cold layout.
+ * <p>
+ * The {@link SpaceTreeLayoutAlgorithm} is only measured for
+ * {@link GraphGenerator.Type#TREE tree} graphs (see
+ * {@link #isSupported(String, GraphGenerator.Type)}), because it does not
+ * terminate in reasonable time for the other graph types (e.g. more than two
+ * minutes for a grid of 100 nodes).
+ * <p>
+ * When started via {@link #main(String[])}, the GC profiler is added, so that
+ * the allocation rate is reported alongside the time, and the unsupported
+ * combinations are skipped. Note that the larger graph sizes take very long
+ * for the algorithms with super-linear complexity, so the parameter space
+ * should usually be restricted, e.g.
+ * <code>-p algorithm=Spring -p size=100,1000</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class LayoutBenchmarks {
+
+	// the names of all layout algorithms, which have to match the values of
+	// the algorithm parameter
+	private static final String[] ALGORITHMS = { "Spring", "Sugiyama", "Tree",
+			"SpaceTree", "Radial", "Grid", "Box", "HorizontalShift",
+			"WalkerTree", "Multilevel" };
+
+	/**
+	 * The name of the layout algorithm (see
+	 * {@link #createLayoutAlgorithm(String)}).
+	 */
+	@Param({ "Spring", "Sugiyama", "Tree", "SpaceTree", "Radial", "Grid",
+			"Box", "HorizontalShift", "WalkerTree", "Multilevel" })
+	public String algorithm;
+
+	/**
+	 * The type of the graph.
+	 */
+	@Param({ "RANDOM", "SCALE_FREE", "TREE", "DAG", "GRID" })
+	public GraphGenerator.Type graphType;
+
+	/**
+	 * The number of nodes.
+	 */
+	@Param({ "100", "1000", "10000", "100000" })
+	public int size;
+
+	private Graph graph;
+	private LayoutContext layoutContext;
+
+	/**
+	 * Creates the layout algorithm with the given name, using its default
+	 * configuration. Randomized algorithms use a fixed seed, and time limits
+	 * are disabled, so that the whole computation is measured. The
+	 * {@link SugiyamaLayoutAlgorithm} uses a {@link LongestPathLayerProvider},
+	 * because the default layer provider rejects cyclic and deep graphs.
+	 *
+	 * @param name
+	 *            The name of the layout algorithm.
+	 * @return The new {@link ILayoutAlgorithm}.
+	 */
+	public static ILayoutAlgorithm createLayoutAlgorithm(String name) {
+		switch (name) {
+		case "Spring":
+			SpringLayoutAlgorithm spring = new SpringLayoutAlgorithm();
+			spring.setSeed(0L);
+			spring.setSpringTimeout(0);
+			return spring;
+		case "Sugiyama":
+			return new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+					new LongestPathLayerProvider());
+		case "Tree":
+			return new TreeLayoutAlgorithm();
+		case "SpaceTree":
+			return new SpaceTreeLayoutAlgorithm();
+		case "Radial":
+			return new RadialLayoutAlgorithm();
+		case "Grid":
+			return new GridLayoutAlgorithm();
+		case "Box":
+			return new BoxLayoutAlgorithm();
+		case "HorizontalShift":
+			return new HorizontalShiftAlgorithm();
+		case "WalkerTree":
+			return new WalkerTreeLayoutAlgorithm();
+		case "Multilevel":
+			return new MultilevelLayoutAlgorithm();
+		default:
+			throw new IllegalArgumentException(
+					"Unknown layout algorithm: " + name);
+		}
+	}
+
+	/**
+	 * Returns whether the given layout algorithm is measured for graphs of
+	 * the given type.
+	 *
+	 * @param algorithm
+	 *            The name of the layout algorithm.
+	 * @param graphType
+	 *            The type of the graph.
+	 * @return <code>true</code> if the combination is measured, otherwise
+	 *         <code>false</code>.
+	 */
+	public static boolean isSupported(String algorithm,
+			GraphGenerator.Type graphType) {
+		return !"SpaceTree".equals(algorithm)
+				|| graphType == GraphGenerator.Type.TREE;
+	}
+
+	/**
+	 * Rejects the combinations of parameters that are not supported.
+	 */
+	@Setup(Level.Trial)
+	public void checkSupported() {
+		if (!isSupported(algorithm, graphType)) {
+			throw new IllegalStateException("The " + algorithm
+					+ " layout algorithm is not measured for " + graphType
+					+ " graphs.");
+		}
+	}
+
+	/**
+	 * Creates the graph, the layout algorithm, and the {@link LayoutContext}
+	 * for the next pass.
+	 */
+	@Setup(Level.Invocation)
+	public void createLayout() {
+		graph = GraphGenerator.createGraph(graphType, size, 42);
+		layoutContext = new LayoutContext();
+		layoutContext.setGraph(graph);
+		layoutContext.setLayoutAlgorithm(createLayoutAlgorithm(algorithm));
+	}
+
+	/**
+	 * Performs a clean layout pass.
+	 *
+	 * @return The laid out {@link Graph}, so that the computation cannot be
+	 *         eliminated.
+	 */
+	@Benchmark
+	public Graph applyLayout() {
+		layoutContext.applyLayout(true);
+		return graph;
+	}
+
+	/**
+	 * Runs the layout benchmarks with the GC profiler, skipping the
+	 * unsupported combinations of parameters. All JMH command line options
+	 * are supported.
+	 *
+	 * @param args
+	 *            The JMH command line options.
+	 * @throws RunnerException
+	 *             if the benchmarks cannot be run.
+	 * @throws CommandLineOptionException
+	 *             if the command line options are invalid.
+	 */
+	public static void main(String[] args)
+			throws RunnerException, CommandLineOptionException {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+		Collection<String> algorithms = commandLineOptions
+				.getParameter("algorithm").orElse(Arrays.asList(ALGORITHMS));
+		List<String> allGraphTypes = new ArrayList<>();
+		for (GraphGenerator.Type graphType : GraphGenerator.Type.values()) {
+			allGraphTypes.add(graphType.name());
+		}
+		Collection<String> graphTypes = commandLineOptions
+				.getParameter("graphType").orElse(allGraphTypes);
+		// run the supported graph types separately for every algorithm
+		for (String algorithm : algorithms) {
+			List<String> supported = new ArrayList<>();
+			for (String graphType : graphTypes) {
+				if (isSupported(algorithm,
+						GraphGenerator.Type.valueOf(graphType))) {
+					supported.add(graphType);
+				}
+			}
+			if (supported.isEmpty()) {
+				continue;
+			}
+			Options options = new OptionsBuilder().parent(commandLineOptions)
+					.include(LayoutBenchmarks.class.getName())
+					.param("algorithm", algorithm)
+					.param("graphType",
+							supported.toArray(new String[supported.size()]))
+					.addProfiler(GCProfiler.class).build();
+			new Runner(options).run();
+		}
+	}
+}
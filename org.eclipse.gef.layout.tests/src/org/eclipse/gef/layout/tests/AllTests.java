@@ -17,6 +17,15 @@ import org.junit.runners.Suite;
 import org.junit.runners.Suite.SuiteClasses;
 
 @RunWith(Suite.class)
-@SuiteClasses({ LayoutAlgorithmTests.class })
+@SuiteClasses({ BarnesHutQuadTreeTests.class, IncrementalLayoutTests.class,
+		KdTreeTests.class,
+		LayoutAlgorithmTests.class, LayoutCacheTests.class,
+		LayoutSnapshotTests.class,
+		MultilevelLayoutAlgorithmTests.class,
+		SpringLayoutAlgorithmTests.class,
+		SugiyamaLayoutAlgorithmTests.class,
+		TreeLayoutHelperTests.class,
+		WalkerTreeLayoutAlgorithmTests.class,
+		WeightedAdjacencyTests.class })
 public class AllTests {
 }
@@ -0,0 +1,153 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.gef.layout.internal.utils.BarnesHutQuadTree;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link BarnesHutQuadTree}, which compare its results to the
+ * exact pairwise repulsion.
+ */
+public class BarnesHutQuadTreeTests {
+
+	private static final long SEED = 42;
+
+	private static final double GRAVITATION = 2500;
+
+	private static final double MIN_DISTANCE = 0.5;
+
+	private static void assertForces(double[] expectedX, double[] expectedY,
+			double[] actualX, double[] actualY) {
+		for (int i = 0; i < expectedX.length; i++) {
+			double scale = Math.max(1, Math.abs(expectedX[i])
+					+ Math.abs(expectedY[i]));
+			assertEquals(expectedX[i], actualX[i], 1e-9 * scale);
+			assertEquals(expectedY[i], actualY[i], 1e-9 * scale);
+		}
+	}
+
+	// computes the exact repulsion upon the given location, ignoring the
+	// excluded point
+	private static double[] getRepulsion(double[] x, double[] y, double px,
+			double py, int excluded) {
+		double fx = 0;
+		double fy = 0;
+		for (int j = 0; j < x.length; j++) {
+			if (j == excluded) {
+				continue;
+			}
+			double dx = px - x[j];
+			double dy = py - y[j];
+			double distanceSq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+					dx * dx + dy * dy);
+			double f = GRAVITATION / distanceSq;
+			double distance = Math.sqrt(distanceSq);
+			fx += f * dx / distance;
+			fy += f * dy / distance;
+		}
+		return new double[] { fx, fy };
+	}
+
+	private static void checkExact(double[] x, double[] y) {
+		int n = x.length;
+		BarnesHutQuadTree tree = new BarnesHutQuadTree();
+		tree.build(x, y, n);
+		double[] fx = new double[n];
+		double[] fy = new double[n];
+		tree.accumulateRepulsion(0, n, 0, GRAVITATION, MIN_DISTANCE, fx, fy);
+		double[] expectedX = new double[n];
+		double[] expectedY = new double[n];
+		for (int i = 0; i < n; i++) {
+			double[] f = getRepulsion(x, y, x[i], y[i], i);
+			expectedX[i] = f[0];
+			expectedY[i] = f[1];
+		}
+		assertForces(expectedX, expectedY, fx, fy);
+	}
+
+	@Test
+	public void test_coincidentPoints() {
+		// points at the same location cannot be separated, so that they are
+		// stored within a single leaf at the maximum depth
+		Random random = new Random(SEED);
+		int n = 60;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			if (i % 3 == 0) {
+				x[i] = 100 * random.nextDouble();
+				y[i] = 100 * random.nextDouble();
+			} else {
+				x[i] = 42;
+				y[i] = 17;
+			}
+		}
+		checkExact(x, y);
+
+		// all points are coincident
+		double[] same = new double[20];
+		Arrays.fill(same, 5);
+		checkExact(same, same.clone());
+	}
+
+	@Test
+	public void test_exactForThetaZero() {
+		Random random = new Random(SEED);
+		for (int k = 0; k < 20; k++) {
+			int n = 1 + random.nextInt(300);
+			double[] x = new double[n];
+			double[] y = new double[n];
+			for (int i = 0; i < n; i++) {
+				x[i] = 1000 * random.nextDouble();
+				y[i] = 1000 * random.nextDouble();
+			}
+			checkExact(x, y);
+		}
+	}
+
+	@Test
+	public void test_exactForLocation() {
+		Random random = new Random(SEED);
+		int n = 200;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = 500 * random.nextDouble();
+			y[i] = 500 * random.nextDouble();
+		}
+		BarnesHutQuadTree tree = new BarnesHutQuadTree();
+		tree.build(x, y, n);
+		double[] fx = new double[10];
+		double[] fy = new double[10];
+		double[] expectedX = new double[10];
+		double[] expectedY = new double[10];
+		for (int i = 0; i < 10; i++) {
+			// the locations are not necessarily within the tree's bounds
+			double px = 700 * random.nextDouble() - 100;
+			double py = 700 * random.nextDouble() - 100;
+			tree.accumulateRepulsion(px, py, 0, GRAVITATION, MIN_DISTANCE, fx,
+					fy, i);
+			double[] f = getRepulsion(x, y, px, py, -1);
+			expectedX[i] = f[0];
+			expectedY[i] = f[1];
+		}
+		assertForces(expectedX, expectedY, fx, fy);
+	}
+
+}
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutDelta;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
+import org.junit.Test;
+
+/**
+ * Tests for the incremental mode of the {@link LayoutContext}.
+ */
+public class IncrementalLayoutTests {
+
+	private static class RecordingLayoutAlgorithm implements ILayoutAlgorithm {
+
+		private int fullPasses;
+		private LayoutDelta delta;
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			fullPasses++;
+		}
+
+		@Override
+		public void applyIncrementalLayout(LayoutContext layoutContext,
+				LayoutDelta delta) {
+			this.delta = delta;
+		}
+	}
+
+	private static Node createNode() {
+		Node node = new Node();
+		LayoutProperties.setSize(node, new Dimension(10, 10));
+		LayoutProperties.setLocation(node, new Point());
+		return node;
+	}
+
+	// creates a chain of nodes
+	private static Graph createGraph(int numNodes) {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < numNodes; i++) {
+			nodes.add(createNode());
+			if (i > 0) {
+				edges.add(new Edge(nodes.get(i - 1), nodes.get(i)));
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 800, 600));
+		return graph;
+	}
+
+	private static List<Point> getLocations(Graph graph) {
+		List<Point> locations = new ArrayList<>();
+		for (Node node : graph.getNodes()) {
+			locations.add(LayoutProperties.getLocation(node).getCopy());
+		}
+		return locations;
+	}
+
+	@Test
+	public void deltaSincePreviousPass() {
+		Graph graph = createGraph(3);
+		RecordingLayoutAlgorithm algorithm = new RecordingLayoutAlgorithm();
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.setIncremental(true);
+
+		// first pass computes the whole layout
+		context.applyLayout(true);
+		assertEquals(1, algorithm.fullPasses);
+		assertNull(algorithm.delta);
+
+		Node a = graph.getNodes().get(0);
+		Node c = graph.getNodes().get(2);
+		Node d = createNode();
+		Edge removed = graph.getEdges().get(0);
+		Edge added = new Edge(c, d);
+		graph.getNodes().add(d);
+		graph.getEdges().remove(removed);
+		graph.getEdges().add(added);
+		context.applyLayout(true);
+		assertEquals(1, algorithm.fullPasses);
+		assertNotNull(algorithm.delta);
+		assertEquals(1, algorithm.delta.getAddedNodes().size());
+		assertTrue(algorithm.delta.getAddedNodes().contains(d));
+		assertTrue(algorithm.delta.getRemovedNodes().isEmpty());
+		assertTrue(algorithm.delta.getAddedEdges().contains(added));
+		assertTrue(algorithm.delta.getRemovedEdges().contains(removed));
+		assertEquals(4, algorithm.delta.getAffectedNodes().size());
+
+		graph.getNodes().remove(a);
+		context.applyLayout(true);
+		assertEquals(1, algorithm.delta.getRemovedNodes().size());
+		assertFalse(algorithm.delta.getAffectedNodes().contains(a));
+
+		// bounds change requires a full pass
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 400, 300));
+		context.applyLayout(true);
+		assertEquals(2, algorithm.fullPasses);
+
+		context.applyLayout(true);
+		assertTrue(algorithm.delta.isEmpty());
+	}
+
+	@Test
+	public void springPinsUnaffectedNodes() {
+		Graph graph = createGraph(20);
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setSeed(42L);
+		algorithm.setSpringTimeout(0);
+		algorithm.setIterations(50);
+		algorithm.setIncrementalRadius(0);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.setIncremental(true);
+		context.applyLayout(true);
+		List<Point> before = getLocations(graph);
+
+		// attach a new node to the last node of the chain
+		Node last = graph.getNodes().get(19);
+		Node added = createNode();
+		graph.getNodes().add(added);
+		graph.getEdges().add(new Edge(last, added));
+		context.applyLayout(true);
+
+		List<Point> after = getLocations(graph);
+		for (int i = 0; i < 19; i++) {
+			assertEquals(before.get(i), after.get(i));
+		}
+		Point location = LayoutProperties.getLocation(added);
+		assertFalse(Double.isNaN(location.x) || Double.isNaN(location.y));
+		assertFalse(location.equals(new Point()));
+	}
+
+	@Test
+	public void springSkipsUnaffectingDelta() {
+		Graph graph = createGraph(20);
+		Node isolated = createNode();
+		graph.getNodes().add(isolated);
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setSeed(42L);
+		algorithm.setSpringTimeout(0);
+		algorithm.setIterations(50);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.setIncremental(true);
+		context.applyLayout(true);
+		assertTrue(algorithm.getPerformedIterations() > 0);
+		List<Point> before = getLocations(graph);
+
+		// removing an isolated node does not affect any other node
+		graph.getNodes().remove(isolated);
+		context.applyLayout(true);
+		assertEquals(0, algorithm.getPerformedIterations());
+		List<Point> after = getLocations(graph);
+		assertEquals(before.subList(0, 20), after);
+	}
+
+	@Test
+	public void treeKeepsUnaffectedTrees() {
+		// two separate chains form two trees
+		Graph graph = createGraph(3);
+		Node root = createNode();
+		Node child = createNode();
+		graph.getNodes().add(root);
+		graph.getNodes().add(child);
+		graph.getEdges().add(new Edge(root, child));
+
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(new TreeLayoutAlgorithm());
+		context.setIncremental(true);
+		context.applyLayout(true);
+		List<Point> before = getLocations(graph);
+
+		// add another child to the second tree
+		Node added = createNode();
+		graph.getNodes().add(added);
+		graph.getEdges().add(new Edge(root, added));
+		context.applyLayout(true);
+
+		List<Point> after = getLocations(graph);
+		for (int i = 0; i < 3; i++) {
+			assertEquals(before.get(i), after.get(i));
+		}
+		// the root of the affected tree keeps its location
+		assertEquals(before.get(3), after.get(3));
+		assertFalse(LayoutProperties.getLocation(added)
+				.equals(LayoutProperties.getLocation(child)));
+	}
+}
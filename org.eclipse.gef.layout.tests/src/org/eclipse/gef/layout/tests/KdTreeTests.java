@@ -0,0 +1,214 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.eclipse.gef.layout.internal.utils.KdTree;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link KdTree}, which compare its results to a brute-force
+ * search.
+ */
+public class KdTreeTests {
+
+	private static final long SEED = 42;
+
+	private static int[] getClosestPair(double[] x, double[] y) {
+		int[] pair = null;
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < x.length; i++) {
+			for (int j = i + 1; j < x.length; j++) {
+				double d = getDistanceSquared(x, y, i, x[j], y[j]);
+				if (d < min) {
+					min = d;
+					pair = new int[] { i, j };
+				}
+			}
+		}
+		return pair;
+	}
+
+	private static double getDistanceSquared(double[] x, double[] y, int i,
+			double px, double py) {
+		double dx = x[i] - px;
+		double dy = y[i] - py;
+		return dx * dx + dy * dy;
+	}
+
+	private static int getNearest(double[] x, double[] y, double px,
+			double py, int excluded) {
+		int best = -1;
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < x.length; i++) {
+			double d = getDistanceSquared(x, y, i, px, py);
+			if (i != excluded && d < min) {
+				min = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	// creates points on a coarse grid, so that ties and duplicates occur
+	private static double[][] createPoints(Random random, int n) {
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			x[i] = random.nextInt(200);
+			y[i] = random.nextInt(200);
+		}
+		return new double[][] { x, y };
+	}
+
+	@Test
+	public void test_coincidentPoints() {
+		// most points share a few locations, which would otherwise result in
+		// a quadratic number of distance computations
+		Random random = new Random(SEED);
+		int n = 50000;
+		double[] x = new double[n];
+		double[] y = new double[n];
+		for (int i = 0; i < n; i++) {
+			if (i % 100 == 0) {
+				x[i] = 1000 + random.nextInt(1000);
+				y[i] = 1000 + random.nextInt(1000);
+			} else {
+				x[i] = i % 3;
+				y[i] = i % 3 == 2 ? -0.0 : 0.0;
+			}
+		}
+		KdTree tree = new KdTree(x, y);
+		assertArrayEquals(new int[] { 1, 4 }, tree.getClosestPair());
+		assertEquals(1, tree.getNearest(4));
+		assertEquals(4, tree.getNearest(1));
+		assertEquals(3, tree.getNearest(0.1, 0.1));
+		for (int i = 0; i < n; i += 100) {
+			assertEquals(getNearest(x, y, x[i], y[i], i), tree.getNearest(i));
+		}
+		int[] within = tree.getWithin(2, 0, 0);
+		int k = 0;
+		for (int i = 0; i < n; i++) {
+			if (x[i] == 2 && y[i] == 0) {
+				assertEquals(i, within[k++]);
+			}
+		}
+		assertEquals(k, within.length);
+	}
+
+	@Test
+	public void test_getClosestPair() {
+		Random random = new Random(SEED);
+		for (int k = 0; k < 500; k++) {
+			double[][] points = createPoints(random, 2 + random.nextInt(100));
+			double[] x = points[0];
+			double[] y = points[1];
+			assertArrayEquals(getClosestPair(x, y),
+					new KdTree(x, y).getClosestPair());
+		}
+		assertNull(new KdTree(new double[0], new double[0]).getClosestPair());
+		assertNull(new KdTree(new double[] { 1 }, new double[] { 2 })
+				.getClosestPair());
+	}
+
+	@Test
+	public void test_getNearest() {
+		Random random = new Random(SEED);
+		for (int k = 0; k < 100; k++) {
+			double[][] points = createPoints(random, 1 + random.nextInt(200));
+			double[] x = points[0];
+			double[] y = points[1];
+			KdTree tree = new KdTree(x, y);
+			for (int i = 0; i < x.length; i++) {
+				assertEquals(getNearest(x, y, x[i], y[i], i),
+						tree.getNearest(i));
+				double px = random.nextDouble() * 250 - 25;
+				double py = random.nextDouble() * 250 - 25;
+				assertEquals(getNearest(x, y, px, py, -1),
+						tree.getNearest(px, py));
+			}
+		}
+		assertEquals(-1, new KdTree(new double[0], new double[0])
+				.getNearest(0, 0));
+	}
+
+	@Test
+	public void test_getWithin() {
+		Random random = new Random(SEED);
+		double[][] points = createPoints(random, 1000);
+		double[] x = points[0];
+		double[] y = points[1];
+		KdTree tree = new KdTree(x, y);
+		for (int k = 0; k < 200; k++) {
+			double px = random.nextDouble() * 200;
+			double py = random.nextDouble() * 200;
+			double radiusSquared = random.nextInt(400);
+			List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < x.length; i++) {
+				if (getDistanceSquared(x, y, i, px, py) <= radiusSquared) {
+					expected.add(i);
+				}
+			}
+			int[] within = tree.getWithin(px, py, radiusSquared);
+			assertEquals(expected.size(), within.length);
+			for (int i = 0; i < within.length; i++) {
+				assertEquals(expected.get(i).intValue(), within[i]);
+			}
+		}
+	}
+
+	@Test
+	public void test_concurrentQueries() throws Exception {
+		double[][] points = createPoints(new Random(SEED), 5000);
+		final double[] x = points[0];
+		final double[] y = points[1];
+		final KdTree tree = new KdTree(x, y);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < 4; t++) {
+				final int offset = t;
+				results.add(executor.submit(new Callable<Integer>() {
+					@Override
+					public Integer call() {
+						int mismatches = 0;
+						for (int i = offset; i < x.length; i += 4) {
+							if (tree.getNearest(i) != getNearest(x, y, x[i],
+									y[i], i)) {
+								mismatches++;
+							}
+						}
+						return mismatches;
+					}
+				}));
+			}
+			for (Future<Integer> result : results) {
+				assertEquals(0, result.get().intValue());
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
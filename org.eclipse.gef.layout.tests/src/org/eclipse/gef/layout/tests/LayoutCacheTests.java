@@ -0,0 +1,308 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutCache;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.HorizontalShiftAlgorithm;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.Direction;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link LayoutCache}.
+ */
+public class LayoutCacheTests {
+
+	/**
+	 * Places the nodes on a diagonal, using a configurable spacing.
+	 */
+	public static class CountingLayoutAlgorithm implements ILayoutAlgorithm {
+
+		private int passes;
+		private double spacing = 10;
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			passes++;
+			Node[] nodes = layoutContext.getNodes();
+			for (int i = 0; i < nodes.length; i++) {
+				LayoutProperties.setLocation(nodes[i],
+						new Point(i * spacing, i * spacing));
+			}
+		}
+
+		@Override
+		public Object[] getLayoutParameters() {
+			return new Object[] { spacing };
+		}
+
+		public double getSpacing() {
+			return spacing;
+		}
+
+		public void setSpacing(double spacing) {
+			this.spacing = spacing;
+		}
+	}
+
+	private static Graph createGraph(int numNodes) {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < numNodes; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			LayoutProperties.setLocation(node, new Point());
+			nodes.add(node);
+			if (i > 0) {
+				edges.add(new Edge(nodes.get(i - 1), node));
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 800, 600));
+		return graph;
+	}
+
+	private static void layout(Graph graph, ILayoutAlgorithm algorithm,
+			LayoutCache cache) {
+		layout(graph, algorithm, cache, true);
+	}
+
+	private static void layout(Graph graph, ILayoutAlgorithm algorithm,
+			LayoutCache cache, boolean clean) {
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.setLayoutCache(cache);
+		context.applyLayout(clean);
+	}
+
+	private static void assertLoadFails(LayoutCache cache, byte[] bytes) {
+		int size = cache.size();
+		try {
+			cache.load(new ByteArrayInputStream(bytes));
+			fail("IOException expected.");
+		} catch (IOException e) {
+			// expected
+		}
+		assertEquals(size, cache.size());
+	}
+
+	// writes the header of the binary format and an entry with the given
+	// lengths and no values
+	private static byte[] createEntry(int count, int digestLength,
+			int resultLength) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(0x47454643);
+		out.writeInt(1);
+		out.writeInt(count);
+		out.writeByte(digestLength);
+		out.write(new byte[digestLength]);
+		out.writeInt(resultLength);
+		out.flush();
+		return bytes.toByteArray();
+	}
+
+	@Test
+	public void equalGraphsHitCache() {
+		LayoutCache cache = new LayoutCache();
+		CountingLayoutAlgorithm algorithm = new CountingLayoutAlgorithm();
+		layout(createGraph(5), algorithm, cache);
+		assertEquals(1, algorithm.passes);
+		assertEquals(1, cache.size());
+
+		// an equal graph (with different node instances) is restored
+		Graph graph = createGraph(5);
+		layout(graph, algorithm, cache);
+		assertEquals(1, algorithm.passes);
+		assertEquals(new Point(40, 40),
+				LayoutProperties.getLocation(graph.getNodes().get(4)));
+
+		// different structure
+		layout(createGraph(6), algorithm, cache);
+		assertEquals(2, algorithm.passes);
+
+		// different algorithm parameters
+		algorithm.setSpacing(20);
+		graph = createGraph(5);
+		layout(graph, algorithm, cache);
+		assertEquals(3, algorithm.passes);
+		assertEquals(new Point(80, 80),
+				LayoutProperties.getLocation(graph.getNodes().get(4)));
+	}
+
+	@Test
+	public void constructorParameters() {
+		LayoutCache cache = new LayoutCache();
+		Graph vertical = createGraph(3);
+		layout(vertical, new SugiyamaLayoutAlgorithm(Direction.VERTICAL),
+				cache);
+		Graph horizontal = createGraph(3);
+		layout(horizontal, new SugiyamaLayoutAlgorithm(Direction.HORIZONTAL),
+				cache);
+		assertEquals(2, cache.size());
+		assertFalse(LayoutProperties.getLocation(vertical.getNodes().get(2))
+				.equals(LayoutProperties
+						.getLocation(horizontal.getNodes().get(2))));
+
+		// state of a custom strategy is unknown
+		layout(createGraph(3),
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+						new SugiyamaLayoutAlgorithm.DFSLayerProvider()),
+				cache);
+		assertEquals(2, cache.size());
+	}
+
+	@Test
+	public void locationDependentLayoutsAreNotCached() {
+		LayoutCache cache = new LayoutCache();
+		layout(createGraph(3), new HorizontalShiftAlgorithm(), cache);
+		SpringLayoutAlgorithm spring = new SpringLayoutAlgorithm();
+		spring.setRandom(false);
+		spring.setIterations(10);
+		layout(createGraph(3), spring, cache);
+		assertEquals(0, cache.size());
+		spring.setRandom(true);
+		layout(createGraph(3), spring, cache);
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void pinnedNodesKeepTheirLocations() {
+		LayoutCache cache = new LayoutCache();
+		CountingLayoutAlgorithm algorithm = new CountingLayoutAlgorithm();
+		layout(createGraph(3), algorithm, cache);
+
+		// the location of a pinned node is part of the fingerprint
+		Graph graph = createGraph(3);
+		Node pinned = graph.getNodes().get(1);
+		pinned.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY, false);
+		LayoutProperties.setLocation(pinned, new Point(500, 500));
+		layout(graph, algorithm, cache);
+		assertEquals(2, algorithm.passes);
+
+		// a cached result does not move a pinned node
+		graph = createGraph(3);
+		pinned = graph.getNodes().get(1);
+		pinned.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY, false);
+		LayoutProperties.setLocation(pinned, new Point(500, 500));
+		layout(graph, algorithm, cache);
+		assertEquals(2, algorithm.passes);
+		assertEquals(new Point(500, 500), LayoutProperties.getLocation(pinned));
+		assertEquals(new Point(20, 20),
+				LayoutProperties.getLocation(graph.getNodes().get(2)));
+	}
+
+	@Test
+	public void uncleanPassesAndUnknownParametersAreNotCached() {
+		LayoutCache cache = new LayoutCache();
+		CountingLayoutAlgorithm algorithm = new CountingLayoutAlgorithm();
+		layout(createGraph(3), algorithm, cache, false);
+		assertEquals(0, cache.size());
+		layout(createGraph(3), algorithm, cache, true);
+		assertEquals(1, cache.size());
+		// unclean passes are not served from the cache either
+		layout(createGraph(3), algorithm, cache, false);
+		assertEquals(3, algorithm.passes);
+		assertEquals(1, cache.size());
+
+		layout(createGraph(3), new ILayoutAlgorithm() {
+			@Override
+			public void applyLayout(LayoutContext layoutContext,
+					boolean clean) {
+			}
+		}, cache);
+		assertEquals(1, cache.size());
+	}
+
+	@Test
+	public void loadCorruptInput() throws IOException {
+		LayoutCache cache = new LayoutCache();
+		layout(createGraph(3), new CountingLayoutAlgorithm(), cache);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		cache.save(out);
+		byte[] valid = out.toByteArray();
+
+		LayoutCache loaded = new LayoutCache();
+		assertLoadFails(loaded, new byte[] { 1, 2, 3 });
+		assertLoadFails(loaded, createEntry(-1, 32, 0));
+		assertLoadFails(loaded, createEntry(1, 5, 0));
+		assertLoadFails(loaded, createEntry(1, 32, -4));
+		assertLoadFails(loaded, createEntry(1, 32, 3));
+		assertLoadFails(loaded, createEntry(1, 32, Integer.MAX_VALUE - 3));
+		assertLoadFails(loaded, createEntry(Integer.MAX_VALUE, 32, 0));
+		assertLoadFails(loaded, Arrays.copyOf(valid, valid.length - 1));
+		assertEquals(0, loaded.size());
+		loaded.load(new ByteArrayInputStream(valid));
+		assertEquals(1, loaded.size());
+	}
+
+	@Test
+	public void leastRecentlyUsedIsEvicted() {
+		LayoutCache cache = new LayoutCache(2);
+		CountingLayoutAlgorithm algorithm = new CountingLayoutAlgorithm();
+		layout(createGraph(1), algorithm, cache);
+		layout(createGraph(2), algorithm, cache);
+		layout(createGraph(1), algorithm, cache);
+		layout(createGraph(3), algorithm, cache);
+		assertEquals(3, algorithm.passes);
+		assertEquals(2, cache.size());
+
+		// graph with 2 nodes was evicted, graph with 1 node was not
+		layout(createGraph(1), algorithm, cache);
+		assertEquals(3, algorithm.passes);
+		layout(createGraph(2), algorithm, cache);
+		assertEquals(4, algorithm.passes);
+	}
+
+	@Test
+	public void saveAndLoad() throws IOException {
+		LayoutCache cache = new LayoutCache();
+		CountingLayoutAlgorithm algorithm = new CountingLayoutAlgorithm();
+		layout(createGraph(3), algorithm, cache);
+		layout(createGraph(4), algorithm, cache);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		cache.save(out);
+
+		LayoutCache loaded = new LayoutCache();
+		loaded.load(new ByteArrayInputStream(out.toByteArray()));
+		assertEquals(2, loaded.size());
+		Graph graph = createGraph(4);
+		layout(graph, algorithm, loaded);
+		assertEquals(2, algorithm.passes);
+		assertEquals(new Point(30, 30),
+				LayoutProperties.getLocation(graph.getNodes().get(3)));
+	}
+}
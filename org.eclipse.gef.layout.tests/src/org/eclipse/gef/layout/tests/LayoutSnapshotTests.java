@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+import java.util.Arrays;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.LayoutSnapshot;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link LayoutSnapshot}.
+ */
+public class LayoutSnapshotTests {
+
+	private static Node createNode(double x, double y) {
+		Node node = new Node();
+		LayoutProperties.setLocation(node, new Point(x, y));
+		LayoutProperties.setSize(node, new Dimension(10, 20));
+		return node;
+	}
+
+	@Test
+	public void snapshotOfContext() {
+		Node a = createNode(1, 2);
+		Node b = createNode(3, 4);
+		Node c = createNode(5, 6);
+		Edge ab = new Edge(a, b);
+		Edge ac = new Edge(a, c);
+		Edge cb = new Edge(c, b);
+		LayoutProperties.setWeight(ac, 2);
+		LayoutContext context = new LayoutContext();
+		context.setGraph(
+				new Graph(Arrays.asList(a, b, c), Arrays.asList(ab, ac, cb)));
+
+		LayoutSnapshot snapshot = new LayoutSnapshot(context);
+		assertEquals(3, snapshot.getNodeCount());
+		assertEquals(3, snapshot.getEdgeCount());
+		assertEquals(1, snapshot.indexOf(b));
+		assertEquals(3, snapshot.getX(1), 0);
+		assertEquals(20, snapshot.getHeight(2), 0);
+		assertEquals(2, snapshot.getEdgeWeight(1), 0);
+
+		// outgoing edges of a
+		assertEquals(2, snapshot.getOutDegree(0));
+		assertSame(ab, snapshot.getEdge(snapshot.getOutgoingEdge(0, 0)));
+		assertSame(ac, snapshot.getEdge(snapshot.getOutgoingEdge(0, 1)));
+		// incoming edges of b
+		assertEquals(2, snapshot.getInDegree(1));
+		assertEquals(0, snapshot.getEdgeSource(snapshot.getIncomingEdge(1, 0)));
+		assertEquals(2, snapshot.getEdgeSource(snapshot.getIncomingEdge(1, 1)));
+		assertEquals(0, snapshot.getInDegree(0));
+	}
+
+	@Test
+	public void writeBackChangedLocations() {
+		Node a = createNode(1, 2);
+		Node b = createNode(3, 4);
+		Node c = createNode(5, 6);
+		c.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY, false);
+		LayoutSnapshot snapshot = new LayoutSnapshot(new Node[] { a, b, c },
+				new Edge[0]);
+		Point locationOfA = LayoutProperties.getLocation(a);
+
+		snapshot.setLocation(1, 7, 8);
+		snapshot.setLocation(2, 9, 10);
+		assertFalse(snapshot.isMovable(2));
+		snapshot.writeBack();
+
+		// unchanged locations are not written
+		assertSame(locationOfA, LayoutProperties.getLocation(a));
+		assertEquals(new Point(7, 8), LayoutProperties.getLocation(b));
+		// locations of nodes that are not movable are not written
+		assertEquals(new Point(5, 6), LayoutProperties.getLocation(c));
+	}
+
+}
@@ -0,0 +1,51 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.eclipse.gef.layout.tests.SpringLayoutAlgorithmTests.createGraph;
+import static org.eclipse.gef.layout.tests.SpringLayoutAlgorithmTests.layout;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.layout.algorithms.MultilevelLayoutAlgorithm;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link MultilevelLayoutAlgorithm}.
+ */
+public class MultilevelLayoutAlgorithmTests {
+
+	@Test
+	public void layoutWithinBounds() {
+		MultilevelLayoutAlgorithm algorithm = new MultilevelLayoutAlgorithm();
+		algorithm.setSeed(3L);
+		Rectangle bounds = new Rectangle(0, 0, 800, 600);
+		for (Point location : layout(createGraph(500, 42), algorithm)) {
+			assertTrue(bounds.getExpanded(1, 1).contains(location));
+		}
+	}
+
+	@Test
+	public void seededLayoutIsReproducible() {
+		MultilevelLayoutAlgorithm first = new MultilevelLayoutAlgorithm();
+		first.setSeed(3L);
+		MultilevelLayoutAlgorithm second = new MultilevelLayoutAlgorithm();
+		second.setSeed(3L);
+		second.setParallel(true);
+		assertEquals(layout(createGraph(500, 42), first),
+				layout(createGraph(500, 42), second));
+	}
+
+}
@@ -0,0 +1,193 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link SpringLayoutAlgorithm}.
+ */
+public class SpringLayoutAlgorithmTests {
+
+	/**
+	 * Creates a random tree with the given number of nodes, which are placed
+	 * randomly within bounds of 800x600.
+	 */
+	static Graph createGraph(int numNodes, long seed) {
+		Random random = new Random(seed);
+		List<Node> nodes = new ArrayList<>();
+		for (int i = 0; i < numNodes; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			LayoutProperties.setLocation(node, new Point(
+					random.nextDouble() * 800, random.nextDouble() * 600));
+			nodes.add(node);
+		}
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 1; i < numNodes; i++) {
+			edges.add(new Edge(nodes.get(random.nextInt(i)), nodes.get(i)));
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 800, 600));
+		return graph;
+	}
+
+	/**
+	 * Applies the given algorithm to the graph and returns the resulting node
+	 * locations.
+	 */
+	static List<Point> layout(Graph graph, ILayoutAlgorithm algorithm) {
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+		List<Point> locations = new ArrayList<>();
+		for (Node node : graph.getNodes()) {
+			locations.add(LayoutProperties.getLocation(node));
+		}
+		return locations;
+	}
+
+	private static SpringLayoutAlgorithm createAlgorithm() {
+		SpringLayoutAlgorithm algorithm = new SpringLayoutAlgorithm();
+		algorithm.setRandom(false);
+		algorithm.setSpringTimeout(0);
+		algorithm.setIterations(20);
+		return algorithm;
+	}
+
+	@Test
+	public void parallelApproximatedForcesEqualSequential() {
+		SpringLayoutAlgorithm sequential = createAlgorithm();
+		sequential.setApproximateRepulsion(true);
+		SpringLayoutAlgorithm parallel = createAlgorithm();
+		parallel.setApproximateRepulsion(true);
+		parallel.setParallel(true);
+		parallel.setParallelism(4);
+		assertEquals(layout(createGraph(300, 42), sequential),
+				layout(createGraph(300, 42), parallel));
+	}
+
+	@Test
+	public void parallelExactForcesEqualSequential() {
+		SpringLayoutAlgorithm sequential = createAlgorithm();
+		SpringLayoutAlgorithm parallel = createAlgorithm();
+		parallel.setParallel(true);
+		parallel.setParallelism(4);
+		assertEquals(layout(createGraph(300, 42), sequential),
+				layout(createGraph(300, 42), parallel));
+	}
+
+	@Test
+	public void pinnedNodesDetermineFrame() {
+		// a pinned hub with spokes, which are placed randomly
+		Node hub = new Node();
+		LayoutProperties.setSize(hub, new Dimension(10, 10));
+		LayoutProperties.setLocation(hub, new Point(50, 50));
+		hub.getAttributes().put(LayoutProperties.MOVABLE_PROPERTY, false);
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		nodes.add(hub);
+		for (int i = 0; i < 20; i++) {
+			Node spoke = new Node();
+			LayoutProperties.setSize(spoke, new Dimension(10, 10));
+			nodes.add(spoke);
+			edges.add(new Edge(hub, spoke));
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 800, 600));
+		SpringLayoutAlgorithm algorithm = createAlgorithm();
+		algorithm.setRandom(true);
+		algorithm.setSeed(7L);
+		algorithm.setIterations(1000);
+		List<Point> locations = layout(graph, algorithm);
+
+		// the hub is not moved, and the spokes are laid out around it
+		assertEquals(new Point(50, 50), locations.get(0));
+		Point centroid = new Point();
+		for (Point location : locations.subList(1, locations.size())) {
+			centroid.translate(location.x / 20, location.y / 20);
+		}
+		assertTrue(centroid.getDistance(locations.get(0)) < 50);
+	}
+
+	@Test
+	public void seededRandomPlacementIsReproducible() {
+		SpringLayoutAlgorithm first = createAlgorithm();
+		first.setRandom(true);
+		first.setSeed(7L);
+		SpringLayoutAlgorithm second = createAlgorithm();
+		second.setRandom(true);
+		second.setSeed(7L);
+		List<Point> expected = layout(createGraph(100, 42), first);
+		assertEquals(expected, layout(createGraph(100, 42), second));
+		// the algorithm can be re-used without affecting the result
+		assertEquals(expected, layout(createGraph(100, 42), second));
+	}
+
+	@Test
+	public void seededTimedLayoutIsReproducible() {
+		// the default iteration count is based on the elapsed time, which
+		// is ignored when a seed is set
+		SpringLayoutAlgorithm first = new SpringLayoutAlgorithm();
+		first.setSeed(7L);
+		SpringLayoutAlgorithm second = new SpringLayoutAlgorithm();
+		second.setSeed(7L);
+		List<Point> expected = layout(createGraph(200, 42), first);
+		assertEquals(expected, layout(createGraph(200, 42), second));
+		assertEquals(first.getPerformedIterations(),
+				second.getPerformedIterations());
+
+		// a timeout that would expire during the layout
+		first.setSpringTimeout(1);
+		second.setSpringTimeout(1);
+		expected = layout(createGraph(200, 42), first);
+		assertEquals(expected, layout(createGraph(200, 42), second));
+		assertEquals(first.getPerformedIterations(),
+				second.getPerformedIterations());
+	}
+
+	@Test
+	public void terminateWhenConverged() {
+		SpringLayoutAlgorithm algorithm = createAlgorithm();
+		layout(createGraph(50, 42), algorithm);
+		assertEquals(20, algorithm.getPerformedIterations());
+		assertFalse(algorithm.isConverged());
+
+		// every iteration moves the nodes less than the threshold
+		algorithm.setConvergenceThreshold(Double.MAX_VALUE);
+		layout(createGraph(50, 42), algorithm);
+		assertEquals(1, algorithm.getPerformedIterations());
+		assertTrue(algorithm.isConverged());
+		assertTrue(algorithm.getEnergy() > 0);
+	}
+
+}
@@ -0,0 +1,255 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.BarycentricCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.BrandesKoepfCoordinateAssigner;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.CrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.Direction;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.GreedyCrossingReducer;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.LongestPathLayerProvider;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.NetworkSimplexLayerProvider;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.SimpleLayerProvider;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.SplitCrossingReducer;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link SugiyamaLayoutAlgorithm}.
+ */
+public class SugiyamaLayoutAlgorithmTests {
+
+	private static Node createNode() {
+		Node node = new Node();
+		LayoutProperties.setSize(node, new Dimension(10, 10));
+		LayoutProperties.setLocation(node, new Point());
+		return node;
+	}
+
+	// creates an acyclic graph, in which the parents of each node are taken
+	// from the preceding groups of ten
+	private static Graph createRandomDag(Random random, int size) {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < size; i++) {
+			Node node = createNode();
+			if (i >= 10) {
+				edges.add(new Edge(nodes.get(random.nextInt(i / 10 * 10)),
+						node));
+			}
+			nodes.add(node);
+		}
+		return new Graph(nodes, edges);
+	}
+
+	private static void layout(Graph graph, CrossingReducer crossingReducer) {
+		layout(graph, new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+				new SimpleLayerProvider(), crossingReducer));
+	}
+
+	private static void layout(Graph graph,
+			SugiyamaLayoutAlgorithm algorithm) {
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 800, 600));
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+	}
+
+	private static Rectangle getBounds(Node node) {
+		Point location = LayoutProperties.getLocation(node);
+		Dimension size = LayoutProperties.getSize(node);
+		return new Rectangle(location.x - size.width / 2,
+				location.y - size.height / 2, size.width, size.height);
+	}
+
+	private static void assertCrossingRemoved(CrossingReducer crossingReducer) {
+		// the initial order (c, d) results in a crossing
+		Node a = createNode();
+		Node b = createNode();
+		Node c = createNode();
+		Node d = createNode();
+		Graph graph = new Graph(Arrays.asList(a, b, c, d),
+				Arrays.asList(new Edge(a, d), new Edge(b, c)));
+		layout(graph, crossingReducer);
+		assertEquals(x(a) < x(b), x(d) < x(c));
+	}
+
+	private static double x(Node node) {
+		return LayoutProperties.getLocation(node).x;
+	}
+
+	private static double y(Node node) {
+		return LayoutProperties.getLocation(node).y;
+	}
+
+	@Test
+	public void barycentricCrossingReduction() {
+		assertCrossingRemoved(new BarycentricCrossingReducer());
+	}
+
+	@Test
+	public void barycentricRestartsAreReproducible() {
+		Graph graph = createRandomDag(new Random(11), 100);
+		List<Point> locations = null;
+		for (boolean parallel : new boolean[] { false, true, false }) {
+			BarycentricCrossingReducer crossingReducer = new BarycentricCrossingReducer();
+			crossingReducer.setRestarts(4);
+			crossingReducer.setSeed(5L);
+			crossingReducer.setParallel(parallel);
+			layout(graph, crossingReducer);
+			List<Point> current = new ArrayList<>();
+			for (Node node : graph.getNodes()) {
+				current.add(LayoutProperties.getLocation(node));
+			}
+			if (locations != null) {
+				assertEquals(locations, current);
+			}
+			locations = current;
+		}
+	}
+
+	@Test
+	public void brandesKoepfAlignsChain() {
+		Node a = createNode();
+		Node b = createNode();
+		Node c = createNode();
+		Node d = createNode();
+		Node e = createNode();
+		Graph graph = new Graph(Arrays.asList(a, b, c, d, e),
+				Arrays.asList(new Edge(a, b), new Edge(b, c), new Edge(d, e)));
+		layout(graph,
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL, null, null,
+						null, new BrandesKoepfCoordinateAssigner()));
+		assertEquals(x(a), x(b), 0.001);
+		assertEquals(x(b), x(c), 0.001);
+		assertTrue(LayoutProperties.getLocation(a).y < LayoutProperties
+				.getLocation(b).y);
+		assertTrue(LayoutProperties.getLocation(b).y < LayoutProperties
+				.getLocation(c).y);
+	}
+
+	@Test
+	public void brandesKoepfRespectsNodeSizes() {
+		Random random = new Random(7);
+		Graph graph = createRandomDag(random, 60);
+		List<Node> nodes = graph.getNodes();
+		for (Node node : nodes) {
+			LayoutProperties.setSize(node, new Dimension(
+					10 + random.nextInt(40), 10 + random.nextInt(20)));
+		}
+		for (Direction direction : Direction.values()) {
+			layout(graph, new SugiyamaLayoutAlgorithm(direction, null, null,
+					null, new BrandesKoepfCoordinateAssigner(5, 10)));
+			for (int i = 0; i < nodes.size(); i++) {
+				Rectangle bounds = getBounds(nodes.get(i));
+				assertTrue(bounds.getX() >= -0.001);
+				assertTrue(bounds.getY() >= -0.001);
+				for (int j = i + 1; j < nodes.size(); j++) {
+					assertTrue(!bounds.touches(getBounds(nodes.get(j))));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void greedyCrossingReduction() {
+		assertCrossingRemoved(new GreedyCrossingReducer());
+	}
+
+	@Test
+	public void layeringOfCyclicGraph() {
+		Node a = createNode();
+		Node b = createNode();
+		Node c = createNode();
+		Node d = createNode();
+		Graph graph = new Graph(Arrays.asList(a, b, c, d),
+				Arrays.asList(new Edge(a, b), new Edge(b, c), new Edge(c, a),
+						new Edge(c, d), new Edge(d, d)));
+		SugiyamaLayoutAlgorithm[] algorithms = {
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+						new LongestPathLayerProvider()),
+				new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+						new NetworkSimplexLayerProvider()) };
+		for (SugiyamaLayoutAlgorithm algorithm : algorithms) {
+			layout(graph, algorithm);
+			for (Edge edge : graph.getEdges()) {
+				if (edge.getSource() != edge.getTarget()) {
+					assertTrue(y(edge.getSource()) != y(edge.getTarget()));
+				}
+			}
+			assertTrue(algorithm.getLayeringTime() > 0);
+		}
+	}
+
+	@Test
+	public void longEdgeCrossingsDecideOrder() {
+		// the long edge (b, e) is routed through a dummy right of c, so that
+		// the initial order (e, f) results in a crossing
+		Node a = createNode();
+		Node b = createNode();
+		Node c = createNode();
+		Node e = createNode();
+		Node f = createNode();
+		Graph graph = new Graph(Arrays.asList(a, b, c, e, f),
+				Arrays.asList(new Edge(a, c), new Edge(c, e), new Edge(c, f),
+						new Edge(b, e)));
+		CrossingReducer[] crossingReducers = { new GreedyCrossingReducer(),
+				new SplitCrossingReducer(1L) };
+		for (CrossingReducer crossingReducer : crossingReducers) {
+			layout(graph, crossingReducer);
+			assertTrue(x(f) < x(e));
+		}
+	}
+
+	@Test
+	public void networkSimplexShortensEdges() {
+		// the longest path layering places s on top, far from w
+		Node x = createNode();
+		Node y = createNode();
+		Node z = createNode();
+		Node w = createNode();
+		Node s = createNode();
+		Graph graph = new Graph(Arrays.asList(x, y, z, w, s),
+				Arrays.asList(new Edge(x, y), new Edge(y, z), new Edge(z, w),
+						new Edge(s, w)));
+		layout(graph, new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+				new LongestPathLayerProvider()));
+		assertEquals(y(x), y(s), 0.001);
+		layout(graph, new SugiyamaLayoutAlgorithm(Direction.VERTICAL,
+				new NetworkSimplexLayerProvider()));
+		assertEquals(y(z), y(s), 0.001);
+	}
+
+	@Test
+	public void splitCrossingReduction() {
+		assertCrossingRemoved(new SplitCrossingReducer(1L));
+	}
+
+}
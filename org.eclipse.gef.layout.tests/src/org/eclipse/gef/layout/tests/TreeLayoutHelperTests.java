@@ -0,0 +1,364 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutFilter;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.SpaceTreeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.TreeLayoutHelper;
+import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the incremental updates of the {@link TreeLayoutHelper}.
+ */
+public class TreeLayoutHelperTests {
+
+	/**
+	 * Records all created {@link TreeNode}s.
+	 */
+	private static class RecordingTreeNodeFactory
+			extends TreeLayoutHelper.TreeNodeFactory {
+
+		private final Map<Node, TreeNode> treeNodes = new IdentityHashMap<>();
+		private TreeNode superRoot;
+		private int created;
+
+		@Override
+		public TreeNode createTreeNode(Node nodeLayout,
+				TreeLayoutHelper observer) {
+			TreeNode treeNode = super.createTreeNode(nodeLayout, observer);
+			if (nodeLayout == null) {
+				superRoot = treeNode;
+			} else {
+				treeNodes.put(nodeLayout, treeNode);
+				created++;
+			}
+			return treeNode;
+		}
+	}
+
+	private RecordingTreeNodeFactory factory;
+	private TreeLayoutHelper helper;
+	private List<String> events;
+	private Graph graph;
+	private LayoutContext context;
+	private List<Node> nodes;
+
+	@Before
+	public void setUp() {
+		factory = new RecordingTreeNodeFactory();
+		helper = new TreeLayoutHelper(factory);
+		events = new ArrayList<>();
+		helper.addTreeListener(new TreeLayoutHelper.TreeListener() {
+			@Override
+			public void nodeAdded(TreeNode newNode) {
+				events.add("added " + nodes.indexOf(newNode.getNode()));
+			}
+
+			@Override
+			public void nodeRemoved(TreeNode removedNode) {
+				events.add("removed " + nodes.indexOf(removedNode.getNode()));
+			}
+
+			@Override
+			public void parentChanged(TreeNode node, TreeNode previousParent) {
+				events.add("parent " + nodes.indexOf(node.getNode()));
+			}
+		});
+
+		// 0 -> 1 -> 3, 0 -> 2 -> 3
+		nodes = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			nodes.add(new Node());
+		}
+		List<Edge> edges = new ArrayList<>();
+		edges.add(new Edge(nodes.get(0), nodes.get(1)));
+		edges.add(new Edge(nodes.get(0), nodes.get(2)));
+		edges.add(new Edge(nodes.get(1), nodes.get(3)));
+		edges.add(new Edge(nodes.get(2), nodes.get(3)));
+		graph = new Graph(nodes, edges);
+		context = new LayoutContext();
+		context.setGraph(graph);
+		helper.computeTree(context);
+	}
+
+	private TreeNode get(int index) {
+		return factory.treeNodes.get(nodes.get(index));
+	}
+
+	private void removeEdge(int source, int target) {
+		for (Edge edge : graph.getEdges()) {
+			if (edge.getSource() == nodes.get(source)
+					&& edge.getTarget() == nodes.get(target)) {
+				graph.getEdges().remove(edge);
+				return;
+			}
+		}
+	}
+
+	// returns the index of the current parent of node 3 (1 or 2)
+	private int getParentOf3() {
+		return nodes.indexOf(get(3).getParent().getNode());
+	}
+
+	// compares the parameters of the given node and its descendants with the
+	// values computed from the current children, returns the number of leaves
+	private static int assertParameters(TreeNode treeNode, int depth,
+			int order) {
+		assertEquals(depth, treeNode.getDepth());
+		assertEquals(order, treeNode.getOrder());
+		List<TreeNode> children = treeNode.getChildren();
+		int height = 0;
+		int numOfLeaves = 0;
+		int numOfDescendants = 0;
+		for (int i = 0; i < children.size(); i++) {
+			TreeNode child = children.get(i);
+			assertSame(treeNode, child.getParent());
+			assertEquals(i == 0, child.isFirstChild());
+			assertEquals(i == children.size() - 1, child.isLastChild());
+			numOfLeaves += assertParameters(child, depth + 1,
+					order + numOfLeaves);
+			height = Math.max(height, child.getHeight() + 1);
+			numOfDescendants += child.getNumOfDescendants() + 1;
+		}
+		numOfLeaves = Math.max(1, numOfLeaves);
+		assertEquals(height, treeNode.getHeight());
+		assertEquals(numOfLeaves, treeNode.getNumOfLeaves());
+		assertEquals(numOfDescendants, treeNode.getNumOfDescendants());
+		return numOfLeaves;
+	}
+
+	@Test
+	public void initialTree() {
+		assertEquals(4, factory.created);
+		assertSame(factory.superRoot, get(0).getParent());
+		assertTrue(getParentOf3() == 1 || getParentOf3() == 2);
+		assertEquals(2, get(3).getDepth());
+		assertEquals(3, factory.superRoot.getHeight());
+	}
+
+	@Test
+	public void addNodeReusesTree() {
+		Node added = new Node();
+		nodes.add(added);
+		graph.getNodes().add(added);
+		graph.getEdges().add(new Edge(nodes.get(3), added));
+		helper.computeTree(context);
+
+		// only the added node was created
+		assertEquals(5, factory.created);
+		assertSame(get(3), get(4).getParent());
+		assertEquals(3, get(4).getDepth());
+		assertEquals(4, factory.superRoot.getHeight());
+		assertEquals(2, factory.superRoot.getNumOfLeaves());
+		assertEquals("[added 4, parent 4]", events.toString());
+	}
+
+	@Test
+	public void removeNodeReparentsChildren() {
+		int removed = getParentOf3();
+		int other = 3 - removed;
+		removeEdge(0, removed);
+		removeEdge(removed, 3);
+		graph.getNodes().remove(nodes.get(removed));
+		helper.computeTree(context);
+
+		assertEquals(4, factory.created);
+		assertSame(get(other), get(3).getParent());
+		assertEquals(2, get(3).getDepth());
+		assertEquals(1, get(0).getChildren().size());
+		assertEquals("[removed " + removed + ", parent 3]",
+				events.toString());
+	}
+
+	@Test
+	public void removeEdge() {
+		removeEdge(0, 1);
+		helper.computeTree(context);
+
+		// 1 becomes a root
+		assertSame(factory.superRoot, get(1).getParent());
+		assertEquals(0, get(1).getDepth());
+		assertEquals(2, factory.superRoot.getChildren().size());
+		assertEquals(getParentOf3() == 1 ? 1 : 2, get(3).getDepth());
+
+		// 3 looks for another parent
+		int parent = getParentOf3();
+		removeEdge(parent, 3);
+		helper.computeTree(context);
+		assertEquals(3 - parent, getParentOf3());
+	}
+
+	@Test
+	public void retargetEdge() {
+		// 0 -> 1 becomes 2 -> 1
+		Edge edge = graph.getEdges().get(0);
+		edge.setSource(nodes.get(2));
+		helper.computeTree(context);
+		assertSame(get(2), get(1).getParent());
+		assertEquals(2, get(1).getDepth());
+		assertTrue(events.contains("parent 1"));
+
+		// 2 -> 1 becomes 2 -> 3, so that 1 becomes a root
+		events.clear();
+		edge.setTarget(nodes.get(3));
+		helper.computeTree(context);
+		assertSame(factory.superRoot, get(1).getParent());
+		assertEquals(0, get(1).getDepth());
+		assertTrue(events.contains("parent 1"));
+		assertEquals(4, factory.created);
+	}
+
+	@Test
+	public void spaceTreeFollowsRetargetedEdge() {
+		// 0 -> 1 -> 2 -> 3
+		List<Node> chain = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			LayoutProperties.setLocation(node, new Point());
+			chain.add(node);
+			if (i > 0) {
+				edges.add(new Edge(chain.get(i - 1), node));
+			}
+		}
+		Graph chainGraph = new Graph(chain, edges);
+		LayoutProperties.setBounds(chainGraph, new Rectangle(0, 0, 400, 400));
+		LayoutContext chainContext = new LayoutContext();
+		chainContext.setGraph(chainGraph);
+		chainContext.setLayoutAlgorithm(new SpaceTreeLayoutAlgorithm());
+		chainContext.applyLayout(true);
+		List<Point> before = new ArrayList<>();
+		for (Node node : chain) {
+			before.add(LayoutProperties.getLocation(node).getCopy());
+		}
+		assertTrue(before.get(1).y < before.get(2).y);
+		assertTrue(before.get(2).y < before.get(3).y);
+
+		// move the subtree of 2 up to the root, the layers follow
+		edges.get(1).setSource(chain.get(0));
+		chainContext.applyLayout(true);
+		assertEquals(before.get(0).y,
+				LayoutProperties.getLocation(chain.get(0)).y, 0);
+		assertEquals(before.get(1).y,
+				LayoutProperties.getLocation(chain.get(2)).y, 0);
+		assertEquals(before.get(2).y,
+				LayoutProperties.getLocation(chain.get(3)).y, 0);
+		assertFalse(LayoutProperties.getLocation(chain.get(1))
+				.equals(LayoutProperties.getLocation(chain.get(2))));
+	}
+
+	@Test
+	public void addEdgeClosingCycle() {
+		graph.getEdges().add(new Edge(nodes.get(3), nodes.get(0)));
+		helper.computeTree(context);
+
+		// the root does not become a descendant of itself
+		assertSame(factory.superRoot, get(0).getParent());
+		assertEquals(4, factory.superRoot.getNumOfDescendants());
+		assertEquals(4, factory.created);
+	}
+
+	@Test
+	public void filteredNodes() {
+		final Node hidden = nodes.get(1);
+		ILayoutFilter filter = new ILayoutFilter() {
+			@Override
+			public boolean isLayoutIrrelevant(Edge edge) {
+				return false;
+			}
+
+			@Override
+			public boolean isLayoutIrrelevant(Node node) {
+				return node == hidden;
+			}
+		};
+		context.addLayoutFilter(filter);
+		helper.computeTree(context);
+		assertSame(get(2), get(3).getParent());
+
+		context.removeLayoutFilter(filter);
+		helper.computeTree(context);
+		assertEquals(5, factory.created);
+		assertSame(get(0), get(1).getParent());
+		assertEquals(1, get(1).getDepth());
+	}
+
+	@Test
+	public void parametersFollowRandomChanges() {
+		Random random = new Random(13);
+		for (int i = 0; i < 200; i++) {
+			int change = random.nextInt(4);
+			if (change == 0) {
+				Node added = new Node();
+				nodes.add(added);
+				graph.getNodes().add(added);
+			} else if (change == 1 && nodes.size() > 2) {
+				Node removed = nodes.remove(random.nextInt(nodes.size()));
+				for (Edge edge : new ArrayList<>(graph.getEdges())) {
+					if (edge.getSource() == removed
+							|| edge.getTarget() == removed) {
+						graph.getEdges().remove(edge);
+					}
+				}
+				graph.getNodes().remove(removed);
+			} else if (change == 2 || graph.getEdges().isEmpty()) {
+				graph.getEdges()
+						.add(new Edge(nodes.get(random.nextInt(nodes.size())),
+								nodes.get(random.nextInt(nodes.size()))));
+			} else {
+				Edge edge = graph.getEdges()
+						.get(random.nextInt(graph.getEdges().size()));
+				edge.setSource(nodes.get(random.nextInt(nodes.size())));
+			}
+			helper.computeTree(context);
+			assertParameters(factory.superRoot, -1, 0);
+			assertEquals(nodes.size(),
+					factory.superRoot.getNumOfDescendants());
+		}
+	}
+
+	@Test
+	public void exchangedGraphIsRebuilt() {
+		Graph other = new Graph(new ArrayList<>(nodes.subList(0, 1)),
+				new ArrayList<Edge>());
+		context.setGraph(other);
+		helper.computeTree(context);
+		assertEquals(5, factory.created);
+		assertEquals(1, factory.superRoot.getNumOfDescendants());
+		assertNull(factory.treeNodes.get(nodes.get(0)).getParent()
+				.getNode());
+	}
+}
@@ -0,0 +1,164 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.algorithms.TreeLayoutAlgorithm;
+import org.eclipse.gef.layout.algorithms.WalkerTreeLayoutAlgorithm;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link WalkerTreeLayoutAlgorithm}.
+ */
+public class WalkerTreeLayoutAlgorithmTests {
+
+	private static Node createNode(double width, double height) {
+		Node node = new Node();
+		LayoutProperties.setSize(node, new Dimension(width, height));
+		LayoutProperties.setLocation(node, new Point());
+		return node;
+	}
+
+	// creates a random tree, where node i is a child of a node < i
+	private static Graph createTree(int numNodes, long seed) {
+		Random random = new Random(seed);
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < numNodes; i++) {
+			nodes.add(createNode(5 + random.nextInt(30),
+					5 + random.nextInt(30)));
+			if (i > 0) {
+				edges.add(new Edge(nodes.get(random.nextInt(i)),
+						nodes.get(i)));
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 800, 600));
+		return graph;
+	}
+
+	private static void layout(Graph graph,
+			WalkerTreeLayoutAlgorithm algorithm) {
+		LayoutContext context = new LayoutContext();
+		context.setGraph(graph);
+		context.setLayoutAlgorithm(algorithm);
+		context.applyLayout(true);
+	}
+
+	private static Rectangle getBounds(Node node) {
+		Point location = LayoutProperties.getLocation(node);
+		Dimension size = LayoutProperties.getSize(node);
+		return new Rectangle(location.x - size.width / 2,
+				location.y - size.height / 2, size.width, size.height);
+	}
+
+	@Test
+	public void noOverlapInAllDirections() {
+		int[] directions = { TreeLayoutAlgorithm.TOP_DOWN,
+				TreeLayoutAlgorithm.BOTTOM_UP, TreeLayoutAlgorithm.LEFT_RIGHT,
+				TreeLayoutAlgorithm.RIGHT_LEFT };
+		for (int direction : directions) {
+			Graph graph = createTree(200, direction);
+			layout(graph, new WalkerTreeLayoutAlgorithm(direction));
+			List<Node> nodes = graph.getNodes();
+			for (int i = 0; i < nodes.size(); i++) {
+				Rectangle r1 = getBounds(nodes.get(i));
+				assertTrue(r1.getX() >= -1e-9 && r1.getY() >= -1e-9);
+				for (int j = i + 1; j < nodes.size(); j++) {
+					Rectangle r2 = getBounds(nodes.get(j));
+					Rectangle intersection = r1.getIntersected(r2);
+					assertTrue(intersection == null
+							|| intersection.getWidth() <= 1e-9
+							|| intersection.getHeight() <= 1e-9);
+				}
+			}
+		}
+	}
+
+	@Test
+	public void parentCenteredAboveChildren() {
+		Node root = createNode(20, 10);
+		Node a = createNode(10, 10);
+		Node b = createNode(40, 10);
+		Node c = createNode(10, 30);
+		List<Node> nodes = new ArrayList<>();
+		nodes.add(root);
+		nodes.add(a);
+		nodes.add(b);
+		nodes.add(c);
+		List<Edge> edges = new ArrayList<>();
+		edges.add(new Edge(root, a));
+		edges.add(new Edge(root, b));
+		edges.add(new Edge(root, c));
+		Graph graph = new Graph(nodes, edges);
+		WalkerTreeLayoutAlgorithm algorithm = new WalkerTreeLayoutAlgorithm();
+		algorithm.setNodeSpacing(5);
+		algorithm.setLayerSpacing(20);
+		layout(graph, algorithm);
+
+		Point pr = LayoutProperties.getLocation(root);
+		Point pa = LayoutProperties.getLocation(a);
+		Point pb = LayoutProperties.getLocation(b);
+		Point pc = LayoutProperties.getLocation(c);
+		// siblings are separated by half their widths plus the spacing
+		assertEquals(5 + 20 + 5, pb.x - pa.x, 1e-9);
+		assertEquals(20 + 5 + 5, pc.x - pb.x, 1e-9);
+		assertEquals((pa.x + pc.x) / 2, pr.x, 1e-9);
+		// the second layer is as deep as its deepest node
+		assertEquals(5, pr.y, 1e-9);
+		assertEquals(10 + 20 + 15, pa.y, 1e-9);
+		assertEquals(pa.y, pc.y, 1e-9);
+	}
+
+	@Test
+	public void largeTrees() {
+		// a deep chain and a wide random tree
+		int n = 100000;
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			nodes.add(createNode(10, 10));
+			if (i > 0) {
+				edges.add(new Edge(nodes.get(i - 1), nodes.get(i)));
+			}
+		}
+		Graph chain = new Graph(nodes, edges);
+		layout(chain, new WalkerTreeLayoutAlgorithm());
+		assertEquals(
+				LayoutProperties.getLocation(chain.getNodes().get(0)).x,
+				LayoutProperties.getLocation(chain.getNodes().get(n - 1)).x,
+				1e-9);
+
+		Graph tree = createTree(n / 10, 1);
+		layout(tree, new WalkerTreeLayoutAlgorithm());
+		for (Node node : tree.getNodes()) {
+			Point location = LayoutProperties.getLocation(node);
+			assertTrue(
+					!Double.isNaN(location.x) && !Double.isNaN(location.y));
+		}
+	}
+}
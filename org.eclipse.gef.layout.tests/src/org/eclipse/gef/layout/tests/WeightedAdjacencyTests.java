@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.eclipse.gef.layout.internal.utils.WeightedAdjacency;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link WeightedAdjacency}, which compare its rows to a dense
+ * weight matrix.
+ */
+public class WeightedAdjacencyTests {
+
+	private static final long SEED = 42;
+
+	// checks that the non-zero entries of the given matrix are stored in the
+	// rows of the given adjacency, sorted by column
+	private static void assertRows(double[][] matrix,
+			WeightedAdjacency adjacency) {
+		int n = matrix.length;
+		assertEquals(n, adjacency.size());
+		assertEquals(n + 1, adjacency.start.length);
+		assertEquals(0, adjacency.start[0]);
+		for (int i = 0; i < n; i++) {
+			int a = adjacency.start[i];
+			for (int j = 0; j < n; j++) {
+				if (matrix[i][j] != 0) {
+					assertTrue(a < adjacency.start[i + 1]);
+					assertEquals(j, adjacency.index[a]);
+					assertEquals(matrix[i][j], adjacency.weight[a], 1e-12);
+					a++;
+				}
+			}
+			assertEquals(adjacency.start[i + 1], a);
+		}
+		assertEquals(adjacency.start[n], adjacency.index.length);
+		assertEquals(adjacency.start[n], adjacency.weight.length);
+	}
+
+	@Test
+	public void test_build() {
+		Random random = new Random(SEED);
+		for (int k = 0; k < 100; k++) {
+			int n = 1 + random.nextInt(30);
+			int m = random.nextInt(4 * n);
+			// leave some unused elements at the end of the arrays
+			int[] sources = new int[m + 3];
+			int[] targets = new int[m + 3];
+			double[] weights = new double[m + 3];
+			double[][] matrix = new double[n][n];
+			for (int e = 0; e < m; e++) {
+				sources[e] = random.nextInt(n);
+				// create self-loops and parallel connections frequently
+				targets[e] = random.nextInt(4) == 0 ? sources[e]
+						: random.nextInt(Math.min(n, 5));
+				weights[e] = 1 + random.nextInt(3);
+				if (sources[e] != targets[e]) {
+					matrix[sources[e]][targets[e]] += weights[e];
+					matrix[targets[e]][sources[e]] += weights[e];
+				}
+			}
+			assertRows(matrix,
+					WeightedAdjacency.build(n, sources, targets, weights, m));
+		}
+	}
+
+	@Test
+	public void test_build_empty() {
+		WeightedAdjacency adjacency = WeightedAdjacency.build(3,
+				new int[] { 1 }, new int[] { 1 }, new double[] { 1 }, 1);
+		assertRows(new double[3][3], adjacency);
+		assertRows(new double[0][0], WeightedAdjacency.build(0, new int[0],
+				new int[0], new double[0], 0));
+	}
+
+}
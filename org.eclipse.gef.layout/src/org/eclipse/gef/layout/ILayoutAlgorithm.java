@@ -13,6 +13,10 @@
  ******************************************************************************/
 package org.eclipse.gef.layout;
 
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+
 /**
  * An interface for all layout algorithms.
  * 
@@ -37,4 +41,49 @@ public interface ILayoutAlgorithm {
 	 *            if clean is false.
 	 */
 	public void applyLayout(LayoutContext layoutContext, boolean clean);
+
+	/**
+	 * Makes this algorithm update the layout of its context after the given
+	 * changes. Called by {@link LayoutContext#applyLayout(boolean)} instead of
+	 * {@link #applyLayout(LayoutContext, boolean)} when the context is in
+	 * incremental mode and a previous layout pass exists. Algorithms that
+	 * support incremental layout should keep the nodes that are not affected
+	 * by the changes in place and only do local work. The default
+	 * implementation ignores an empty delta and re-computes the whole layout
+	 * otherwise.
+	 *
+	 * @param layoutContext
+	 *            The {@link LayoutContext} that provides all relevant
+	 *            information about what to layout.
+	 * @param delta
+	 *            The {@link LayoutDelta} describing the nodes and edges that
+	 *            were added or removed since the previous layout pass.
+	 */
+	public default void applyIncrementalLayout(LayoutContext layoutContext,
+			LayoutDelta delta) {
+		if (!delta.isEmpty()) {
+			applyLayout(layoutContext, true);
+		}
+	}
+
+	/**
+	 * Returns the parameters of this algorithm that influence the computed
+	 * layout. Used by the {@link LayoutCache}, which reuses the result of a
+	 * layout pass for algorithms of the same class with equal parameters, so
+	 * that all values that are set by constructors or setters and that change
+	 * the result have to be included. Supported values are <code>null</code>,
+	 * numbers, booleans, characters, strings, enums, {@link Dimension}s,
+	 * {@link Point}s, {@link Rectangle}s, nested {@link ILayoutAlgorithm}s,
+	 * and arrays of these. Subclasses that add such parameters have to
+	 * include them as well. Algorithms whose results depend on the initial
+	 * locations of the (movable) nodes have to return <code>null</code>. The
+	 * default implementation returns <code>null</code>, which means that the
+	 * results of this algorithm are not cached.
+	 *
+	 * @return The parameters of this algorithm, or <code>null</code> if its
+	 *         results may not be cached.
+	 */
+	public default Object[] getLayoutParameters() {
+		return null;
+	}
 }
@@ -0,0 +1,442 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A {@link LayoutCache} stores the results of layout passes, so that they can
+ * be reused when the same graph is laid out again (see
+ * {@link LayoutContext#setLayoutCache(LayoutCache)}).
+ * <p>
+ * The results are keyed by a fingerprint of the layout relevant structure,
+ * i.e. the layout relevant nodes (in order) with their sizes and
+ * {@link LayoutProperties}, the layout relevant edges with their weights, the
+ * layout bounds, and the layout algorithm with its parameters (see
+ * {@link ILayoutAlgorithm#getLayoutParameters()}). Results of algorithms
+ * that do not provide their parameters are not cached. Apart from the
+ * locations of nodes that are not movable, the initial node locations are not
+ * considered, i.e. the cache assumes that they do not influence the layout.
+ * When a cached result is applied, nodes that are not movable keep their
+ * locations, and nodes that are not resizable keep their sizes.
+ * <p>
+ * The cache is bounded, evicting the least recently used entry when its
+ * capacity is exceeded. Its entries can be persisted in a compact binary
+ * format via {@link #save(OutputStream)} and {@link #load(InputStream)}.
+ */
+public class LayoutCache {
+
+	// identifies the binary format
+	private static final int MAGIC = 0x47454643;
+	private static final int VERSION = 1;
+	private static final String DIGEST_ALGORITHM = "SHA-256";
+	private static final int DIGEST_LENGTH = 32;
+	// initial capacity for reading a layout result
+	private static final int READ_CHUNK_SIZE = 1024;
+
+	/**
+	 * The default number of entries within a {@link LayoutCache}.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	/**
+	 * The fingerprint of a layout pass.
+	 */
+	private static final class Key {
+
+		private final byte[] digest;
+		private final int hashCode;
+
+		Key(byte[] digest) {
+			this.digest = digest;
+			hashCode = Arrays.hashCode(digest);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof Key
+					&& Arrays.equals(digest, ((Key) obj).digest);
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+	}
+
+	private final int capacity;
+	private final LinkedHashMap<Key, double[]> entries;
+
+	/**
+	 * Creates a new {@link LayoutCache} with the {@link #DEFAULT_CAPACITY}.
+	 */
+	public LayoutCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a new {@link LayoutCache} with the given capacity.
+	 *
+	 * @param capacity
+	 *            The maximum number of layout results that are stored.
+	 */
+	public LayoutCache(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"Capacity has to be positive: " + capacity);
+		}
+		this.capacity = capacity;
+		entries = new LinkedHashMap<Key, double[]>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(
+					Entry<Key, double[]> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Applies the cached layout result for the current state of the given
+	 * {@link LayoutContext} to its layout relevant nodes, if available.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} to restore the layout for.
+	 * @param fingerprint
+	 *            The fingerprint of the given context as returned by
+	 *            {@link #fingerprint(LayoutContext)}.
+	 * @return <code>true</code> if a cached result was applied, otherwise
+	 *         <code>false</code>.
+	 */
+	boolean apply(LayoutContext context, Object fingerprint) {
+		double[] result;
+		synchronized (this) {
+			result = entries.get(fingerprint);
+		}
+		Node[] nodes = context.getNodes();
+		if (result == null || result.length != 4 * nodes.length) {
+			return false;
+		}
+		for (int i = 0; i < nodes.length; i++) {
+			if (LayoutProperties.isMovable(nodes[i])) {
+				LayoutProperties.setLocation(nodes[i],
+						new Point(result[4 * i], result[4 * i + 1]));
+			}
+			if (LayoutProperties.isResizable(nodes[i])) {
+				LayoutProperties.setSize(nodes[i],
+						new Dimension(result[4 * i + 2], result[4 * i + 3]));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Removes all entries from this {@link LayoutCache}.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Computes the fingerprint of the layout relevant structure of the given
+	 * {@link LayoutContext}, including its layout algorithm.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} to fingerprint.
+	 * @return The fingerprint, or <code>null</code> if the layout algorithm's
+	 *         parameters cannot be determined.
+	 */
+	Object fingerprint(LayoutContext context) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			if (!writeAlgorithm(out, context.getLayoutAlgorithm(),
+					new IdentityHashMap<Object, Boolean>())) {
+				return null;
+			}
+			writeRectangle(out,
+					LayoutProperties.getBounds(context.getGraph()));
+
+			Node[] nodes = context.getNodes();
+			Map<Node, Integer> indices = new IdentityHashMap<>();
+			out.writeInt(nodes.length);
+			for (int i = 0; i < nodes.length; i++) {
+				Node node = nodes[i];
+				indices.put(node, i);
+				Dimension size = LayoutProperties.getSize(node);
+				out.writeBoolean(size != null);
+				if (size != null) {
+					out.writeDouble(size.width);
+					out.writeDouble(size.height);
+				}
+				boolean movable = LayoutProperties.isMovable(node);
+				out.writeBoolean(movable);
+				if (!movable) {
+					// pinned nodes influence the layout of the others
+					Point location = LayoutProperties.getLocation(node);
+					out.writeBoolean(location != null);
+					if (location != null) {
+						out.writeDouble(location.x);
+						out.writeDouble(location.y);
+					}
+				}
+				out.writeBoolean(LayoutProperties.isResizable(node));
+				out.writeDouble(
+						LayoutProperties.getPreferredAspectRatio(node));
+			}
+
+			Edge[] edges = context.getEdges();
+			out.writeInt(edges.length);
+			for (Edge edge : edges) {
+				Integer source = indices.get(edge.getSource());
+				Integer target = indices.get(edge.getTarget());
+				out.writeInt(source == null ? -1 : source);
+				out.writeInt(target == null ? -1 : target);
+				out.writeDouble(LayoutProperties.getWeight(edge));
+			}
+			out.flush();
+		} catch (IOException e) {
+			return null;
+		}
+		try {
+			return new Key(MessageDigest.getInstance(DIGEST_ALGORITHM)
+					.digest(bytes.toByteArray()));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Returns the maximum number of entries within this {@link LayoutCache}.
+	 *
+	 * @return The capacity of this {@link LayoutCache}.
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Reads entries that were written by {@link #save(OutputStream)} from the
+	 * given {@link InputStream}, and adds them to this {@link LayoutCache}.
+	 * The stream is not closed.
+	 *
+	 * @param in
+	 *            The {@link InputStream} to read from.
+	 * @throws IOException
+	 *             If the stream cannot be read or does not contain valid cache
+	 *             entries. In this case, this {@link LayoutCache} is not
+	 *             changed.
+	 */
+	public void load(InputStream in) throws IOException {
+		DataInputStream data = new DataInputStream(in);
+		if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+			throw new IOException("Unsupported layout cache format.");
+		}
+		int count = data.readInt();
+		if (count < 0) {
+			throw new IOException("Invalid number of entries: " + count);
+		}
+		// the entries are only added if all of them can be read
+		Map<Key, double[]> loaded = new LinkedHashMap<>();
+		for (int e = 0; e < count; e++) {
+			int digestLength = data.readUnsignedByte();
+			if (digestLength != DIGEST_LENGTH) {
+				throw new IOException(
+						"Invalid fingerprint length: " + digestLength);
+			}
+			byte[] digest = new byte[digestLength];
+			data.readFully(digest);
+			int length = data.readInt();
+			if (length < 0 || length % 4 != 0) {
+				throw new IOException("Invalid result length: " + length);
+			}
+			// grow the result while reading, so that a corrupt length does
+			// not lead to a huge allocation
+			double[] result = new double[Math.min(length, READ_CHUNK_SIZE)];
+			for (int i = 0; i < length; i++) {
+				if (i == result.length) {
+					result = Arrays.copyOf(result,
+							(int) Math.min(length, 2L * result.length));
+				}
+				result[i] = data.readDouble();
+			}
+			loaded.put(new Key(digest), result);
+		}
+		synchronized (this) {
+			entries.putAll(loaded);
+		}
+	}
+
+	/**
+	 * Stores the locations and sizes of the layout relevant nodes of the
+	 * given {@link LayoutContext} under the given fingerprint.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} whose layout is stored.
+	 * @param fingerprint
+	 *            The fingerprint of the given context (before the layout
+	 *            pass) as returned by {@link #fingerprint(LayoutContext)}.
+	 */
+	void put(LayoutContext context, Object fingerprint) {
+		Node[] nodes = context.getNodes();
+		double[] result = new double[4 * nodes.length];
+		for (int i = 0; i < nodes.length; i++) {
+			Point location = LayoutProperties.getLocation(nodes[i]);
+			Dimension size = LayoutProperties.getSize(nodes[i]);
+			if (location == null || size == null) {
+				// incomplete results are not cached
+				return;
+			}
+			result[4 * i] = location.x;
+			result[4 * i + 1] = location.y;
+			result[4 * i + 2] = size.width;
+			result[4 * i + 3] = size.height;
+		}
+		synchronized (this) {
+			entries.put((Key) fingerprint, result);
+		}
+	}
+
+	/**
+	 * Writes all entries of this {@link LayoutCache} (from least to most
+	 * recently used) to the given {@link OutputStream}. The stream is flushed
+	 * but not closed.
+	 *
+	 * @param out
+	 *            The {@link OutputStream} to write to.
+	 * @throws IOException
+	 *             If the stream cannot be written.
+	 */
+	public void save(OutputStream out) throws IOException {
+		Map<Key, double[]> snapshot;
+		synchronized (this) {
+			snapshot = new LinkedHashMap<>(entries);
+		}
+		DataOutputStream data = new DataOutputStream(out);
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(snapshot.size());
+		for (Entry<Key, double[]> entry : snapshot.entrySet()) {
+			data.writeByte(entry.getKey().digest.length);
+			data.write(entry.getKey().digest);
+			double[] result = entry.getValue();
+			data.writeInt(result.length);
+			for (double value : result) {
+				data.writeDouble(value);
+			}
+		}
+		data.flush();
+	}
+
+	/**
+	 * Returns the number of entries within this {@link LayoutCache}.
+	 *
+	 * @return The number of entries.
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Writes the class and the parameters (see
+	 * {@link ILayoutAlgorithm#getLayoutParameters()}) of the given layout
+	 * algorithm. Nested layout algorithms are written recursively. Returns
+	 * <code>false</code> if the parameters of the given algorithm or of a
+	 * nested one are not available or not supported.
+	 */
+	private static boolean writeAlgorithm(DataOutputStream out,
+			ILayoutAlgorithm algorithm, Map<Object, Boolean> visited)
+			throws IOException {
+		if (algorithm == null) {
+			out.writeUTF("null");
+			return true;
+		}
+		out.writeUTF(algorithm.getClass().getName());
+		if (visited.put(algorithm, Boolean.TRUE) != null) {
+			return true;
+		}
+		Object[] parameters = algorithm.getLayoutParameters();
+		return parameters != null && writeValue(out, parameters, visited);
+	}
+
+	private static void writeRectangle(DataOutputStream out,
+			Rectangle rectangle) throws IOException {
+		out.writeBoolean(rectangle != null);
+		if (rectangle != null) {
+			out.writeDouble(rectangle.getX());
+			out.writeDouble(rectangle.getY());
+			out.writeDouble(rectangle.getWidth());
+			out.writeDouble(rectangle.getHeight());
+		}
+	}
+
+	/**
+	 * Writes the type and the value of a layout algorithm parameter. Returns
+	 * <code>false</code> if the value is not supported.
+	 */
+	private static boolean writeValue(DataOutputStream out, Object value,
+			Map<Object, Boolean> visited) throws IOException {
+		if (value instanceof ILayoutAlgorithm) {
+			out.writeByte('A');
+			return writeAlgorithm(out, (ILayoutAlgorithm) value, visited);
+		} else if (value instanceof Object[]) {
+			Object[] values = (Object[]) value;
+			out.writeByte('[');
+			out.writeInt(values.length);
+			for (Object v : values) {
+				if (!writeValue(out, v, visited)) {
+					return false;
+				}
+			}
+		} else if (value instanceof Dimension) {
+			out.writeByte('D');
+			out.writeDouble(((Dimension) value).width);
+			out.writeDouble(((Dimension) value).height);
+		} else if (value instanceof Point) {
+			out.writeByte('P');
+			out.writeDouble(((Point) value).x);
+			out.writeDouble(((Point) value).y);
+		} else if (value instanceof Rectangle) {
+			out.writeByte('R');
+			writeRectangle(out, (Rectangle) value);
+		} else if (value == null || value instanceof Number
+				|| value instanceof Boolean || value instanceof Character
+				|| value instanceof CharSequence || value instanceof Enum) {
+			out.writeByte('V');
+			out.writeUTF(value == null ? "null" : value.getClass().getName());
+			out.writeUTF(String.valueOf(value));
+		} else {
+			return false;
+		}
+		return true;
+	}
+}
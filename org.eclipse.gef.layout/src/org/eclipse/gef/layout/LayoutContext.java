@@ -13,8 +13,13 @@
 package org.eclipse.gef.layout;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Objects;
+import java.util.Set;
 
+import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Graph;
 import org.eclipse.gef.graph.Node;
@@ -28,6 +33,15 @@ import javafx.collections.ObservableList;
  * {@link Graph}. It maintains an {@link ILayoutAlgorithm} that can be applied,
  * supports the handling and execution of pre and post {@link Runnable}s, and
  * filtering of layout objects using {@link ILayoutFilter}.
+ * <p>
+ * In {@link #setIncremental(boolean) incremental} mode, the context keeps
+ * track of the layout relevant nodes and edges of its previous layout pass,
+ * and passes the changes since then to
+ * {@link ILayoutAlgorithm#applyIncrementalLayout(LayoutContext, LayoutDelta)}.
+ * <p>
+ * If a {@link #setLayoutCache(LayoutCache) layout cache} is set, the results
+ * of full layout passes are cached, so that the layout algorithm does not
+ * need to be applied when the same graph is laid out again.
  * 
  * @author mwienand
  *
@@ -48,6 +62,16 @@ public class LayoutContext {
 	private final List<Runnable> preLayoutPass = new ArrayList<>();
 	private final List<ILayoutFilter> layoutFilters = new ArrayList<>();
 
+	// state of the previous layout pass (only tracked in incremental mode)
+	private boolean incremental = false;
+	private Set<Node> previousNodes;
+	private Set<Edge> previousEdges;
+	private Graph previousGraph;
+	private ILayoutAlgorithm previousLayoutAlgorithm;
+	private Rectangle previousBounds;
+
+	private LayoutCache layoutCache;
+
 	/**
 	 * Adds the given ILayoutFilter to this {@link LayoutContext}.
 	 * 
@@ -62,20 +86,159 @@ public class LayoutContext {
 	 * Applies the layout algorithm of this LayoutContext. The clean flag is
 	 * passed-in to the layout algorithm to indicate whether the context changed
 	 * significantly since the last layout pass.
+	 * <p>
+	 * In {@link #isIncremental() incremental} mode, the layout algorithm is
+	 * only asked to compute the whole layout for the first pass, and whenever
+	 * the graph, its bounds, or the layout algorithm changed in between.
+	 * Otherwise, the layout algorithm is passed a {@link LayoutDelta}
+	 * describing the nodes and edges that were added or removed since the
+	 * previous pass. The incremental mode overrides the clean flag, i.e. the
+	 * delta is passed even if the flag is <code>true</code>, and the layout
+	 * cache is not consulted. Disable the incremental mode (or re-enable it)
+	 * to enforce a full layout pass.
+	 * <p>
+	 * If a {@link #getLayoutCache() layout cache} is set and contains a result
+	 * for the current state of this context, the result is applied instead of
+	 * the layout algorithm when the whole layout is to be computed (i.e. if
+	 * <i>clear</i> is <code>true</code> and no incremental pass is performed).
+	 * Otherwise, the result of such a pass is put into the cache.
+	 * <p>
+	 * Attribute change notifications of the {@link #getGraph() graph} are
+	 * deferred while the layout algorithm is applied (see
+	 * {@link Graph#beginAttributeChanges()}), so that a single notification is
+	 * fired for each changed layout property, before the post layout pass is
+	 * executed.
 	 * 
 	 * @param clear
 	 *            <code>true</code> to indicate that the algorithm has to fully
-	 *            re-compute the layout, otherwise <code>false</code>.
+	 *            re-compute the layout, otherwise <code>false</code>. Ignored
+	 *            for incremental passes.
 	 */
 	public void applyLayout(boolean clear) {
 		ILayoutAlgorithm layoutAlgorithm = layoutAlgorithmProperty.get();
 		if (layoutAlgorithm != null) {
 			preLayout();
-			layoutAlgorithm.applyLayout(this, clear);
+			// the algorithm might exchange the graph
+			Graph graph = this.graph;
+			LayoutDelta delta = incremental ? computeDelta() : null;
+			LayoutCache layoutCache = this.layoutCache;
+			Object fingerprint = !clear || layoutCache == null
+					|| delta != null || graph == null ? null
+							: layoutCache.fingerprint(this);
+			if (graph != null) {
+				graph.beginAttributeChanges();
+			}
+			try {
+				if (delta != null) {
+					layoutAlgorithm.applyIncrementalLayout(this, delta);
+				} else if (fingerprint == null) {
+					layoutAlgorithm.applyLayout(this, clear);
+				} else if (!layoutCache.apply(this, fingerprint)) {
+					layoutAlgorithm.applyLayout(this, clear);
+					layoutCache.put(this, fingerprint);
+				}
+			} finally {
+				if (graph != null) {
+					graph.commitAttributeChanges();
+				}
+			}
+			if (incremental) {
+				recordLayoutPass();
+			}
 			postLayout();
 		}
 	}
 
+	/**
+	 * Computes the {@link LayoutDelta} between the previous layout pass and
+	 * the current state of this context. Returns <code>null</code> if there is
+	 * no previous layout pass, or if the graph, its bounds, or the layout
+	 * algorithm changed in between.
+	 */
+	private LayoutDelta computeDelta() {
+		if (previousNodes == null || previousGraph != graph
+				|| previousLayoutAlgorithm != layoutAlgorithmProperty.get()
+				|| !Objects.equals(previousBounds,
+						LayoutProperties.getBounds(graph))) {
+			return null;
+		}
+		List<Node> addedNodes = new ArrayList<>();
+		Set<Node> removedNodes = newIdentitySet();
+		removedNodes.addAll(previousNodes);
+		for (Node node : getNodes()) {
+			if (!removedNodes.remove(node)) {
+				addedNodes.add(node);
+			}
+		}
+		List<Edge> addedEdges = new ArrayList<>();
+		Set<Edge> removedEdges = newIdentitySet();
+		removedEdges.addAll(previousEdges);
+		for (Edge edge : getEdges()) {
+			if (!removedEdges.remove(edge)) {
+				addedEdges.add(edge);
+			}
+		}
+		return new LayoutDelta(addedNodes, removedNodes, addedEdges,
+				removedEdges);
+	}
+
+	private static <T> Set<T> newIdentitySet() {
+		return Collections.newSetFromMap(new IdentityHashMap<T, Boolean>());
+	}
+
+	/**
+	 * Records the layout relevant nodes and edges, as well as the graph, its
+	 * bounds, and the layout algorithm of the layout pass that was just
+	 * performed, so that the next {@link LayoutDelta} can be computed.
+	 */
+	private void recordLayoutPass() {
+		if (graph == null) {
+			return;
+		}
+		previousNodes = newIdentitySet();
+		Collections.addAll(previousNodes, getNodes());
+		previousEdges = newIdentitySet();
+		Collections.addAll(previousEdges, getEdges());
+		previousGraph = graph;
+		previousLayoutAlgorithm = layoutAlgorithmProperty.get();
+		Rectangle bounds = LayoutProperties.getBounds(graph);
+		previousBounds = bounds == null ? null : bounds.getCopy();
+	}
+
+	/**
+	 * Returns whether this {@link LayoutContext} is in incremental mode, i.e.
+	 * whether layout passes after the first one only pass the changes since
+	 * the previous pass to the layout algorithm.
+	 * 
+	 * @return <code>true</code> if this {@link LayoutContext} is in
+	 *         incremental mode, otherwise <code>false</code>.
+	 * @see #setIncremental(boolean)
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Enables or disables the incremental mode of this {@link LayoutContext}.
+	 * When the incremental mode is (re-)enabled, the next layout pass computes
+	 * the whole layout, and all subsequent passes receive a
+	 * {@link LayoutDelta}, independent of the clean flag that is passed to
+	 * {@link #applyLayout(boolean)} (see
+	 * {@link ILayoutAlgorithm#applyIncrementalLayout(LayoutContext, LayoutDelta)}).
+	 * 
+	 * @param incremental
+	 *            <code>true</code> to enable the incremental mode, otherwise
+	 *            <code>false</code>.
+	 */
+	public void setIncremental(boolean incremental) {
+		this.incremental = incremental;
+		previousNodes = null;
+		previousEdges = null;
+		previousGraph = null;
+		previousLayoutAlgorithm = null;
+		previousBounds = null;
+	}
+
 	/**
 	 * Initiated by the context or by an {@link ILayoutAlgorithm} to perform
 	 * steps that are scheduled to be run after the layout pass. Should not be
@@ -167,6 +330,16 @@ public class LayoutContext {
 		return layoutAlgorithmProperty.get();
 	}
 
+	/**
+	 * Returns the {@link LayoutCache} that is used by this context, or
+	 * <code>null</code> if layout results are not cached.
+	 * 
+	 * @return The {@link LayoutCache} of this {@link LayoutContext}.
+	 */
+	public LayoutCache getLayoutCache() {
+		return layoutCache;
+	}
+
 	/**
 	 * Returns <code>true</code> when the given {@link Edge} is not relevant for
 	 * layout according to the configured {@link ILayoutFilter layout filters}.
@@ -266,6 +439,19 @@ public class LayoutContext {
 		}
 	}
 
+	/**
+	 * Sets the {@link LayoutCache} that is used to cache the results of full
+	 * layout passes. A cache can be shared among multiple
+	 * {@link LayoutContext}s.
+	 * 
+	 * @param layoutCache
+	 *            The {@link LayoutCache} to use, or <code>null</code> to not
+	 *            cache layout results.
+	 */
+	public void setLayoutCache(LayoutCache layoutCache) {
+		this.layoutCache = layoutCache;
+	}
+
 	/**
 	 * Sets the layout algorithm for this context.
 	 * 
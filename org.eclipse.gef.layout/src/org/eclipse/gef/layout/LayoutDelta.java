@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A {@link LayoutDelta} describes the layout relevant {@link Node}s and
+ * {@link Edge}s that were added to or removed from the graph of a
+ * {@link LayoutContext} since its previous layout pass. It is passed to
+ * {@link ILayoutAlgorithm#applyIncrementalLayout(LayoutContext, LayoutDelta)}
+ * when the context is in incremental mode (see
+ * {@link LayoutContext#setIncremental(boolean)}).
+ */
+public class LayoutDelta {
+
+	private final List<Node> addedNodes;
+	private final List<Node> removedNodes;
+	private final List<Edge> addedEdges;
+	private final List<Edge> removedEdges;
+
+	/**
+	 * Creates a new {@link LayoutDelta} from the given changes.
+	 *
+	 * @param addedNodes
+	 *            The {@link Node}s that were added.
+	 * @param removedNodes
+	 *            The {@link Node}s that were removed.
+	 * @param addedEdges
+	 *            The {@link Edge}s that were added.
+	 * @param removedEdges
+	 *            The {@link Edge}s that were removed.
+	 */
+	public LayoutDelta(Collection<? extends Node> addedNodes,
+			Collection<? extends Node> removedNodes,
+			Collection<? extends Edge> addedEdges,
+			Collection<? extends Edge> removedEdges) {
+		this.addedNodes = Collections
+				.unmodifiableList(new ArrayList<>(addedNodes));
+		this.removedNodes = Collections
+				.unmodifiableList(new ArrayList<>(removedNodes));
+		this.addedEdges = Collections
+				.unmodifiableList(new ArrayList<>(addedEdges));
+		this.removedEdges = Collections
+				.unmodifiableList(new ArrayList<>(removedEdges));
+	}
+
+	/**
+	 * Returns an unmodifiable list of the added {@link Edge}s.
+	 *
+	 * @return An unmodifiable list of the added {@link Edge}s.
+	 */
+	public List<Edge> getAddedEdges() {
+		return addedEdges;
+	}
+
+	/**
+	 * Returns an unmodifiable list of the added {@link Node}s.
+	 *
+	 * @return An unmodifiable list of the added {@link Node}s.
+	 */
+	public List<Node> getAddedNodes() {
+		return addedNodes;
+	}
+
+	/**
+	 * Returns the {@link Node}s that are directly affected by this
+	 * {@link LayoutDelta}, i.e. the added nodes, as well as the source and
+	 * target nodes of all added and removed edges, which were not removed
+	 * themselves. All other nodes can be regarded as unaffected.
+	 *
+	 * @return A new identity based {@link Set} containing the affected
+	 *         {@link Node}s.
+	 */
+	public Set<Node> getAffectedNodes() {
+		Set<Node> affected = Collections
+				.newSetFromMap(new IdentityHashMap<Node, Boolean>());
+		affected.addAll(addedNodes);
+		for (Edge edge : addedEdges) {
+			affected.add(edge.getSource());
+			affected.add(edge.getTarget());
+		}
+		for (Edge edge : removedEdges) {
+			affected.add(edge.getSource());
+			affected.add(edge.getTarget());
+		}
+		affected.removeAll(removedNodes);
+		affected.remove(null);
+		return affected;
+	}
+
+	/**
+	 * Returns an unmodifiable list of the removed {@link Edge}s.
+	 *
+	 * @return An unmodifiable list of the removed {@link Edge}s.
+	 */
+	public List<Edge> getRemovedEdges() {
+		return removedEdges;
+	}
+
+	/**
+	 * Returns an unmodifiable list of the removed {@link Node}s.
+	 *
+	 * @return An unmodifiable list of the removed {@link Node}s.
+	 */
+	public List<Node> getRemovedNodes() {
+		return removedNodes;
+	}
+
+	/**
+	 * Returns <code>true</code> if no nodes or edges were added or removed,
+	 * otherwise <code>false</code>.
+	 *
+	 * @return <code>true</code> if this {@link LayoutDelta} is empty,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isEmpty() {
+		return addedNodes.isEmpty() && removedNodes.isEmpty()
+				&& addedEdges.isEmpty() && removedEdges.isEmpty();
+	}
+
+	@Override
+	public String toString() {
+		return "LayoutDelta { added nodes : " + addedNodes.size()
+				+ ", removed nodes : " + removedNodes.size()
+				+ ", added edges : " + addedEdges.size()
+				+ ", removed edges : " + removedEdges.size() + " }";
+	}
+}
@@ -0,0 +1,437 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+
+/**
+ * A {@link LayoutSnapshot} is a compact, index-based representation of the
+ * layout relevant {@link Node}s and {@link Edge}s of a {@link LayoutContext}.
+ * The {@link LayoutProperties} of all nodes and edges are read once when
+ * the snapshot is created and are stored within primitive arrays, so that
+ * {@link ILayoutAlgorithm}s can operate on them without accessing the
+ * (observable) attribute maps of the nodes and edges.
+ * <p>
+ * Nodes and edges are identified by their index within
+ * {@link LayoutContext#getNodes()} and {@link LayoutContext#getEdges()},
+ * respectively. The incoming and outgoing edges of each node are stored in
+ * compressed sparse row format, i.e. they can be enumerated in
+ * <code>O(degree)</code> time without allocating objects.
+ * <p>
+ * The node locations and sizes can be changed within the snapshot, and are
+ * transferred to the nodes in a single pass via {@link #writeBack()}.
+ */
+public class LayoutSnapshot {
+
+	private final Node[] nodes;
+	private final Edge[] edges;
+	private final Map<Node, Integer> nodeIndices;
+
+	// node data
+	private final double[] x, y, width, height;
+	private final double[] savedX, savedY, savedWidth, savedHeight;
+	private final boolean[] movable, resizable;
+
+	// edge data
+	private final int[] edgeSource, edgeTarget;
+	private final double[] edgeWeight;
+
+	// incoming and outgoing edges in compressed sparse row format
+	private final int[] incomingStart, incomingEdges;
+	private final int[] outgoingStart, outgoingEdges;
+
+	/**
+	 * Creates a new {@link LayoutSnapshot} of the layout relevant nodes and
+	 * edges of the given {@link LayoutContext}.
+	 *
+	 * @param context
+	 *            The {@link LayoutContext} for which to create a snapshot.
+	 */
+	public LayoutSnapshot(LayoutContext context) {
+		this(context.getNodes(), context.getEdges());
+	}
+
+	/**
+	 * Creates a new {@link LayoutSnapshot} of the given nodes and edges. Edges
+	 * whose source or target is not contained in the given nodes are
+	 * retained, but are not considered as incoming or outgoing edges.
+	 *
+	 * @param nodes
+	 *            The {@link Node}s to include in the snapshot.
+	 * @param edges
+	 *            The {@link Edge}s to include in the snapshot.
+	 */
+	public LayoutSnapshot(Node[] nodes, Edge[] edges) {
+		this.nodes = nodes.clone();
+		this.edges = edges.clone();
+		int n = nodes.length;
+		int m = edges.length;
+
+		nodeIndices = new IdentityHashMap<>(n);
+		x = new double[n];
+		y = new double[n];
+		width = new double[n];
+		height = new double[n];
+		movable = new boolean[n];
+		resizable = new boolean[n];
+		for (int i = 0; i < n; i++) {
+			Node node = nodes[i];
+			nodeIndices.put(node, i);
+			Point location = LayoutProperties.getLocation(node);
+			if (location != null) {
+				x[i] = location.x;
+				y[i] = location.y;
+			}
+			Dimension size = LayoutProperties.getSize(node);
+			if (size != null) {
+				width[i] = size.width;
+				height[i] = size.height;
+			}
+			movable[i] = LayoutProperties.isMovable(node);
+			resizable[i] = LayoutProperties.isResizable(node);
+		}
+		savedX = x.clone();
+		savedY = y.clone();
+		savedWidth = width.clone();
+		savedHeight = height.clone();
+
+		edgeSource = new int[m];
+		edgeTarget = new int[m];
+		edgeWeight = new double[m];
+		incomingStart = new int[n + 1];
+		outgoingStart = new int[n + 1];
+		for (int e = 0; e < m; e++) {
+			Integer source = nodeIndices.get(edges[e].getSource());
+			Integer target = nodeIndices.get(edges[e].getTarget());
+			edgeSource[e] = source == null ? -1 : source;
+			edgeTarget[e] = target == null ? -1 : target;
+			edgeWeight[e] = LayoutProperties.getWeight(edges[e]);
+			if (source != null && target != null) {
+				outgoingStart[source + 1]++;
+				incomingStart[target + 1]++;
+			}
+		}
+		for (int i = 0; i < n; i++) {
+			outgoingStart[i + 1] += outgoingStart[i];
+			incomingStart[i + 1] += incomingStart[i];
+		}
+		outgoingEdges = new int[outgoingStart[n]];
+		incomingEdges = new int[incomingStart[n]];
+		int[] nextOutgoing = new int[n];
+		int[] nextIncoming = new int[n];
+		for (int e = 0; e < m; e++) {
+			int source = edgeSource[e];
+			int target = edgeTarget[e];
+			if (source != -1 && target != -1) {
+				outgoingEdges[outgoingStart[source] + nextOutgoing[source]++] = e;
+				incomingEdges[incomingStart[target] + nextIncoming[target]++] = e;
+			}
+		}
+	}
+
+	/**
+	 * Returns the {@link Edge} with the given index.
+	 *
+	 * @param edge
+	 *            The index of the {@link Edge}.
+	 * @return The {@link Edge} with the given index.
+	 */
+	public Edge getEdge(int edge) {
+		return edges[edge];
+	}
+
+	/**
+	 * Returns the number of edges contained in this {@link LayoutSnapshot}.
+	 *
+	 * @return The number of edges.
+	 */
+	public int getEdgeCount() {
+		return edges.length;
+	}
+
+	/**
+	 * Returns the index of the source node of the given edge, or
+	 * <code>-1</code> if the source is not contained in this
+	 * {@link LayoutSnapshot}.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The index of the source node, or <code>-1</code>.
+	 */
+	public int getEdgeSource(int edge) {
+		return edgeSource[edge];
+	}
+
+	/**
+	 * Returns the index of the target node of the given edge, or
+	 * <code>-1</code> if the target is not contained in this
+	 * {@link LayoutSnapshot}.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The index of the target node, or <code>-1</code>.
+	 */
+	public int getEdgeTarget(int edge) {
+		return edgeTarget[edge];
+	}
+
+	/**
+	 * Returns the {@link LayoutProperties#WEIGHT_PROPERTY weight} of the given
+	 * edge.
+	 *
+	 * @param edge
+	 *            The index of the edge.
+	 * @return The weight of the edge.
+	 */
+	public double getEdgeWeight(int edge) {
+		return edgeWeight[edge];
+	}
+
+	/**
+	 * Returns the height of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The height of the node.
+	 */
+	public double getHeight(int node) {
+		return height[node];
+	}
+
+	/**
+	 * Returns the number of incoming edges of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The number of incoming edges.
+	 */
+	public int getInDegree(int node) {
+		return incomingStart[node + 1] - incomingStart[node];
+	}
+
+	/**
+	 * Returns the index of the <i>k</i>-th incoming edge of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @param k
+	 *            The position within the incoming edges, between
+	 *            <code>0</code> and {@link #getInDegree(int)} (exclusive).
+	 * @return The index of the incoming edge.
+	 */
+	public int getIncomingEdge(int node, int k) {
+		return incomingEdges[incomingStart[node] + k];
+	}
+
+	/**
+	 * Returns the {@link Node} with the given index.
+	 *
+	 * @param node
+	 *            The index of the {@link Node}.
+	 * @return The {@link Node} with the given index.
+	 */
+	public Node getNode(int node) {
+		return nodes[node];
+	}
+
+	/**
+	 * Returns the number of nodes contained in this {@link LayoutSnapshot}.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int getNodeCount() {
+		return nodes.length;
+	}
+
+	/**
+	 * Returns the number of outgoing edges of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The number of outgoing edges.
+	 */
+	public int getOutDegree(int node) {
+		return outgoingStart[node + 1] - outgoingStart[node];
+	}
+
+	/**
+	 * Returns the index of the <i>k</i>-th outgoing edge of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @param k
+	 *            The position within the outgoing edges, between
+	 *            <code>0</code> and {@link #getOutDegree(int)} (exclusive).
+	 * @return The index of the outgoing edge.
+	 */
+	public int getOutgoingEdge(int node, int k) {
+		return outgoingEdges[outgoingStart[node] + k];
+	}
+
+	/**
+	 * Returns the width of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The width of the node.
+	 */
+	public double getWidth(int node) {
+		return width[node];
+	}
+
+	/**
+	 * Returns the x coordinate of the location of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The x coordinate of the location of the node.
+	 */
+	public double getX(int node) {
+		return x[node];
+	}
+
+	/**
+	 * Returns the x coordinates of the locations of all nodes. The array is
+	 * not copied, i.e. changes to it are reflected by this
+	 * {@link LayoutSnapshot}.
+	 *
+	 * @return The x coordinates of all nodes.
+	 */
+	public double[] getXs() {
+		return x;
+	}
+
+	/**
+	 * Returns the y coordinate of the location of the given node.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return The y coordinate of the location of the node.
+	 */
+	public double getY(int node) {
+		return y[node];
+	}
+
+	/**
+	 * Returns the y coordinates of the locations of all nodes. The array is
+	 * not copied, i.e. changes to it are reflected by this
+	 * {@link LayoutSnapshot}.
+	 *
+	 * @return The y coordinates of all nodes.
+	 */
+	public double[] getYs() {
+		return y;
+	}
+
+	/**
+	 * Returns the index of the given {@link Node} within this
+	 * {@link LayoutSnapshot}, or <code>-1</code> if it is not contained.
+	 *
+	 * @param node
+	 *            The {@link Node} whose index is returned.
+	 * @return The index of the given {@link Node}, or <code>-1</code>.
+	 */
+	public int indexOf(Node node) {
+		Integer index = nodeIndices.get(node);
+		return index == null ? -1 : index;
+	}
+
+	/**
+	 * Returns whether the given node is {@link LayoutProperties#isMovable(Node)
+	 * movable}.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return <code>true</code> if the node is movable, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isMovable(int node) {
+		return movable[node];
+	}
+
+	/**
+	 * Returns whether the given node is
+	 * {@link LayoutProperties#isResizable(Node) resizable}.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @return <code>true</code> if the node is resizable, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isResizable(int node) {
+		return resizable[node];
+	}
+
+	/**
+	 * Changes the location of the given node within this
+	 * {@link LayoutSnapshot}.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @param x
+	 *            The new x coordinate.
+	 * @param y
+	 *            The new y coordinate.
+	 */
+	public void setLocation(int node, double x, double y) {
+		this.x[node] = x;
+		this.y[node] = y;
+	}
+
+	/**
+	 * Changes the size of the given node within this {@link LayoutSnapshot}.
+	 *
+	 * @param node
+	 *            The index of the node.
+	 * @param width
+	 *            The new width.
+	 * @param height
+	 *            The new height.
+	 */
+	public void setSize(int node, double width, double height) {
+		this.width[node] = width;
+		this.height[node] = height;
+	}
+
+	/**
+	 * Transfers the locations of all {@link #isMovable(int) movable} nodes and
+	 * the sizes of all {@link #isResizable(int) resizable} nodes to the
+	 * {@link LayoutProperties} of the respective {@link Node}s. Only those
+	 * values that changed since the snapshot was created (or since the last
+	 * write-back) are written, so that no superfluous change notifications are
+	 * fired.
+	 */
+	public void writeBack() {
+		for (int i = 0; i < nodes.length; i++) {
+			if (movable[i] && (x[i] != savedX[i] || y[i] != savedY[i])) {
+				LayoutProperties.setLocation(nodes[i], new Point(x[i], y[i]));
+				savedX[i] = x[i];
+				savedY[i] = y[i];
+			}
+			if (resizable[i] && (width[i] != savedWidth[i]
+					|| height[i] != savedHeight[i])) {
+				LayoutProperties.setSize(nodes[i],
+						new Dimension(width[i], height[i]));
+				savedWidth[i] = width[i];
+				savedHeight[i] = height[i];
+			}
+		}
+	}
+
+}
@@ -17,6 +17,7 @@ import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.internal.utils.KdTree;
 
 /**
  * The {@link AlgorithmHelper} class contains utility methods for the laying out
@@ -239,22 +240,23 @@ class AlgorithmHelper {
 	public static Dimension getMinimumDistance(Node[] entities) {
 		Dimension horAndVertdistance = new Dimension(Double.MAX_VALUE,
 				Double.MAX_VALUE);
-		double minDistance = Double.MAX_VALUE;
-
-		// TODO: Very Slow!
+		// find the closest pair using a spatial index, so that the minimum
+		// distance is computed in O(n log n) instead of O(n^2)
+		double[] x = new double[entities.length];
+		double[] y = new double[entities.length];
 		for (int i = 0; i < entities.length; i++) {
-			Point location1 = LayoutProperties.getLocation(entities[i]);
-			for (int j = i + 1; j < entities.length; j++) {
-				Point location2 = LayoutProperties.getLocation(entities[j]);
-				double distanceX = location1.x - location2.x;
-				double distanceY = location1.y - location2.y;
-				double distance = distanceX * distanceX + distanceY * distanceY;
-
-				if (distance < minDistance) {
-					minDistance = distance;
-					horAndVertdistance.width = Math.abs(distanceX);
-					horAndVertdistance.height = Math.abs(distanceY);
-				}
+			Point location = LayoutProperties.getLocation(entities[i]);
+			x[i] = location.x;
+			y[i] = location.y;
+		}
+		int[] pair = new KdTree(x, y).getClosestPair();
+		if (pair != null) {
+			double distanceX = x[pair[0]] - x[pair[1]];
+			double distanceY = y[pair[0]] - y[pair[1]];
+			double distance = distanceX * distanceX + distanceY * distanceY;
+			if (distance < Double.MAX_VALUE) {
+				horAndVertdistance.width = Math.abs(distanceX);
+				horAndVertdistance.height = Math.abs(distanceY);
 			}
 		}
 		return horAndVertdistance;
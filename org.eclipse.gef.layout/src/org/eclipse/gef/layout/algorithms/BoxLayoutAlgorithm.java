@@ -80,6 +80,11 @@ public class BoxLayoutAlgorithm extends GridLayoutAlgorithm {
 			throw new RuntimeException("Invalid orientation: " + orientation);
 	}
 
+	@Override
+	public Object[] getLayoutParameters() {
+		return new Object[] { super.getLayoutParameters(), orientation };
+	}
+
 	protected int[] calculateNumberOfRowsAndCols(int numChildren, double boundX,
 			double boundY, double boundWidth, double boundHeight) {
 		if (orientation == HORIZONTAL)
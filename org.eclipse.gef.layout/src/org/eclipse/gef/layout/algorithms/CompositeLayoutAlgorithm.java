@@ -14,6 +14,7 @@ package org.eclipse.gef.layout.algorithms;
 
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutDelta;
 
 /**
  * The {@link CompositeLayoutAlgorithm} combines multiple
@@ -46,4 +47,17 @@ public class CompositeLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	@Override
+	public Object[] getLayoutParameters() {
+		return new Object[] { algorithms };
+	}
+
+	@Override
+	public void applyIncrementalLayout(LayoutContext context,
+			LayoutDelta delta) {
+		for (int i = 0; i < algorithms.length; i++) {
+			algorithms[i].applyIncrementalLayout(context, delta);
+		}
+	}
+
 }
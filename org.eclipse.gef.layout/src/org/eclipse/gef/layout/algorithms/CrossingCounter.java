@@ -0,0 +1,283 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.NodeWrapper;
+
+/**
+ * Counts edge crossings within a layer system of {@link NodeWrapper}s. The
+ * neighbors of each {@link NodeWrapper} are determined once, when the
+ * {@link CrossingCounter} is created, while the positions of the
+ * {@link NodeWrapper}s (i.e. their indices) are evaluated for each count, so
+ * that the layers can be reordered in between.
+ * <p>
+ * The neighbors are given by the {@link NodeWrapper#pred predecessors} and
+ * {@link NodeWrapper#succ successors} of the {@link NodeWrapper}s, so that
+ * long edges are counted along their chains of dummy {@link NodeWrapper}s.
+ * Crossings are only counted between edges that connect the same two layers.
+ * The crossings between two layers are counted using the accumulator tree of
+ * Barth, Jünger, and Mutzel ("Simple and Efficient Bilayer Cross Counting"),
+ * i.e. in <code>O(m log n)</code> for <code>m</code> edges and
+ * <code>n</code> nodes in the opposite layer.
+ */
+final class CrossingCounter {
+
+	private static final NodeWrapper[] NO_NEIGHBORS = new NodeWrapper[0];
+
+	private final List<List<NodeWrapper>> layers;
+	private final Map<NodeWrapper, NodeWrapper[]> neighbors = new IdentityHashMap<>();
+	// for each layer, the greater layers that are connected to it
+	private final int[][] connectedLayers;
+
+	/**
+	 * Creates a new {@link CrossingCounter} for the given layers. The
+	 * neighbors of the {@link NodeWrapper}s are cached, therefore, the
+	 * {@link NodeWrapper}s may only be reordered within their layers after
+	 * creation.
+	 *
+	 * @param layers
+	 *            The layers of {@link NodeWrapper}s.
+	 */
+	CrossingCounter(List<List<NodeWrapper>> layers) {
+		this.layers = layers;
+		Map<NodeWrapper, Boolean> contained = new IdentityHashMap<>();
+		for (List<NodeWrapper> layer : layers) {
+			for (NodeWrapper nw : layer) {
+				contained.put(nw, true);
+			}
+		}
+		List<TreeSet<Integer>> connected = new ArrayList<>();
+		for (int i = 0; i < layers.size(); i++) {
+			connected.add(new TreeSet<Integer>());
+		}
+		for (NodeWrapper nw : contained.keySet()) {
+			List<NodeWrapper> adjacent = new ArrayList<>();
+			List<NodeWrapper> candidates = new ArrayList<>(nw.pred);
+			candidates.addAll(nw.succ);
+			for (NodeWrapper other : candidates) {
+				// edges within a layer cannot cross other edges
+				if (contained.containsKey(other) && other.layer != nw.layer) {
+					adjacent.add(other);
+					if (other.layer > nw.layer) {
+						connected.get(nw.layer).add(other.layer);
+					}
+				}
+			}
+			neighbors.put(nw, adjacent.isEmpty() ? NO_NEIGHBORS
+					: adjacent.toArray(new NodeWrapper[adjacent.size()]));
+		}
+		connectedLayers = new int[layers.size()][];
+		for (int i = 0; i < layers.size(); i++) {
+			connectedLayers[i] = new int[connected.get(i).size()];
+			int j = 0;
+			for (int layer : connected.get(i)) {
+				connectedLayers[i][j++] = layer;
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of crossings between the edges that connect the two
+	 * given layers.
+	 *
+	 * @param layer
+	 *            The index of the first layer.
+	 * @param otherLayer
+	 *            The index of the second layer.
+	 * @return The number of crossings between the two layers.
+	 */
+	private int countCrossings(int layer, int otherLayer) {
+		// sequence of the positions in the other layer, ordered by the
+		// positions in the first layer, then by the positions in the other
+		// layer
+		List<NodeWrapper> wrappers = layers.get(layer);
+		int[] sequence = new int[16];
+		int size = 0;
+		int maxIndex = 0;
+		for (NodeWrapper nw : wrappers) {
+			NodeWrapper[] adjacent = getNeighbors(nw);
+			int start = size;
+			for (NodeWrapper other : adjacent) {
+				if (other.layer == otherLayer) {
+					if (size == sequence.length) {
+						sequence = Arrays.copyOf(sequence, 2 * size);
+					}
+					sequence[size++] = other.index;
+					maxIndex = Math.max(maxIndex, other.index);
+				}
+			}
+			Arrays.sort(sequence, start, size);
+		}
+		return countCrossings(sequence, size, maxIndex);
+	}
+
+	/**
+	 * Counts the crossings between the edges that connect two layers. The
+	 * edges are given by their end positions in the second layer, ordered by
+	 * their start positions in the first layer, and then by their end
+	 * positions.
+	 *
+	 * @param sequence
+	 *            The end positions of the edges.
+	 * @param size
+	 *            The number of edges.
+	 * @param maxIndex
+	 *            The maximum end position.
+	 * @return The number of crossings.
+	 */
+	static int countCrossings(int[] sequence, int size, int maxIndex) {
+		if (size < 2) {
+			return 0;
+		}
+		// accumulator tree, whose leaves represent the positions in the second
+		// layer
+		int firstIndex = 1;
+		while (firstIndex <= maxIndex) {
+			firstIndex <<= 1;
+		}
+		int[] tree = new int[2 * firstIndex - 1];
+		firstIndex--;
+		int crossings = 0;
+		for (int k = 0; k < size; k++) {
+			int index = sequence[k] + firstIndex;
+			tree[index]++;
+			while (index > 0) {
+				// count the edges that end right of the current one
+				if ((index & 1) == 1) {
+					crossings += tree[index + 1];
+				}
+				index = (index - 1) >> 1;
+				tree[index]++;
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * Returns the total number of crossings within the layer system.
+	 *
+	 * @return The total number of crossings.
+	 */
+	int getCrossings() {
+		int crossings = 0;
+		for (int layer = 0; layer < layers.size(); layer++) {
+			for (int otherLayer : connectedLayers[layer]) {
+				crossings += countCrossings(layer, otherLayer);
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * Returns the number of crossings between the edges of the layer with the
+	 * given index and the edges of all layers connected to it, i.e. the
+	 * crossings that may change when the layer is reordered.
+	 *
+	 * @param layer
+	 *            The index of the layer.
+	 * @return The number of crossings that involve the given layer.
+	 */
+	int getCrossings(int layer) {
+		int crossings = 0;
+		for (int otherLayer : connectedLayers[layer]) {
+			crossings += countCrossings(layer, otherLayer);
+		}
+		for (int otherLayer = 0; otherLayer < layer; otherLayer++) {
+			if (Arrays.binarySearch(connectedLayers[otherLayer], layer) >= 0) {
+				crossings += countCrossings(otherLayer, layer);
+			}
+		}
+		return crossings;
+	}
+
+	/**
+	 * Returns the number of crossings between the edges of the two given
+	 * {@link NodeWrapper}s, which are located within the same layer, if the
+	 * first {@link NodeWrapper} is placed left of the second one. The
+	 * crossings are computed in <code>O(d log d)</code> for a total degree of
+	 * <code>d</code>.
+	 *
+	 * @param left
+	 *            The {@link NodeWrapper} that is placed on the left.
+	 * @param right
+	 *            The {@link NodeWrapper} that is placed on the right.
+	 * @return The number of crossings between the edges of both
+	 *         {@link NodeWrapper}s.
+	 */
+	int getCrossings(NodeWrapper left, NodeWrapper right) {
+		if (left == right) {
+			return 0;
+		}
+		long[] leftKeys = getSortedKeys(left);
+		long[] rightKeys = getSortedKeys(right);
+		if (leftKeys.length == 0 || rightKeys.length == 0) {
+			return 0;
+		}
+		int crossings = 0;
+		for (long key : leftKeys) {
+			// edges of the right node that end in the same layer, but left of
+			// the current edge of the left node
+			long layerKey = key & 0xFFFFFFFF00000000L;
+			crossings += lowerBound(rightKeys, key)
+					- lowerBound(rightKeys, layerKey);
+		}
+		return crossings;
+	}
+
+	/**
+	 * Returns the neighbors of the given {@link NodeWrapper}, which are
+	 * located in other layers.
+	 *
+	 * @param nw
+	 *            The {@link NodeWrapper} whose neighbors are returned.
+	 * @return The neighbors of the given {@link NodeWrapper}.
+	 */
+	NodeWrapper[] getNeighbors(NodeWrapper nw) {
+		NodeWrapper[] adjacent = neighbors.get(nw);
+		return adjacent == null ? NO_NEIGHBORS : adjacent;
+	}
+
+	// keys combine the layer and the index of each neighbor
+	private long[] getSortedKeys(NodeWrapper nw) {
+		NodeWrapper[] adjacent = getNeighbors(nw);
+		long[] keys = new long[adjacent.length];
+		for (int i = 0; i < adjacent.length; i++) {
+			keys[i] = ((long) adjacent[i].layer << 32) | adjacent[i].index;
+		}
+		Arrays.sort(keys);
+		return keys;
+	}
+
+	// number of keys that are smaller than the given key
+	private static int lowerBound(long[] keys, long key) {
+		int low = 0;
+		int high = keys.length;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (keys[mid] < key) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+}
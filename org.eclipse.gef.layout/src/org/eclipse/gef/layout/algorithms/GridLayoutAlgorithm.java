@@ -117,6 +117,11 @@ public class GridLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	@Override
+	public Object[] getLayoutParameters() {
+		return new Object[] { aspectRatio, rowPadding, resize };
+	}
+
 	/**
 	 * Calculates all the dimensions of grid that layout entities will be fit
 	 * in.
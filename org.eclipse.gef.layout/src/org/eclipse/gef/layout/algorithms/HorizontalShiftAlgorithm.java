@@ -89,6 +89,13 @@ public class HorizontalShiftAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	@Override
+	public Object[] getLayoutParameters() {
+		// the rows are determined by the initial locations, so that the
+		// result cannot be cached
+		return null;
+	}
+
 	private void addToRowList(Node entity, ArrayList<List<Node>> rowsList) {
 		double layoutY = LayoutProperties.getLocation(entity).y;
 
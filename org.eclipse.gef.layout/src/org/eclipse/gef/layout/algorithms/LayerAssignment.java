@@ -0,0 +1,697 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.algorithms.SugiyamaLayoutAlgorithm.NodeWrapper;
+
+/**
+ * Assigns layers to the nodes of a (possibly cyclic) directed graph. The graph
+ * is indexed once, so that all computations work on primitive arrays:
+ * <ol>
+ * <li>{@link #removeCycles()} makes the graph acyclic by reversing edges,
+ * using the greedy heuristic of Eades, Lin, and Smyth in
+ * <code>O(n + m)</code>.
+ * <li>{@link #assignLongestPath()} assigns each node to the layer that
+ * follows the longest path from a source.
+ * <li>{@link #minimizeEdgeLengths()} optimizes the layering using the network
+ * simplex method of Gansner et al., so that the total length of all edges is
+ * minimal.
+ * <li>{@link #createLayers()} creates the layers of {@link NodeWrapper}s,
+ * inserting dummy nodes for edges that span multiple layers.
+ * </ol>
+ */
+final class LayerAssignment {
+
+	private final Node[] nodes;
+	// merged edges (source, target, multiplicity) without self loops
+	private int[] sources;
+	private int[] targets;
+	private int[] weights;
+	// incident edges of each node
+	private int[] incidenceStart;
+	private int[] incidence;
+
+	private int[] rank;
+
+	/**
+	 * Indexes the given {@link Node}s and the {@link Edge}s between them.
+	 *
+	 * @param nodes
+	 *            The {@link Node}s to which layers are assigned.
+	 */
+	LayerAssignment(List<Node> nodes) {
+		this.nodes = nodes.toArray(new Node[nodes.size()]);
+		Map<Node, Integer> ids = new IdentityHashMap<>();
+		for (int i = 0; i < this.nodes.length; i++) {
+			ids.put(this.nodes[i], i);
+		}
+		Map<Long, Integer> merged = new HashMap<>();
+		List<int[]> edges = new ArrayList<>();
+		for (int i = 0; i < this.nodes.length; i++) {
+			for (Edge edge : this.nodes[i].getOutgoingEdges()) {
+				Integer j = ids.get(edge.getTarget());
+				if (j == null || j == i) {
+					continue;
+				}
+				long key = (long) i * this.nodes.length + j;
+				Integer index = merged.get(key);
+				if (index == null) {
+					merged.put(key, edges.size());
+					edges.add(new int[] { i, j, 1 });
+				} else {
+					edges.get(index)[2]++;
+				}
+			}
+		}
+		sources = new int[edges.size()];
+		targets = new int[edges.size()];
+		weights = new int[edges.size()];
+		for (int e = 0; e < edges.size(); e++) {
+			sources[e] = edges.get(e)[0];
+			targets[e] = edges.get(e)[1];
+			weights[e] = edges.get(e)[2];
+		}
+		index();
+	}
+
+	/**
+	 * Assigns each node to the layer that follows the longest path from a
+	 * source, i.e. the minimal layer such that all edges point downwards. The
+	 * graph has to be acyclic.
+	 */
+	void assignLongestPath() {
+		int n = nodes.length;
+		rank = new int[n];
+		int[] inDegree = new int[n];
+		for (int e = 0; e < sources.length; e++) {
+			inDegree[targets[e]]++;
+		}
+		int[] queue = new int[n];
+		int count = 0;
+		for (int v = 0; v < n; v++) {
+			if (inDegree[v] == 0) {
+				queue[count++] = v;
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			int v = queue[i];
+			for (int k = incidenceStart[v]; k < incidenceStart[v + 1]; k++) {
+				int e = incidence[k];
+				if (sources[e] == v) {
+					int w = targets[e];
+					rank[w] = Math.max(rank[w], rank[v] + 1);
+					if (--inDegree[w] == 0) {
+						queue[count++] = w;
+					}
+				}
+			}
+		}
+		if (count < n) {
+			throw new IllegalStateException("The graph is not acyclic.");
+		}
+	}
+
+	/**
+	 * Creates the layers of {@link NodeWrapper}s for the assigned layers. An
+	 * edge that spans multiple layers is represented by a chain of dummy
+	 * nodes.
+	 *
+	 * @return The layers of {@link NodeWrapper}s.
+	 */
+	List<List<NodeWrapper>> createLayers() {
+		int layerCount = 0;
+		for (int r : rank) {
+			layerCount = Math.max(layerCount, r + 1);
+		}
+		List<List<NodeWrapper>> layers = new ArrayList<>(layerCount);
+		for (int l = 0; l < layerCount; l++) {
+			layers.add(new ArrayList<NodeWrapper>());
+		}
+		NodeWrapper[] wrappers = new NodeWrapper[nodes.length];
+		for (int v = 0; v < nodes.length; v++) {
+			wrappers[v] = new NodeWrapper(nodes[v], rank[v]);
+			layers.get(rank[v]).add(wrappers[v]);
+		}
+		for (int e = 0; e < sources.length; e++) {
+			NodeWrapper predecessor = wrappers[sources[e]];
+			NodeWrapper successor = wrappers[targets[e]];
+			for (int l = predecessor.layer + 1; l < successor.layer; l++) {
+				NodeWrapper dummy = new NodeWrapper(l);
+				dummy.addPredecessor(predecessor);
+				predecessor.addSuccessor(dummy);
+				predecessor = dummy;
+				layers.get(l).add(dummy);
+			}
+			successor.addPredecessor(predecessor);
+			predecessor.addSuccessor(successor);
+		}
+		for (List<NodeWrapper> layer : layers) {
+			for (int i = 0; i < layer.size(); i++) {
+				layer.get(i).index = i;
+			}
+		}
+		return layers;
+	}
+
+	// builds the incidence lists from the edge arrays
+	private void index() {
+		int n = nodes.length;
+		incidenceStart = new int[n + 1];
+		for (int e = 0; e < sources.length; e++) {
+			incidenceStart[sources[e] + 1]++;
+			incidenceStart[targets[e] + 1]++;
+		}
+		for (int v = 0; v < n; v++) {
+			incidenceStart[v + 1] += incidenceStart[v];
+		}
+		incidence = new int[2 * sources.length];
+		int[] fill = Arrays.copyOf(incidenceStart, n);
+		for (int e = 0; e < sources.length; e++) {
+			incidence[fill[sources[e]]++] = e;
+			incidence[fill[targets[e]]++] = e;
+		}
+	}
+
+	/**
+	 * Optimizes the current (feasible) layering using the network simplex
+	 * method, so that the weighted sum of all edge lengths is minimal. Each
+	 * connected component is optimized separately and moved to the top.
+	 */
+	void minimizeEdgeLengths() {
+		new NetworkSimplex().run();
+	}
+
+	/**
+	 * Reverses edges, so that the graph becomes acyclic. The nodes are ordered
+	 * by repeatedly removing sinks (which are placed at the end) and sources
+	 * (which are placed at the start), or else the node with the maximum
+	 * difference between out-degree and in-degree (which is placed at the
+	 * start). Edges that point backwards within this order are reversed.
+	 */
+	void removeCycles() {
+		int n = nodes.length;
+		int[] inDegree = new int[n];
+		int[] outDegree = new int[n];
+		for (int e = 0; e < sources.length; e++) {
+			outDegree[sources[e]] += weights[e];
+			inDegree[targets[e]] += weights[e];
+		}
+		int maxIn = 0;
+		int maxOut = 0;
+		for (int v = 0; v < n; v++) {
+			maxIn = Math.max(maxIn, inDegree[v]);
+			maxOut = Math.max(maxOut, outDegree[v]);
+		}
+
+		// buckets are doubly linked lists, where bucket 0 contains the sinks,
+		// bucket 1 the sources, and the remaining buckets the other nodes by
+		// the difference between out-degree and in-degree
+		final int sinks = 0;
+		final int sourceBucket = 1;
+		int offset = 2 + maxIn;
+		int[] head = new int[offset + maxOut + 1];
+		Arrays.fill(head, -1);
+		int[] next = new int[n];
+		int[] prev = new int[n];
+		int[] bucket = new int[n];
+		boolean[] removed = new boolean[n];
+		for (int v = 0; v < n; v++) {
+			bucket[v] = outDegree[v] == 0 ? sinks
+					: inDegree[v] == 0 ? sourceBucket
+							: offset + outDegree[v] - inDegree[v];
+			link(v, bucket[v], head, next, prev);
+		}
+
+		int[] order = new int[n];
+		int start = 0;
+		int end = n;
+		int maxBucket = head.length - 1;
+		while (start < end) {
+			int v;
+			if (head[sinks] >= 0) {
+				v = head[sinks];
+				order[--end] = v;
+			} else if (head[sourceBucket] >= 0) {
+				v = head[sourceBucket];
+				order[start++] = v;
+			} else {
+				while (head[maxBucket] < 0) {
+					maxBucket--;
+				}
+				v = head[maxBucket];
+				order[start++] = v;
+			}
+			unlink(v, bucket[v], head, next, prev);
+			removed[v] = true;
+			for (int k = incidenceStart[v]; k < incidenceStart[v + 1]; k++) {
+				int e = incidence[k];
+				int w = sources[e] == v ? targets[e] : sources[e];
+				if (removed[w]) {
+					continue;
+				}
+				if (sources[e] == v) {
+					inDegree[w] -= weights[e];
+				} else {
+					outDegree[w] -= weights[e];
+				}
+				int b = outDegree[w] == 0 ? sinks
+						: inDegree[w] == 0 ? sourceBucket
+								: offset + outDegree[w] - inDegree[w];
+				if (b != bucket[w]) {
+					unlink(w, bucket[w], head, next, prev);
+					bucket[w] = b;
+					link(w, b, head, next, prev);
+					maxBucket = Math.max(maxBucket, b);
+				}
+			}
+		}
+
+		int[] position = new int[n];
+		for (int i = 0; i < n; i++) {
+			position[order[i]] = i;
+		}
+		// reversed edges may coincide with existing ones
+		Map<Long, Integer> merged = new HashMap<>();
+		List<int[]> edges = new ArrayList<>();
+		for (int e = 0; e < sources.length; e++) {
+			int s = sources[e];
+			int t = targets[e];
+			if (position[s] > position[t]) {
+				s = targets[e];
+				t = sources[e];
+			}
+			long key = (long) s * n + t;
+			Integer index = merged.get(key);
+			if (index == null) {
+				merged.put(key, edges.size());
+				edges.add(new int[] { s, t, weights[e] });
+			} else {
+				edges.get(index)[2] += weights[e];
+			}
+		}
+		if (edges.size() != sources.length) {
+			sources = new int[edges.size()];
+			targets = new int[edges.size()];
+			weights = new int[edges.size()];
+		}
+		for (int e = 0; e < edges.size(); e++) {
+			sources[e] = edges.get(e)[0];
+			targets[e] = edges.get(e)[1];
+			weights[e] = edges.get(e)[2];
+		}
+		index();
+	}
+
+	private static void link(int v, int b, int[] head, int[] next,
+			int[] prev) {
+		next[v] = head[b];
+		prev[v] = -1;
+		if (head[b] >= 0) {
+			prev[head[b]] = v;
+		}
+		head[b] = v;
+	}
+
+	private static void unlink(int v, int b, int[] head, int[] next,
+			int[] prev) {
+		if (prev[v] >= 0) {
+			next[prev[v]] = next[v];
+		} else {
+			head[b] = next[v];
+		}
+		if (next[v] >= 0) {
+			prev[next[v]] = prev[v];
+		}
+	}
+
+	/**
+	 * A binary min-heap of edges, which are ordered by an integer key.
+	 */
+	private static final class EdgeHeap {
+
+		// the key in the upper and the edge in the lower 32 bits
+		private long[] entries = new long[16];
+		private int size;
+
+		private void clear() {
+			size = 0;
+		}
+
+		private boolean isEmpty() {
+			return size == 0;
+		}
+
+		private int peekEdge() {
+			return (int) entries[0];
+		}
+
+		private int peekKey() {
+			return (int) (entries[0] >> 32);
+		}
+
+		private void pop() {
+			long last = entries[--size];
+			int i = 0;
+			while (2 * i + 1 < size) {
+				int child = 2 * i + 1;
+				if (child + 1 < size && entries[child + 1] < entries[child]) {
+					child++;
+				}
+				if (entries[child] >= last) {
+					break;
+				}
+				entries[i] = entries[child];
+				i = child;
+			}
+			entries[i] = last;
+		}
+
+		private void push(int key, int edge) {
+			if (size == entries.length) {
+				entries = Arrays.copyOf(entries, 2 * size);
+			}
+			long entry = (long) key << 32 | edge & 0xffffffffL;
+			int i = size++;
+			while (i > 0 && entries[(i - 1) / 2] > entry) {
+				entries[i] = entries[(i - 1) / 2];
+				i = (i - 1) / 2;
+			}
+			entries[i] = entry;
+		}
+	}
+
+	/**
+	 * The network simplex method, operating on the ranks of the enclosing
+	 * {@link LayerAssignment}. A spanning tree of tight edges (i.e. edges of
+	 * length 1) is maintained, and tree edges with negative cut values are
+	 * exchanged with non-tree edges until the layering is optimal. An exchange
+	 * only updates the cut values along the cycle that is closed by the
+	 * entering edge, and only renumbers the subtree that contains this cycle.
+	 */
+	private final class NetworkSimplex {
+
+		private final int n = nodes.length;
+		private final boolean[] treeEdge = new boolean[sources.length];
+		private final int[] parent = new int[n];
+		private final int[] parentEdge = new int[n];
+		private final int[] low = new int[n];
+		private final int[] lim = new int[n];
+		private final int[] cutValue = new int[sources.length];
+		private final int[] postorder = new int[n];
+		private final int[] stack = new int[n];
+		private final int[] cursor = new int[n];
+		// while the feasible tree is grown, the tree nodes are shifted lazily,
+		// i.e. the rank of a tree node is rank[v] + shift
+		private int shift;
+		// non-tree edges that leave (outgoing) or enter (incoming) the feasible
+		// tree, keyed by their slack at a shift of 0
+		private final EdgeHeap outgoing = new EdgeHeap();
+		private final EdgeHeap incoming = new EdgeHeap();
+
+		// exchanges the given tree edge, which is the parent edge of the given
+		// child, with the given non-tree edge
+		private void exchange(int leaving, int entering, int child,
+				boolean flip, int count) {
+			// move the smaller part, so that the entering edge becomes tight
+			int delta = flip ? slack(entering) : -slack(entering);
+			if (2 * (lim[child] - low[child] + 1) <= count) {
+				for (int i = low[child] - 1; i < lim[child]; i++) {
+					rank[postorder[i]] += delta;
+				}
+			} else {
+				for (int i = 0; i < low[child] - 1; i++) {
+					rank[postorder[i]] -= delta;
+				}
+				for (int i = lim[child]; i < count; i++) {
+					rank[postorder[i]] -= delta;
+				}
+			}
+			// only the cut values along the cycle change
+			int value = cutValue[leaving];
+			int lca = updateCutValues(sources[entering], targets[entering],
+					value, true);
+			updateCutValues(targets[entering], sources[entering], value,
+					false);
+			cutValue[entering] = -value;
+			treeEdge[leaving] = false;
+			treeEdge[entering] = true;
+			initLowLim(lca, low[lca] - 1);
+		}
+
+		// adds the given node to the feasible tree and grows the tree along
+		// tight edges from it, returning its new size; the other edges that
+		// leave or enter the tree are queued
+		private int growTightTree(int start, boolean[] inTree, int size) {
+			inTree[start] = true;
+			rank[start] -= shift;
+			size++;
+			int top = 0;
+			stack[top++] = start;
+			while (top > 0) {
+				int v = stack[--top];
+				for (int k = incidenceStart[v]; k < incidenceStart[v
+						+ 1]; k++) {
+					int e = incidence[k];
+					boolean isOutEdge = sources[e] == v;
+					int w = isOutEdge ? targets[e] : sources[e];
+					if (inTree[w]) {
+						continue;
+					}
+					int slack = isOutEdge ? rank[w] - rank[v] - shift - 1
+							: rank[v] + shift - rank[w] - 1;
+					if (slack == 0) {
+						inTree[w] = true;
+						rank[w] -= shift;
+						treeEdge[e] = true;
+						size++;
+						stack[top++] = w;
+					} else if (isOutEdge) {
+						outgoing.push(slack + shift, e);
+					} else {
+						incoming.push(slack - shift, e);
+					}
+				}
+			}
+			return size;
+		}
+
+		// computes the cut values of all tree edges in postorder
+		private void initCutValues(int count) {
+			for (int i = 0; i < count; i++) {
+				int child = postorder[i];
+				if (parentEdge[child] < 0) {
+					continue;
+				}
+				int p = parent[child];
+				int e = parentEdge[child];
+				boolean childIsTail = sources[e] == child;
+				int value = weights[e];
+				for (int k = incidenceStart[child]; k < incidenceStart[child
+						+ 1]; k++) {
+					int f = incidence[k];
+					if (f == e) {
+						continue;
+					}
+					boolean isOutEdge = sources[f] == child;
+					int other = isOutEdge ? targets[f] : sources[f];
+					boolean pointsToHead = isOutEdge == childIsTail;
+					value += pointsToHead ? weights[f] : -weights[f];
+					if (treeEdge[f] && other != p) {
+						// other is a child of child
+						value += pointsToHead ? -cutValue[f] : cutValue[f];
+					}
+				}
+				cutValue[e] = value;
+			}
+		}
+
+		// numbers the subtree of the given node in postorder, starting after
+		// the given number, and returns the last number
+		private int initLowLim(int v, int count) {
+			int top = 0;
+			stack[top++] = v;
+			cursor[v] = incidenceStart[v];
+			low[v] = count + 1;
+			while (top > 0) {
+				int u = stack[top - 1];
+				if (cursor[u] < incidenceStart[u + 1]) {
+					int e = incidence[cursor[u]++];
+					int w = sources[e] == u ? targets[e] : sources[e];
+					if (treeEdge[e] && e != parentEdge[u]) {
+						parent[w] = u;
+						parentEdge[w] = e;
+						cursor[w] = incidenceStart[w];
+						low[w] = count + 1;
+						stack[top++] = w;
+					}
+				} else {
+					top--;
+					lim[u] = count + 1;
+					postorder[count++] = u;
+				}
+			}
+			return count;
+		}
+
+		private boolean isDescendant(int v, int root) {
+			return low[root] <= lim[v] && lim[v] <= lim[root];
+		}
+
+		private void run() {
+			boolean[] inTree = new boolean[n];
+			boolean[] visited = new boolean[n];
+			int[] component = new int[n];
+			for (int root = 0; root < n; root++) {
+				if (visited[root]) {
+					continue;
+				}
+				// collect the connected component
+				int size = 0;
+				component[size++] = root;
+				visited[root] = true;
+				for (int i = 0; i < size; i++) {
+					int v = component[i];
+					for (int k = incidenceStart[v]; k < incidenceStart[v
+							+ 1]; k++) {
+						int e = incidence[k];
+						int w = sources[e] == v ? targets[e] : sources[e];
+						if (!visited[w]) {
+							visited[w] = true;
+							component[size++] = w;
+						}
+					}
+				}
+				if (size > 1) {
+					solve(root, Arrays.copyOf(component, size), inTree);
+				}
+				int min = Integer.MAX_VALUE;
+				for (int i = 0; i < size; i++) {
+					min = Math.min(min, rank[component[i]]);
+				}
+				for (int i = 0; i < size; i++) {
+					rank[component[i]] -= min;
+				}
+			}
+		}
+
+		private int slack(int e) {
+			return rank[targets[e]] - rank[sources[e]] - 1;
+		}
+
+		private void solve(int root, int[] component, boolean[] inTree) {
+			// feasible tree: repeatedly make the queued edge with minimal
+			// slack tight by shifting the tree
+			shift = 0;
+			outgoing.clear();
+			incoming.clear();
+			int size = growTightTree(root, inTree, 0);
+			while (size < component.length) {
+				// discard the edges that are within the tree by now
+				while (!outgoing.isEmpty()
+						&& inTree[targets[outgoing.peekEdge()]]) {
+					outgoing.pop();
+				}
+				while (!incoming.isEmpty()
+						&& inTree[sources[incoming.peekEdge()]]) {
+					incoming.pop();
+				}
+				int w;
+				if (incoming.isEmpty() || !outgoing.isEmpty() && outgoing
+						.peekKey() - shift <= incoming.peekKey() + shift) {
+					shift = outgoing.peekKey();
+					w = targets[outgoing.peekEdge()];
+					treeEdge[outgoing.peekEdge()] = true;
+					outgoing.pop();
+				} else {
+					shift = -incoming.peekKey();
+					w = sources[incoming.peekEdge()];
+					treeEdge[incoming.peekEdge()] = true;
+					incoming.pop();
+				}
+				size = growTightTree(w, inTree, size);
+			}
+			for (int v : component) {
+				rank[v] += shift;
+			}
+
+			parent[root] = -1;
+			parentEdge[root] = -1;
+			initLowLim(root, 0);
+			initCutValues(component.length);
+			// bound the number of exchanges in case of degenerate cycling
+			int maxExchanges = 10 * component.length + sources.length;
+			int search = 0;
+			for (int iteration = 0; iteration < maxExchanges; iteration++) {
+				// leaving edge: tree edge with negative cut value, searched
+				// from the previous one on
+				int child = -1;
+				for (int i = 0; i < component.length && child < 0; i++) {
+					int v = component[(search + i) % component.length];
+					if (parentEdge[v] >= 0 && cutValue[parentEdge[v]] < 0) {
+						child = v;
+						search = (search + i) % component.length;
+					}
+				}
+				if (child < 0) {
+					break;
+				}
+				int leaving = parentEdge[child];
+				// entering edge: non-tree edge that reconnects the subtree of
+				// child with minimal slack, so that only the subtree is scanned
+				boolean flip = targets[leaving] == child;
+				int entering = -1;
+				for (int i = low[child] - 1; i < lim[child]; i++) {
+					int v = postorder[i];
+					for (int k = incidenceStart[v]; k < incidenceStart[v
+							+ 1]; k++) {
+						int f = incidence[k];
+						int inside = flip ? sources[f] : targets[f];
+						int outside = flip ? targets[f] : sources[f];
+						if (inside == v && !isDescendant(outside, child)
+								&& (entering < 0
+										|| slack(f) < slack(entering))) {
+							entering = f;
+						}
+					}
+				}
+				if (entering < 0) {
+					break;
+				}
+				exchange(leaving, entering, child, flip, component.length);
+			}
+		}
+
+		// updates the cut values of the tree edges on the path from v up to
+		// the lowest common ancestor of v and w, which is returned
+		private int updateCutValues(int v, int w, int value,
+				boolean direction) {
+			while (!isDescendant(w, v)) {
+				int e = parentEdge[v];
+				boolean add = sources[e] == v ? direction : !direction;
+				cutValue[e] += add ? value : -value;
+				v = parent[v];
+			}
+			return v;
+		}
+	}
+
+}
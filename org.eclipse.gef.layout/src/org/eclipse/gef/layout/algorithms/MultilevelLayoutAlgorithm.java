@@ -0,0 +1,454 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.LayoutSnapshot;
+import org.eclipse.gef.layout.internal.utils.WeightedAdjacency;
+
+/**
+ * The {@link MultilevelLayoutAlgorithm} is a force-directed layout algorithm
+ * for large graphs, which follows the multilevel approach (see C. Walshaw, "A
+ * Multilevel Algorithm for Force-Directed Graph Drawing", 2000, and S. Hachul,
+ * M. Jünger, "Drawing Large Graphs with a Potential-Field-Based Multilevel
+ * Algorithm", 2004):
+ * <ol>
+ * <li>The graph is repeatedly coarsened by collapsing the nodes of a (heavy
+ * edge) matching, until the number of nodes falls below the
+ * {@link #setCoarsestSize(int) coarsest size}, or the matching does no longer
+ * reduce the graph significantly.</li>
+ * <li>The coarsest graph is laid out from a random placement.</li>
+ * <li>Each finer graph is initialized by placing nodes close to the position
+ * of the node they were collapsed into, and afterwards refined using a few
+ * iterations.</li>
+ * </ol>
+ * The layout of every level is computed using a {@link SpringLayoutAlgorithm}
+ * with approximated repulsion, so that each level can be processed in
+ * <code>O(n log n)</code> time per iteration.
+ *
+ * @see SpringLayoutAlgorithm
+ */
+public class MultilevelLayoutAlgorithm implements ILayoutAlgorithm {
+
+	/**
+	 * The default number of nodes below which no further coarsening is
+	 * performed.
+	 */
+	private static final int DEFAULT_COARSEST_SIZE = 32;
+
+	/**
+	 * The default number of iterations used to lay out the coarsest level.
+	 */
+	private static final int DEFAULT_COARSEST_ITERATIONS = 500;
+
+	/**
+	 * The default number of iterations used to refine each finer level.
+	 */
+	private static final int DEFAULT_REFINEMENT_ITERATIONS = 100;
+
+	/**
+	 * The minimum ratio by which a coarsening step has to reduce the number of
+	 * nodes. Otherwise, coarsening stops.
+	 */
+	private static final double MIN_COARSENING_RATIO = 0.1;
+
+	/**
+	 * The maximum distance (relative to the layout bounds) between a node and
+	 * the position of the node it was collapsed into, when it is placed
+	 * initially.
+	 */
+	private static final double INTERPOLATION_JITTER = 0.01;
+
+	private int coarsestSize = DEFAULT_COARSEST_SIZE;
+	private int coarsestIterations = DEFAULT_COARSEST_ITERATIONS;
+	private int refinementIterations = DEFAULT_REFINEMENT_ITERATIONS;
+	private Long seed = null;
+	private boolean parallel = false;
+	private boolean resize = false;
+
+	/**
+	 * A level of the coarsening hierarchy.
+	 */
+	private static class Level {
+		// connections between the nodes of this level
+		WeightedAdjacency adjacency;
+		// sizes of the nodes of this level
+		double[] sizeW, sizeH;
+		// index of the node (of the next coarser level) each node was
+		// collapsed into
+		int[] parent;
+		// locations of the nodes of this level
+		double[] locationsX, locationsY;
+	}
+
+	/**
+	 * Default constructor.
+	 */
+	public MultilevelLayoutAlgorithm() {
+	}
+
+	@Override
+	public void applyLayout(LayoutContext layoutContext, boolean clean) {
+		if (!clean) {
+			return;
+		}
+		LayoutSnapshot snapshot = new LayoutSnapshot(layoutContext);
+		if (snapshot.getNodeCount() == 0) {
+			return;
+		}
+		Rectangle bounds = LayoutProperties
+				.getBounds(layoutContext.getGraph());
+		Random random = seed == null ? new Random() : new Random(seed);
+
+		// coarsen
+		List<Level> levels = new ArrayList<>();
+		levels.add(createFinestLevel(snapshot));
+		while (true) {
+			Level level = levels.get(levels.size() - 1);
+			int n = level.adjacency.size();
+			if (n <= coarsestSize) {
+				break;
+			}
+			Level coarser = coarsen(level, random);
+			if (coarser.adjacency.size() > (1 - MIN_COARSENING_RATIO) * n) {
+				level.parent = null;
+				break;
+			}
+			levels.add(coarser);
+		}
+
+		// lay out the coarsest level and refine the finer ones
+		SpringLayoutAlgorithm spring = createSpringLayoutAlgorithm();
+		for (int l = levels.size() - 1; l > 0; l--) {
+			Level level = levels.get(l);
+			Level coarser = l + 1 < levels.size() ? levels.get(l + 1) : null;
+			layout(level, coarser, bounds, random, spring);
+		}
+
+		// refine the input graph
+		Level finest = levels.get(0);
+		spring.setRandom(levels.size() == 1);
+		spring.setIterations(levels.size() == 1 ? coarsestIterations
+				: refinementIterations);
+		spring.setResizing(resize);
+		if (levels.size() > 1) {
+			interpolate(finest, levels.get(1), bounds, random);
+			for (int i = 0; i < snapshot.getNodeCount(); i++) {
+				snapshot.setLocation(i, finest.locationsX[i],
+						finest.locationsY[i]);
+			}
+			snapshot.writeBack();
+		}
+		spring.applyLayout(layoutContext, true);
+	}
+
+	@Override
+	public Object[] getLayoutParameters() {
+		return new Object[] { coarsestSize, coarsestIterations,
+				refinementIterations, seed, parallel, resize };
+	}
+
+	/**
+	 * Creates a new {@link Level} that collapses the nodes of a heavy edge
+	 * matching of the given {@link Level}, i.e. the nodes are visited in
+	 * random order and each unmatched node is matched with the unmatched
+	 * neighbor to which it has the heaviest connection.
+	 */
+	private Level coarsen(Level level, Random random) {
+		WeightedAdjacency adjacency = level.adjacency;
+		int n = adjacency.size();
+
+		// visit the nodes in random order
+		int[] order = new int[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		for (int i = n - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int tmp = order[i];
+			order[i] = order[j];
+			order[j] = tmp;
+		}
+
+		int[] parent = new int[n];
+		for (int i = 0; i < n; i++) {
+			parent[i] = -1;
+		}
+		int coarseCount = 0;
+		for (int k = 0; k < n; k++) {
+			int u = order[k];
+			if (parent[u] != -1) {
+				continue;
+			}
+			int match = -1;
+			double matchWeight = 0;
+			for (int a = adjacency.start[u]; a < adjacency.start[u + 1]; a++) {
+				int v = adjacency.index[a];
+				if (parent[v] == -1 && adjacency.weight[a] > matchWeight) {
+					match = v;
+					matchWeight = adjacency.weight[a];
+				}
+			}
+			parent[u] = coarseCount;
+			if (match != -1) {
+				parent[match] = coarseCount;
+			}
+			coarseCount++;
+		}
+		level.parent = parent;
+
+		// collapse nodes and connections
+		Level coarser = new Level();
+		coarser.sizeW = new double[coarseCount];
+		coarser.sizeH = new double[coarseCount];
+		for (int u = 0; u < n; u++) {
+			int p = parent[u];
+			coarser.sizeW[p] = Math.max(coarser.sizeW[p], level.sizeW[u]);
+			coarser.sizeH[p] = Math.max(coarser.sizeH[p], level.sizeH[u]);
+		}
+		int m = adjacency.index.length / 2;
+		int[] sources = new int[m];
+		int[] targets = new int[m];
+		double[] weights = new double[m];
+		int e = 0;
+		for (int u = 0; u < n; u++) {
+			for (int a = adjacency.start[u]; a < adjacency.start[u + 1]; a++) {
+				int v = adjacency.index[a];
+				if (v > u && parent[u] != parent[v]) {
+					sources[e] = parent[u];
+					targets[e] = parent[v];
+					weights[e++] = adjacency.weight[a];
+				}
+			}
+		}
+		coarser.adjacency = WeightedAdjacency.build(coarseCount, sources,
+				targets, weights, e);
+		return coarser;
+	}
+
+	private Level createFinestLevel(LayoutSnapshot snapshot) {
+		Level level = new Level();
+		int n = snapshot.getNodeCount();
+		level.sizeW = new double[n];
+		level.sizeH = new double[n];
+		for (int i = 0; i < n; i++) {
+			level.sizeW[i] = snapshot.getWidth(i);
+			level.sizeH[i] = snapshot.getHeight(i);
+		}
+		int connections = snapshot.getEdgeCount();
+		int[] sources = new int[connections];
+		int[] targets = new int[connections];
+		double[] weights = new double[connections];
+		int m = 0;
+		for (int e = 0; e < connections; e++) {
+			int source = snapshot.getEdgeSource(e);
+			int target = snapshot.getEdgeTarget(e);
+			if (source == -1 || target == -1) {
+				continue;
+			}
+			double weight = snapshot.getEdgeWeight(e);
+			sources[m] = source;
+			targets[m] = target;
+			weights[m++] = weight <= 0 ? 0.1 : weight;
+		}
+		level.adjacency = WeightedAdjacency.build(n, sources, targets,
+				weights, m);
+		return level;
+	}
+
+	private SpringLayoutAlgorithm createSpringLayoutAlgorithm() {
+		SpringLayoutAlgorithm spring = new SpringLayoutAlgorithm();
+		spring.setSeed(seed);
+		spring.setSpringTimeout(0);
+		spring.setApproximateRepulsion(true);
+		spring.setParallel(parallel);
+		return spring;
+	}
+
+	/**
+	 * Returns the number of nodes below which the graph is not coarsened any
+	 * further.
+	 *
+	 * @return The number of nodes of the coarsest level.
+	 */
+	public int getCoarsestSize() {
+		return coarsestSize;
+	}
+
+	/**
+	 * Returns the number of iterations used to lay out the coarsest level.
+	 *
+	 * @return The number of iterations for the coarsest level.
+	 */
+	public int getCoarsestIterations() {
+		return coarsestIterations;
+	}
+
+	/**
+	 * Returns the number of iterations used to refine each finer level.
+	 *
+	 * @return The number of iterations for each finer level.
+	 */
+	public int getRefinementIterations() {
+		return refinementIterations;
+	}
+
+	/**
+	 * Returns the seed that is used for coarsening and random placement.
+	 *
+	 * @return The seed, or <code>null</code> if an arbitrary seed is used for
+	 *         each layout pass.
+	 */
+	public Long getSeed() {
+		return seed;
+	}
+
+	/**
+	 * Places the nodes of the given {@link Level} close to the nodes of the
+	 * next coarser {@link Level} they were collapsed into.
+	 */
+	private void interpolate(Level level, Level coarser, Rectangle bounds,
+			Random random) {
+		int n = level.adjacency.size();
+		level.locationsX = new double[n];
+		level.locationsY = new double[n];
+		double jitterX = INTERPOLATION_JITTER * bounds.getWidth();
+		double jitterY = INTERPOLATION_JITTER * bounds.getHeight();
+		for (int i = 0; i < n; i++) {
+			int p = level.parent[i];
+			// displace the nodes slightly, so that collapsed nodes do not
+			// start at the same position
+			level.locationsX[i] = coarser.locationsX[p]
+					+ (2 * random.nextDouble() - 1) * jitterX;
+			level.locationsY[i] = coarser.locationsY[p]
+					+ (2 * random.nextDouble() - 1) * jitterY;
+		}
+	}
+
+	/**
+	 * Returns whether or not forces are computed in parallel.
+	 *
+	 * @return <code>true</code> if forces are computed in parallel, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 *
+	 * @return true if this algorithm is set to resize elements
+	 */
+	public boolean isResizing() {
+		return resize;
+	}
+
+	/**
+	 * Lays out the given (coarse) {@link Level}, which is initialized from
+	 * the given coarser {@link Level} (if any), using the given
+	 * {@link SpringLayoutAlgorithm} directly on the arrays of the
+	 * {@link Level}.
+	 */
+	private void layout(Level level, Level coarser, Rectangle bounds,
+			Random random, SpringLayoutAlgorithm spring) {
+		int n = level.adjacency.size();
+		if (coarser != null) {
+			interpolate(level, coarser, bounds, random);
+		} else {
+			level.locationsX = new double[n];
+			level.locationsY = new double[n];
+		}
+		spring.setRandom(coarser == null);
+		spring.setIterations(coarser == null ? coarsestIterations
+				: refinementIterations);
+		spring.applyLayout(level.locationsX, level.locationsY, level.sizeW,
+				level.sizeH, level.adjacency, bounds);
+	}
+
+	/**
+	 * Sets the number of iterations used to lay out the coarsest level.
+	 *
+	 * @param iterations
+	 *            The number of iterations for the coarsest level.
+	 */
+	public void setCoarsestIterations(int iterations) {
+		coarsestIterations = iterations;
+	}
+
+	/**
+	 * Sets the number of nodes below which the graph is not coarsened any
+	 * further.
+	 *
+	 * @param size
+	 *            The number of nodes of the coarsest level.
+	 */
+	public void setCoarsestSize(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException(
+					"Coarsest size has to be positive, but is " + size + ".");
+		}
+		coarsestSize = size;
+	}
+
+	/**
+	 * Sets whether or not forces are computed in parallel (see
+	 * {@link SpringLayoutAlgorithm#setParallel(boolean)}).
+	 *
+	 * @param parallel
+	 *            <code>true</code> to compute forces in parallel,
+	 *            <code>false</code> to compute them sequentially (default).
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Sets the number of iterations used to refine each finer level.
+	 *
+	 * @param iterations
+	 *            The number of iterations for each finer level.
+	 */
+	public void setRefinementIterations(int iterations) {
+		refinementIterations = iterations;
+	}
+
+	/**
+	 *
+	 * @param resizing
+	 *            true if this algorithm should resize elements (default is
+	 *            false)
+	 */
+	public void setResizing(boolean resizing) {
+		resize = resizing;
+	}
+
+	/**
+	 * Sets the seed that is used for coarsening and random placement. When a
+	 * seed is set, the same input graph will always result in the same layout.
+	 *
+	 * @param seed
+	 *            The seed, or <code>null</code> to use an arbitrary seed for
+	 *            each layout pass (default).
+	 */
+	public void setSeed(Long seed) {
+		this.seed = seed;
+	}
+
+}
@@ -61,6 +61,11 @@ public class RadialLayoutAlgorithm implements ILayoutAlgorithm {
 		AlgorithmHelper.fitWithinBounds(entities, bounds, resize);
 	}
 
+	@Override
+	public Object[] getLayoutParameters() {
+		return new Object[] { startDegree, endDegree, resize, treeLayout };
+	}
+
 	private void computeRadialPositions(Node[] entities, Rectangle bounds) {
 		Rectangle layoutBounds = AlgorithmHelper.getLayoutBounds(entities,
 				false);
@@ -79,11 +79,12 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 
 		protected void addChild(TreeLayoutHelper.TreeNode child) {
 			super.addChild(child);
+			layersChanged = true;
 
 			SpaceTreeNode child2 = (SpaceTreeNode) child;
 			child2.expanded = false;
 
-			if (child.depth >= 0)
+			if (child.depth >= 0 && child.depth < spaceTreeLayers.size())
 				spaceTreeLayers.get(child.depth).removeNode(child2);
 
 			if (expanded) {
@@ -109,12 +110,23 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 			super.precomputeTree();
 			if (this == owner.getSuperRoot()) {
 				expanded = true;
-				while (spaceTreeLayers.size() <= this.height)
-					spaceTreeLayers
-							.add(new SpaceTreeLayer(spaceTreeLayers.size()));
+				addMissingLayers();
 			}
 		}
 
+		protected boolean updateParameters() {
+			boolean changed = super.updateParameters();
+			if (this == owner.getSuperRoot()) {
+				addMissingLayers();
+			}
+			return changed;
+		}
+
+		private void addMissingLayers() {
+			while (spaceTreeLayers.size() <= this.height)
+				spaceTreeLayers.add(new SpaceTreeLayer(spaceTreeLayers.size()));
+		}
+
 		/**
 		 * Moves the node back to its layer, as close as possible to given
 		 * preferred location.
@@ -873,6 +885,9 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 	private TreeLayoutHelper treeObserver;
 	private double availableSpace;
 	private ArrayList<SpaceTreeLayer> spaceTreeLayers = new ArrayList<>();
+	// whether nodes were added, removed, or moved within the tree since the
+	// layers were last refreshed
+	private boolean layersChanged = false;
 
 	/**
 	 * If not null, this node and all of its children shall not be collapsed
@@ -935,8 +950,29 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 			return;
 		}
 
-		treeObserver = new TreeLayoutHelper(spaceTreeNodeFactory);
-		treeObserver.computeTree(layoutContext.getNodes());
+		if (treeObserver == null) {
+			treeObserver = new TreeLayoutHelper(spaceTreeNodeFactory);
+			treeObserver.addTreeListener(new TreeLayoutHelper.TreeListener() {
+				@Override
+				public void nodeRemoved(TreeNode removedNode) {
+					layersChanged = true;
+				}
+
+				@Override
+				public void parentChanged(TreeNode node,
+						TreeNode previousParent) {
+					// the depths of the node and its descendants may have
+					// changed as well
+					layersChanged = true;
+				}
+			});
+		}
+		treeObserver.computeTree(layoutContext);
+		// the nodes are sorted by their orders within the layers
+		treeObserver.updateOrders();
+		if (layersChanged) {
+			refreshLayers();
+		}
 
 		if (clean) {
 			maximizeExpansion((SpaceTreeNode) treeObserver.getSuperRoot());
@@ -947,6 +983,39 @@ public class SpaceTreeLayoutAlgorithm implements ILayoutAlgorithm {
 		superRoot.flushLocationChanges(0);
 	}
 
+	/**
+	 * Rebuilds the layers from the current tree structure, so that each layer
+	 * contains the children of the expanded nodes of the previous layer in
+	 * tree order. The positions of the nodes within their layers are kept.
+	 */
+	private void refreshLayers() {
+		for (SpaceTreeLayer layer : spaceTreeLayers) {
+			layer.nodes.clear();
+		}
+		List<TreeNode> nodesInLayer = Collections
+				.singletonList(treeObserver.getSuperRoot());
+		for (int depth = 0;; depth++) {
+			List<TreeNode> nodesInNextLayer = new ArrayList<>();
+			for (TreeNode node : nodesInLayer) {
+				if (((SpaceTreeNode) node).expanded) {
+					nodesInNextLayer.addAll(node.children);
+				}
+			}
+			if (nodesInNextLayer.isEmpty()) {
+				break;
+			}
+			while (spaceTreeLayers.size() <= depth) {
+				spaceTreeLayers.add(new SpaceTreeLayer(spaceTreeLayers.size()));
+			}
+			spaceTreeLayers.get(depth).addNodes(nodesInNextLayer);
+			nodesInLayer = nodesInNextLayer;
+		}
+		for (SpaceTreeLayer layer : spaceTreeLayers) {
+			layer.refreshThickness();
+		}
+		layersChanged = false;
+	}
+
 	private void maximizeExpansion(SpaceTreeNode nodeToExpand) {
 		protectedNode = nodeToExpand;
 		double availableSpace = getAvailableSpace();
@@ -14,21 +14,37 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
 
-import org.eclipse.gef.geometry.planar.Dimension;
-import org.eclipse.gef.geometry.planar.Point;
 import org.eclipse.gef.geometry.planar.Rectangle;
-import org.eclipse.gef.graph.Edge;
 import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutDelta;
 import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.LayoutSnapshot;
+import org.eclipse.gef.layout.internal.utils.BarnesHutQuadTree;
+import org.eclipse.gef.layout.internal.utils.WeightedAdjacency;
 
 /**
  * The SpringLayoutAlgorithm has its own data repository and relation
  * repository. A user can populate the repository, specify the layout
  * conditions, do the computation and query the computed results.
+ * <p>
+ * The SpringLayoutAlgorithm supports incremental layout (see
+ * {@link LayoutContext#setIncremental(boolean)}). In an incremental layout
+ * pass, only the nodes that are affected by the changes, and their neighbors
+ * up to the {@link #setIncrementalRadius(int) incremental radius}, are moved,
+ * while all other nodes remain in place.
+ * <p>
+ * Nodes that are not {@link LayoutProperties#isMovable(Node) movable} keep
+ * their location. In that case, the layout is neither centered nor fit within
+ * the bounds, so that the other nodes are laid out around the pinned ones.
  * 
  * @author Jingwei Wu
  * @author Rob Lintern
@@ -49,6 +65,11 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private static final long MAX_SPRING_TIME = 10000;
 
+	/**
+	 * The default value for the convergence threshold (disabled).
+	 */
+	private static final double DEFAULT_CONVERGENCE_THRESHOLD = 0;
+
 	/**
 	 * The default value for positioning nodes randomly.
 	 */
@@ -74,11 +95,35 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private static final double DEFAULT_SPRING_GRAVITATION = 2.0f;
 
+	/**
+	 * The default value for the Barnes-Hut opening criterion.
+	 */
+	private static final double DEFAULT_SPRING_THETA = 0.8d;
+
+	/**
+	 * The number of partitions into which the computation of exact forces is
+	 * divided. It does not depend on the parallelism, so that the results are
+	 * identical for sequential and parallel force computation.
+	 */
+	private static final int EXACT_FORCE_PARTITIONS = 32;
+
+	/**
+	 * The initial scale of the layout bounds, which is adjusted during
+	 * iterations.
+	 */
+	private static final double DEFAULT_BOUNDS_SCALE = 0.2;
+
 	/**
 	 * Minimum distance considered between nodes
 	 */
 	private static final double MIN_DISTANCE = 1.0d;
 
+	/**
+	 * The default number of hops around the affected nodes within which nodes
+	 * are moved during an incremental layout pass.
+	 */
+	private static final int DEFAULT_INCREMENTAL_RADIUS = 1;
+
 	/**
 	 * The variable can be customized to set the number of iterations used.
 	 */
@@ -90,12 +135,26 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private long maxTimeMS = MAX_SPRING_TIME;
 
+	/**
+	 * This variable can be customized to set the average displacement per
+	 * node (in pixels) below which the layout is considered to be converged,
+	 * so that no further iterations are performed.
+	 */
+	private double convergenceThreshold = DEFAULT_CONVERGENCE_THRESHOLD;
+
 	/**
 	 * The variable can be customized to set whether or not the spring layout
 	 * nodes are positioned randomly before beginning iterations.
 	 */
 	private boolean sprRandom = DEFAULT_SPRING_RANDOM;
 
+	/**
+	 * The variable can be customized to set the seed that is used for placing
+	 * nodes randomly. If <code>null</code>, random placement is not
+	 * reproducible.
+	 */
+	private Long sprSeed = null;
+
 	/**
 	 * The variable can be customized to set the spring layout move-control.
 	 */
@@ -117,20 +176,73 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 */
 	private double sprGravitation = DEFAULT_SPRING_GRAVITATION;
 
+	/**
+	 * The variable can be customized to set whether or not the repulsion
+	 * between nodes is approximated using a Barnes-Hut quad tree.
+	 */
+	private boolean sprApproximate = false;
+
+	/**
+	 * The variable can be customized to set the Barnes-Hut opening criterion,
+	 * which is used when approximating the repulsion between nodes.
+	 */
+	private double sprTheta = DEFAULT_SPRING_THETA;
+
+	/**
+	 * The variable can be customized to set whether or not the forces are
+	 * computed in parallel.
+	 */
+	private boolean parallel = false;
+
+	/**
+	 * The variable can be customized to set the maximum number of threads
+	 * that are used for parallel force computation.
+	 */
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
 	/**
 	 * Variable indicating whether the algorithm should resize elements.
 	 */
 	private boolean resize = false;
 
+	/**
+	 * The variable can be customized to set the number of hops around the
+	 * affected nodes within which nodes are moved during an incremental layout
+	 * pass.
+	 */
+	private int incrementalRadius = DEFAULT_INCREMENTAL_RADIUS;
+
 	private int iteration;
-	private double[][] srcDestToSumOfWeights;
+	private int performedIterations;
+	private double displacement;
+	private double energy;
+	private boolean converged;
+	private Random random;
+	// sum of weights between connected nodes, stored symmetrically in
+	// compressed sparse row format (the neighbors of node i are stored at
+	// indices adjacencyStart[i] to adjacencyStart[i + 1] - 1, sorted by index)
+	private int[] adjacencyStart;
+	private int[] adjacencyIndex;
+	private double[] adjacencySumOfWeights;
+	private BarnesHutQuadTree quadTree;
+	private double[] normalizedX, normalizedY;
+	private double[][] partialForcesX, partialForcesY;
+	private ForkJoinPool forkJoinPool;
+	private LayoutSnapshot snapshot;
+	// the nodes that may be moved during an incremental layout pass (null for
+	// a full layout pass)
+	private boolean[] free;
+	private int[] freeNodes;
 	private Node[] entities;
+	// whether there are nodes that are not movable, which determine the frame
+	// of the layout then
+	private boolean hasPinnedNodes;
 	private double[] forcesX, forcesY;
 	private double[] locationsX, locationsY;
 	private double[] sizeW, sizeH;
 	private Rectangle bounds;
-	private double boundsScaleX = 0.2;
-	private double boundsScaleY = 0.2;
+	private double boundsScaleX = DEFAULT_BOUNDS_SCALE;
+	private double boundsScaleY = DEFAULT_BOUNDS_SCALE;
 
 	// XXX: Needed by performNIteration(int), see below.
 	private LayoutContext layoutContext;
@@ -140,7 +252,7 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 
 	public void applyLayout(LayoutContext layoutContext, boolean clean) {
 		this.layoutContext = layoutContext;
-		initLayout(layoutContext);
+		initLayout(layoutContext, sprRandom);
 		if (!clean) {
 			return;
 		}
@@ -153,7 +265,7 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		if (resize)
 			AlgorithmHelper.maximizeSizes(entities);
 
-		if (fitWithinBounds) {
+		if (fitWithinBounds && !hasPinnedNodes) {
 			Rectangle bounds2 = new Rectangle(bounds);
 			int insets = 4;
 			bounds2.setX(bounds2.getX() + insets);
@@ -164,6 +276,176 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 	}
 
+	@Override
+	public Object[] getLayoutParameters() {
+		if (!sprRandom) {
+			// the layout evolves from the initial locations, so that the
+			// result cannot be cached
+			return null;
+		}
+		return new Object[] { sprIterations, maxTimeMS, convergenceThreshold,
+				sprRandom, sprSeed, sprMove, sprStrain, sprLength,
+				sprGravitation, sprApproximate, sprTheta, parallel,
+				parallelism, resize, incrementalRadius };
+	}
+
+	/**
+	 * Moves the nodes that are affected by the given {@link LayoutDelta}, as
+	 * well as their neighbors up to the {@link #getIncrementalRadius()
+	 * incremental radius}, while all other nodes are pinned. Added nodes are
+	 * initially placed at the barycenter of their previously laid out
+	 * neighbors. The forces are only computed for the moved nodes (see
+	 * {@link #computeForces()}), and the layout is neither centered nor fit
+	 * within the bounds afterwards, so that the pinned nodes do not move at
+	 * all. If no node is affected (e.g. because nodes were only removed), the
+	 * layout is not changed.
+	 * <p>
+	 * The preparation of an incremental layout pass (e.g. the snapshot of the
+	 * graph) takes linear time, while the work per iteration only depends on
+	 * the number of free nodes.
+	 */
+	@Override
+	public void applyIncrementalLayout(LayoutContext layoutContext,
+			LayoutDelta delta) {
+		if (delta.isEmpty()) {
+			return;
+		}
+		this.layoutContext = layoutContext;
+		initLayout(layoutContext, false);
+		if (!initFreeNodes(delta)) {
+			// no node was laid out before
+			applyLayout(layoutContext, true);
+			return;
+		}
+		try {
+			if (freeNodes.length == 0) {
+				return;
+			}
+			initPinnedNodes();
+			while (performAnotherNonContinuousIteration()) {
+				computeOneIteration();
+			}
+			saveLocations();
+		} finally {
+			free = null;
+			freeNodes = null;
+		}
+	}
+
+	/**
+	 * Determines the nodes that are moved during an incremental layout pass,
+	 * places the added nodes, and adjusts the scale in which forces are
+	 * computed to the current layout.
+	 *
+	 * @return <code>false</code> if all nodes were added, so that there is no
+	 *         layout to start from, otherwise <code>true</code>.
+	 */
+	private boolean initFreeNodes(LayoutDelta delta) {
+		int n = entities.length;
+		boolean[] added = new boolean[n];
+		int addedCount = 0;
+		for (Node node : delta.getAddedNodes()) {
+			int i = snapshot.indexOf(node);
+			if (i >= 0 && !added[i]) {
+				added[i] = true;
+				addedCount++;
+			}
+		}
+		if (addedCount == n) {
+			return false;
+		}
+
+		// breadth-first search from the affected nodes, up to the incremental
+		// radius
+		free = new boolean[n];
+		int[] queue = new int[n];
+		int tail = 0;
+		Set<Node> affected = delta.getAffectedNodes();
+		for (Node node : affected) {
+			int i = snapshot.indexOf(node);
+			if (i >= 0 && !free[i]) {
+				free[i] = true;
+				queue[tail++] = i;
+			}
+		}
+		int head = 0;
+		for (int hop = 0; hop < incrementalRadius && head < tail; hop++) {
+			int levelEnd = tail;
+			while (head < levelEnd) {
+				int i = queue[head++];
+				for (int a = adjacencyStart[i]; a < adjacencyStart[i
+						+ 1]; a++) {
+					int j = adjacencyIndex[a];
+					if (!free[j]) {
+						free[j] = true;
+						queue[tail++] = j;
+					}
+				}
+			}
+		}
+		freeNodes = Arrays.copyOf(queue, tail);
+		Arrays.sort(freeNodes);
+
+		// place added nodes at the barycenter of their neighbors that were
+		// laid out before (or randomly if there are none), slightly jittered,
+		// so that they do not coincide
+		double jitterX = 0.05 * bounds.getWidth();
+		double jitterY = 0.05 * bounds.getHeight();
+		for (int i = 0; i < n; i++) {
+			if (!added[i]) {
+				continue;
+			}
+			double x = 0;
+			double y = 0;
+			int count = 0;
+			for (int a = adjacencyStart[i]; a < adjacencyStart[i + 1]; a++) {
+				int j = adjacencyIndex[a];
+				if (!added[j]) {
+					x += locationsX[j];
+					y += locationsY[j];
+					count++;
+				}
+			}
+			if (count > 0) {
+				locationsX[i] = x / count
+						+ (random.nextDouble() - 0.5) * jitterX;
+				locationsY[i] = y / count
+						+ (random.nextDouble() - 0.5) * jitterY;
+			} else {
+				locationsX[i] = bounds.getX()
+						+ random.nextDouble() * bounds.getWidth();
+				locationsY[i] = bounds.getY()
+						+ random.nextDouble() * bounds.getHeight();
+			}
+		}
+
+		// choose the scale, so that the average length of the edges between
+		// the nodes that were laid out before equals the spring length
+		double length = 0;
+		int edges = 0;
+		for (int i = 0; i < n; i++) {
+			if (added[i]) {
+				continue;
+			}
+			for (int a = adjacencyStart[i]; a < adjacencyStart[i + 1]; a++) {
+				int j = adjacencyIndex[a];
+				if (j > i && !added[j]) {
+					double dx = locationsX[i] - locationsX[j];
+					double dy = locationsY[i] - locationsY[j];
+					length += Math.sqrt(dx * dx + dy * dy);
+					edges++;
+				}
+			}
+		}
+		if (edges > 0 && length > 0 && bounds.getWidth() > 0
+				&& bounds.getHeight() > 0) {
+			double unit = length / edges / sprLength;
+			boundsScaleX = unit / bounds.getWidth();
+			boundsScaleY = unit / bounds.getHeight();
+		}
+		return true;
+	}
+
 	/**
 	 * Performs the given number of iterations.
 	 * 
@@ -173,9 +455,7 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	public void performNIteration(int n) {
 		layoutContext.preLayout();
 		if (iteration == 0) {
-			entities = layoutContext.getNodes();
-			loadLocations();
-			initLayout(layoutContext);
+			initLayout(layoutContext, sprRandom);
 		}
 		bounds = LayoutProperties.getBounds(layoutContext.getGraph());
 		for (int i = 0; i < n; i++) {
@@ -192,9 +472,7 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	public void performOneIteration() {
 		layoutContext.preLayout();
 		if (iteration == 0) {
-			entities = layoutContext.getNodes();
-			loadLocations();
-			initLayout(layoutContext);
+			initLayout(layoutContext, sprRandom);
 		}
 		bounds = LayoutProperties.getBounds(layoutContext.getGraph());
 		computeOneIteration();
@@ -280,7 +558,9 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	/**
-	 * Sets the spring timeout to the given value (in millis).
+	 * Sets the spring timeout to the given value (in millis). The timeout is
+	 * ignored when a {@link #setSeed(Long) seed} is set, so that the layout
+	 * is reproducible.
 	 * 
 	 * @param timeout
 	 *            The new spring timeout (in millis).
@@ -289,6 +569,69 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		maxTimeMS = timeout;
 	}
 
+	/**
+	 * Sets the convergence threshold, i.e. the average displacement per node
+	 * (in pixels) during one iteration, below which the layout is considered
+	 * to be converged. When the layout converged, no further iterations are
+	 * performed, even if neither the number of iterations nor the timeout is
+	 * exhausted.
+	 *
+	 * @param threshold
+	 *            The convergence threshold, or <code>0</code> to disable early
+	 *            termination (default).
+	 */
+	public void setConvergenceThreshold(double threshold) {
+		if (threshold < 0) {
+			throw new IllegalArgumentException(
+					"Threshold may not be negative, but is " + threshold
+							+ ".");
+		}
+		convergenceThreshold = threshold;
+	}
+
+	/**
+	 * Returns the convergence threshold, i.e. the average displacement per
+	 * node (in pixels) during one iteration, below which the layout is
+	 * considered to be converged.
+	 *
+	 * @return The convergence threshold.
+	 */
+	public double getConvergenceThreshold() {
+		return convergenceThreshold;
+	}
+
+	/**
+	 * Returns the number of iterations that were performed during the last
+	 * layout pass.
+	 *
+	 * @return The number of performed iterations.
+	 */
+	public int getPerformedIterations() {
+		return performedIterations;
+	}
+
+	/**
+	 * Returns the energy of the layout after the last iteration, i.e. the sum
+	 * of the squared magnitudes of the forces acting upon the movable nodes.
+	 *
+	 * @return The energy after the last iteration.
+	 */
+	public double getEnergy() {
+		return energy;
+	}
+
+	/**
+	 * Returns whether or not the last layout pass terminated because the
+	 * average displacement per node fell below the
+	 * {@link #getConvergenceThreshold() convergence threshold}.
+	 *
+	 * @return <code>true</code> if the layout converged, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isConverged() {
+		return converged;
+	}
+
 	/**
 	 * Returns the length-control value of this {@link SpringLayoutAlgorithm} in
 	 * double precision.
@@ -338,6 +681,115 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		return sprIterations;
 	}
 
+	/**
+	 * Sets whether or not this SpringLayoutAlgorithm will approximate the
+	 * repulsion between nodes using a Barnes-Hut quad tree. When enabled, the
+	 * computation of the repulsion takes <code>O(n log n)</code> instead of
+	 * <code>O(n^2)</code> time per iteration, while the attraction between
+	 * connected nodes is still computed exactly. The precision of the
+	 * approximation can be controlled via
+	 * {@link #setApproximationTheta(double)}.
+	 *
+	 * @param approximate
+	 *            <code>true</code> to approximate the repulsion between nodes,
+	 *            <code>false</code> to compute it exactly (default).
+	 */
+	public void setApproximateRepulsion(boolean approximate) {
+		sprApproximate = approximate;
+	}
+
+	/**
+	 * Returns whether or not this {@link SpringLayoutAlgorithm} approximates
+	 * the repulsion between nodes using a Barnes-Hut quad tree.
+	 *
+	 * @return <code>true</code> if the repulsion between nodes is
+	 *         approximated, otherwise <code>false</code>.
+	 */
+	public boolean isApproximateRepulsion() {
+		return sprApproximate;
+	}
+
+	/**
+	 * Sets the Barnes-Hut opening criterion, which is used when approximating
+	 * the repulsion between nodes (see
+	 * {@link #setApproximateRepulsion(boolean)}). A group of nodes is
+	 * approximated by its center of mass if the ratio between its extent and
+	 * its distance is smaller than theta. Smaller values yield more precise
+	 * but slower computations, <code>0</code> yields exact results.
+	 *
+	 * @param theta
+	 *            The opening criterion (default is <code>0.8</code>).
+	 */
+	public void setApproximationTheta(double theta) {
+		if (theta < 0) {
+			throw new IllegalArgumentException(
+					"Theta may not be negative, but is " + theta + ".");
+		}
+		sprTheta = theta;
+	}
+
+	/**
+	 * Returns the Barnes-Hut opening criterion, which is used when
+	 * approximating the repulsion between nodes.
+	 *
+	 * @return The opening criterion.
+	 */
+	public double getApproximationTheta() {
+		return sprTheta;
+	}
+
+	/**
+	 * Sets whether or not this {@link SpringLayoutAlgorithm} will compute the
+	 * forces acting upon the nodes in parallel, using at most
+	 * {@link #getParallelism()} threads. The results of parallel and
+	 * sequential force computation are identical.
+	 *
+	 * @param parallel
+	 *            <code>true</code> to compute forces in parallel,
+	 *            <code>false</code> to compute them sequentially (default).
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+
+	/**
+	 * Returns whether or not this {@link SpringLayoutAlgorithm} computes the
+	 * forces acting upon the nodes in parallel.
+	 *
+	 * @return <code>true</code> if forces are computed in parallel, otherwise
+	 *         <code>false</code>.
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+
+	/**
+	 * Sets the maximum number of threads that are used when computing forces
+	 * in parallel (see {@link #setParallel(boolean)}).
+	 *
+	 * @param parallelism
+	 *            The maximum number of threads (default is the number of
+	 *            available processors).
+	 */
+	public void setParallelism(int parallelism) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException(
+					"Parallelism has to be positive, but is " + parallelism
+							+ ".");
+		}
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Returns the maximum number of threads that are used when computing
+	 * forces in parallel.
+	 *
+	 * @return The maximum number of threads.
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
 	/**
 	 * Sets whether or not this SpringLayoutAlgorithm will layout the nodes
 	 * randomly before beginning iterations.
@@ -360,84 +812,209 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		return sprRandom;
 	}
 
+	/**
+	 * Sets the seed that is used when placing the nodes randomly before
+	 * beginning iterations (see {@link #setRandom(boolean)}). When a seed is
+	 * set, the same input graph will always result in the same layout. To
+	 * this end, the number of iterations is not reduced based on the
+	 * {@link #setSpringTimeout(long) spring timeout} when a seed is set, as
+	 * the number of iterations would otherwise depend on the elapsed time.
+	 *
+	 * @param seed
+	 *            The seed to use for random placement, or <code>null</code>
+	 *            to use an arbitrary seed for each layout pass (default).
+	 */
+	public void setSeed(Long seed) {
+		sprSeed = seed;
+	}
+
+	/**
+	 * Returns the seed that is used when placing the nodes randomly before
+	 * beginning iterations.
+	 *
+	 * @return The seed that is used for random placement, or
+	 *         <code>null</code> if an arbitrary seed is used for each layout
+	 *         pass.
+	 */
+	public Long getSeed() {
+		return sprSeed;
+	}
+
 	private long startTime = 0;
 
-	private void initLayout(LayoutContext context) {
+	/**
+	 * Lays out nodes that are given by their locations, sizes, and
+	 * connections, without a {@link LayoutContext}. All nodes are movable, and
+	 * the layout is neither resized nor fit within the bounds. Used by the
+	 * {@link MultilevelLayoutAlgorithm} to lay out its coarse levels.
+	 *
+	 * @param locationsX
+	 *            The x coordinates of the node centers, which are updated.
+	 * @param locationsY
+	 *            The y coordinates of the node centers, which are updated.
+	 * @param sizeW
+	 *            The widths of the nodes.
+	 * @param sizeH
+	 *            The heights of the nodes.
+	 * @param adjacency
+	 *            The connections between the nodes.
+	 * @param bounds
+	 *            The layout bounds.
+	 */
+	void applyLayout(double[] locationsX, double[] locationsY, double[] sizeW,
+			double[] sizeH, WeightedAdjacency adjacency, Rectangle bounds) {
+		int n = locationsX.length;
+		this.layoutContext = null;
+		snapshot = null;
+		entities = null;
+		hasPinnedNodes = false;
+		this.bounds = bounds;
+		this.locationsX = locationsX;
+		this.locationsY = locationsY;
+		this.sizeW = sizeW.clone();
+		this.sizeH = sizeH.clone();
+		forcesX = new double[n];
+		forcesY = new double[n];
+		adjacencyStart = adjacency.start;
+		adjacencyIndex = adjacency.index;
+		adjacencySumOfWeights = adjacency.weight;
+		initIterations(sprRandom);
+		while (performAnotherNonContinuousIteration()) {
+			computeOneIteration();
+		}
+	}
+
+	private void initLayout(LayoutContext context, boolean placeRandomly) {
+		snapshot = new LayoutSnapshot(context);
 		entities = context.getNodes();
 		bounds = LayoutProperties.getBounds(context.getGraph());
 		loadLocations();
-
-		srcDestToSumOfWeights = new double[entities.length][entities.length];
-		HashMap<Node, Integer> entityToPosition = new HashMap<>();
+		hasPinnedNodes = false;
 		for (int i = 0; i < entities.length; i++) {
-			entityToPosition.put(entities[i], new Integer(i));
+			if (!snapshot.isMovable(i)) {
+				hasPinnedNodes = true;
+				break;
+			}
 		}
 
-		Edge[] connections = context.getEdges();
-		for (int i = 0; i < connections.length; i++) {
-			Edge connection = connections[i];
-			Integer source = entityToPosition.get(connection.getSource());
-			Integer target = entityToPosition.get(connection.getTarget());
-			if (source == null || target == null)
-				continue;
-			double weight = LayoutProperties.getWeight(connection);
-			weight = (weight <= 0 ? 0.1 : weight);
-			srcDestToSumOfWeights[source.intValue()][target
-					.intValue()] += weight;
-			srcDestToSumOfWeights[target.intValue()][source
-					.intValue()] += weight;
-		}
+		initSumOfWeights();
+		initIterations(placeRandomly);
+	}
 
-		if (sprRandom)
+	private void initIterations(boolean placeRandomly) {
+		// start each layout pass from the same state, so that identical input
+		// yields an identical layout when a seed is set
+		boundsScaleX = DEFAULT_BOUNDS_SCALE;
+		boundsScaleY = DEFAULT_BOUNDS_SCALE;
+		random = sprSeed == null ? new Random() : new Random(sprSeed);
+		if (placeRandomly)
 			placeRandomly(); // put vertices in random places
 
 		iteration = 1;
+		performedIterations = 0;
+		energy = 0;
+		converged = false;
 
 		startTime = System.currentTimeMillis();
 	}
 
+	/**
+	 * Returns the number of hops around the affected nodes within which nodes
+	 * are moved during an incremental layout pass.
+	 * 
+	 * @return The incremental radius.
+	 */
+	public int getIncrementalRadius() {
+		return incrementalRadius;
+	}
+
+	/**
+	 * Sets the number of hops around the nodes that are affected by the
+	 * changes within which nodes are moved during an incremental layout pass.
+	 * A radius of <code>0</code> only moves the affected nodes themselves.
+	 * 
+	 * @param radius
+	 *            The new incremental radius.
+	 */
+	public void setIncrementalRadius(int radius) {
+		if (radius < 0) {
+			throw new IllegalArgumentException(
+					"Incremental radius may not be negative: " + radius);
+		}
+		this.incrementalRadius = radius;
+	}
+
+	/**
+	 * Computes the sum of weights between all connected nodes, storing it
+	 * within the adjacency arrays. Self-loops are ignored and parallel edges
+	 * are merged.
+	 */
+	private void initSumOfWeights() {
+		int n = snapshot.getNodeCount();
+		int connections = snapshot.getEdgeCount();
+		int[] sources = new int[connections];
+		int[] targets = new int[connections];
+		double[] weights = new double[connections];
+		int m = 0;
+		for (int i = 0; i < connections; i++) {
+			int source = snapshot.getEdgeSource(i);
+			int target = snapshot.getEdgeTarget(i);
+			if (source == -1 || target == -1)
+				continue;
+			double weight = snapshot.getEdgeWeight(i);
+			weight = (weight <= 0 ? 0.1 : weight);
+			sources[m] = source;
+			targets[m] = target;
+			weights[m++] = weight;
+		}
+		WeightedAdjacency adjacency = WeightedAdjacency.build(n, sources,
+				targets, weights, m);
+		adjacencyStart = adjacency.start;
+		adjacencyIndex = adjacency.index;
+		adjacencySumOfWeights = adjacency.weight;
+	}
+
 	private void loadLocations() {
-		if (locationsX == null || locationsX.length != entities.length) {
-			int length = entities.length;
-			locationsX = new double[length];
-			locationsY = new double[length];
+		// the locations are computed within the snapshot and written back to
+		// the nodes at once
+		locationsX = snapshot.getXs();
+		locationsY = snapshot.getYs();
+		int length = snapshot.getNodeCount();
+		if (sizeW == null || sizeW.length != length) {
 			sizeW = new double[length];
 			sizeH = new double[length];
 			forcesX = new double[length];
 			forcesY = new double[length];
 		}
-		for (int i = 0; i < entities.length; i++) {
-			Point location = LayoutProperties.getLocation(entities[i]);
-			locationsX[i] = location.x;
-			locationsY[i] = location.y;
-			Dimension size = LayoutProperties.getSize(entities[i]);
-			sizeW[i] = size.width;
-			sizeH[i] = size.height;
+		for (int i = 0; i < length; i++) {
+			sizeW[i] = snapshot.getWidth(i);
+			sizeH[i] = snapshot.getHeight(i);
 		}
 	}
 
 	private void saveLocations() {
-		if (entities == null)
+		if (snapshot == null)
 			return;
-		for (int i = 0; i < entities.length; i++) {
-			// TODO ensure no dynamic layout passes are triggered as a result of
-			// storing the positions
+		for (int i = 0; i < locationsX.length; i++) {
 			// TODO: check where NaN values originate from
 			if (Double.isNaN(locationsX[i]) || Double.isNaN(locationsY[i])) {
 				locationsX[i] = 0;
 				locationsY[i] = 0;
 			}
-			LayoutProperties.setLocation(entities[i],
-					new Point(locationsX[i], locationsY[i]));
 		}
+		// only changed locations are written, so that no superfluous change
+		// notifications are fired
+		snapshot.writeBack();
 	}
 
 	/**
 	 * Scales the current iteration counter based on how long the algorithm has
-	 * been running for. You can set the MaxTime in maxTimeMS!
+	 * been running for. You can set the MaxTime in maxTimeMS! The iteration
+	 * counter is not scaled when a seed is set, because the layout would not
+	 * be reproducible otherwise.
 	 */
 	private void setSprIterationsBasedOnTime() {
-		if (maxTimeMS <= 0)
+		if (maxTimeMS <= 0 || sprSeed != null)
 			return;
 
 		long currentTime = System.currentTimeMillis();
@@ -457,6 +1034,9 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 *         reached yet, otherwise <code>false</code>.
 	 */
 	protected boolean performAnotherNonContinuousIteration() {
+		if (converged) {
+			return false;
+		}
 		setSprIterationsBasedOnTime();
 		return (iteration <= sprIterations);
 	}
@@ -481,16 +1061,26 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 
 	/**
 	 * Computes one iteration (forces, positions) and increases the iteration
-	 * counter.
+	 * counter. Determines whether the layout converged, i.e. whether the
+	 * average displacement per node fell below the convergence threshold.
 	 */
 	protected void computeOneIteration() {
 		computeForces();
 		computePositions();
-		Rectangle currentBounds = getLayoutBounds();
-		improveBoundScaleX(currentBounds);
-		improveBoundScaleY(currentBounds);
-		moveToCenter(currentBounds);
+		// the layout is only adjusted to the bounds when all nodes may move
+		if (free == null) {
+			Rectangle currentBounds = getLayoutBounds();
+			improveBoundScaleX(currentBounds);
+			improveBoundScaleY(currentBounds);
+			if (!hasPinnedNodes) {
+				moveToCenter(currentBounds);
+			}
+		}
 		iteration++;
+		performedIterations++;
+		int moving = free == null ? locationsX.length : freeNodes.length;
+		converged = convergenceThreshold > 0 && moving > 0
+				&& displacement / moving < convergenceThreshold;
 	}
 
 	/**
@@ -500,6 +1090,9 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 		if (locationsX.length == 0) {
 			return;
 		}
+		// pinned nodes keep their location
+		double[] pinnedX = hasPinnedNodes ? locationsX.clone() : null;
+		double[] pinnedY = hasPinnedNodes ? locationsY.clone() : null;
 
 		// If only one node in the data repository, put it in the middle
 		if (locationsX.length == 1) {
@@ -511,11 +1104,22 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			locationsY[0] = bounds.getY();
 			locationsX[1] = bounds.getX() + bounds.getWidth();
 			locationsY[1] = bounds.getY() + bounds.getHeight();
+			if (random == null) {
+				random = sprSeed == null ? new Random() : new Random(sprSeed);
+			}
 			for (int i = 2; i < locationsX.length; i++) {
 				locationsX[i] = bounds.getX()
-						+ Math.random() * bounds.getWidth();
+						+ random.nextDouble() * bounds.getWidth();
 				locationsY[i] = bounds.getY()
-						+ Math.random() * bounds.getHeight();
+						+ random.nextDouble() * bounds.getHeight();
+			}
+		}
+		if (hasPinnedNodes) {
+			for (int i = 0; i < locationsX.length; i++) {
+				if (!snapshot.isMovable(i)) {
+					locationsX[i] = pinnedX[i];
+					locationsY[i] = pinnedY[i];
+				}
 			}
 		}
 	}
@@ -525,66 +1129,31 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 	 * computed force will be stored in the data repository
 	 */
 	protected void computeForces() {
+		updateForkJoinPool();
 
+		// the forces are initialized to zero
 		double forcesX[][] = new double[2][this.forcesX.length];
 		double forcesY[][] = new double[2][this.forcesX.length];
-		double locationsX[] = new double[this.forcesX.length];
-		double locationsY[] = new double[this.forcesX.length];
-
-		// // initialize all forces to zero
-		for (int j = 0; j < 2; j++) {
-			for (int i = 0; i < this.forcesX.length; i++) {
-				forcesX[j][i] = 0;
-				forcesY[j][i] = 0;
-				locationsX[i] = this.locationsX[i];
-				locationsY[i] = this.locationsY[i];
-			}
-		}
-		// TODO: Again really really slow!
+		double locationsX[] = this.locationsX.clone();
+		double locationsY[] = this.locationsY.clone();
+		// during an incremental layout pass, only the free nodes are visited
+		int count = free == null ? locationsX.length : freeNodes.length;
 
 		for (int k = 0; k < 2; k++) {
-			for (int i = 0; i < this.locationsX.length; i++) {
-
-				for (int j = i + 1; j < locationsX.length; j++) {
-					double dx = (locationsX[i] - locationsX[j])
-							/ bounds.getWidth() / boundsScaleX;
-					double dy = (locationsY[i] - locationsY[j])
-							/ bounds.getHeight() / boundsScaleY;
-					double distance_sq = dx * dx + dy * dy;
-					// make sure distance and distance squared not too small
-					distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
-							distance_sq);
-					double distance = Math.sqrt(distance_sq);
-
-					// If there are relationships between srcObj and destObj
-					// then decrease force on srcObj (a pull) in direction of
-					// destObj
-					// If no relation between srcObj and destObj then increase
-					// force on srcObj (a push) from direction of destObj.
-					double sumOfWeights = srcDestToSumOfWeights[i][j];
-
-					double f;
-					if (sumOfWeights > 0) {
-						// nodes are pulled towards each other
-						f = -sprStrain * Math.log(distance / sprLength)
-								* sumOfWeights;
-					} else {
-						// nodes are repelled from each other
-						f = sprGravitation / (distance_sq);
-					}
-					double dfx = f * dx / distance;
-					double dfy = f * dy / distance;
-
-					forcesX[k][i] += dfx;
-					forcesY[k][i] += dfy;
-
-					forcesX[k][j] -= dfx;
-					forcesY[k][j] -= dfy;
-				}
+			if (free != null) {
+				computeLocalForces(locationsX, locationsY, forcesX[k],
+						forcesY[k]);
+			} else if (sprApproximate) {
+				computeApproximatedForces(locationsX, locationsY, forcesX[k],
+						forcesY[k]);
+			} else {
+				computeExactForces(locationsX, locationsY, forcesX[k],
+						forcesY[k]);
 			}
 
-			for (int i = 0; i < entities.length; i++) {
-				if (LayoutProperties.isMovable(entities[i])) {
+			for (int m = 0; m < count; m++) {
+				int i = free == null ? m : freeNodes[m];
+				if (isMoving(i)) {
 					double deltaX = sprMove * forcesX[k][i];
 					double deltaY = sprMove * forcesY[k][i];
 
@@ -604,8 +1173,8 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			}
 
 		}
-		// // initialize all forces to zero
-		for (int i = 0; i < this.entities.length; i++) {
+		for (int m = 0; m < count; m++) {
+			int i = free == null ? m : freeNodes[m];
 			if (forcesX[0][i] * forcesX[1][i] < 0) {
 				this.forcesX[i] = 0;
 			} else {
@@ -622,14 +1191,349 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * Computes the forces between all pairs of nodes, accumulating them into
+	 * the given force arrays. Connected nodes are pulled towards each other,
+	 * while all other nodes are repelled from each other.
+	 * <p>
+	 * The rows of the (triangular) pair matrix are distributed round-robin
+	 * among a fixed number of partitions, each of which accumulates forces
+	 * separately. The partial forces are summed up in partition order
+	 * afterwards, so that the result does not depend on whether the
+	 * partitions are processed in parallel or not.
+	 */
+	private void computeExactForces(final double[] locationsX,
+			final double[] locationsY, double[] forcesX, double[] forcesY) {
+		final int n = locationsX.length;
+		final int partitions = Math.max(1,
+				Math.min(EXACT_FORCE_PARTITIONS, n));
+		if (partialForcesX == null || partialForcesX.length != partitions
+				|| partialForcesX[0].length != n) {
+			partialForcesX = new double[partitions][n];
+			partialForcesY = new double[partitions][n];
+		}
+		forEachPartition(partitions, new IntConsumer() {
+			@Override
+			public void accept(int p) {
+				double[] partialX = partialForcesX[p];
+				double[] partialY = partialForcesY[p];
+				Arrays.fill(partialX, 0);
+				Arrays.fill(partialY, 0);
+				for (int i = p; i < n; i += partitions) {
+					computeExactForces(i, locationsX, locationsY, partialX,
+							partialY);
+				}
+			}
+		});
+		for (int p = 0; p < partitions; p++) {
+			for (int i = 0; i < n; i++) {
+				forcesX[i] += partialForcesX[p][i];
+				forcesY[i] += partialForcesY[p][i];
+			}
+		}
+	}
+
+	/**
+	 * Computes the forces between the node at index i and all nodes with a
+	 * greater index, accumulating them into the given force arrays.
+	 */
+	private void computeExactForces(int i, double[] locationsX,
+			double[] locationsY, double[] forcesX, double[] forcesY) {
+		// skip the neighbors that precede i (the adjacency arrays are
+		// sorted by index, so that they can be traversed along with j)
+		int a = adjacencyStart[i];
+		int end = adjacencyStart[i + 1];
+		while (a < end && adjacencyIndex[a] <= i) {
+			a++;
+		}
+
+		for (int j = i + 1; j < locationsX.length; j++) {
+			double dx = (locationsX[i] - locationsX[j]) / bounds.getWidth()
+					/ boundsScaleX;
+			double dy = (locationsY[i] - locationsY[j]) / bounds.getHeight()
+					/ boundsScaleY;
+			double distance_sq = dx * dx + dy * dy;
+			// make sure distance and distance squared not too small
+			distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE, distance_sq);
+			double distance = Math.sqrt(distance_sq);
+
+			// If there are relationships between srcObj and destObj
+			// then decrease force on srcObj (a pull) in direction of
+			// destObj
+			// If no relation between srcObj and destObj then increase
+			// force on srcObj (a push) from direction of destObj.
+			double sumOfWeights = 0;
+			if (a < end && adjacencyIndex[a] == j) {
+				sumOfWeights = adjacencySumOfWeights[a++];
+			}
+
+			double f;
+			if (sumOfWeights > 0) {
+				// nodes are pulled towards each other
+				f = -sprStrain * Math.log(distance / sprLength)
+						* sumOfWeights;
+			} else {
+				// nodes are repelled from each other
+				f = sprGravitation / (distance_sq);
+			}
+			double dfx = f * dx / distance;
+			double dfy = f * dy / distance;
+
+			forcesX[i] += dfx;
+			forcesY[i] += dfy;
+
+			forcesX[j] -= dfx;
+			forcesY[j] -= dfy;
+		}
+	}
+
+	/**
+	 * Computes the same forces as
+	 * {@link #computeExactForces(double[], double[], double[], double[])},
+	 * approximating the repulsion between all nodes using a
+	 * {@link BarnesHutQuadTree}. The repulsion between connected nodes is
+	 * afterwards replaced by their (exactly computed) attraction.
+	 * <p>
+	 * The force acting upon each node is computed independently of all other
+	 * nodes, so that the nodes can be partitioned into index ranges, which
+	 * are processed in parallel without affecting the result.
+	 */
+	private void computeApproximatedForces(double[] locationsX,
+			double[] locationsY, final double[] forcesX,
+			final double[] forcesY) {
+		final int n = locationsX.length;
+		if (quadTree == null) {
+			quadTree = new BarnesHutQuadTree();
+		}
+		if (normalizedX == null || normalizedX.length != n) {
+			normalizedX = new double[n];
+			normalizedY = new double[n];
+		}
+		// transfer locations into the (scaled) space in which forces are
+		// computed
+		double scaleX = bounds.getWidth() * boundsScaleX;
+		double scaleY = bounds.getHeight() * boundsScaleY;
+		for (int i = 0; i < n; i++) {
+			normalizedX[i] = locationsX[i] / scaleX;
+			normalizedY[i] = locationsY[i] / scaleY;
+		}
+		quadTree.build(normalizedX, normalizedY, n);
+
+		final int partitions = forkJoinPool == null ? 1
+				: Math.max(1, Math.min(4 * parallelism, n));
+		forEachPartition(partitions, new IntConsumer() {
+			@Override
+			public void accept(int p) {
+				int from = (int) ((long) n * p / partitions);
+				int to = (int) ((long) n * (p + 1) / partitions);
+				// nodes are repelled from each other
+				quadTree.accumulateRepulsion(from, to, sprTheta,
+						sprGravitation, MIN_DISTANCE, forcesX, forcesY);
+				// connected nodes are pulled towards each other (instead of
+				// being repelled)
+				for (int i = from; i < to; i++) {
+					computeAttractionForces(i, forcesX, forcesY);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the attraction between the node at index i and its neighbors,
+	 * replacing the repulsion that was computed for them, and accumulates it
+	 * into the given force arrays (at index i only).
+	 */
+	private void computeAttractionForces(int i, double[] forcesX,
+			double[] forcesY) {
+		for (int a = adjacencyStart[i]; a < adjacencyStart[i + 1]; a++) {
+			int j = adjacencyIndex[a];
+			double dx = normalizedX[i] - normalizedX[j];
+			double dy = normalizedY[i] - normalizedY[j];
+			double distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+					dx * dx + dy * dy);
+			double distance = Math.sqrt(distance_sq);
+			double f = -sprStrain * Math.log(distance / sprLength)
+					* adjacencySumOfWeights[a] - sprGravitation / distance_sq;
+			forcesX[i] += f * dx / distance;
+			forcesY[i] += f * dy / distance;
+		}
+	}
+
+	/**
+	 * Builds the {@link BarnesHutQuadTree} over the pinned nodes of an
+	 * incremental layout pass. As the pinned nodes do not move and the scale
+	 * in which forces are computed is not adjusted during an incremental
+	 * layout pass, the tree is built only once per pass.
+	 */
+	private void initPinnedNodes() {
+		int n = locationsX.length;
+		double scaleX = bounds.getWidth() * boundsScaleX;
+		double scaleY = bounds.getHeight() * boundsScaleY;
+		double[] pinnedX = new double[n - freeNodes.length];
+		double[] pinnedY = new double[pinnedX.length];
+		int count = 0;
+		for (int i = 0; i < n; i++) {
+			if (!free[i]) {
+				pinnedX[count] = locationsX[i] / scaleX;
+				pinnedY[count] = locationsY[i] / scaleY;
+				count++;
+			}
+		}
+		if (quadTree == null) {
+			quadTree = new BarnesHutQuadTree();
+		}
+		quadTree.build(pinnedX, pinnedY, count);
+	}
+
+	/**
+	 * Computes the forces acting upon the free nodes of an incremental layout
+	 * pass, accumulating them into the given force arrays (at the indices of
+	 * the free nodes only). The pinned nodes exert forces, but no forces are
+	 * computed for them.
+	 * <p>
+	 * The repulsion of the pinned nodes is approximated using the
+	 * {@link BarnesHutQuadTree} that is built over them (see
+	 * {@link #initPinnedNodes()}), independent of whether
+	 * {@link #isApproximateRepulsion() approximation} is enabled, while the
+	 * forces between free nodes, as well as the attraction of connected pinned
+	 * nodes, are computed exactly. Therefore, the work per iteration is
+	 * <code>O(k (k + log n))</code> for <i>k</i> free out of <i>n</i> nodes.
+	 */
+	private void computeLocalForces(final double[] locationsX,
+			final double[] locationsY, final double[] forcesX,
+			final double[] forcesY) {
+		final int k = freeNodes.length;
+		final int partitions = forkJoinPool == null ? 1
+				: Math.max(1, Math.min(4 * parallelism, k));
+		forEachPartition(partitions, new IntConsumer() {
+			@Override
+			public void accept(int p) {
+				int from = (int) ((long) k * p / partitions);
+				int to = (int) ((long) k * (p + 1) / partitions);
+				for (int f = from; f < to; f++) {
+					computeLocalForces(freeNodes[f], locationsX, locationsY,
+							forcesX, forcesY);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Computes the forces between the free node at index i and all other
+	 * nodes, accumulating them into the given force arrays (at index i only).
+	 */
+	private void computeLocalForces(int i, double[] locationsX,
+			double[] locationsY, double[] forcesX, double[] forcesY) {
+		double scaleX = bounds.getWidth() * boundsScaleX;
+		double scaleY = bounds.getHeight() * boundsScaleY;
+		double x = locationsX[i] / scaleX;
+		double y = locationsY[i] / scaleY;
+
+		// pinned nodes are repelled
+		quadTree.accumulateRepulsion(x, y, sprTheta, sprGravitation,
+				MIN_DISTANCE, forcesX, forcesY, i);
+
+		// connected pinned nodes are pulled towards each other (instead of
+		// being repelled)
+		for (int a = adjacencyStart[i]; a < adjacencyStart[i + 1]; a++) {
+			int j = adjacencyIndex[a];
+			if (free[j]) {
+				continue;
+			}
+			double dx = x - locationsX[j] / scaleX;
+			double dy = y - locationsY[j] / scaleY;
+			double distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+					dx * dx + dy * dy);
+			double distance = Math.sqrt(distance_sq);
+			double f = -sprStrain * Math.log(distance / sprLength)
+					* adjacencySumOfWeights[a] - sprGravitation / distance_sq;
+			forcesX[i] += f * dx / distance;
+			forcesY[i] += f * dy / distance;
+		}
+
+		// free nodes are computed exactly (both the free nodes and the
+		// adjacency arrays are sorted by index)
+		int a = adjacencyStart[i];
+		int end = adjacencyStart[i + 1];
+		for (int j : freeNodes) {
+			if (j == i) {
+				continue;
+			}
+			double dx = x - locationsX[j] / scaleX;
+			double dy = y - locationsY[j] / scaleY;
+			double distance_sq = Math.max(MIN_DISTANCE * MIN_DISTANCE,
+					dx * dx + dy * dy);
+			double distance = Math.sqrt(distance_sq);
+
+			while (a < end && adjacencyIndex[a] < j) {
+				a++;
+			}
+			double f;
+			if (a < end && adjacencyIndex[a] == j) {
+				f = -sprStrain * Math.log(distance / sprLength)
+						* adjacencySumOfWeights[a];
+			} else {
+				f = sprGravitation / distance_sq;
+			}
+			forcesX[i] += f * dx / distance;
+			forcesY[i] += f * dy / distance;
+		}
+	}
+
+	/**
+	 * Returns whether the node at index i is moved, i.e. whether it is movable
+	 * and (during an incremental layout pass) free.
+	 */
+	private boolean isMoving(int i) {
+		return (snapshot == null || snapshot.isMovable(i))
+				&& (free == null || free[i]);
+	}
+
+	/**
+	 * Executes the given task for all partitions, using the fork-join pool in
+	 * case parallel force computation is enabled.
+	 */
+	private void forEachPartition(int partitions, IntConsumer task) {
+		if (forkJoinPool == null || partitions < 2) {
+			for (int p = 0; p < partitions; p++) {
+				task.accept(p);
+			}
+		} else {
+			forkJoinPool.invoke(new PartitionAction(task, 0, partitions));
+		}
+	}
+
+	/**
+	 * Ensures that a fork-join pool with the configured parallelism is
+	 * available in case parallel force computation is enabled, and releases
+	 * it otherwise. The pool's worker threads terminate when idle.
+	 */
+	private void updateForkJoinPool() {
+		boolean usePool = parallel && parallelism > 1;
+		if (forkJoinPool != null && (!usePool
+				|| forkJoinPool.getParallelism() != parallelism)) {
+			forkJoinPool.shutdown();
+			forkJoinPool = null;
+		}
+		if (usePool && forkJoinPool == null) {
+			forkJoinPool = new ForkJoinPool(parallelism);
+		}
+	}
+
 	/**
 	 * Computes the position for each node in this SpringLayoutAlgorithm. The
 	 * computed position will be stored in the data repository. position =
 	 * position + sprMove * force
 	 */
 	protected void computePositions() {
-		for (int i = 0; i < entities.length; i++) {
-			if (LayoutProperties.isMovable(entities[i])) {
+		displacement = 0;
+		energy = 0;
+		// during an incremental layout pass, only the free nodes are visited
+		int count = free == null ? locationsX.length : freeNodes.length;
+		for (int m = 0; m < count; m++) {
+			int i = free == null ? m : freeNodes[m];
+			if (isMoving(i)) {
+				energy += forcesX[i] * forcesX[i] + forcesY[i] * forcesY[i];
 				double deltaX = sprMove * forcesX[i];
 				double deltaY = sprMove * forcesY[i];
 
@@ -642,8 +1546,11 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 					deltaY *= maxMovement / dist;
 				}
 
-				locationsX[i] += deltaX * bounds.getWidth() * boundsScaleX;
-				locationsY[i] += deltaY * bounds.getHeight() * boundsScaleY;
+				deltaX = deltaX * bounds.getWidth() * boundsScaleX;
+				deltaY = deltaY * bounds.getHeight() * boundsScaleY;
+				displacement += Math.sqrt(deltaX * deltaX + deltaY * deltaY);
+				locationsX[i] += deltaX;
+				locationsY[i] += deltaY;
 			}
 		}
 	}
@@ -696,4 +1603,34 @@ public class SpringLayoutAlgorithm implements ILayoutAlgorithm {
 			locationsY[i] -= moveY;
 		}
 	}
+
+	/**
+	 * A {@link RecursiveAction} that executes a task for a range of
+	 * partitions, splitting the range until single partitions remain.
+	 */
+	private static class PartitionAction extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final IntConsumer task;
+		private final int from;
+		private final int to;
+
+		public PartitionAction(IntConsumer task, int from, int to) {
+			this.task = task;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from == 1) {
+				task.accept(from);
+			} else {
+				int mid = (from + to) >>> 1;
+				invokeAll(new PartitionAction(task, from, mid),
+						new PartitionAction(task, mid, to));
+			}
+		}
+	}
 }
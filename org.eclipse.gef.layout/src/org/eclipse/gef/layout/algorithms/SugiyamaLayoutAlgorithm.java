@@ -18,17 +18,17 @@
 package org.eclipse.gef.layout.algorithms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashSet;
 import java.util.IdentityHashMap;
-import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
@@ -93,167 +93,432 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	}
 
 	/**
+	 * Reduces crossings by sorting the nodes of each layer by the barycenters
+	 * of their neighbors in the preceding layer (alternating top-down and
+	 * bottom-up sweeps), followed by a refinement of the node positions.
+	 * After the sweeps, the order with the least crossings is restored.
+	 * <p>
+	 * Optionally, several restarts can be performed, each of which starts from
+	 * a random order of the layers (see {@link #setRestarts(int)}). The order
+	 * with the least crossings is kept. Restarts can be performed in parallel
+	 * (see {@link #setParallel(boolean)}).
+	 * 
 	 * @author Rene Kuhlemann
 	 */
 	public static class BarycentricCrossingReducer implements CrossingReducer {
 
-		private List<List<NodeWrapper>> layers = new ArrayList<>();
-		private Map<Node, NodeWrapper> map = new IdentityHashMap<>();
 		private static final int MAX_SWEEPS = 35;
-		private int last; // index of the last element in a layer after padding
-							// process
+
+		private int restarts = 1;
+		private Long seed = null;
+		private boolean parallel = false;
+
+		// the layer system, where nodes (including padding) are identified by
+		// index
+		private NodeWrapper[] wrappers;
+		private boolean[] padding;
+		private boolean[] dummy;
+		private int[][] pred;
+		private int[][] succ;
+		private int[][] initialOrder;
+		// index of the last element in a layer after padding process
+		private int last;
 
 		/**
-		 * Fills in virtual nodes, so the layer system finally becomes an
-		 * equidistant grid
+		 * Performs the sweeps for one (re)start, operating on its own order of
+		 * the layers.
 		 */
-		private void padLayers() {
-			last = 0;
-			for (List<NodeWrapper> iter : layers)
-				if (iter.size() > last)
-					last = iter.size();
-			last--; // index of the last element of any layer
-			for (List<NodeWrapper> iter : layers) { // padding is always
-													// added at
-				// the END of each layer!
-				for (int i = iter.size(); i <= last; i++)
-					iter.add(new NodeWrapper());
-				updateIndex(iter);
+		private final class Sweep {
+
+			private final int[][] order;
+			private final int[] index;
+			private int crossings;
+
+			private Sweep(int[][] order) {
+				this.order = order;
+				index = new int[wrappers.length];
+				for (int[] layer : order)
+					updateIndex(layer);
 			}
-		}
 
-		/**
-		 * Removes the padding nodes from the layers
-		 */
-		private void unpadLayers() {
-			for (List<NodeWrapper> layer : layers) {
-				Iterator<NodeWrapper> it = layer.iterator();
-				while (it.hasNext()) {
-					NodeWrapper wrapper = it.next();
-					if (wrapper.isPadding()) {
-						it.remove();
+			private int countCrossings() {
+				int count = 0;
+				int[] sequence = new int[16];
+				for (int l = 1; l < order.length; l++) {
+					int size = 0;
+					for (int v : order[l - 1]) {
+						int start = size;
+						for (int w : succ[v]) {
+							if (size == sequence.length)
+								sequence = Arrays.copyOf(sequence, 2 * size);
+							sequence[size++] = index[w];
+						}
+						Arrays.sort(sequence, start, size);
 					}
+					count += CrossingCounter.countCrossings(sequence, size,
+							last);
 				}
+				return count;
 			}
-		}
 
-		/**
-		 * Reduces connection crossings between two adjacent layers by a
-		 * combined top-down and bottom-up approach. It uses a heuristic
-		 * approach based on the predecessor's barycenter.
-		 */
-		private void reduceCrossings() {
-			for (int round = 0; round < MAX_SWEEPS; round++) {
-				if ((round & 1) == 0) { // if round is even then do a bottom-up
-										// scan
-					for (int index = 1; index < layers.size(); index++)
-						reduceCrossingsDown(layers.get(index));
-				} else { // else top-down
-					for (int index = layers.size() - 2; index >= 0; index--)
-						reduceCrossingsUp(layers.get(index));
+			private int getBaryCenter(int v, int[] list) {
+				if (list.length == 0)
+					return (index[v]);
+				if (list.length == 1)
+					return (index[list[0]]);
+				double barycenter = 0;
+				for (int w : list)
+					barycenter += index[w];
+				// always round down to avoid wrap around in position refining
+				return ((int) (barycenter / list.length));
+			}
+
+			private int getPriorityDown(int v) {
+				if (padding[v])
+					return (0);
+				if (dummy[v] && succ[v].length > 0) {
+					if (dummy[succ[v][0]])
+						// part of a straight line
+						return (Integer.MAX_VALUE);
+					else
+						// start of a straight line
+						return (Integer.MAX_VALUE >> 1);
 				}
+				return (pred[v].length);
 			}
-		}
 
-		private void reduceCrossingsDown(List<NodeWrapper> layer) {
-			// DOWN: scan PREDECESSORS
-			for (NodeWrapper node : layer)
-				node.index = node.getBaryCenter(node.pred);
-			Collections.sort(layer, new Comparator<NodeWrapper>() {
-				public int compare(NodeWrapper node1, NodeWrapper node2) {
-					return (node1.index - node2.index);
+			private int getPriorityUp(int v) {
+				if (padding[v])
+					return (0);
+				if (dummy[v] && pred[v].length > 0) {
+					if (dummy[pred[v][0]])
+						// part of a straight line
+						return (Integer.MAX_VALUE);
+					else
+						// start of a straight line
+						return (Integer.MAX_VALUE >> 1);
 				}
-			});
-			updateIndex(layer);
-		}
+				return (succ[v].length);
+			}
 
-		private void reduceCrossingsUp(List<NodeWrapper> layer) {
-			// UP: scan SUCCESSORS
-			for (NodeWrapper node : layer)
-				node.index = node.getBaryCenter(node.succ);
-			Collections.sort(layer, new Comparator<NodeWrapper>() {
-				public int compare(NodeWrapper node1, NodeWrapper node2) {
-					return (node1.index - node2.index);
+			/**
+			 * Reduces connection crossings between two adjacent layers by a
+			 * combined top-down and bottom-up approach. It uses a heuristic
+			 * approach based on the predecessor's barycenter. The order with
+			 * the least crossings across all sweeps is restored.
+			 */
+			private void reduceCrossings() {
+				int[][] best = copy(order);
+				crossings = countCrossings();
+				for (int round = 0; round < MAX_SWEEPS; round++) {
+					if ((round & 1) == 0) { // if round is even then do a
+											// bottom-up scan
+						for (int l = 1; l < order.length; l++)
+							sortByBaryCenter(order[l], pred);
+					} else { // else top-down
+						for (int l = order.length - 2; l >= 0; l--)
+							sortByBaryCenter(order[l], succ);
+					}
+					int count = countCrossings();
+					if (count < crossings) {
+						crossings = count;
+						best = copy(order);
+						if (crossings == 0)
+							break;
+					}
 				}
-			});
-			updateIndex(layer);
+				for (int l = 0; l < order.length; l++) {
+					System.arraycopy(best[l], 0, order[l], 0, best[l].length);
+					updateIndex(order[l]);
+				}
+			}
+
+			private void refineLayers() {
+				// from Sugiyama
+				// paper: down, up, and down yields best results, wonder why..
+				for (int l = 1; l < order.length; l++)
+					refineLayer(order[l], true);
+				for (int l = order.length - 2; l >= 0; l--)
+					refineLayer(order[l], false);
+				for (int l = 1; l < order.length; l++)
+					refineLayer(order[l], true);
+			}
+
+			private void refineLayer(int[] layer, boolean down) {
+				// first, get a priority list (descending order)
+				long[] keys = new long[layer.length];
+				for (int k = 0; k < layer.length; k++) {
+					int priority = down ? getPriorityDown(layer[k])
+							: getPriorityUp(layer[k]);
+					keys[k] = ((long) (Integer.MAX_VALUE - priority) << 32) | k;
+				}
+				Arrays.sort(keys);
+				int[] list = new int[layer.length];
+				for (int k = 0; k < layer.length; k++)
+					list[k] = layer[(int) keys[k]];
+				// second, remove padding from the layer's end and place them in
+				// front of the current node to improve its position
+				for (int v : list) {
+					// break, if there are no more "real" nodes
+					if (padding[v])
+						break;
+					// compute distance to new position
+					int delta = getBaryCenter(v, down ? pred[v] : succ[v])
+							- index[v];
+					for (int i = 0; i < delta; i++) {
+						int moved = layer[last];
+						System.arraycopy(layer, index[v], layer, index[v] + 1,
+								last - index[v]);
+						layer[index[v]] = moved;
+					}
+				}
+				updateIndex(layer);
+			}
+
+			private void run() {
+				// reduce and refine iteratively, depending on the depth of the
+				// graph
+				for (int i = 0; i < order.length; i++) {
+					reduceCrossings();
+					refineLayers();
+				}
+				reduceCrossings();
+			}
+
+			private void sortByBaryCenter(int[] layer, int[][] neighbors) {
+				// the current position is part of the key to keep the sort
+				// stable
+				long[] keys = new long[layer.length];
+				for (int k = 0; k < layer.length; k++)
+					keys[k] = ((long) getBaryCenter(layer[k],
+							neighbors[layer[k]]) << 32) | k;
+				Arrays.sort(keys);
+				int[] sorted = new int[layer.length];
+				for (int k = 0; k < layer.length; k++)
+					sorted[k] = layer[(int) keys[k]];
+				System.arraycopy(sorted, 0, layer, 0, layer.length);
+				updateIndex(layer);
+			}
+
+			private void updateIndex(int[] layer) {
+				for (int k = 0; k < layer.length; k++)
+					index[layer[k]] = k;
+			}
 		}
 
-		private void refineLayers() {
-			// from Sugiyama
-			// paper: down, up, and down yields best results, wonder why..
-			for (int index = 1; index < layers.size(); index++)
-				refineLayersDown(layers.get(index));
-			for (int index = layers.size() - 2; index >= 0; index--)
-				refineLayersUp(layers.get(index));
-			for (int index = 1; index < layers.size(); index++)
-				refineLayersDown(layers.get(index));
+		private static int[][] copy(int[][] order) {
+			int[][] copy = new int[order.length][];
+			for (int l = 0; l < order.length; l++)
+				copy[l] = order[l].clone();
+			return copy;
 		}
 
-		private void refineLayersDown(List<NodeWrapper> layer) {
-			// first, get a priority list
-			List<NodeWrapper> list = new ArrayList<>(layer);
-			Collections.sort(list, new Comparator<NodeWrapper>() {
-				public int compare(NodeWrapper node1, NodeWrapper node2) {
-					return (node2.getPriorityDown() - node1.getPriorityDown()); // descending
-					// ordering!!!
+		public void crossReduction(List<List<NodeWrapper>> nodes) {
+			index(nodes);
+
+			// the first start uses the given order, all others a random one
+			final Sweep[] sweeps = new Sweep[restarts];
+			sweeps[0] = new Sweep(pad(copy(initialOrder)));
+			Random random = seed == null ? new Random() : new Random(seed);
+			for (int r = 1; r < restarts; r++) {
+				int[][] order = copy(initialOrder);
+				for (int[] layer : order) {
+					for (int k = layer.length - 1; k > 0; k--) {
+						int j = random.nextInt(k + 1);
+						int v = layer[k];
+						layer[k] = layer[j];
+						layer[j] = v;
+					}
 				}
-			});
-			// second, remove padding from the layer's end and place them in
-			// front of the current node to improve its position
-			for (NodeWrapper iter : list) {
-				// break, if there are no more "real" nodes
-				if (iter.isPadding())
-					break;
-				// compute distance to new position
-				int delta = iter.getBaryCenter(iter.pred) - iter.index;
-				for (int i = 0; i < delta; i++)
-					layer.add(iter.index, layer.remove(last));
+				sweeps[r] = new Sweep(pad(order));
 			}
-			updateIndex(layer);
+			if (parallel && restarts > 1) {
+				List<RecursiveAction> tasks = new ArrayList<>();
+				for (final Sweep sweep : sweeps) {
+					tasks.add(new RecursiveAction() {
+						private static final long serialVersionUID = 1L;
+
+						@Override
+						protected void compute() {
+							sweep.run();
+						}
+					});
+				}
+				ForkJoinTask.invokeAll(tasks);
+			} else {
+				for (Sweep sweep : sweeps)
+					sweep.run();
+			}
+			Sweep best = sweeps[0];
+			for (Sweep sweep : sweeps) {
+				if (sweep.crossings < best.crossings)
+					best = sweep;
+			}
+
+			// apply the best order and remove the padding nodes, whose
+			// positions are kept in the indices of the remaining nodes
+			for (int l = 0; l < nodes.size(); l++) {
+				List<NodeWrapper> layer = nodes.get(l);
+				layer.clear();
+				for (int v : best.order[l]) {
+					if (!padding[v]) {
+						wrappers[v].index = best.index[v];
+						layer.add(wrappers[v]);
+					}
+				}
+			}
+			wrappers = null;
+			pred = null;
+			succ = null;
+			initialOrder = null;
+		}
+
+		/**
+		 * Returns the number of starts (see {@link #setRestarts(int)}).
+		 * 
+		 * @return The number of starts.
+		 */
+		public int getRestarts() {
+			return restarts;
+		}
+
+		/**
+		 * Returns the seed that is used for the random orders of the restarts
+		 * (see {@link #setSeed(Long)}).
+		 * 
+		 * @return The seed that is used for random orders, or
+		 *         <code>null</code> if an arbitrary seed is used for each
+		 *         crossing reduction.
+		 */
+		public Long getSeed() {
+			return seed;
 		}
 
-		private void refineLayersUp(List<NodeWrapper> layer) {
-			// first, get a priority list
-			List<NodeWrapper> list = new ArrayList<>(layer);
-			Collections.sort(list, new Comparator<NodeWrapper>() {
-				public int compare(NodeWrapper node1, NodeWrapper node2) {
-					// descending order
-					return (node2.getPriorityUp() - node1.getPriorityUp());
+		/**
+		 * Assigns an index to each {@link NodeWrapper}, and to the padding
+		 * nodes that are added to the layers, so that all layers have the same
+		 * size.
+		 * 
+		 * @param nodes
+		 *            The layers of {@link NodeWrapper}s.
+		 */
+		private void index(List<List<NodeWrapper>> nodes) {
+			last = 0;
+			int count = 0;
+			for (List<NodeWrapper> layer : nodes) {
+				last = Math.max(last, layer.size());
+				count += layer.size();
+			}
+			last--; // index of the last element of any layer
+			int n = count + Math.max(0, nodes.size() * (last + 1) - count);
+			wrappers = new NodeWrapper[n];
+			padding = new boolean[n];
+			dummy = new boolean[n];
+			initialOrder = new int[nodes.size()][];
+			Map<NodeWrapper, Integer> ids = new IdentityHashMap<>();
+			int v = 0;
+			for (int l = 0; l < nodes.size(); l++) {
+				List<NodeWrapper> layer = nodes.get(l);
+				initialOrder[l] = new int[layer.size()];
+				for (int k = 0; k < layer.size(); k++) {
+					NodeWrapper nw = layer.get(k);
+					wrappers[v] = nw;
+					dummy[v] = nw.isDummy();
+					ids.put(nw, v);
+					initialOrder[l][k] = v++;
 				}
-			});
-			// second, remove padding from the layer's end and place them in
-			// front of the current node to improve its position
-			for (NodeWrapper iter : list) {
-				// break, if there are no more "real" nodes
-				if (iter.isPadding())
-					break;
-				// compute distance to new position
-				int delta = iter.getBaryCenter(iter.succ) - iter.index;
-				for (int i = 0; i < delta; i++)
-					layer.add(iter.index, layer.remove(last));
 			}
-			updateIndex(layer);
+			for (; v < n; v++) {
+				wrappers[v] = new NodeWrapper();
+				padding[v] = true;
+			}
+			pred = new int[n][];
+			succ = new int[n][];
+			for (v = 0; v < n; v++) {
+				pred[v] = toIds(wrappers[v].pred, ids);
+				succ[v] = toIds(wrappers[v].succ, ids);
+			}
 		}
 
-		private void updateIndex(List<NodeWrapper> list) {
-			for (int index = 0; index < list.size(); index++) {
-				list.get(index).index = index;
-				map.put(list.get(index).node, list.get(index));
+		/**
+		 * Returns whether restarts are performed in parallel (see
+		 * {@link #setParallel(boolean)}).
+		 * 
+		 * @return <code>true</code> if restarts are performed in parallel,
+		 *         otherwise <code>false</code>.
+		 */
+		public boolean isParallel() {
+			return parallel;
+		}
+
+		/**
+		 * Fills in virtual nodes, so the layer system finally becomes an
+		 * equidistant grid. Padding is always added at the END of each layer.
+		 */
+		private int[][] pad(int[][] order) {
+			int v = wrappers.length;
+			for (int l = order.length - 1; l >= 0; l--) {
+				int size = order[l].length;
+				order[l] = Arrays.copyOf(order[l], last + 1);
+				for (int k = last; k >= size; k--)
+					order[l][k] = --v;
 			}
+			return order;
 		}
 
-		public void crossReduction(List<List<NodeWrapper>> nodes) {
-			this.layers = nodes;
-			padLayers();
-			// reduce and refine iteratively, depending on the depth of the
-			// graph
-			for (int i = 0; i < layers.size(); i++) {
-				reduceCrossings();
-				refineLayers();
+		/**
+		 * Sets whether restarts are performed in parallel, using the common
+		 * fork-join pool. The result does not depend on the parallelism.
+		 * 
+		 * @param parallel
+		 *            <code>true</code> to perform restarts in parallel,
+		 *            <code>false</code> to perform them sequentially
+		 *            (default).
+		 */
+		public void setParallel(boolean parallel) {
+			this.parallel = parallel;
+		}
+
+		/**
+		 * Sets the number of starts. The first start uses the order of the
+		 * layers as given, all others start from a random order. The order
+		 * with the least crossings is kept.
+		 * 
+		 * @param restarts
+		 *            The number of starts, which has to be positive (default
+		 *            <code>1</code>).
+		 */
+		public void setRestarts(int restarts) {
+			if (restarts < 1)
+				throw new IllegalArgumentException(
+						"Restarts have to be positive, but are " + restarts
+								+ ".");
+			this.restarts = restarts;
+		}
+
+		/**
+		 * Sets the seed that is used for the random orders of the restarts.
+		 * When a seed is set, the same input always results in the same order.
+		 * 
+		 * @param seed
+		 *            The seed to use for random orders, or <code>null</code>
+		 *            to use an arbitrary seed for each crossing reduction
+		 *            (default).
+		 */
+		public void setSeed(Long seed) {
+			this.seed = seed;
+		}
+
+		private static int[] toIds(List<NodeWrapper> list,
+				Map<NodeWrapper, Integer> ids) {
+			int[] result = new int[list.size()];
+			int k = 0;
+			for (NodeWrapper nw : list) {
+				Integer id = ids.get(nw);
+				if (id != null)
+					result[k++] = id;
 			}
-			reduceCrossings();
-			unpadLayers();
+			return k == result.length ? result : Arrays.copyOf(result, k);
 		}
 	}
 
@@ -267,119 +532,42 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 * 
 	 */
 	public static class SplitCrossingReducer implements CrossingReducer {
-		private final Map<Node, NodeWrapper> map = new IdentityHashMap<>();
+		private final Long seed;
+		private Random random;
+		private CrossingCounter crossingCounter;
 
 		/**
-		 * Filters the multiple connections from the two arrays
+		 * Creates a new {@link SplitCrossingReducer} that selects pivot nodes
+		 * using an arbitrary seed for each crossing reduction.
+		 */
+		public SplitCrossingReducer() {
+			this(null);
+		}
+
+		/**
+		 * Creates a new {@link SplitCrossingReducer} that selects pivot nodes
+		 * using the given seed, so that the same input always results in the
+		 * same ordering.
 		 * 
-		 * @param a
-		 * @param b
-		 * @return
+		 * @param seed
+		 *            The seed that is used for selecting pivot nodes, or
+		 *            <code>null</code> to use an arbitrary seed for each
+		 *            crossing reduction.
 		 */
-		private ArrayList<Node> unionOfNodes(Collection<Node> a,
-				Collection<Node> b) {
-			ArrayList<Node> res = new ArrayList<>(a);
-			for (Node n : b) {
-				if (!res.contains(n)) {
-					res.add(n);
-				}
-			}
-			return res;
+		public SplitCrossingReducer(Long seed) {
+			this.seed = seed;
 		}
 
 		/**
-		 * Returns the number of crosses between the two nodes and those
-		 * connected to them.
+		 * Returns the number of crossings between the edges of the two nodes
+		 * if the first node is placed left of the second one.
 		 * 
 		 * @param nodeA
 		 * @param nodeB
 		 * @return
 		 */
 		private int numberOfCrosses(NodeWrapper nodeA, NodeWrapper nodeB) {
-			int numOfCrosses = 0;
-			if (nodeA.equals(nodeB))
-				return 0;
-
-			// Filter nodes connected with bidirectional edges
-			ArrayList<Node> adjacentNodesOfA = unionOfNodes(
-					nodeA.node.getPredecessorNodes(),
-					nodeA.node.getSuccessorNodes());
-			ArrayList<Node> adjacentNodesOfB = unionOfNodes(
-					nodeB.node.getPredecessorNodes(),
-					nodeB.node.getSuccessorNodes());
-
-			for (Node aNode : adjacentNodesOfA) {
-				ArrayList<Integer> alreadyCrossed = new ArrayList<>();
-				NodeWrapper aNodeWrapper = map.get(aNode);
-				for (int i = 0; i < adjacentNodesOfB.size(); i++) {
-					NodeWrapper nw = map.get(adjacentNodesOfB.get(i));
-					if (!alreadyCrossed.contains(i) && nw != null) {
-						// only if on the same side
-						if ((nw.layer > nodeA.layer
-								&& aNodeWrapper.layer > nodeA.layer)
-								|| (nw.layer < nodeA.layer
-										&& aNodeWrapper.layer < nodeA.layer)) {
-							if (nodeA.index < nodeB.index) {
-								if (aNodeWrapper.index > nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeA.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeA.layer < nw.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeB.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& aNodeWrapper.layer < nodeB.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							} else if (nodeA.index > nodeB.index) {
-								if (aNodeWrapper.index < nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeB.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeB.layer > aNodeWrapper.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeA.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nw.layer > nodeA.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-
-			return numOfCrosses;
+			return crossingCounter.getCrossings(nodeA, nodeB);
 		}
 
 		/**
@@ -394,7 +582,6 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 			if (layer.size() < 1)
 				return layer;
-			Random random = new Random();
 			NodeWrapper pivot = layer.get(random.nextInt(layer.size()));
 			// NodeWrapper pivot = layer.get(0);
 			// NodeWrapper pivot = layer.get((int)(layer.size() / 2));
@@ -407,18 +594,16 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 						left.add(node);
 					else if (num1 > num2)
 						right.add(node);
-					else {
-						if (num1 == num2 && num1 > 0) {
-							int tmpindex = map.get(pivot.node).index;
-							map.get(pivot.node).index = map
-									.get(node.node).index;
-							map.get(node.node).index = tmpindex;
-						}
-						if (node.index < pivot.index)
-							left.add(node);
-						else
-							right.add(node);
-					}
+					else if (node.index < pivot.index)
+						left.add(node);
+					else
+						right.add(node);
+				} else if (!node.equals(pivot)) {
+					// keep dummy nodes on their side of the pivot
+					if (node.index < pivot.index)
+						left.add(node);
+					else
+						right.add(node);
 				}
 			}
 
@@ -430,15 +615,31 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		public void crossReduction(List<List<NodeWrapper>> nodes) {
-			// Building the map
-			for (List<NodeWrapper> layer : nodes)
-				for (NodeWrapper nw : layer)
-					map.put(nw.node, nw);
+			random = seed == null ? new Random() : new Random(seed);
+			crossingCounter = new CrossingCounter(nodes);
 			for (int i = 0; i < nodes.size(); i++) {
-				if (!nodes.get(i).isEmpty()) {
-					splitHeuristic(nodes.get(i));
+				List<NodeWrapper> layer = nodes.get(i);
+				if (layer.size() > 1) {
+					// only keep the new order if it does not increase the
+					// number of crossings
+					List<NodeWrapper> order = new ArrayList<>(layer);
+					int crossings = crossingCounter.getCrossings(i);
+					List<NodeWrapper> split = splitHeuristic(order);
+					updateIndex(split);
+					if (crossingCounter.getCrossings(i) <= crossings) {
+						layer.clear();
+						layer.addAll(split);
+					} else {
+						updateIndex(layer);
+					}
 				}
 			}
+			crossingCounter = null;
+		}
+
+		private static void updateIndex(List<NodeWrapper> list) {
+			for (int index = 0; index < list.size(); index++)
+				list.get(index).index = index;
 		}
 	}
 
@@ -451,121 +652,18 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 * 
 	 */
 	public static class GreedyCrossingReducer implements CrossingReducer {
-		private final Map<Node, NodeWrapper> map = new IdentityHashMap<>();
-		private List<List<NodeWrapper>> layers = new ArrayList<>();
-		private Map<Integer, Integer> crossesForLayers = new IdentityHashMap<>();
-
-		/**
-		 * Filters the multiple connections from the two arrays.
-		 * 
-		 * @param a
-		 * @param b
-		 * @return
-		 */
-		private ArrayList<Node> unionOfNodes(Collection<Node> a,
-				Collection<Node> b) {
-			ArrayList<Node> res = new ArrayList<>(a);
-			for (Node n : b) {
-				if (!res.contains(n)) {
-					res.add(n);
-				}
-			}
-			return res;
-		}
+		private CrossingCounter crossingCounter;
 
 		/**
-		 * Returns the number of crosses between the two nodes and those
-		 * connected to them.
+		 * Returns the number of crossings between the edges of the two nodes
+		 * if the first node is placed left of the second one.
 		 * 
 		 * @param nodeA
 		 * @param nodeB
 		 * @return
 		 */
 		private int numberOfCrosses(NodeWrapper nodeA, NodeWrapper nodeB) {
-			int numOfCrosses = 0;
-			if (nodeA.equals(nodeB))
-				return 0;
-
-			// Filter nodes connected with bidirectional edges
-			ArrayList<Node> adjacentNodesOfA = unionOfNodes(
-					nodeA.node.getPredecessorNodes(),
-					nodeA.node.getSuccessorNodes());
-			ArrayList<Node> adjacentNodesOfB = unionOfNodes(
-					nodeB.node.getPredecessorNodes(),
-					nodeB.node.getSuccessorNodes());
-
-			for (Node aNode : adjacentNodesOfA) {
-				ArrayList<Integer> alreadyCrossed = new ArrayList<>();
-				NodeWrapper aNodeWrapper = map.get(aNode);
-				for (int i = 0; i < adjacentNodesOfB.size(); i++) {
-					NodeWrapper nw = map.get(adjacentNodesOfB.get(i));
-					if (!alreadyCrossed.contains(i) && nw != null) {
-						// only if on the same side
-						if ((nw.layer > nodeA.layer
-								&& aNodeWrapper.layer > nodeA.layer)
-								|| (nw.layer < nodeA.layer
-										&& aNodeWrapper.layer < nodeA.layer)) {
-							if (nodeA.index < nodeB.index) {
-								if (aNodeWrapper.index > nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeA.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeA.layer < nw.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeB.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& aNodeWrapper.layer < nodeB.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							} else if (nodeA.index > nodeB.index) {
-								if (aNodeWrapper.index < nw.index) {
-									numOfCrosses++;
-									alreadyCrossed.add(i);
-								} else if (nw.index == aNodeWrapper.index) {
-									if (nodeB.index >= nw.index) {
-										// implies nodeB.index > nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nodeB.layer > aNodeWrapper.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& aNodeWrapper.layer > nodeB.layer)) {
-											// top-left or bottom-left quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									} else if (nodeA.index <= nw.index) {
-										// implies nodeA.index < nw.index
-										if ((aNodeWrapper.layer > nw.layer
-												&& nw.layer > nodeA.layer)
-												|| (aNodeWrapper.layer < nw.layer
-														&& nw.layer < nodeA.layer)) {
-											// top-right or bottom-right quarter
-											numOfCrosses++;
-											alreadyCrossed.add(i);
-										}
-									}
-								}
-							}
-						}
-					}
-				}
-			}
-
-			return numOfCrosses;
+			return crossingCounter.getCrossings(nodeA, nodeB);
 		}
 
 		/**
@@ -576,33 +674,21 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		 */
 		private boolean greedyHeuristic(List<NodeWrapper> layer) {
 			boolean res = false;
-			if (layer.size() > 1) {
-				for (int i = 0; i < layer.size() - 1; i++) {
-					if (layer.get(i).node != null
-							&& layer.get(i + 1).node != null) {
-						int num1 = numberOfCrosses(layer.get(i),
-								layer.get(i + 1));
-						int num2 = numberOfCrosses(layer.get(i + 1),
-								layer.get(i));
-						if (num1 > num2 || (num1 == num2 && num1 > 0)) {
-							if (!crossesForLayers
-									.containsKey((layer.get(i).layer))
-									|| crossesForLayers
-											.get(layer.get(i).layer) > num2) {
-								crossesForLayers.put(layer.get(i).layer, num2);
-								res = true;
-								int level = layer.get(0).layer;
-
-								NodeWrapper tmp = layers.get(level).get(i);
-								int tmpindex = layers.get(level).get(i).index;
-								layers.get(level).get(i).index = layers
-										.get(level).get(i + 1).index;
-								layers.get(level).set(i,
-										layers.get(level).get(i + 1));
-								layers.get(level).get(i + 1).index = tmpindex;
-								layers.get(level).set(i + 1, tmp);
-							}
-						}
+			for (int i = 0; i < layer.size() - 1; i++) {
+				NodeWrapper left = layer.get(i);
+				NodeWrapper right = layer.get(i + 1);
+				if (left.node != null && right.node != null) {
+					int num1 = numberOfCrosses(left, right);
+					int num2 = numberOfCrosses(right, left);
+					// switching only changes the crossings between the edges
+					// of both nodes, so that the total number of crossings
+					// strictly decreases
+					if (num1 > num2) {
+						res = true;
+						layer.set(i, right);
+						layer.set(i + 1, left);
+						right.index = i;
+						left.index = i + 1;
 					}
 				}
 			}
@@ -610,27 +696,18 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		}
 
 		public void crossReduction(List<List<NodeWrapper>> nodes) {
-			crossesForLayers.clear();
-			layers = nodes;
-
-			// Builds the map
-			for (List<NodeWrapper> layer : nodes)
-				for (NodeWrapper node : layer)
-					map.put(node.node, node);
-
-			// After three iteration with no change it stops
-			int iteration = 0;
-			boolean change = false;
-			while (iteration < 3) {
+			crossingCounter = new CrossingCounter(nodes);
+			// stops when no switch was performed
+			boolean change = true;
+			while (change) {
 				change = false;
 				for (int i = 0; i < nodes.size(); i++) {
-					if (greedyHeuristic(layers.get(i))) {
+					if (greedyHeuristic(nodes.get(i))) {
 						change = true;
 					}
 				}
-				if (!change)
-					iteration++;
 			}
+			crossingCounter = null;
 		}
 	}
 
@@ -1164,6 +1241,7 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 							nw_dummy.addPredecessor(nw_predecessor);
 							nw_predecessor.addSuccessor(nw_dummy);
 							nw_predecessor = nw_dummy;
+							nw_dummy.index = layers.get(level).size();
 							layers.get(level).add(nw_dummy);
 						}
 						nw.addPredecessor(nw_predecessor);
@@ -1210,16 +1288,555 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 
 	}
 
+	/**
+	 * Assigns each node to the layer that follows the longest path from a
+	 * source. Cycles are removed beforehand by reversing edges, using the
+	 * greedy heuristic of Eades, Lin, and Smyth. Edges that span multiple
+	 * layers are represented by chains of dummy nodes.
+	 * <p>
+	 * In contrast to the {@link SimpleLayerProvider}, any (cyclic) graph can be
+	 * layered, and the layering is computed in linear time. However, the
+	 * layering may contain long edges, which are avoided by the
+	 * {@link NetworkSimplexLayerProvider}.
+	 */
+	public static class LongestPathLayerProvider implements LayerProvider {
+
+		public List<List<NodeWrapper>> calculateLayers(List<Node> nodes) {
+			LayerAssignment assignment = new LayerAssignment(nodes);
+			assignment.removeCycles();
+			assignment.assignLongestPath();
+			return assignment.createLayers();
+		}
+	}
+
+	/**
+	 * Assigns layers, so that the total length of all edges is minimal, using
+	 * the network simplex method of Gansner et al. ("A Technique for Drawing
+	 * Directed Graphs"). Cycles are removed beforehand by reversing edges,
+	 * using the greedy heuristic of Eades, Lin, and Smyth. Edges that span
+	 * multiple layers are represented by chains of dummy nodes.
+	 * <p>
+	 * Compared to the {@link LongestPathLayerProvider}, the layering is more
+	 * compact and requires less dummy nodes, at the expense of computation
+	 * time.
+	 */
+	public static class NetworkSimplexLayerProvider implements LayerProvider {
+
+		public List<List<NodeWrapper>> calculateLayers(List<Node> nodes) {
+			LayerAssignment assignment = new LayerAssignment(nodes);
+			assignment.removeCycles();
+			assignment.assignLongestPath();
+			assignment.minimizeEdgeLengths();
+			return assignment.createLayers();
+		}
+	}
+
+	/**
+	 * An interface for assigning coordinates to the nodes of a layer system
+	 * whose layers and orders within the layers are already determined.
+	 */
+	public static interface CoordinateAssigner {
+
+		/**
+		 * Assigns locations to the {@link Node}s that are wrapped by the given
+		 * {@link NodeWrapper}s.
+		 * 
+		 * @param layers
+		 *            The layers of {@link NodeWrapper}s, ordered within each
+		 *            layer.
+		 * @param direction
+		 *            The {@link Direction} in which the layers are arranged.
+		 * @param bounds
+		 *            The bounds of the layout area.
+		 */
+		void assignCoordinates(List<List<NodeWrapper>> layers,
+				Direction direction, Rectangle bounds);
+	}
+
+	/**
+	 * Places the nodes on a uniform grid that fills the layout area, where each
+	 * layer is a row (or column) and each index within a layer is a column (or
+	 * row).
+	 */
+	public static class GridCoordinateAssigner implements CoordinateAssigner {
+
+		public void assignCoordinates(List<List<NodeWrapper>> layers,
+				Direction direction, Rectangle bounds) {
+			int last = 0;
+			for (List<NodeWrapper> layer : layers) {
+				if (layer.size() > last)
+					last = layer.size();
+			}
+			double dx = bounds.getWidth() / layers.size();
+			double dy = bounds.getHeight() / (last + 1);
+			for (List<NodeWrapper> layer : layers) {
+				for (NodeWrapper nw : layer) {
+					if (nw.node == null)
+						continue;
+					if (direction == Direction.HORIZONTAL)
+						LayoutProperties.setLocation(nw.node, new Point(
+								(nw.layer + 0.5d) * dx, (nw.index + 0.5d) * dy));
+					else
+						LayoutProperties.setLocation(nw.node, new Point(
+								(nw.index + 0.5d) * dx, (nw.layer + 0.5d) * dy));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Assigns coordinates following Brandes and Köpf ("Fast and Simple
+	 * Horizontal Coordinate Assignment"). Nodes are aligned with the medians
+	 * of their neighbors in four different ways, each of which is compacted
+	 * with respect to the node sizes, and the results are balanced. Long edges
+	 * that are represented by dummy nodes are preferably drawn straight.
+	 * Computation is done in linear time with regard to the number of nodes
+	 * and edges (aside from sorting the neighbors of each node).
+	 * <p>
+	 * In contrast to the {@link GridCoordinateAssigner}, the layout is not
+	 * stretched to the layout area, but the nodes are placed as compact as
+	 * possible, starting at the top left corner of the layout area.
+	 */
+	public static class BrandesKoepfCoordinateAssigner
+			implements CoordinateAssigner {
+
+		/**
+		 * The default spacing between neighboring nodes of a layer.
+		 */
+		public static final double DEFAULT_NODE_SPACING = 20;
+
+		/**
+		 * The default spacing between neighboring layers.
+		 */
+		public static final double DEFAULT_LAYER_SPACING = 40;
+
+		private final double nodeSpacing;
+		private final double layerSpacing;
+
+		// the layer system, where nodes are identified by index
+		private int[][] order;
+		private int[] layerOf;
+		private int[] pos;
+		private boolean[] dummy;
+		private double[] size;
+		private int[][] upper;
+		private int[][] lower;
+		private Set<Long> conflicts;
+
+		/**
+		 * Creates a new {@link BrandesKoepfCoordinateAssigner} that uses the
+		 * {@link #DEFAULT_NODE_SPACING} and the
+		 * {@link #DEFAULT_LAYER_SPACING}.
+		 */
+		public BrandesKoepfCoordinateAssigner() {
+			this(DEFAULT_NODE_SPACING, DEFAULT_LAYER_SPACING);
+		}
+
+		/**
+		 * Creates a new {@link BrandesKoepfCoordinateAssigner} that uses the
+		 * given spacings.
+		 * 
+		 * @param nodeSpacing
+		 *            The spacing between neighboring nodes of a layer.
+		 * @param layerSpacing
+		 *            The spacing between neighboring layers.
+		 */
+		public BrandesKoepfCoordinateAssigner(double nodeSpacing,
+				double layerSpacing) {
+			if (nodeSpacing < 0 || layerSpacing < 0)
+				throw new IllegalArgumentException(
+						"Spacings may not be negative.");
+			this.nodeSpacing = nodeSpacing;
+			this.layerSpacing = layerSpacing;
+		}
+
+		public void assignCoordinates(List<List<NodeWrapper>> layers,
+				Direction direction, Rectangle bounds) {
+			List<NodeWrapper> wrappers = index(layers, direction);
+			int n = wrappers.size();
+			if (n == 0)
+				return;
+			markConflicts();
+
+			// compute the four alignments
+			double[][] xs = new double[4][];
+			double minWidth = Double.POSITIVE_INFINITY;
+			int smallest = 0;
+			for (int i = 0; i < 4; i++) {
+				boolean down = i < 2;
+				boolean left = (i & 1) == 0;
+				xs[i] = align(down, left);
+				double width = max(xs[i]) - min(xs[i]);
+				if (width < minWidth) {
+					minWidth = width;
+					smallest = i;
+				}
+			}
+
+			// align to the alignment with the smallest width and balance
+			double minX = min(xs[smallest]);
+			double maxX = max(xs[smallest]);
+			for (int i = 0; i < 4; i++) {
+				double shift = (i & 1) == 0 ? minX - min(xs[i])
+						: maxX - max(xs[i]);
+				for (int v = 0; v < n; v++)
+					xs[i][v] += shift;
+			}
+			double[] x = new double[n];
+			double[] candidates = new double[4];
+			double left = Double.POSITIVE_INFINITY;
+			for (int v = 0; v < n; v++) {
+				for (int i = 0; i < 4; i++)
+					candidates[i] = xs[i][v];
+				Arrays.sort(candidates);
+				x[v] = (candidates[1] + candidates[2]) / 2;
+				left = Math.min(left, x[v] - size[v] / 2);
+			}
+
+			// stack the layers
+			double[] layerCenter = new double[order.length];
+			double offset = 0;
+			for (int l = 0; l < order.length; l++) {
+				double thickness = 0;
+				for (int v : order[l]) {
+					Node node = wrappers.get(v).node;
+					if (node != null) {
+						Dimension nodeSize = LayoutProperties.getSize(node);
+						if (nodeSize != null)
+							thickness = Math.max(thickness,
+									direction == Direction.HORIZONTAL
+											? nodeSize.width : nodeSize.height);
+					}
+				}
+				layerCenter[l] = offset + thickness / 2;
+				offset += thickness + layerSpacing;
+			}
+
+			for (int v = 0; v < n; v++) {
+				Node node = wrappers.get(v).node;
+				if (node == null || !LayoutProperties.isMovable(node))
+					continue;
+				double along = x[v] - left;
+				double across = layerCenter[layerOf[v]];
+				if (direction == Direction.HORIZONTAL)
+					LayoutProperties.setLocation(node, new Point(
+							bounds.getX() + across, bounds.getY() + along));
+				else
+					LayoutProperties.setLocation(node, new Point(
+							bounds.getX() + along, bounds.getY() + across));
+			}
+
+			order = null;
+			upper = null;
+			lower = null;
+			conflicts = null;
+		}
+
+		/**
+		 * Computes one of the four alignments, and compacts it horizontally.
+		 * The alignments are computed by transforming the layer system, so
+		 * that the current layer is aligned with its preceding layer, and
+		 * nodes are processed from left to right.
+		 * 
+		 * @param down
+		 *            <code>true</code> to align with upper neighbors,
+		 *            <code>false</code> to align with lower neighbors.
+		 * @param left
+		 *            <code>true</code> to align leftmost, <code>false</code>
+		 *            to align rightmost.
+		 * @return The coordinates within the layers.
+		 */
+		private double[] align(boolean down, boolean left) {
+			int n = layerOf.length;
+			int h = order.length;
+			int[] p = new int[n];
+			int[][] ord = new int[h][];
+			for (int l = 0; l < h; l++) {
+				int[] layer = order[down ? l : h - 1 - l];
+				ord[l] = new int[layer.length];
+				for (int k = 0; k < layer.length; k++) {
+					int v = layer[left ? k : layer.length - 1 - k];
+					ord[l][k] = v;
+					p[v] = k;
+				}
+			}
+			int[][] neighbors = down ? upper : lower;
+
+			// vertical alignment
+			int[] root = new int[n];
+			int[] align = new int[n];
+			for (int v = 0; v < n; v++) {
+				root[v] = v;
+				align[v] = v;
+			}
+			for (int l = 1; l < h; l++) {
+				int r = -1;
+				for (int v : ord[l]) {
+					int[] adjacent = neighbors[v];
+					int d = adjacent.length;
+					if (d == 0)
+						continue;
+					// neighbors are sorted from left to right
+					for (int m = (d - 1) / 2; m <= d / 2; m++) {
+						if (align[v] != v)
+							break;
+						int u = adjacent[left ? m : d - 1 - m];
+						if (r < p[u] && !isMarked(u, v)) {
+							align[u] = v;
+							root[v] = root[u];
+							align[v] = root[v];
+							r = p[u];
+						}
+					}
+				}
+			}
+
+			// horizontal compaction within the block graph, where each block
+			// is represented by its root
+			int edgeCount = 0;
+			for (int l = 0; l < h; l++)
+				edgeCount += Math.max(0, ord[l].length - 1);
+			int[] from = new int[edgeCount];
+			int[] to = new int[edgeCount];
+			double[] separation = new double[edgeCount];
+			int[] inDegree = new int[n];
+			int[] outStart = new int[n + 1];
+			int e = 0;
+			for (int l = 0; l < h; l++) {
+				for (int k = 1; k < ord[l].length; k++) {
+					int a = ord[l][k - 1];
+					int b = ord[l][k];
+					from[e] = root[a];
+					to[e] = root[b];
+					separation[e] = (size[a] + size[b]) / 2 + nodeSpacing;
+					inDegree[root[b]]++;
+					outStart[root[a] + 1]++;
+					e++;
+				}
+			}
+			for (int v = 0; v < n; v++)
+				outStart[v + 1] += outStart[v];
+			int[] outEdges = new int[edgeCount];
+			int[] fill = Arrays.copyOf(outStart, n);
+			for (int i = 0; i < edgeCount; i++)
+				outEdges[fill[from[i]]++] = i;
+
+			// topological order of the roots
+			int[] topological = new int[n];
+			int count = 0;
+			for (int v = 0; v < n; v++) {
+				if (root[v] == v && inDegree[v] == 0)
+					topological[count++] = v;
+			}
+			for (int i = 0; i < count; i++) {
+				int v = topological[i];
+				for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+					int w = to[outEdges[j]];
+					if (--inDegree[w] == 0)
+						topological[count++] = w;
+				}
+			}
+
+			// place blocks as far left as possible, then move them towards
+			// their right neighbors to close gaps
+			double[] xs = new double[n];
+			for (int i = 0; i < count; i++) {
+				int v = topological[i];
+				for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+					int edge = outEdges[j];
+					xs[to[edge]] = Math.max(xs[to[edge]],
+							xs[v] + separation[edge]);
+				}
+			}
+			for (int i = count - 1; i >= 0; i--) {
+				int v = topological[i];
+				double min = Double.POSITIVE_INFINITY;
+				for (int j = outStart[v]; j < outStart[v + 1]; j++) {
+					int edge = outEdges[j];
+					min = Math.min(min, xs[to[edge]] - separation[edge]);
+				}
+				if (min != Double.POSITIVE_INFINITY)
+					xs[v] = Math.max(xs[v], min);
+			}
+
+			double[] x = new double[n];
+			for (int v = 0; v < n; v++)
+				x[v] = left ? xs[root[v]] : -xs[root[v]];
+			return x;
+		}
+
+		/**
+		 * Assigns an index to each of the given {@link NodeWrapper}s and
+		 * determines the neighbors of each {@link NodeWrapper} in the adjacent
+		 * layers.
+		 * 
+		 * @param layers
+		 *            The layers of {@link NodeWrapper}s.
+		 * @param direction
+		 *            The {@link Direction} in which the layers are arranged.
+		 * @return The indexed {@link NodeWrapper}s.
+		 */
+		private List<NodeWrapper> index(List<List<NodeWrapper>> layers,
+				Direction direction) {
+			List<NodeWrapper> wrappers = new ArrayList<>();
+			Map<NodeWrapper, Integer> ids = new IdentityHashMap<>();
+			Map<Node, NodeWrapper> map = new IdentityHashMap<>();
+			order = new int[layers.size()][];
+			for (int l = 0; l < layers.size(); l++) {
+				List<NodeWrapper> layer = layers.get(l);
+				order[l] = new int[layer.size()];
+				for (int k = 0; k < layer.size(); k++) {
+					NodeWrapper nw = layer.get(k);
+					order[l][k] = wrappers.size();
+					ids.put(nw, wrappers.size());
+					wrappers.add(nw);
+					if (nw.node != null)
+						map.put(nw.node, nw);
+				}
+			}
+			int n = wrappers.size();
+			layerOf = new int[n];
+			pos = new int[n];
+			dummy = new boolean[n];
+			size = new double[n];
+			for (int l = 0; l < order.length; l++) {
+				for (int k = 0; k < order[l].length; k++) {
+					int v = order[l][k];
+					layerOf[v] = l;
+					pos[v] = k;
+					Node node = wrappers.get(v).node;
+					dummy[v] = node == null;
+					Dimension nodeSize = node == null ? null
+							: LayoutProperties.getSize(node);
+					if (nodeSize != null)
+						size[v] = direction == Direction.HORIZONTAL
+								? nodeSize.height : nodeSize.width;
+				}
+			}
+
+			// neighbors are given by the chains of dummies and by the edges
+			// of the wrapped nodes
+			upper = new int[n][];
+			lower = new int[n][];
+			int[] visited = new int[n];
+			Arrays.fill(visited, -1);
+			int[] buffer = new int[n];
+			for (int v = 0; v < n; v++) {
+				NodeWrapper nw = wrappers.get(v);
+				List<NodeWrapper> candidates = new ArrayList<>(nw.pred);
+				candidates.addAll(nw.succ);
+				if (nw.node != null) {
+					for (Node neighbor : nw.node.getNeighbors()) {
+						NodeWrapper other = map.get(neighbor);
+						if (other != null)
+							candidates.add(other);
+					}
+				}
+				for (int side = -1; side <= 1; side += 2) {
+					int count = 0;
+					for (NodeWrapper other : candidates) {
+						Integer u = ids.get(other);
+						if (u != null && layerOf[u] == layerOf[v] + side
+								&& visited[u] != v) {
+							visited[u] = v;
+							buffer[count++] = u;
+						}
+					}
+					int[] adjacent = Arrays.copyOf(buffer, count);
+					sortByPosition(adjacent);
+					if (side < 0)
+						upper[v] = adjacent;
+					else
+						lower[v] = adjacent;
+				}
+			}
+			return wrappers;
+		}
+
+		private boolean isMarked(int u, int v) {
+			long n = layerOf.length;
+			return !conflicts.isEmpty() && conflicts
+					.contains(Math.min(u, v) * n + Math.max(u, v));
+		}
+
+		/**
+		 * Marks type 1 conflicts, i.e. edges that cross an inner segment
+		 * (between two dummy nodes), so that inner segments are preferably
+		 * aligned.
+		 */
+		private void markConflicts() {
+			conflicts = new HashSet<>();
+			long n = layerOf.length;
+			for (int l = 0; l < order.length - 1; l++) {
+				int[] lowerLayer = order[l + 1];
+				int k0 = 0;
+				int i = 0;
+				for (int l1 = 0; l1 < lowerLayer.length; l1++) {
+					int innerUpper = getInnerSegmentUpper(lowerLayer[l1]);
+					if (l1 == lowerLayer.length - 1 || innerUpper >= 0) {
+						int k1 = innerUpper >= 0 ? pos[innerUpper]
+								: order[l].length - 1;
+						for (; i <= l1; i++) {
+							int v = lowerLayer[i];
+							for (int u : upper[v]) {
+								if (pos[u] < k0 || pos[u] > k1)
+									conflicts.add(
+											Math.min(u, v) * n + Math.max(u, v));
+							}
+						}
+						k0 = k1;
+					}
+				}
+			}
+		}
+
+		// returns the upper end of the inner segment incident to v, or -1
+		private int getInnerSegmentUpper(int v) {
+			if (dummy[v]) {
+				for (int u : upper[v]) {
+					if (dummy[u])
+						return u;
+				}
+			}
+			return -1;
+		}
+
+		private void sortByPosition(int[] adjacent) {
+			long[] keys = new long[adjacent.length];
+			for (int i = 0; i < adjacent.length; i++)
+				keys[i] = ((long) pos[adjacent[i]] << 32) | adjacent[i];
+			Arrays.sort(keys);
+			for (int i = 0; i < adjacent.length; i++)
+				adjacent[i] = (int) keys[i];
+		}
+
+		private static double max(double[] values) {
+			double max = Double.NEGATIVE_INFINITY;
+			for (double value : values)
+				max = Math.max(max, value);
+			return max;
+		}
+
+		private static double min(double[] values) {
+			double min = Double.POSITIVE_INFINITY;
+			for (double value : values)
+				min = Math.min(min, value);
+			return min;
+		}
+	}
+
 	private List<List<NodeWrapper>> layers = new ArrayList<>();
-	private Map<Node, NodeWrapper> map = new IdentityHashMap<>();
 	private final Direction direction;
 	private final Dimension dimension;
 
-	// index of the last element in a layer after padding process
-	private int last;
-
 	private LayerProvider layerProvider;
 	private CrossingReducer crossingReducer;
+	private CoordinateAssigner coordinateAssigner;
+
+	// durations of the phases of the last layout pass (in nanoseconds)
+	private long layeringTime;
+	private long crossingReductionTime;
+	private long coordinateAssignmentTime;
 
 	/**
 	 * Constructs a tree-like, layered layout of a directed graph.
@@ -1237,9 +1854,13 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 	 * 
 	 * @param crossing
 	 *            - implementation of CrossingReducer interface
+	 * 
+	 * @param coordinates
+	 *            - implementation of CoordinateAssigner interface
 	 */
 	public SugiyamaLayoutAlgorithm(Direction dir, Dimension dim,
-			LayerProvider layering, CrossingReducer crossing) {
+			LayerProvider layering, CrossingReducer crossing,
+			CoordinateAssigner coordinates) {
 		direction = dir;
 		dimension = dim;
 
@@ -1247,6 +1868,30 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 				: layering;
 		crossingReducer = (crossing == null) ? new BarycentricCrossingReducer()
 				: crossing;
+		coordinateAssigner = (coordinates == null)
+				? new GridCoordinateAssigner() : coordinates;
+	}
+
+	/**
+	 * Constructs a tree-like, layered layout of a directed graph.
+	 * 
+	 * @param dir
+	 *            {@link Direction#HORIZONTAL}: left to right -
+	 *            {@link Direction#VERTICAL} : top to bottom
+	 * 
+	 * @param dim
+	 *            - desired size of the layout area. Uses the BOUNDS_PROPERTY of
+	 *            the LayoutContext if not set
+	 * 
+	 * @param layering
+	 *            - implementation of LayerProvider interface
+	 * 
+	 * @param crossing
+	 *            - implementation of CrossingReducer interface
+	 */
+	public SugiyamaLayoutAlgorithm(Direction dir, Dimension dim,
+			LayerProvider layering, CrossingReducer crossing) {
+		this(dir, dim, layering, crossing, null);
 	}
 
 	/**
@@ -1334,7 +1979,6 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 		if (!clean)
 			return;
 		layers.clear();
-		map.clear();
 
 		ArrayList<Node> nodes = new ArrayList<>();
 		ArrayList<Node> nodes2 = new ArrayList<>();
@@ -1342,38 +1986,93 @@ public class SugiyamaLayoutAlgorithm implements ILayoutAlgorithm {
 			nodes.add(node);
 			nodes2.add(node);
 		}
+		long start = System.nanoTime();
 		layers = layerProvider.calculateLayers(nodes);
+		long layered = System.nanoTime();
 		crossingReducer.crossReduction(layers);
+		long reduced = System.nanoTime();
 
-		for (List<NodeWrapper> layer : layers) {
-			if (layer.size() > last)
-				last = layer.size();
-			for (NodeWrapper nw : layer) {
-				map.put(nw.node, nw);
-			}
-		}
-		calculatePositions(layoutContext);
-	}
-
-	private void calculatePositions(LayoutContext context) {
-		Rectangle boundary = LayoutProperties.getBounds(context.getGraph());
+		Rectangle boundary = LayoutProperties
+				.getBounds(layoutContext.getGraph());
 		if (dimension != null)
 			boundary = new Rectangle(0, 0, dimension.getWidth(),
 					dimension.getHeight());
-		double dx = boundary.getWidth() / layers.size();
-		double dy = boundary.getHeight() / (last + 1);
-		if (direction == Direction.HORIZONTAL)
-			for (Node node : context.getNodes()) {
-				NodeWrapper nw = map.get(node);
-				LayoutProperties.setLocation(node, new Point(
-						(nw.layer + 0.5d) * dx, (nw.index + 0.5d) * dy));
-			}
-		else
-			for (Node node : context.getNodes()) {
-				NodeWrapper nw = map.get(node);
-				LayoutProperties.setLocation(node, new Point(
-						(nw.index + 0.5d) * dx, (nw.layer + 0.5d) * dy));
-			}
+		coordinateAssigner.assignCoordinates(layers, direction, boundary);
+
+		layeringTime = layered - start;
+		crossingReductionTime = reduced - layered;
+		coordinateAssignmentTime = System.nanoTime() - reduced;
+	}
+
+	@Override
+	public Object[] getLayoutParameters() {
+		Object[] layering = getStrategyParameters(layerProvider);
+		Object[] crossing = getStrategyParameters(crossingReducer);
+		Object[] coordinates = getStrategyParameters(coordinateAssigner);
+		if (layering == null || crossing == null || coordinates == null) {
+			return null;
+		}
+		return new Object[] { direction, dimension, layering, crossing,
+				coordinates };
+	}
+
+	/**
+	 * Returns the class and the parameters of the given strategy, or
+	 * <code>null</code> if the strategy is not one of the built-in ones, or
+	 * if it keeps state that influences the layout (as
+	 * {@link DFSLayerProvider}), so that its parameters are unknown.
+	 */
+	private static Object[] getStrategyParameters(Object strategy) {
+		Class<?> type = strategy.getClass();
+		if (type == BarycentricCrossingReducer.class) {
+			BarycentricCrossingReducer reducer = (BarycentricCrossingReducer) strategy;
+			return new Object[] { type.getName(), reducer.getRestarts(),
+					reducer.getSeed(), reducer.isParallel() };
+		} else if (type == SplitCrossingReducer.class) {
+			return new Object[] { type.getName(),
+					((SplitCrossingReducer) strategy).seed };
+		} else if (type == BrandesKoepfCoordinateAssigner.class) {
+			BrandesKoepfCoordinateAssigner assigner = (BrandesKoepfCoordinateAssigner) strategy;
+			return new Object[] { type.getName(), assigner.nodeSpacing,
+					assigner.layerSpacing };
+		} else if (type == SimpleLayerProvider.class
+				|| type == LongestPathLayerProvider.class
+				|| type == NetworkSimplexLayerProvider.class
+				|| type == GreedyCrossingReducer.class
+				|| type == GridCoordinateAssigner.class) {
+			return new Object[] { type.getName() };
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the time that the {@link CoordinateAssigner} took during the
+	 * last layout pass.
+	 * 
+	 * @return The duration of the coordinate assignment in nanoseconds.
+	 */
+	public long getCoordinateAssignmentTime() {
+		return coordinateAssignmentTime;
+	}
+
+	/**
+	 * Returns the time that the {@link CrossingReducer} took during the last
+	 * layout pass.
+	 * 
+	 * @return The duration of the crossing reduction in nanoseconds.
+	 */
+	public long getCrossingReductionTime() {
+		return crossingReductionTime;
+	}
+
+	/**
+	 * Returns the time that the {@link LayerProvider} took during the last
+	 * layout pass, so that different {@link LayerProvider}s can be compared.
+	 * 
+	 * @return The duration of the layer assignment in nanoseconds.
+	 */
+	public long getLayeringTime() {
+		return layeringTime;
 	}
 
 }
\ No newline at end of file
@@ -14,7 +14,12 @@
  ******************************************************************************/
 package org.eclipse.gef.layout.algorithms;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.gef.geometry.planar.Dimension;
 import org.eclipse.gef.geometry.planar.Point;
@@ -22,12 +27,19 @@ import org.eclipse.gef.geometry.planar.Rectangle;
 import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.ILayoutAlgorithm;
 import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutDelta;
 import org.eclipse.gef.layout.LayoutProperties;
 import org.eclipse.gef.layout.algorithms.TreeLayoutHelper.TreeNode;
 
 /**
  * The TreeLayoutAlgorithm class implements a simple algorithm to arrange graph
  * nodes in a layered tree-like layout.
+ * <p>
+ * In an incremental layout pass (see
+ * {@link LayoutContext#setIncremental(boolean)}), only the trees that contain
+ * nodes affected by the changes are re-arranged. Each of them is moved so
+ * that its root keeps its previous location, while all other trees remain in
+ * place.
  * 
  * @author Casey Best
  * @author Ian Bull
@@ -178,6 +190,102 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 		scaleEntities(entities);
 	}
 
+	@Override
+	public Object[] getLayoutParameters() {
+		return new Object[] { direction, resize, nodeSpace };
+	}
+
+	/**
+	 * Computes the whole layout (as {@link #applyLayout(LayoutContext, boolean)}
+	 * does), and afterwards restores the previous locations of the nodes of
+	 * all trees that are not affected by the given {@link LayoutDelta}, while
+	 * the affected trees are translated, so that their roots keep their
+	 * previous locations.
+	 * <p>
+	 * Note that this does not save any computation time compared to a full
+	 * layout pass, because the layout of all trees is computed anyway. The
+	 * purpose of the incremental layout is the stability of the unaffected
+	 * parts of the layout.
+	 */
+	@Override
+	public void applyIncrementalLayout(LayoutContext layoutContext,
+			LayoutDelta delta) {
+		if (delta.isEmpty()) {
+			return;
+		}
+
+		// remember the locations of the previous layout pass
+		Node[] entities = layoutContext.getNodes();
+		Map<Node, Point> previousLocations = new IdentityHashMap<>();
+		for (Node entity : entities) {
+			Point location = LayoutProperties.getLocation(entity);
+			if (location != null) {
+				previousLocations.put(entity, location.getCopy());
+			}
+		}
+		for (Node added : delta.getAddedNodes()) {
+			previousLocations.remove(added);
+		}
+
+		// the layout is computed as usual (which takes linear time), so that
+		// the affected trees are arranged consistently, but sizes are not
+		// changed
+		internalApplyLayout(layoutContext);
+		scaleEntities(entities);
+
+		Set<Node> affected = delta.getAffectedNodes();
+		for (TreeNode root : treeObserver.getSuperRoot().getChildren()) {
+			Point rootLocation = previousLocations.get(root.getNode());
+			if (!containsAny(root, affected)) {
+				translate(root, null, previousLocations);
+			} else if (rootLocation != null) {
+				Point location = LayoutProperties.getLocation(root.getNode());
+				translate(root, new Point(rootLocation.x - location.x,
+						rootLocation.y - location.y), previousLocations);
+			}
+		}
+	}
+
+	// iterative, so that deep trees do not overflow the stack
+	private static boolean containsAny(TreeNode root, Set<Node> nodes) {
+		List<TreeNode> stack = new ArrayList<>();
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			TreeNode treeNode = stack.remove(stack.size() - 1);
+			if (nodes.contains(treeNode.getNode())) {
+				return true;
+			}
+			stack.addAll(treeNode.children);
+		}
+		return false;
+	}
+
+	/**
+	 * Translates the nodes of the given (sub-)tree by the given offset, or
+	 * restores their previous locations if the offset is <code>null</code>.
+	 * The tree is traversed iteratively, so that deep trees do not overflow
+	 * the stack.
+	 */
+	private static void translate(TreeNode root, Point offset,
+			Map<Node, Point> previousLocations) {
+		List<TreeNode> stack = new ArrayList<>();
+		stack.add(root);
+		while (!stack.isEmpty()) {
+			TreeNode treeNode = stack.remove(stack.size() - 1);
+			Node node = treeNode.getNode();
+			if (offset == null) {
+				Point previousLocation = previousLocations.get(node);
+				if (previousLocation != null) {
+					LayoutProperties.setLocation(node, previousLocation);
+				}
+			} else {
+				LayoutProperties.setLocation(node, LayoutProperties
+						.getLocation(node).getTranslated(offset.x, offset.y));
+			}
+			stack.addAll(treeNode.children);
+		}
+	}
+
 	private void scaleEntities(Node[] entities) {
 		if (nodeSpace == null) {
 			Rectangle resizedBounds = new Rectangle(bounds);
@@ -198,8 +306,10 @@ public class TreeLayoutAlgorithm implements ILayoutAlgorithm {
 	 *            The {@link LayoutContext} to use.
 	 */
 	void internalApplyLayout(LayoutContext context) {
-		treeObserver = new TreeLayoutHelper(null);
-		treeObserver.computeTree(context.getNodes());
+		if (treeObserver == null) {
+			treeObserver = new TreeLayoutHelper(null);
+		}
+		treeObserver.computeTree(context);
 
 		TreeNode superRoot = treeObserver.getSuperRoot();
 		bounds = LayoutProperties.getBounds(context.getGraph());
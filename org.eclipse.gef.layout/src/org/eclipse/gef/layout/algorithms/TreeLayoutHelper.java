@@ -15,16 +15,27 @@ package org.eclipse.gef.layout.algorithms;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.Set;
 
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
 import org.eclipse.gef.graph.Node;
 import org.eclipse.gef.layout.LayoutContext;
 
+import javafx.beans.property.ReadOnlyProperty;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
+import javafx.collections.ListChangeListener;
+
 /**
  * A helper class for layout algorithms that are based on tree structure. It
  * keeps track of changes in observed layout context and stores current
@@ -178,6 +189,7 @@ public class TreeLayoutHelper {
 		 * @return order of this node
 		 */
 		public int getOrder() {
+			owner.updateOrders();
 			return order;
 		}
 
@@ -272,6 +284,37 @@ public class TreeLayoutHelper {
 			}
 		}
 
+		/**
+		 * Calculates the height, the number of leaves, and the number of
+		 * descendants of this node from the parameters of its children, and
+		 * marks its first and last child. In contrast to
+		 * {@link #precomputeTree()}, the children are not visited recursively,
+		 * and neither depths nor orders are computed. Used by
+		 * {@link TreeLayoutHelper#computeTree(LayoutContext) incremental
+		 * updates} for the ancestors of the changed nodes.
+		 * 
+		 * @return <code>true</code> if the height, the number of leaves, or the
+		 *         number of descendants changed, otherwise <code>false</code>
+		 */
+		protected boolean updateParameters() {
+			int oldHeight = height;
+			int oldNumOfLeaves = numOfLeaves;
+			int oldNumOfDescendants = numOfDescendants;
+			height = 0;
+			numOfLeaves = children.isEmpty() ? 1 : 0;
+			numOfDescendants = 0;
+			for (int i = 0; i < children.size(); i++) {
+				TreeNode child = children.get(i);
+				child.firstChild = i == 0;
+				child.lastChild = i == children.size() - 1;
+				height = Math.max(height, child.height + 1);
+				numOfLeaves += child.numOfLeaves;
+				numOfDescendants += child.numOfDescendants + 1;
+			}
+			return height != oldHeight || numOfLeaves != oldNumOfLeaves
+					|| numOfDescendants != oldNumOfDescendants;
+		}
+
 		/**
 		 * Finds a node that is the best parent for this node. Add this node as
 		 * a child of the found node.
@@ -285,7 +328,8 @@ public class TreeLayoutHelper {
 			for (int i = 0; i < predecessingNodes.length; i++) {
 				TreeNode potentialParent = owner.layoutToTree
 						.get(predecessingNodes[i]);
-				if (!children.contains(potentialParent)
+				if (potentialParent != this
+						&& !children.contains(potentialParent)
 						&& isBetterParent(potentialParent))
 					parent = potentialParent;
 			}
@@ -390,6 +434,66 @@ public class TreeLayoutHelper {
 	private final HashMap<Object, TreeNode> layoutToTree = new HashMap<>();
 	private final TreeNodeFactory factory;
 	private TreeNode superRoot;
+	private final List<TreeListener> treeListeners = new ArrayList<>();
+	// the orders are only recomputed on demand after incremental updates
+	private boolean ordersChanged = false;
+
+	private Graph observedGraph;
+	// nodes that were removed from the observed graph since the last update
+	private final Set<Node> removedNodes = new LinkedHashSet<>();
+	// targets of the edges that were added, removed, or retargeted since the
+	// last update
+	private final Set<Node> dirtyNodes = new LinkedHashSet<>();
+
+	private final ListChangeListener<Node> nodesListener = new ListChangeListener<Node>() {
+		@Override
+		public void onChanged(ListChangeListener.Change<? extends Node> c) {
+			while (c.next()) {
+				for (Node node : c.getRemoved()) {
+					removedNodes.add(node);
+				}
+				for (Node node : c.getAddedSubList()) {
+					removedNodes.remove(node);
+				}
+			}
+		}
+	};
+
+	private final ListChangeListener<Edge> edgesListener = new ListChangeListener<Edge>() {
+		@Override
+		public void onChanged(ListChangeListener.Change<? extends Edge> c) {
+			while (c.next()) {
+				for (Edge edge : c.getRemoved()) {
+					edge.sourceProperty().removeListener(sourceListener);
+					edge.targetProperty().removeListener(targetListener);
+					dirtyNodes.add(edge.getTarget());
+				}
+				for (Edge edge : c.getAddedSubList()) {
+					edge.sourceProperty().addListener(sourceListener);
+					edge.targetProperty().addListener(targetListener);
+					dirtyNodes.add(edge.getTarget());
+				}
+			}
+		}
+	};
+
+	private final ChangeListener<Node> sourceListener = new ChangeListener<Node>() {
+		@Override
+		public void changed(ObservableValue<? extends Node> observable,
+				Node oldValue, Node newValue) {
+			Edge edge = (Edge) ((ReadOnlyProperty<?>) observable).getBean();
+			dirtyNodes.add(edge.getTarget());
+		}
+	};
+
+	private final ChangeListener<Node> targetListener = new ChangeListener<Node>() {
+		@Override
+		public void changed(ObservableValue<? extends Node> observable,
+				Node oldValue, Node newValue) {
+			dirtyNodes.add(oldValue);
+			dirtyNodes.add(newValue);
+		}
+	};
 
 	/**
 	 * Constructs a new {@link TreeLayoutHelper} for observing the given
@@ -415,11 +519,100 @@ public class TreeLayoutHelper {
 	 *            nodes
 	 */
 	public void computeTree(Node[] nodes) {
+		layoutToTree.clear();
+		removedNodes.clear();
+		dirtyNodes.clear();
+		ordersChanged = false;
 		superRoot = factory.createTreeNode(null, this);
 		layoutToTree.put(null, superRoot);
 		createTrees(nodes);
 	}
 
+	/**
+	 * Computes the tree structure for the nodes of the given
+	 * {@link LayoutContext}. The first call (or a call after the graph of the
+	 * context was exchanged) builds the tree from scratch, just like
+	 * {@link #computeTree(Node[])}, and registers listeners on the nodes and
+	 * edges of the graph, as well as on the {@link Edge#sourceProperty()
+	 * source} and {@link Edge#targetProperty() target} of each edge.
+	 * Subsequent calls update the tree incrementally: all existing
+	 * {@link TreeNode}s are reused, and only the nodes that were added or
+	 * removed (also by layout filters), or whose incoming edges were added,
+	 * removed, or retargeted in the meantime, look for a new parent (see
+	 * {@link TreeNode#findNewParent()}). Therefore, the resulting tree may
+	 * differ from a tree that is built from scratch, but the nodes keep their
+	 * parents as far as possible. The registered {@link TreeListener}s are
+	 * notified about all changes.
+	 * <p>
+	 * An update only visits the subtrees that were moved, to update their
+	 * depths, and the ancestors of the changed nodes, to update their
+	 * parameters (see {@link TreeNode#updateParameters()}). The orders of the
+	 * nodes (see {@link TreeNode#getOrder()}) are recomputed on demand. As
+	 * layout filters cannot be observed, the given nodes are still checked
+	 * for additions, and the tree is searched for filtered nodes if fewer
+	 * nodes are relevant than expected.
+	 * 
+	 * @param context
+	 *            The {@link LayoutContext} whose nodes are arranged in a tree.
+	 */
+	public void computeTree(LayoutContext context) {
+		Graph graph = context.getGraph();
+		Node[] nodes = context.getNodes();
+		if (graph != observedGraph || superRoot == null) {
+			observe(graph);
+			computeTree(nodes);
+		} else {
+			updateTree(context, nodes);
+		}
+	}
+
+	/**
+	 * Moves the listeners from the previously observed graph to the given
+	 * one.
+	 * 
+	 * @param graph
+	 */
+	private void observe(Graph graph) {
+		if (observedGraph != null) {
+			observedGraph.getNodes().removeListener(nodesListener);
+			observedGraph.getEdges().removeListener(edgesListener);
+			for (Edge edge : observedGraph.getEdges()) {
+				edge.sourceProperty().removeListener(sourceListener);
+				edge.targetProperty().removeListener(targetListener);
+			}
+		}
+		observedGraph = graph;
+		if (graph != null) {
+			graph.getNodes().addListener(nodesListener);
+			graph.getEdges().addListener(edgesListener);
+			for (Edge edge : graph.getEdges()) {
+				edge.sourceProperty().addListener(sourceListener);
+				edge.targetProperty().addListener(targetListener);
+			}
+		}
+	}
+
+	/**
+	 * Adds the given {@link TreeListener}, which is notified about changes of
+	 * the tree structure during incremental updates.
+	 * 
+	 * @param listener
+	 *            The {@link TreeListener} to add.
+	 */
+	public void addTreeListener(TreeListener listener) {
+		treeListeners.add(listener);
+	}
+
+	/**
+	 * Removes the given {@link TreeListener}.
+	 * 
+	 * @param listener
+	 *            The {@link TreeListener} to remove.
+	 */
+	public void removeTreeListener(TreeListener listener) {
+		treeListeners.remove(listener);
+	}
+
 	/**
 	 * Returns Super Root, that is an artificial node being a common parent for
 	 * all nodes in observed tree structure.
@@ -450,6 +643,193 @@ public class TreeLayoutHelper {
 		return treeNode;
 	}
 
+	/**
+	 * Recomputes the {@link TreeNode#getOrder() orders} of all nodes if the
+	 * tree structure was updated incrementally since they were computed. The
+	 * orders are not maintained by incremental updates, because moving a
+	 * single subtree may change the orders of all subsequent nodes.
+	 */
+	protected void updateOrders() {
+		if (!ordersChanged) {
+			return;
+		}
+		ordersChanged = false;
+		LinkedList<TreeNode> nodesToVisit = new LinkedList<>();
+		nodesToVisit.add(superRoot);
+		while (!nodesToVisit.isEmpty()) {
+			TreeNode current = nodesToVisit.removeLast();
+			int order = current.order;
+			for (TreeNode child : current.children) {
+				child.order = order;
+				order += child.numOfLeaves;
+				nodesToVisit.add(child);
+			}
+		}
+	}
+
+	/**
+	 * Updates the tree structure, so that it contains exactly the given nodes.
+	 * Falls back to a complete rebuild if a large part of the tree changed.
+	 * 
+	 * @param context
+	 * @param nodes
+	 */
+	private void updateTree(LayoutContext context, Node[] nodes) {
+		List<Node> addedNodes = new ArrayList<>();
+		int numOfKeptNodes = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			if (layoutToTree.containsKey(nodes[i])) {
+				numOfKeptNodes++;
+			} else {
+				addedNodes.add(nodes[i]);
+			}
+		}
+		List<TreeNode> detachedNodes = new ArrayList<>();
+		for (Node node : removedNodes) {
+			TreeNode treeNode = layoutToTree.get(node);
+			if (treeNode != null && treeNode != superRoot) {
+				detachedNodes.add(treeNode);
+			}
+		}
+		removedNodes.clear();
+		if (numOfKeptNodes < layoutToTree.size() - 1 - detachedNodes.size()) {
+			// some nodes of the graph were filtered out in the meantime
+			for (TreeNode treeNode : layoutToTree.values()) {
+				if (treeNode != superRoot
+						&& treeNode.node.getGraph() == observedGraph
+						&& context.isLayoutIrrelevant(treeNode.node)) {
+					detachedNodes.add(treeNode);
+				}
+			}
+		}
+		int numOfChanges = detachedNodes.size() + addedNodes.size()
+				+ dirtyNodes.size();
+		if (numOfChanges == 0) {
+			return;
+		}
+		if (numOfChanges > nodes.length) {
+			computeTree(nodes);
+			return;
+		}
+
+		// detach removed nodes, their children become roots
+		Set<TreeNode> nodesToUpdate = new LinkedHashSet<>();
+		Map<TreeNode, TreeNode> previousParents = new IdentityHashMap<>();
+		// nodes whose children changed
+		Set<TreeNode> changedParents = new HashSet<>();
+		List<TreeNode> orphans = new ArrayList<>();
+		for (TreeNode treeNode : detachedNodes) {
+			layoutToTree.remove(treeNode.node);
+			treeNode.parent.children.remove(treeNode);
+			changedParents.add(treeNode.parent);
+			for (TreeListener listener : treeListeners) {
+				listener.nodeRemoved(treeNode);
+			}
+			orphans.addAll(treeNode.children);
+		}
+		for (TreeNode orphan : orphans) {
+			if (layoutToTree.get(orphan.node) == orphan) {
+				previousParents.put(orphan, orphan.parent);
+				superRoot.addChild(orphan);
+				changedParents.add(superRoot);
+				updateDepths(orphan);
+				nodesToUpdate.add(orphan);
+			}
+		}
+
+		// added nodes start as roots, their successors may find a better
+		// parent in them
+		for (Node node : addedNodes) {
+			TreeNode treeNode = factory.createTreeNode(node, this);
+			treeNode.updateParameters();
+			layoutToTree.put(node, treeNode);
+			superRoot.addChild(treeNode);
+			changedParents.add(superRoot);
+			updateDepths(treeNode);
+			for (TreeListener listener : treeListeners) {
+				listener.nodeAdded(treeNode);
+			}
+			nodesToUpdate.add(treeNode);
+		}
+		for (Node node : addedNodes) {
+			for (Node successor : node.getAllSuccessorNodes()) {
+				TreeNode treeNode = layoutToTree.get(successor);
+				if (treeNode != null && treeNode != superRoot) {
+					nodesToUpdate.add(treeNode);
+				}
+			}
+		}
+		for (Node node : dirtyNodes) {
+			TreeNode treeNode = layoutToTree.get(node);
+			if (treeNode != null && treeNode != superRoot) {
+				nodesToUpdate.add(treeNode);
+			}
+		}
+		dirtyNodes.clear();
+
+		for (TreeNode treeNode : nodesToUpdate) {
+			TreeNode previousParent = previousParents.containsKey(treeNode)
+					? previousParents.get(treeNode) : treeNode.parent;
+			changedParents.add(treeNode.parent);
+			treeNode.findNewParent();
+			changedParents.add(treeNode.parent);
+			// keep depths valid, as they are used to choose the next parents
+			updateDepths(treeNode);
+			if (treeNode.parent != previousParent) {
+				for (TreeListener listener : treeListeners) {
+					listener.parentChanged(treeNode, previousParent);
+				}
+			}
+		}
+		updateParameters(changedParents);
+		ordersChanged = true;
+	}
+
+	/**
+	 * Updates the parameters of the given {@link TreeNode}s, and of their
+	 * ancestors as long as these change.
+	 * 
+	 * @param changedParents
+	 */
+	private void updateParameters(Set<TreeNode> changedParents) {
+		List<TreeNode> nodesToUpdate = new ArrayList<>();
+		for (TreeNode treeNode : changedParents) {
+			// skip the removed nodes
+			if (layoutToTree.get(treeNode.node) == treeNode) {
+				nodesToUpdate.add(treeNode);
+			}
+		}
+		// visit deeper nodes first, so that most ancestors are updated once
+		Collections.sort(nodesToUpdate, new Comparator<TreeNode>() {
+			@Override
+			public int compare(TreeNode node1, TreeNode node2) {
+				return node2.depth - node1.depth;
+			}
+		});
+		for (TreeNode treeNode : nodesToUpdate) {
+			TreeNode current = treeNode;
+			while (current.updateParameters() && current.parent != null) {
+				current = current.parent;
+			}
+		}
+	}
+
+	/**
+	 * Updates the depths of the given {@link TreeNode} and its descendants
+	 * according to the depth of its parent.
+	 * 
+	 * @param treeNode
+	 */
+	private static void updateDepths(TreeNode treeNode) {
+		LinkedList<TreeNode> nodesToVisit = new LinkedList<>();
+		nodesToVisit.add(treeNode);
+		while (!nodesToVisit.isEmpty()) {
+			TreeNode current = nodesToVisit.removeLast();
+			current.depth = current.parent.depth + 1;
+			nodesToVisit.addAll(current.children);
+		}
+	}
+
 	/**
 	 * Builds a tree structure using BFS method. Created trees are children of
 	 * {@link #superRoot}.
@@ -0,0 +1,517 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.algorithms;
+
+import java.util.Arrays;
+
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.layout.LayoutSnapshot;
+
+/**
+ * The {@link WalkerTreeLayoutAlgorithm} arranges the nodes of a tree (or
+ * forest) in layers, using Walker's algorithm in the linear-time variant of
+ * Buchheim, Jünger, and Leipert ("Improving Walker's Algorithm to Run in
+ * Linear Time", 2002). Each parent is centered above its children, and
+ * subtrees are placed as close to each other as their contours allow, so
+ * that the resulting layout is considerably narrower than the one of the
+ * {@link TreeLayoutAlgorithm}.
+ * <p>
+ * The tree is built from the outgoing edges of the nodes in breadth-first
+ * order, starting at the nodes without incoming edges. The sizes of the
+ * nodes are respected, i.e. adjacent nodes within a layer are separated by
+ * the {@link #setNodeSpacing(double) node spacing}, and each layer is as deep
+ * as its deepest node plus the {@link #setLayerSpacing(double) layer
+ * spacing}. The layout is placed at the origin of the layout bounds, without
+ * being scaled. All computations are performed iteratively on primitive
+ * arrays, so that trees with hundreds of thousands of nodes (of arbitrary
+ * depth) can be laid out.
+ */
+public class WalkerTreeLayoutAlgorithm implements ILayoutAlgorithm {
+
+	/**
+	 * The default distance between adjacent nodes within a layer.
+	 */
+	public static final double DEFAULT_NODE_SPACING = 10;
+
+	/**
+	 * The default distance between adjacent layers.
+	 */
+	public static final double DEFAULT_LAYER_SPACING = 30;
+
+	private int direction = TreeLayoutAlgorithm.TOP_DOWN;
+	private double nodeSpacing = DEFAULT_NODE_SPACING;
+	private double layerSpacing = DEFAULT_LAYER_SPACING;
+
+	// tree structure (index n denotes a virtual root above all tree roots)
+	private int[] parent;
+	private int[] childStart;
+	private int[] children;
+	// index of each node within its siblings
+	private int[] number;
+	private int[] depth;
+	private double[] breadthSize;
+
+	// state of Walker's algorithm
+	private double[] prelim;
+	private double[] mod;
+	private double[] shift;
+	private double[] change;
+	private int[] thread;
+	private int[] ancestor;
+
+	/**
+	 * Creates a new {@link WalkerTreeLayoutAlgorithm} with the
+	 * {@link TreeLayoutAlgorithm#TOP_DOWN} direction.
+	 */
+	public WalkerTreeLayoutAlgorithm() {
+	}
+
+	/**
+	 * Creates a new {@link WalkerTreeLayoutAlgorithm} with the given
+	 * direction.
+	 *
+	 * @param direction
+	 *            The direction, one of {@link TreeLayoutAlgorithm#TOP_DOWN},
+	 *            {@link TreeLayoutAlgorithm#BOTTOM_UP},
+	 *            {@link TreeLayoutAlgorithm#LEFT_RIGHT},
+	 *            {@link TreeLayoutAlgorithm#RIGHT_LEFT}
+	 */
+	public WalkerTreeLayoutAlgorithm(int direction) {
+		setDirection(direction);
+	}
+
+	public void applyLayout(LayoutContext layoutContext, boolean clean) {
+		if (!clean) {
+			return;
+		}
+		LayoutSnapshot snapshot = new LayoutSnapshot(layoutContext);
+		int n = snapshot.getNodeCount();
+		if (n == 0) {
+			return;
+		}
+		boolean vertical = direction == TreeLayoutAlgorithm.TOP_DOWN
+				|| direction == TreeLayoutAlgorithm.BOTTOM_UP;
+		breadthSize = new double[n + 1];
+		double[] depthSize = new double[n];
+		for (int i = 0; i < n; i++) {
+			breadthSize[i] = vertical ? snapshot.getWidth(i)
+					: snapshot.getHeight(i);
+			depthSize[i] = vertical ? snapshot.getHeight(i)
+					: snapshot.getWidth(i);
+		}
+
+		buildTree(snapshot);
+		firstWalk(n);
+		double[] breadth = secondWalk(n);
+
+		// each layer is as deep as its deepest node
+		int layers = 0;
+		for (int i = 0; i < n; i++) {
+			layers = Math.max(layers, depth[i] + 1);
+		}
+		double[] layerDepth = new double[layers];
+		for (int i = 0; i < n; i++) {
+			layerDepth[depth[i]] = Math.max(layerDepth[depth[i]],
+					depthSize[i]);
+		}
+		double[] layerCenter = new double[layers];
+		double offset = 0;
+		for (int l = 0; l < layers; l++) {
+			layerCenter[l] = offset + layerDepth[l] / 2;
+			offset += layerDepth[l] + layerSpacing;
+		}
+
+		// map to the layout direction
+		double[] x = new double[n];
+		double[] y = new double[n];
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			double d = layerCenter[depth[i]];
+			switch (direction) {
+			case TreeLayoutAlgorithm.TOP_DOWN:
+				x[i] = breadth[i];
+				y[i] = d;
+				break;
+			case TreeLayoutAlgorithm.BOTTOM_UP:
+				x[i] = breadth[i];
+				y[i] = -d;
+				break;
+			case TreeLayoutAlgorithm.LEFT_RIGHT:
+				x[i] = d;
+				y[i] = breadth[i];
+				break;
+			case TreeLayoutAlgorithm.RIGHT_LEFT:
+				x[i] = -d;
+				y[i] = breadth[i];
+				break;
+			}
+			minX = Math.min(minX, x[i] - snapshot.getWidth(i) / 2);
+			minY = Math.min(minY, y[i] - snapshot.getHeight(i) / 2);
+		}
+
+		// place the layout at the origin of the bounds
+		Rectangle bounds = LayoutProperties
+				.getBounds(layoutContext.getGraph());
+		double dx = (bounds == null ? 0 : bounds.getX()) - minX;
+		double dy = (bounds == null ? 0 : bounds.getY()) - minY;
+		for (int i = 0; i < n; i++) {
+			if (snapshot.isMovable(i)) {
+				snapshot.setLocation(i, x[i] + dx, y[i] + dy);
+			}
+		}
+		snapshot.writeBack();
+		release();
+	}
+
+	@Override
+	public Object[] getLayoutParameters() {
+		return new Object[] { direction, nodeSpacing, layerSpacing };
+	}
+
+	/**
+	 * Builds the tree (in compressed sparse row format) by a breadth-first
+	 * search along the outgoing edges, starting at the nodes without
+	 * incoming edges. Nodes that are not reachable from those (i.e. that are
+	 * part of cycles) start further trees. All tree roots become children of
+	 * the virtual root <code>n</code>.
+	 */
+	private void buildTree(LayoutSnapshot snapshot) {
+		int n = snapshot.getNodeCount();
+		parent = new int[n + 1];
+		depth = new int[n + 1];
+		Arrays.fill(parent, -1);
+		boolean[] visited = new boolean[n];
+		int[] queue = new int[n];
+		int tail = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			for (int r = 0; r < n; r++) {
+				if (visited[r] || pass == 0 && hasIncomingEdge(snapshot, r)) {
+					continue;
+				}
+				visited[r] = true;
+				parent[r] = n;
+				depth[r] = 0;
+				int head = tail;
+				queue[tail++] = r;
+				while (head < tail) {
+					int u = queue[head++];
+					for (int k = 0; k < snapshot.getOutDegree(u); k++) {
+						int v = snapshot.getEdgeTarget(
+								snapshot.getOutgoingEdge(u, k));
+						if (v >= 0 && !visited[v]) {
+							visited[v] = true;
+							parent[v] = u;
+							depth[v] = depth[u] + 1;
+							queue[tail++] = v;
+						}
+					}
+				}
+			}
+		}
+
+		// sort the nodes by parent (stable, so that the breadth-first order
+		// of siblings is retained)
+		childStart = new int[n + 2];
+		for (int i = 0; i < n; i++) {
+			childStart[parent[i] + 1]++;
+		}
+		for (int p = 0; p <= n; p++) {
+			childStart[p + 1] += childStart[p];
+		}
+		children = new int[n];
+		number = new int[n + 1];
+		int[] next = Arrays.copyOf(childStart, n + 1);
+		for (int k = 0; k < n; k++) {
+			int v = queue[k];
+			int p = parent[v];
+			number[v] = next[p] - childStart[p];
+			children[next[p]++] = v;
+		}
+	}
+
+	private static boolean hasIncomingEdge(LayoutSnapshot snapshot, int node) {
+		for (int k = 0; k < snapshot.getInDegree(node); k++) {
+			int source = snapshot
+					.getEdgeSource(snapshot.getIncomingEdge(node, k));
+			if (source >= 0 && source != node) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the preliminary breadth coordinates and modifiers in post-order
+	 * (the children of each node from left to right), apportioning each
+	 * subtree against its left siblings as soon as it is complete.
+	 */
+	private void firstWalk(int root) {
+		int size = parent.length;
+		prelim = new double[size];
+		mod = new double[size];
+		shift = new double[size];
+		change = new double[size];
+		thread = new int[size];
+		ancestor = new int[size];
+		Arrays.fill(thread, -1);
+		for (int v = 0; v < size; v++) {
+			ancestor[v] = v;
+		}
+		int[] defaultAncestor = new int[size];
+		int[] cursor = new int[size];
+		int[] stack = new int[size];
+		int top = 0;
+		stack[top++] = root;
+		while (top > 0) {
+			int v = stack[top - 1];
+			if (cursor[v] < getChildCount(v)) {
+				int w = children[childStart[v] + cursor[v]];
+				if (cursor[v] == 0) {
+					defaultAncestor[v] = w;
+				}
+				stack[top++] = w;
+				continue;
+			}
+			top--;
+			placeNode(v);
+			if (v != root) {
+				int p = parent[v];
+				defaultAncestor[p] = apportion(v, defaultAncestor[p]);
+				cursor[p]++;
+			}
+		}
+	}
+
+	/**
+	 * Computes the preliminary breadth coordinate of the given node, after
+	 * its subtree was completed.
+	 */
+	private void placeNode(int v) {
+		int w = getLeftSibling(v);
+		int count = getChildCount(v);
+		if (count == 0) {
+			prelim[v] = w < 0 ? 0 : prelim[w] + getSeparation(w, v);
+			return;
+		}
+		executeShifts(v);
+		double midpoint = (prelim[children[childStart[v]]]
+				+ prelim[children[childStart[v] + count - 1]]) / 2;
+		if (w < 0) {
+			prelim[v] = midpoint;
+		} else {
+			prelim[v] = prelim[w] + getSeparation(w, v);
+			mod[v] = prelim[v] - midpoint;
+		}
+	}
+
+	private int apportion(int v, int defaultAncestor) {
+		int w = getLeftSibling(v);
+		if (w < 0) {
+			return defaultAncestor;
+		}
+		int vip = v;
+		int vop = v;
+		int vim = w;
+		int vom = children[childStart[parent[v]]];
+		double sip = mod[vip];
+		double sop = mod[vop];
+		double sim = mod[vim];
+		double som = mod[vom];
+		while (getNextRight(vim) >= 0 && getNextLeft(vip) >= 0) {
+			vim = getNextRight(vim);
+			vip = getNextLeft(vip);
+			vom = getNextLeft(vom);
+			vop = getNextRight(vop);
+			ancestor[vop] = v;
+			double distance = prelim[vim] + sim - (prelim[vip] + sip)
+					+ getSeparation(vim, vip);
+			if (distance > 0) {
+				int a = parent[ancestor[vim]] == parent[v] ? ancestor[vim]
+						: defaultAncestor;
+				moveSubtree(a, v, distance);
+				sip += distance;
+				sop += distance;
+			}
+			sim += mod[vim];
+			sip += mod[vip];
+			som += mod[vom];
+			sop += mod[vop];
+		}
+		if (getNextRight(vim) >= 0 && getNextRight(vop) < 0) {
+			thread[vop] = getNextRight(vim);
+			mod[vop] += sim - sop;
+		}
+		if (getNextLeft(vip) >= 0 && getNextLeft(vom) < 0) {
+			thread[vom] = getNextLeft(vip);
+			mod[vom] += sip - som;
+			defaultAncestor = v;
+		}
+		return defaultAncestor;
+	}
+
+	private void moveSubtree(int wm, int wp, double distance) {
+		int subtrees = number[wp] - number[wm];
+		change[wp] -= distance / subtrees;
+		shift[wp] += distance;
+		change[wm] += distance / subtrees;
+		prelim[wp] += distance;
+		mod[wp] += distance;
+	}
+
+	private void executeShifts(int v) {
+		double totalShift = 0;
+		double totalChange = 0;
+		for (int k = childStart[v + 1] - 1; k >= childStart[v]; k--) {
+			int w = children[k];
+			prelim[w] += totalShift;
+			mod[w] += totalShift;
+			totalChange += change[w];
+			totalShift += shift[w] + totalChange;
+		}
+	}
+
+	/**
+	 * Computes the final breadth coordinates by accumulating the modifiers in
+	 * pre-order.
+	 */
+	private double[] secondWalk(int root) {
+		int n = root;
+		double[] breadth = new double[n];
+		double[] modSum = new double[n + 1];
+		int[] stack = new int[n + 1];
+		int top = 0;
+		stack[top++] = root;
+		while (top > 0) {
+			int v = stack[--top];
+			if (v != root) {
+				breadth[v] = prelim[v] + modSum[v];
+			}
+			for (int k = childStart[v]; k < childStart[v + 1]; k++) {
+				int w = children[k];
+				modSum[w] = modSum[v] + mod[v];
+				stack[top++] = w;
+			}
+		}
+		return breadth;
+	}
+
+	private int getChildCount(int v) {
+		return childStart[v + 1] - childStart[v];
+	}
+
+	private int getLeftSibling(int v) {
+		int p = parent[v];
+		return p < 0 || number[v] == 0 ? -1
+				: children[childStart[p] + number[v] - 1];
+	}
+
+	private int getNextLeft(int v) {
+		return getChildCount(v) > 0 ? children[childStart[v]] : thread[v];
+	}
+
+	private int getNextRight(int v) {
+		return getChildCount(v) > 0 ? children[childStart[v + 1] - 1]
+				: thread[v];
+	}
+
+	private double getSeparation(int left, int right) {
+		return (breadthSize[left] + breadthSize[right]) / 2 + nodeSpacing;
+	}
+
+	private void release() {
+		parent = childStart = children = number = depth = null;
+		thread = ancestor = null;
+		breadthSize = prelim = mod = shift = change = null;
+	}
+
+	/**
+	 * Returns the direction of this {@link WalkerTreeLayoutAlgorithm}.
+	 *
+	 * @return The direction of this {@link WalkerTreeLayoutAlgorithm}.
+	 */
+	public int getDirection() {
+		return direction;
+	}
+
+	/**
+	 * Changes the direction of this {@link WalkerTreeLayoutAlgorithm} to the
+	 * given value. The direction may either be
+	 * {@link TreeLayoutAlgorithm#TOP_DOWN},
+	 * {@link TreeLayoutAlgorithm#BOTTOM_UP},
+	 * {@link TreeLayoutAlgorithm#LEFT_RIGHT}, or
+	 * {@link TreeLayoutAlgorithm#RIGHT_LEFT}.
+	 *
+	 * @param direction
+	 *            The new direction for this {@link WalkerTreeLayoutAlgorithm}.
+	 */
+	public void setDirection(int direction) {
+		if (direction == TreeLayoutAlgorithm.TOP_DOWN
+				|| direction == TreeLayoutAlgorithm.BOTTOM_UP
+				|| direction == TreeLayoutAlgorithm.LEFT_RIGHT
+				|| direction == TreeLayoutAlgorithm.RIGHT_LEFT)
+			this.direction = direction;
+		else
+			throw new IllegalArgumentException(
+					"Invalid direction: " + direction);
+	}
+
+	/**
+	 * Returns the distance between adjacent layers.
+	 *
+	 * @return The layer spacing.
+	 */
+	public double getLayerSpacing() {
+		return layerSpacing;
+	}
+
+	/**
+	 * Sets the distance between adjacent layers, i.e. between the deepest
+	 * node of a layer and the next layer.
+	 *
+	 * @param layerSpacing
+	 *            The new layer spacing.
+	 */
+	public void setLayerSpacing(double layerSpacing) {
+		this.layerSpacing = layerSpacing;
+	}
+
+	/**
+	 * Returns the minimum distance between adjacent nodes within a layer.
+	 *
+	 * @return The node spacing.
+	 */
+	public double getNodeSpacing() {
+		return nodeSpacing;
+	}
+
+	/**
+	 * Sets the minimum distance between adjacent nodes within a layer.
+	 *
+	 * @param nodeSpacing
+	 *            The new node spacing.
+	 */
+	public void setNodeSpacing(double nodeSpacing) {
+		this.nodeSpacing = nodeSpacing;
+	}
+
+	@Override
+	public String toString() {
+		return "WalkerTreeLayout { direction : " + direction
+				+ ", node spacing : " + nodeSpacing + ", layer spacing : "
+				+ layerSpacing + " }";
+	}
+}
@@ -0,0 +1,356 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.internal.utils;
+
+import java.util.Arrays;
+
+/**
+ * The {@link BarnesHutQuadTree} is a region quad tree over a set of points,
+ * which is used by the
+ * {@link org.eclipse.gef.layout.algorithms.SpringLayoutAlgorithm} to
+ * approximate the repulsion between all pairs of nodes in
+ * <code>O(n log n)</code> (see J. Barnes and P. Hut, "A hierarchical O(N log
+ * N) force-calculation algorithm", Nature 324, 1986).
+ * <p>
+ * Every cell of the tree keeps track of the number of points it contains and
+ * of their center of mass. When computing the repulsion that acts upon a
+ * point, a cell that is sufficiently far away (according to the opening
+ * criterion <code>cellSize / distance &lt; theta</code>) is treated as a single
+ * point of the accumulated mass, which is located at its center of mass.
+ * <p>
+ * The tree is stored within primitive arrays, so that it can be rebuilt for
+ * every iteration of the layout without allocating new objects.
+ */
+public final class BarnesHutQuadTree {
+
+	/**
+	 * The maximum depth of the tree. Points that cannot be separated within
+	 * this depth (e.g. because they are located at the same position) are
+	 * stored together in a single leaf.
+	 */
+	private static final int MAX_DEPTH = 48;
+
+	private static final int NONE = -1;
+
+	// a traversal pushes at most 3 cells per level
+	private static final int STACK_SIZE = 3 * (MAX_DEPTH + 1) + 4;
+
+	// point data (not copied)
+	private double[] pointsX;
+	private double[] pointsY;
+	private int[] nextPoint = new int[0];
+
+	// cell data
+	private int cellCount;
+	private double[] cellX = new double[0];
+	private double[] cellY = new double[0];
+	private double[] cellSize = new double[0];
+	private double[] cellMass = new double[0];
+	private double[] cellMassX = new double[0];
+	private double[] cellMassY = new double[0];
+	private int[] cellChildren = new int[0];
+	private int[] cellPoints = new int[0];
+	private boolean[] cellLeaf = new boolean[0];
+
+	/**
+	 * Rebuilds this {@link BarnesHutQuadTree} for the given points. The given
+	 * arrays are not copied, so they may not be changed until the tree is
+	 * rebuilt.
+	 *
+	 * @param x
+	 *            The x coordinates of the points.
+	 * @param y
+	 *            The y coordinates of the points.
+	 * @param n
+	 *            The number of points, i.e. the number of array elements to
+	 *            consider.
+	 */
+	public void build(double[] x, double[] y, int n) {
+		pointsX = x;
+		pointsY = y;
+		if (nextPoint.length < n) {
+			nextPoint = new int[n];
+		}
+		cellCount = 0;
+		if (n == 0) {
+			return;
+		}
+
+		// determine the bounding square of all points
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		double size = Math.max(maxX - minX, maxY - minY);
+		// ensure a non-empty root cell that contains all points
+		size = size <= 0 ? 1 : size * (1 + 1e-9);
+
+		int root = newCell(minX, minY, size);
+		for (int i = 0; i < n; i++) {
+			insert(root, i, 0);
+		}
+		// convert the accumulated mass moments into centers of mass
+		for (int c = 0; c < cellCount; c++) {
+			cellMassX[c] /= cellMass[c];
+			cellMassY[c] /= cellMass[c];
+		}
+	}
+
+	/**
+	 * Accumulates the repulsion that acts upon the points within the given
+	 * index range and adds it to the given force arrays. The repulsion between
+	 * two points at distance <i>d</i> is <code>gravitation / d^2</code>, where
+	 * <i>d</i> is not smaller than the given minimum distance.
+	 * <p>
+	 * The tree is not modified by this method, so that it may be called
+	 * concurrently for disjoint index ranges.
+	 *
+	 * @param from
+	 *            The index of the first point for which to compute the
+	 *            repulsion (inclusive).
+	 * @param to
+	 *            The index of the last point for which to compute the
+	 *            repulsion (exclusive).
+	 * @param theta
+	 *            The opening criterion, i.e. the ratio between cell size and
+	 *            distance below which a cell is approximated by its center of
+	 *            mass. A value of <code>0</code> yields exact results.
+	 * @param gravitation
+	 *            The gravitation constant.
+	 * @param minDistance
+	 *            The minimum distance between two points.
+	 * @param forcesX
+	 *            The array to which the x components of the repulsion are
+	 *            added.
+	 * @param forcesY
+	 *            The array to which the y components of the repulsion are
+	 *            added.
+	 */
+	public void accumulateRepulsion(int from, int to, double theta,
+			double gravitation, double minDistance, double[] forcesX,
+			double[] forcesY) {
+		if (cellCount == 0) {
+			return;
+		}
+		int[] stack = new int[STACK_SIZE];
+		for (int i = from; i < to; i++) {
+			accumulateRepulsion(pointsX[i], pointsY[i], i, theta * theta,
+					gravitation, minDistance * minDistance, stack, forcesX,
+					forcesY, i);
+		}
+	}
+
+	/**
+	 * Accumulates the repulsion that all points of this tree exert upon the
+	 * given location, and adds it to the given force arrays at the given
+	 * index. In contrast to
+	 * {@link #accumulateRepulsion(int, int, double, double, double, double[], double[])},
+	 * the location does not need to belong to a point of this tree, so that
+	 * the repulsion of a fixed set of points can be computed for other points
+	 * without rebuilding the tree.
+	 * <p>
+	 * The tree is not modified by this method, so that it may be called
+	 * concurrently for different indices.
+	 *
+	 * @param x
+	 *            The x coordinate of the location.
+	 * @param y
+	 *            The y coordinate of the location.
+	 * @param theta
+	 *            The opening criterion (see
+	 *            {@link #accumulateRepulsion(int, int, double, double, double, double[], double[])}).
+	 * @param gravitation
+	 *            The gravitation constant.
+	 * @param minDistance
+	 *            The minimum distance between two points.
+	 * @param forcesX
+	 *            The array to which the x component of the repulsion is
+	 *            added.
+	 * @param forcesY
+	 *            The array to which the y component of the repulsion is
+	 *            added.
+	 * @param index
+	 *            The index of the force arrays to which the repulsion is
+	 *            added.
+	 */
+	public void accumulateRepulsion(double x, double y, double theta,
+			double gravitation, double minDistance, double[] forcesX,
+			double[] forcesY, int index) {
+		if (cellCount == 0) {
+			return;
+		}
+		accumulateRepulsion(x, y, NONE, theta * theta, gravitation,
+				minDistance * minDistance, new int[STACK_SIZE], forcesX,
+				forcesY, index);
+	}
+
+	// accumulates the repulsion upon the given location, ignoring the
+	// excluded point, using the given stack for the traversal
+	private void accumulateRepulsion(double x, double y, int excluded,
+			double thetaSq, double gravitation, double minDistanceSq,
+			int[] stack, double[] forcesX, double[] forcesY, int index) {
+		double fx = 0;
+		double fy = 0;
+
+		int top = 0;
+		stack[top++] = 0;
+		while (top > 0) {
+			int c = stack[--top];
+			if (cellLeaf[c]) {
+				for (int j = cellPoints[c]; j != NONE; j = nextPoint[j]) {
+					if (j == excluded) {
+						continue;
+					}
+					double dx = x - pointsX[j];
+					double dy = y - pointsY[j];
+					double distanceSq = Math.max(minDistanceSq,
+							dx * dx + dy * dy);
+					double f = gravitation / distanceSq;
+					double distance = Math.sqrt(distanceSq);
+					fx += f * dx / distance;
+					fy += f * dy / distance;
+				}
+				continue;
+			}
+			double dx = x - cellMassX[c];
+			double dy = y - cellMassY[c];
+			double distanceSq = dx * dx + dy * dy;
+			double s = cellSize[c];
+			if (s * s < thetaSq * distanceSq && !contains(c, x, y)) {
+				// far enough away, so approximate by the center of mass
+				distanceSq = Math.max(minDistanceSq, distanceSq);
+				double f = gravitation * cellMass[c] / distanceSq;
+				double distance = Math.sqrt(distanceSq);
+				fx += f * dx / distance;
+				fy += f * dy / distance;
+			} else {
+				for (int q = 0; q < 4; q++) {
+					int child = cellChildren[4 * c + q];
+					if (child != NONE) {
+						stack[top++] = child;
+					}
+				}
+			}
+		}
+		forcesX[index] += fx;
+		forcesY[index] += fy;
+	}
+
+	private boolean contains(int c, double x, double y) {
+		return x >= cellX[c] && x <= cellX[c] + cellSize[c] && y >= cellY[c]
+				&& y <= cellY[c] + cellSize[c];
+	}
+
+	private void ensureCellCapacity() {
+		if (cellCount < cellX.length) {
+			return;
+		}
+		int capacity = Math.max(16, cellX.length * 2);
+		cellX = Arrays.copyOf(cellX, capacity);
+		cellY = Arrays.copyOf(cellY, capacity);
+		cellSize = Arrays.copyOf(cellSize, capacity);
+		cellMass = Arrays.copyOf(cellMass, capacity);
+		cellMassX = Arrays.copyOf(cellMassX, capacity);
+		cellMassY = Arrays.copyOf(cellMassY, capacity);
+		cellChildren = Arrays.copyOf(cellChildren, 4 * capacity);
+		cellPoints = Arrays.copyOf(cellPoints, capacity);
+		cellLeaf = Arrays.copyOf(cellLeaf, capacity);
+	}
+
+	private void insert(int cell, int point, int depth) {
+		int c = cell;
+		int d = depth;
+		double px = pointsX[point];
+		double py = pointsY[point];
+		while (true) {
+			cellMass[c] += 1;
+			cellMassX[c] += px;
+			cellMassY[c] += py;
+			if (cellLeaf[c]) {
+				int head = cellPoints[c];
+				if (head == NONE) {
+					cellPoints[c] = point;
+					nextPoint[point] = NONE;
+					return;
+				}
+				if (d >= MAX_DEPTH) {
+					nextPoint[point] = head;
+					cellPoints[c] = point;
+					return;
+				}
+				// subdivide, moving the contained point into a child cell (only
+				// leaves at the maximum depth can contain multiple points)
+				cellLeaf[c] = false;
+				cellPoints[c] = NONE;
+				int childCell = newChild(c,
+						quadrant(c, pointsX[head], pointsY[head]));
+				cellMass[childCell] = 1;
+				cellMassX[childCell] = pointsX[head];
+				cellMassY[childCell] = pointsY[head];
+				cellPoints[childCell] = head;
+			}
+			int q = quadrant(c, px, py);
+			int child = cellChildren[4 * c + q];
+			if (child == NONE) {
+				child = newChild(c, q);
+			}
+			c = child;
+			d++;
+		}
+	}
+
+	private int newCell(double x, double y, double size) {
+		ensureCellCapacity();
+		int c = cellCount++;
+		cellX[c] = x;
+		cellY[c] = y;
+		cellSize[c] = size;
+		cellMass[c] = 0;
+		cellMassX[c] = 0;
+		cellMassY[c] = 0;
+		cellChildren[4 * c] = NONE;
+		cellChildren[4 * c + 1] = NONE;
+		cellChildren[4 * c + 2] = NONE;
+		cellChildren[4 * c + 3] = NONE;
+		cellPoints[c] = NONE;
+		cellLeaf[c] = true;
+		return c;
+	}
+
+	private int newChild(int parent, int q) {
+		double half = cellSize[parent] / 2;
+		int child = newCell(cellX[parent] + ((q & 1) == 0 ? 0 : half),
+				cellY[parent] + ((q & 2) == 0 ? 0 : half), half);
+		cellChildren[4 * parent + q] = child;
+		return child;
+	}
+
+	private int quadrant(int c, double x, double y) {
+		double half = cellSize[c] / 2;
+		int q = 0;
+		if (x >= cellX[c] + half) {
+			q |= 1;
+		}
+		if (y >= cellY[c] + half) {
+			q |= 2;
+		}
+		return q;
+	}
+
+}
@@ -0,0 +1,350 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.internal.utils;
+
+import java.util.Arrays;
+
+/**
+ * A static two-dimensional k-d tree over a set of points, which are
+ * identified by their index. It supports nearest neighbor queries, range
+ * queries, and the computation of the closest pair of points, each in
+ * <code>O(log n)</code> expected time per reported point.
+ * <p>
+ * The tree is balanced, i.e. each subtree is split at the median of the
+ * coordinate with the larger spread. It is built in <code>O(n log n)</code>
+ * and is not updated when the coordinates change. Coincident points are
+ * stored once within the tree, and their duplicates are chained to them, so
+ * that duplicates do not degrade the queries.
+ * <p>
+ * A {@link KdTree} is not changed by queries, i.e. all query state is local to
+ * the respective query. Therefore, it may be queried by multiple threads
+ * concurrently, as long as the coordinates are not changed.
+ */
+public final class KdTree {
+
+	/**
+	 * The state of a single nearest neighbor query.
+	 */
+	private static final class NearestQuery {
+		final double px;
+		final double py;
+		final int excluded;
+		double bestDistance = Double.POSITIVE_INFINITY;
+		int best = -1;
+
+		NearestQuery(double px, double py, int excluded) {
+			this.px = px;
+			this.py = py;
+			this.excluded = excluded;
+		}
+	}
+
+	private final double[] x;
+	private final double[] y;
+	// the coincident point with the smallest index for each point, and the
+	// coincident point with the next larger index (or -1)
+	private final int[] first;
+	private final int[] next;
+	// first points in tree order, where the median of each range is its root
+	private final int[] tree;
+	// whether the root of each range is split by its x-coordinate
+	private final boolean[] splitX;
+
+	/**
+	 * Creates a new {@link KdTree} for the points with the given coordinates.
+	 * The arrays are referenced (not copied), so they may not be changed
+	 * while the {@link KdTree} is in use.
+	 *
+	 * @param x
+	 *            The x-coordinates of the points.
+	 * @param y
+	 *            The y-coordinates of the points.
+	 */
+	public KdTree(double[] x, double[] y) {
+		if (x.length != y.length) {
+			throw new IllegalArgumentException(
+					"Coordinate arrays have to be of the same length.");
+		}
+		this.x = x;
+		this.y = y;
+		first = new int[x.length];
+		next = new int[x.length];
+		Integer[] order = new Integer[x.length];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		// -0.0 is normalized, so that it is sorted like 0.0
+		Arrays.sort(order, (a, b) -> {
+			int compare = Double.compare(x[a] + 0.0, x[b] + 0.0);
+			if (compare == 0) {
+				compare = Double.compare(y[a] + 0.0, y[b] + 0.0);
+			}
+			return compare != 0 ? compare : Integer.compare(a, b);
+		});
+		int count = 0;
+		for (int k = 0; k < order.length; k++) {
+			int p = order[k];
+			next[p] = -1;
+			int q = k > 0 ? order[k - 1] : -1;
+			if (q >= 0 && x[p] == x[q] && y[p] == y[q]) {
+				first[p] = first[q];
+				next[q] = p;
+			} else {
+				first[p] = p;
+				count++;
+			}
+		}
+		tree = new int[count];
+		count = 0;
+		for (int i = 0; i < first.length; i++) {
+			if (first[i] == i) {
+				tree[count++] = i;
+			}
+		}
+		splitX = new boolean[tree.length];
+		build(0, tree.length);
+	}
+
+	private void build(int lo, int hi) {
+		if (hi - lo < 2) {
+			if (hi > lo) {
+				splitX[lo] = true;
+			}
+			return;
+		}
+		double minX = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int k = lo; k < hi; k++) {
+			int p = tree[k];
+			minX = Math.min(minX, x[p]);
+			maxX = Math.max(maxX, x[p]);
+			minY = Math.min(minY, y[p]);
+			maxY = Math.max(maxY, y[p]);
+		}
+		boolean byX = !(maxY - minY > maxX - minX);
+		int mid = (lo + hi) >>> 1;
+		select(lo, hi - 1, mid, byX ? x : y);
+		splitX[mid] = byX;
+		build(lo, mid);
+		build(mid + 1, hi);
+	}
+
+	/**
+	 * Returns the closest pair of points. If multiple pairs have the minimum
+	 * distance, the pair <code>(i, j)</code> with <code>i &lt; j</code> that
+	 * is minimal in lexicographical order is returned.
+	 *
+	 * @return An array containing the indices <code>i &lt; j</code> of the
+	 *         closest pair, or <code>null</code> if there are less than two
+	 *         points.
+	 */
+	public int[] getClosestPair() {
+		int n = x.length;
+		if (n < 2) {
+			return null;
+		}
+		// coincident points are closest, so that the first point with a
+		// duplicate forms a pair with its next duplicate
+		for (int i = 0; i < n; i++) {
+			if (next[i] >= 0) {
+				return new int[] { i, next[i] };
+			}
+		}
+		// distance of each point to its nearest neighbor
+		double[] nearest = new double[n];
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < n; i++) {
+			int j = getNearest(i);
+			nearest[i] = j < 0 ? Double.POSITIVE_INFINITY
+					: getDistanceSquared(i, x[j], y[j]);
+			min = Math.min(min, nearest[i]);
+		}
+		// both points of a closest pair have the minimum nearest distance
+		for (int i = 0; i < n; i++) {
+			if (nearest[i] != min) {
+				continue;
+			}
+			for (int j : getWithin(x[i], y[i], min)) {
+				if (j > i && getDistanceSquared(i, x[j], y[j]) == min) {
+					return new int[] { i, j };
+				}
+			}
+		}
+		// only reached for undefined coordinates
+		return new int[] { 0, 1 };
+	}
+
+	private double getDistanceSquared(int p, double px, double py) {
+		double dx = x[p] - px;
+		double dy = y[p] - py;
+		return dx * dx + dy * dy;
+	}
+
+	/**
+	 * Returns the point that is nearest to the given location. If multiple
+	 * points have the minimum distance, the one with the smallest index is
+	 * returned.
+	 *
+	 * @param px
+	 *            The x-coordinate of the location.
+	 * @param py
+	 *            The y-coordinate of the location.
+	 * @return The index of the nearest point, or <code>-1</code> if the tree
+	 *         is empty.
+	 */
+	public int getNearest(double px, double py) {
+		return getNearest(px, py, -1);
+	}
+
+	private int getNearest(double px, double py, int excluded) {
+		NearestQuery query = new NearestQuery(px, py, excluded);
+		searchNearest(0, tree.length, query);
+		return query.best;
+	}
+
+	/**
+	 * Returns the point that is nearest to the point with the given index,
+	 * excluding that point itself. If multiple points have the minimum
+	 * distance, the one with the smallest index is returned.
+	 *
+	 * @param i
+	 *            The index of the point.
+	 * @return The index of the nearest other point, or <code>-1</code> if
+	 *         there is no other point.
+	 */
+	public int getNearest(int i) {
+		if (first[i] != i) {
+			return first[i];
+		}
+		if (next[i] >= 0) {
+			return next[i];
+		}
+		return getNearest(x[i], y[i], i);
+	}
+
+	/**
+	 * Returns all points whose squared distance to the given location does not
+	 * exceed the given squared radius, in ascending order of their indices.
+	 *
+	 * @param px
+	 *            The x-coordinate of the location.
+	 * @param py
+	 *            The y-coordinate of the location.
+	 * @param radiusSquared
+	 *            The squared radius.
+	 * @return The indices of the points within the radius.
+	 */
+	public int[] getWithin(double px, double py, double radiusSquared) {
+		int[] result = new int[8];
+		int count = 0;
+		// iterative traversal to avoid deep recursion for large ranges
+		int[] stack = new int[64];
+		int top = 0;
+		stack[top++] = 0;
+		stack[top++] = tree.length;
+		while (top > 0) {
+			int hi = stack[--top];
+			int lo = stack[--top];
+			if (lo >= hi) {
+				continue;
+			}
+			int mid = (lo + hi) >>> 1;
+			int p = tree[mid];
+			if (getDistanceSquared(p, px, py) <= radiusSquared) {
+				for (int q = p; q >= 0; q = next[q]) {
+					if (count == result.length) {
+						result = Arrays.copyOf(result, 2 * count);
+					}
+					result[count++] = q;
+				}
+			}
+			double diff = splitX[mid] ? px - x[p] : py - y[p];
+			if (top + 4 > stack.length) {
+				stack = Arrays.copyOf(stack, 2 * stack.length);
+			}
+			if (diff <= 0 || diff * diff <= radiusSquared) {
+				stack[top++] = lo;
+				stack[top++] = mid;
+			}
+			if (diff >= 0 || diff * diff <= radiusSquared) {
+				stack[top++] = mid + 1;
+				stack[top++] = hi;
+			}
+		}
+		result = Arrays.copyOf(result, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	private void searchNearest(int lo, int hi, NearestQuery query) {
+		if (lo >= hi) {
+			return;
+		}
+		int mid = (lo + hi) >>> 1;
+		int p = tree[mid];
+		if (p != query.excluded) {
+			double distance = getDistanceSquared(p, query.px, query.py);
+			if (distance < query.bestDistance
+					|| distance == query.bestDistance && p < query.best) {
+				query.bestDistance = distance;
+				query.best = p;
+			}
+		}
+		double diff = splitX[mid] ? query.px - x[p] : query.py - y[p];
+		if (diff < 0) {
+			searchNearest(lo, mid, query);
+			if (diff * diff <= query.bestDistance) {
+				searchNearest(mid + 1, hi, query);
+			}
+		} else {
+			searchNearest(mid + 1, hi, query);
+			if (diff * diff <= query.bestDistance) {
+				searchNearest(lo, mid, query);
+			}
+		}
+	}
+
+	// partially sorts tree[lo..hi], so that tree[k] is the k-th smallest
+	private void select(int lo, int hi, int k, double[] coordinates) {
+		while (hi > lo) {
+			double pivot = coordinates[tree[(lo + hi) >>> 1]];
+			int i = lo;
+			int j = hi;
+			while (i <= j) {
+				while (coordinates[tree[i]] < pivot) {
+					i++;
+				}
+				while (coordinates[tree[j]] > pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int swap = tree[i];
+					tree[i] = tree[j];
+					tree[j] = swap;
+					i++;
+					j--;
+				}
+			}
+			if (k <= j) {
+				hi = j;
+			} else if (k >= i) {
+				lo = i;
+			} else {
+				return;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.layout.internal.utils;
+
+import java.util.Arrays;
+
+/**
+ * The {@link WeightedAdjacency} stores the (symmetric) sum of weights between
+ * connected nodes in compressed sparse row format, i.e. the neighbors of node
+ * <i>i</i> are stored at indices <code>start[i]</code> to
+ * <code>start[i + 1] - 1</code> of the {@link #index} and {@link #weight}
+ * arrays, sorted by neighbor index. Its memory consumption is linear in the
+ * number of connections.
+ */
+public final class WeightedAdjacency {
+
+	/**
+	 * The start offsets of the rows (of length <code>n + 1</code>).
+	 */
+	public final int[] start;
+
+	/**
+	 * The neighbor indices, sorted ascending within each row.
+	 */
+	public final int[] index;
+
+	/**
+	 * The sum of weights between a node and the respective neighbor.
+	 */
+	public final double[] weight;
+
+	private WeightedAdjacency(int[] start, int[] index, double[] weight) {
+		this.start = start;
+		this.index = index;
+		this.weight = weight;
+	}
+
+	/**
+	 * Builds a new {@link WeightedAdjacency} for the given connections. Each
+	 * connection is stored in both directions, self-loops are ignored, and the
+	 * weights of parallel connections are summed up.
+	 *
+	 * @param n
+	 *            The number of nodes.
+	 * @param sources
+	 *            The source node indices of the connections.
+	 * @param targets
+	 *            The target node indices of the connections.
+	 * @param weights
+	 *            The weights of the connections.
+	 * @param m
+	 *            The number of connections, i.e. the number of array elements
+	 *            to consider.
+	 * @return A new {@link WeightedAdjacency} for the given connections.
+	 */
+	public static WeightedAdjacency build(int n, int[] sources, int[] targets,
+			double[] weights, int m) {
+		// collect the connections in both directions and count them per node
+		int[] rows = new int[2 * m];
+		int[] columns = new int[2 * m];
+		double[] values = new double[2 * m];
+		int[] start = new int[n + 1];
+		int count = 0;
+		for (int e = 0; e < m; e++) {
+			if (sources[e] == targets[e]) {
+				continue;
+			}
+			rows[count] = sources[e];
+			columns[count] = targets[e];
+			values[count++] = weights[e];
+			rows[count] = targets[e];
+			columns[count] = sources[e];
+			values[count++] = weights[e];
+			start[sources[e] + 1]++;
+			start[targets[e] + 1]++;
+		}
+		for (int i = 0; i < n; i++) {
+			start[i + 1] += start[i];
+		}
+
+		// distribute the entries into rows; as the relation is symmetric,
+		// filling the rows in order of ascending columns yields rows that are
+		// sorted by column
+		int[] next = Arrays.copyOf(start, n);
+		int[] byColumn = new int[count];
+		for (int k = 0; k < count; k++) {
+			byColumn[next[columns[k]]++] = k;
+		}
+		System.arraycopy(start, 0, next, 0, n);
+		int[] sorted = new int[count];
+		for (int j = 0; j < count; j++) {
+			int k = byColumn[j];
+			sorted[next[rows[k]]++] = k;
+		}
+
+		// merge parallel connections
+		int[] rowStart = new int[n + 1];
+		int[] index = new int[count];
+		double[] weight = new double[count];
+		int size = 0;
+		for (int i = 0; i < n; i++) {
+			rowStart[i] = size;
+			for (int j = start[i]; j < start[i + 1]; j++) {
+				int k = sorted[j];
+				if (size > rowStart[i] && index[size - 1] == columns[k]) {
+					weight[size - 1] += values[k];
+				} else {
+					index[size] = columns[k];
+					weight[size++] = values[k];
+				}
+			}
+		}
+		rowStart[n] = size;
+		if (size < count) {
+			index = Arrays.copyOf(index, size);
+			weight = Arrays.copyOf(weight, size);
+		}
+		return new WeightedAdjacency(rowStart, index, weight);
+	}
+
+	/**
+	 * Returns the number of nodes.
+	 *
+	 * @return The number of nodes.
+	 */
+	public int size() {
+		return start.length - 1;
+	}
+
+}
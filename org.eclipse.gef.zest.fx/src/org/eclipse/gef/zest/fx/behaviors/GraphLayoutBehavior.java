@@ -14,6 +14,11 @@ package org.eclipse.gef.zest.fx.behaviors;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.gef.fx.nodes.InfiniteCanvas;
 import org.eclipse.gef.geometry.planar.Rectangle;
@@ -29,12 +34,15 @@ import org.eclipse.gef.mvc.fx.parts.PartUtils;
 import org.eclipse.gef.mvc.fx.viewer.IViewer;
 import org.eclipse.gef.mvc.fx.viewer.InfiniteCanvasViewer;
 import org.eclipse.gef.zest.fx.ZestProperties;
+import org.eclipse.gef.zest.fx.internal.DetachedLayoutContext;
+import org.eclipse.gef.zest.fx.internal.DetachedLayoutContext.LayoutPass;
 import org.eclipse.gef.zest.fx.models.HidingModel;
 import org.eclipse.gef.zest.fx.models.NavigationModel;
 import org.eclipse.gef.zest.fx.models.NavigationModel.ViewportState;
 import org.eclipse.gef.zest.fx.parts.GraphPart;
 import org.eclipse.gef.zest.fx.parts.NodePart;
 
+import javafx.application.Platform;
 import javafx.beans.value.ChangeListener;
 import javafx.beans.value.ObservableValue;
 import javafx.collections.ListChangeListener;
@@ -46,6 +54,13 @@ import javafx.scene.Parent;
 /**
  * The {@link GraphLayoutBehavior} is responsible for initiating layout passes.
  * It is only applicable to {@link GraphPart}.
+ * <p>
+ * Layout passes can be computed {@link #setAsynchronous(boolean)
+ * asynchronously}, in which case the layout algorithm is applied to a copy of
+ * the layout relevant nodes and edges on a worker thread, so that the
+ * JavaFX application thread is not blocked. The results are transferred to
+ * the graph on the JavaFX application thread in a single pass, unless another
+ * layout pass was initiated in the meantime.
  *
  * @author mwienand
  *
@@ -53,6 +68,29 @@ import javafx.scene.Parent;
 // only applicable for GraphPart (see #getHost())
 public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 
+	private static ExecutorService defaultExecutor;
+
+	/**
+	 * Returns the {@link Executor} that is used for asynchronous layout passes
+	 * when no other {@link Executor} is set. It executes layout passes
+	 * sequentially on a single daemon thread.
+	 *
+	 * @return The default {@link Executor} for asynchronous layout passes.
+	 */
+	private static synchronized Executor getDefaultExecutor() {
+		if (defaultExecutor == null) {
+			defaultExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "Zest Layout");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		}
+		return defaultExecutor;
+	}
+
 	private Runnable postLayout = new Runnable() {
 		@Override
 		public void run() {
@@ -101,6 +139,21 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 
 	private boolean skipNextLayout;
 
+	private boolean asynchronous = false;
+
+	private Executor executor;
+
+	/**
+	 * Identifies the most recent layout pass. Asynchronous layout passes that
+	 * were superseded by a later one are cancelled.
+	 */
+	private final AtomicInteger layoutPass = new AtomicInteger();
+
+	/**
+	 * The copy of the graph that asynchronous layout passes are applied to.
+	 */
+	private final DetachedLayoutContext detachedLayoutContext = new DetachedLayoutContext();
+
 	/**
 	 * Performs one layout pass using the static layout algorithm that is
 	 * configured for the layout context.
@@ -152,7 +205,80 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		}
 
 		// apply layout (if no algorithm is set, will be a no-op)
-		layoutContext.applyLayout(true);
+		if (asynchronous) {
+			applyLayoutAsynchronously(layoutContext);
+		} else {
+			layoutPass.incrementAndGet();
+			layoutContext.applyLayout(true);
+		}
+	}
+
+	/**
+	 * Applies the layout algorithm of the given {@link LayoutContext} to a copy
+	 * of its layout relevant nodes and edges on the {@link #getExecutor()
+	 * executor}. The pre layout pass is executed immediately, while the
+	 * results and the post layout pass are applied on the JavaFX application
+	 * thread afterwards. The post layout pass is executed for every pre layout
+	 * pass, i.e. also if the layout pass is cancelled or the layout algorithm
+	 * fails. In the latter case, the failure is re-thrown on the JavaFX
+	 * application thread.
+	 *
+	 * @param layoutContext
+	 *            The {@link LayoutContext} to layout.
+	 */
+	private void applyLayoutAsynchronously(final LayoutContext layoutContext) {
+		// cancel pending layout passes
+		final int pass = layoutPass.incrementAndGet();
+		if (layoutContext.getLayoutAlgorithm() == null) {
+			return;
+		}
+
+		layoutContext.preLayout();
+
+		// take a snapshot of the layout relevant nodes and edges, so that the
+		// content is not accessed from the worker thread
+		final LayoutPass layout = detachedLayoutContext.createPass(layoutContext);
+		getExecutor().execute(new Runnable() {
+			@Override
+			public void run() {
+				Throwable failure = null;
+				// skip the computation if superseded before it was started
+				if (pass == layoutPass.get()) {
+					try {
+						layout.compute();
+					} catch (Throwable t) {
+						failure = t;
+					}
+				}
+				final Throwable layoutFailure = failure;
+				Platform.runLater(new Runnable() {
+					@Override
+					public void run() {
+						boolean superseded = pass != layoutPass.get() || !isActive()
+								|| layoutContext.getGraph() != layout.getGraph();
+						try {
+							if (!superseded && layoutFailure == null) {
+								// transfer the results at once
+								layout.apply();
+							}
+						} finally {
+							// balance the pre layout pass
+							layoutContext.postLayout();
+						}
+						if (superseded) {
+							return;
+						}
+						if (layoutFailure instanceof RuntimeException) {
+							throw (RuntimeException) layoutFailure;
+						} else if (layoutFailure instanceof Error) {
+							throw (Error) layoutFailure;
+						} else if (layoutFailure != null) {
+							throw new IllegalStateException("Asynchronous layout pass failed.", layoutFailure);
+						}
+					}
+				});
+			}
+		});
 	}
 
 	/**
@@ -264,6 +390,9 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 
 	@Override
 	protected void doDeactivate() {
+		// cancel pending layout passes
+		layoutPass.incrementAndGet();
+
 		getHost().getChildrenUnmodifiable().removeListener(childrenObserver);
 
 		final HidingModel hidingModel = getHost().getRoot().getViewer().getAdapter(HidingModel.class);
@@ -284,6 +413,17 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		nestingVisual = null;
 	}
 
+	/**
+	 * Returns the {@link Executor} that is used to compute asynchronous layout
+	 * passes. Unless another {@link Executor} is set, layout passes are
+	 * executed sequentially on a shared daemon thread.
+	 *
+	 * @return The {@link Executor} that is used for asynchronous layout passes.
+	 */
+	public Executor getExecutor() {
+		return executor == null ? getDefaultExecutor() : executor;
+	}
+
 	@Override
 	public GraphPart getHost() {
 		return (GraphPart) super.getHost();
@@ -305,6 +445,18 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		return getHost().getAdapter(LayoutContext.class);
 	}
 
+	/**
+	 * Returns whether layout passes are computed asynchronously, i.e. on the
+	 * {@link #getExecutor() executor} instead of the JavaFX application
+	 * thread.
+	 *
+	 * @return <code>true</code> if layout passes are computed asynchronously,
+	 *         otherwise <code>false</code>.
+	 */
+	public boolean isAsynchronous() {
+		return asynchronous;
+	}
+
 	/**
 	 * Returns the {@link NodePart} that contains the nested graph to which the
 	 * behavior corresponds, if this behavior is related to a nested graph.
@@ -351,6 +503,42 @@ public class GraphLayoutBehavior extends AbstractLayoutBehavior {
 		}
 	}
 
+	/**
+	 * Sets whether layout passes are computed asynchronously. When enabled,
+	 * the layout algorithm is applied to a copy of the layout relevant nodes
+	 * and edges on the {@link #getExecutor() executor}. The results are
+	 * transferred to the graph on the JavaFX application thread in a single
+	 * pass, followed by the post layout pass. Only the attributes that the
+	 * layout algorithm changed are transferred, unless they were changed on the
+	 * JavaFX application thread in the meantime. The incremental mode and the
+	 * layout cache of the {@link LayoutContext} are respected. A pending layout
+	 * pass is cancelled when another one is initiated, e.g. because the graph
+	 * changed.
+	 * <p>
+	 * Layout algorithms are not applied concurrently, but they have to be able
+	 * to operate on a thread other than the JavaFX application thread.
+	 *
+	 * @param asynchronous
+	 *            <code>true</code> to compute layout passes asynchronously,
+	 *            <code>false</code> to compute them on the JavaFX application
+	 *            thread (default).
+	 */
+	public void setAsynchronous(boolean asynchronous) {
+		this.asynchronous = asynchronous;
+	}
+
+	/**
+	 * Sets the {@link Executor} that is used to compute asynchronous layout
+	 * passes.
+	 *
+	 * @param executor
+	 *            The {@link Executor} to use, or <code>null</code> to use the
+	 *            default {@link Executor}.
+	 */
+	public void setExecutor(Executor executor) {
+		this.executor = executor;
+	}
+
 	/**
 	 * Updates the bounds property from the visual (viewport or nesting node)
 	 */
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.zest.fx.internal;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import org.eclipse.gef.common.attributes.IAttributeStore;
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutCache;
+import org.eclipse.gef.layout.LayoutContext;
+
+/**
+ * A {@link DetachedLayoutContext} applies the layout algorithm of a
+ * {@link LayoutContext} to a copy of its layout relevant nodes and edges, so
+ * that the layout can be computed on a worker thread without accessing the
+ * original graph.
+ * <p>
+ * A layout pass is split into three steps:
+ * <ol>
+ * <li>{@link #createPass(LayoutContext)} takes a snapshot of the graph and has
+ * to be called on the thread that owns the graph.</li>
+ * <li>{@link LayoutPass#compute()} updates the copy of the graph from the
+ * snapshot and applies the layout via {@link LayoutContext#applyLayout(boolean)}
+ * of a detached {@link LayoutContext}, so that the incremental mode and the
+ * {@link LayoutCache} are respected. It may be called on any thread.</li>
+ * <li>{@link LayoutPass#apply()} transfers the attributes that were changed by
+ * the layout algorithm back to the graph and has to be called on the thread
+ * that owns the graph again.</li>
+ * </ol>
+ * The copies of the nodes and edges are retained between layout passes, so
+ * that the detached {@link LayoutContext} can compute the changes since the
+ * previous pass in incremental mode.
+ */
+public class DetachedLayoutContext {
+
+	/**
+	 * A single layout pass of a {@link DetachedLayoutContext}.
+	 */
+	public class LayoutPass {
+
+		private final ILayoutAlgorithm layoutAlgorithm;
+		private final boolean incremental;
+		private final LayoutCache layoutCache;
+
+		private final Graph graph;
+		private final Map<String, Object> graphAttributes;
+		private final Node[] nodes;
+		private final List<Map<String, Object>> nodeAttributes = new ArrayList<>();
+		private final Edge[] edges;
+		private final Node[] sources;
+		private final Node[] targets;
+		private final List<Map<String, Object>> edgeAttributes = new ArrayList<>();
+
+		// the attributes that were changed by the layout algorithm
+		private Map<String, Object> graphChanges;
+		private final List<Map<String, Object>> nodeChanges = new ArrayList<>();
+		private final List<Map<String, Object>> edgeChanges = new ArrayList<>();
+		private boolean computed;
+
+		private LayoutPass(LayoutContext layoutContext) {
+			layoutAlgorithm = layoutContext.getLayoutAlgorithm();
+			incremental = layoutContext.isIncremental();
+			layoutCache = layoutContext.getLayoutCache();
+			graph = layoutContext.getGraph();
+			graphAttributes = copyAttributes(graph);
+			nodes = layoutContext.getNodes();
+			for (Node node : nodes) {
+				nodeAttributes.add(copyAttributes(node));
+			}
+			// only keep edges between layout relevant nodes
+			Map<Node, Boolean> relevant = new IdentityHashMap<>();
+			for (Node node : nodes) {
+				relevant.put(node, true);
+			}
+			List<Edge> relevantEdges = new ArrayList<>();
+			for (Edge edge : layoutContext.getEdges()) {
+				if (relevant.containsKey(edge.getSource()) && relevant.containsKey(edge.getTarget())) {
+					relevantEdges.add(edge);
+				}
+			}
+			edges = relevantEdges.toArray(new Edge[relevantEdges.size()]);
+			sources = new Node[edges.length];
+			targets = new Node[edges.length];
+			for (int i = 0; i < edges.length; i++) {
+				sources[i] = edges[i].getSource();
+				targets[i] = edges[i].getTarget();
+				edgeAttributes.add(copyAttributes(edges[i]));
+			}
+		}
+
+		/**
+		 * Transfers the attributes that were changed by the layout algorithm to
+		 * the original graph. An attribute is only transferred if it was not
+		 * changed since the snapshot was taken, so that concurrent edits are
+		 * not reverted. Attribute change notifications are deferred until all
+		 * attributes are transferred. Has to be called on the thread that owns
+		 * the graph, after {@link #compute()}.
+		 *
+		 * @throws IllegalStateException
+		 *             if the layout pass was not computed.
+		 */
+		public void apply() {
+			if (!computed) {
+				throw new IllegalStateException("The layout pass has not been computed.");
+			}
+			graph.beginAttributeChanges();
+			try {
+				transferAttributes(graphAttributes, graphChanges, graph);
+				for (int i = 0; i < nodes.length; i++) {
+					transferAttributes(nodeAttributes.get(i), nodeChanges.get(i), nodes[i]);
+				}
+				for (int i = 0; i < edges.length; i++) {
+					transferAttributes(edgeAttributes.get(i), edgeChanges.get(i), edges[i]);
+				}
+			} finally {
+				graph.commitAttributeChanges();
+			}
+		}
+
+		/**
+		 * Updates the copy of the graph from the snapshot and applies the
+		 * layout algorithm to it. Layout passes of the same
+		 * {@link DetachedLayoutContext} are computed one at a time, and a
+		 * layout algorithm is not applied concurrently by different
+		 * {@link DetachedLayoutContext}s.
+		 */
+		public void compute() {
+			synchronized (DetachedLayoutContext.this) {
+				nodeChanges.clear();
+				edgeChanges.clear();
+				updateCopy();
+				if (layoutContext.isIncremental() != incremental) {
+					layoutContext.setIncremental(incremental);
+				}
+				layoutContext.setLayoutCache(layoutCache);
+				layoutContext.setLayoutAlgorithm(layoutAlgorithm);
+				if (layoutAlgorithm != null) {
+					// algorithms are not thread-safe
+					synchronized (layoutAlgorithm) {
+						layoutContext.applyLayout(true);
+					}
+				}
+				graphChanges = getChanges(graphAttributes, graphCopy);
+				for (int i = 0; i < nodes.length; i++) {
+					nodeChanges.add(getChanges(nodeAttributes.get(i), nodeCopies.get(nodes[i])));
+				}
+				for (int i = 0; i < edges.length; i++) {
+					edgeChanges.add(getChanges(edgeAttributes.get(i), edgeCopies.get(edges[i])));
+				}
+				computed = true;
+			}
+		}
+
+		/**
+		 * Returns the graph of which a snapshot was taken.
+		 *
+		 * @return The original {@link Graph}.
+		 */
+		public Graph getGraph() {
+			return graph;
+		}
+
+		private Map<String, Object> getChanges(Map<String, Object> snapshot, IAttributeStore copy) {
+			Map<String, Object> changed = new HashMap<>();
+			for (Entry<String, Object> entry : copy.getAttributes().entrySet()) {
+				if (!Objects.equals(snapshot.get(entry.getKey()), entry.getValue())) {
+					changed.put(entry.getKey(), copyValue(entry.getValue()));
+				}
+			}
+			return changed;
+		}
+
+		private void transferAttributes(Map<String, Object> snapshot, Map<String, Object> changed,
+				IAttributeStore original) {
+			Map<String, Object> attributes = original.getAttributes();
+			for (Entry<String, Object> entry : changed.entrySet()) {
+				String key = entry.getKey();
+				if (Objects.equals(snapshot.get(key), attributes.get(key))) {
+					attributes.put(key, entry.getValue());
+				}
+			}
+		}
+
+		private void updateCopy() {
+			replaceAttributes(graphCopy, graphAttributes);
+			Map<Node, Node> newNodeCopies = new IdentityHashMap<>();
+			List<Node> nodeList = new ArrayList<>();
+			for (int i = 0; i < nodes.length; i++) {
+				Node copy = nodeCopies.get(nodes[i]);
+				if (copy == null) {
+					copy = new Node();
+				}
+				replaceAttributes(copy, nodeAttributes.get(i));
+				newNodeCopies.put(nodes[i], copy);
+				nodeList.add(copy);
+			}
+			Map<Edge, Edge> newEdgeCopies = new IdentityHashMap<>();
+			List<Edge> edgeList = new ArrayList<>();
+			for (int i = 0; i < edges.length; i++) {
+				Node source = newNodeCopies.get(sources[i]);
+				Node target = newNodeCopies.get(targets[i]);
+				Edge copy = edgeCopies.get(edges[i]);
+				// a retargeted edge is replaced, so that it is part of the delta
+				if (copy == null || copy.getSource() != source || copy.getTarget() != target) {
+					copy = new Edge(source, target);
+				}
+				replaceAttributes(copy, edgeAttributes.get(i));
+				newEdgeCopies.put(edges[i], copy);
+				edgeList.add(copy);
+			}
+			graphCopy.getEdges().clear();
+			graphCopy.getNodes().setAll(nodeList);
+			graphCopy.getEdges().setAll(edgeList);
+			nodeCopies = newNodeCopies;
+			edgeCopies = newEdgeCopies;
+		}
+	}
+
+	/**
+	 * Returns a copy of the given attribute value. Mutable layout values are
+	 * copied, so that the copy can be modified independently.
+	 */
+	private static Object copyValue(Object value) {
+		if (value instanceof Point) {
+			return ((Point) value).getCopy();
+		} else if (value instanceof Dimension) {
+			return ((Dimension) value).getCopy();
+		} else if (value instanceof Rectangle) {
+			return ((Rectangle) value).getCopy();
+		}
+		return value;
+	}
+
+	private static Map<String, Object> copyAttributes(IAttributeStore store) {
+		Map<String, Object> copy = new HashMap<>();
+		for (Entry<String, Object> entry : store.getAttributes().entrySet()) {
+			copy.put(entry.getKey(), copyValue(entry.getValue()));
+		}
+		return copy;
+	}
+
+	private static void replaceAttributes(IAttributeStore store, Map<String, Object> attributes) {
+		store.getAttributes().clear();
+		for (Entry<String, Object> entry : attributes.entrySet()) {
+			store.getAttributes().put(entry.getKey(), copyValue(entry.getValue()));
+		}
+	}
+
+	private final LayoutContext layoutContext = new LayoutContext();
+	private final Graph graphCopy = new Graph();
+	private Map<Node, Node> nodeCopies = new IdentityHashMap<>();
+	private Map<Edge, Edge> edgeCopies = new IdentityHashMap<>();
+
+	/**
+	 * Creates a new {@link DetachedLayoutContext}.
+	 */
+	public DetachedLayoutContext() {
+		layoutContext.setGraph(graphCopy);
+	}
+
+	/**
+	 * Takes a snapshot of the layout relevant nodes and edges of the given
+	 * {@link LayoutContext}, as well as of its layout algorithm, incremental
+	 * mode, and {@link LayoutCache}. Has to be called on the thread that owns
+	 * the graph of the {@link LayoutContext}.
+	 *
+	 * @param layoutContext
+	 *            The {@link LayoutContext} to take a snapshot of.
+	 * @return The {@link LayoutPass} that applies the layout to the snapshot.
+	 */
+	public LayoutPass createPass(LayoutContext layoutContext) {
+		return new LayoutPass(layoutContext);
+	}
+
+}
@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.zest.tests.fx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.gef.geometry.planar.Dimension;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.geometry.planar.Rectangle;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutCache;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutDelta;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.zest.fx.internal.DetachedLayoutContext;
+import org.eclipse.gef.zest.fx.internal.DetachedLayoutContext.LayoutPass;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link DetachedLayoutContext}, which is used to compute
+ * asynchronous layout passes.
+ */
+public class DetachedLayoutContextTests {
+
+	/**
+	 * Places the nodes on a diagonal and records the layout passes.
+	 */
+	private static class DiagonalLayoutAlgorithm implements ILayoutAlgorithm {
+
+		private int fullPasses;
+		private LayoutDelta delta;
+		private RuntimeException failure;
+
+		@Override
+		public void applyIncrementalLayout(LayoutContext layoutContext, LayoutDelta delta) {
+			this.delta = delta;
+		}
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			fullPasses++;
+			if (failure != null) {
+				throw failure;
+			}
+			Node[] nodes = layoutContext.getNodes();
+			for (int i = 0; i < nodes.length; i++) {
+				LayoutProperties.setLocation(nodes[i], new Point(i * 10, i * 10));
+			}
+		}
+
+		@Override
+		public Object[] getLayoutParameters() {
+			return new Object[0];
+		}
+	}
+
+	private static Graph createGraph(int numNodes) {
+		List<Node> nodes = new ArrayList<>();
+		List<Edge> edges = new ArrayList<>();
+		for (int i = 0; i < numNodes; i++) {
+			Node node = new Node();
+			LayoutProperties.setSize(node, new Dimension(10, 10));
+			LayoutProperties.setLocation(node, new Point(-1, -1));
+			nodes.add(node);
+			if (i > 0) {
+				edges.add(new Edge(nodes.get(i - 1), node));
+			}
+		}
+		Graph graph = new Graph(nodes, edges);
+		LayoutProperties.setBounds(graph, new Rectangle(0, 0, 800, 600));
+		return graph;
+	}
+
+	private static LayoutContext createLayoutContext(Graph graph, ILayoutAlgorithm algorithm) {
+		LayoutContext layoutContext = new LayoutContext();
+		layoutContext.setGraph(graph);
+		layoutContext.setLayoutAlgorithm(algorithm);
+		return layoutContext;
+	}
+
+	@Test
+	public void concurrentEditsAreKept() {
+		Graph graph = createGraph(3);
+		Node edited = graph.getNodes().get(1);
+		edited.getAttributes().put("label", "before");
+		LayoutPass pass = new DetachedLayoutContext()
+				.createPass(createLayoutContext(graph, new DiagonalLayoutAlgorithm()));
+		pass.compute();
+
+		// the original graph is not changed by the computation
+		assertEquals(new Point(-1, -1), LayoutProperties.getLocation(edited));
+
+		// edit the graph while the pass is computed
+		LayoutProperties.setLocation(edited, new Point(100, 100));
+		edited.getAttributes().put("label", "after");
+		pass.apply();
+
+		assertEquals(new Point(0, 0), LayoutProperties.getLocation(graph.getNodes().get(0)));
+		assertEquals(new Point(100, 100), LayoutProperties.getLocation(edited));
+		assertEquals(new Point(20, 20), LayoutProperties.getLocation(graph.getNodes().get(2)));
+		assertEquals("after", edited.getAttributes().get("label"));
+	}
+
+	@Test
+	public void failingLayoutPass() {
+		Graph graph = createGraph(2);
+		DiagonalLayoutAlgorithm algorithm = new DiagonalLayoutAlgorithm();
+		algorithm.failure = new IllegalArgumentException();
+		LayoutPass pass = new DetachedLayoutContext().createPass(createLayoutContext(graph, algorithm));
+		try {
+			pass.compute();
+			fail("IllegalArgumentException expected.");
+		} catch (IllegalArgumentException e) {
+			assertSame(algorithm.failure, e);
+		}
+		try {
+			pass.apply();
+			fail("IllegalStateException expected.");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		assertEquals(new Point(-1, -1), LayoutProperties.getLocation(graph.getNodes().get(0)));
+	}
+
+	@Test
+	public void incrementalLayoutPasses() {
+		Graph graph = createGraph(3);
+		DiagonalLayoutAlgorithm algorithm = new DiagonalLayoutAlgorithm();
+		LayoutContext layoutContext = createLayoutContext(graph, algorithm);
+		layoutContext.setIncremental(true);
+		DetachedLayoutContext detachedLayoutContext = new DetachedLayoutContext();
+		LayoutPass pass = detachedLayoutContext.createPass(layoutContext);
+		pass.compute();
+		pass.apply();
+		assertEquals(1, algorithm.fullPasses);
+		assertNull(algorithm.delta);
+
+		// the copies are retained, so that only the changes are passed on
+		Node added = new Node();
+		LayoutProperties.setSize(added, new Dimension(10, 10));
+		graph.getNodes().add(added);
+		graph.getEdges().add(new Edge(graph.getNodes().get(2), added));
+		detachedLayoutContext.createPass(layoutContext).compute();
+		assertEquals(1, algorithm.fullPasses);
+		assertNotNull(algorithm.delta);
+		assertEquals(1, algorithm.delta.getAddedNodes().size());
+		assertEquals(1, algorithm.delta.getAddedEdges().size());
+		assertEquals(0, algorithm.delta.getRemovedNodes().size());
+
+		// retargeted edges are replaced
+		graph.getEdges().get(0).setTarget(graph.getNodes().get(2));
+		detachedLayoutContext.createPass(layoutContext).compute();
+		assertEquals(1, algorithm.delta.getAddedEdges().size());
+		assertEquals(1, algorithm.delta.getRemovedEdges().size());
+		assertEquals(0, algorithm.delta.getAddedNodes().size());
+	}
+
+	@Test
+	public void layoutCache() {
+		DiagonalLayoutAlgorithm algorithm = new DiagonalLayoutAlgorithm();
+		LayoutCache layoutCache = new LayoutCache();
+		for (int i = 0; i < 2; i++) {
+			Graph graph = createGraph(3);
+			LayoutContext layoutContext = createLayoutContext(graph, algorithm);
+			layoutContext.setLayoutCache(layoutCache);
+			LayoutPass pass = new DetachedLayoutContext().createPass(layoutContext);
+			pass.compute();
+			pass.apply();
+			assertEquals(new Point(20, 20), LayoutProperties.getLocation(graph.getNodes().get(2)));
+		}
+		// the second pass is served from the cache
+		assertEquals(1, algorithm.fullPasses);
+		assertEquals(1, layoutCache.size());
+	}
+
+}
@@ -0,0 +1,238 @@
+/*******************************************************************************
+ * Copyright (c) 2017 itemis AG and others.
+ *
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     itemis AG - initial API and implementation
+ *
+ *******************************************************************************/
+package org.eclipse.gef.zest.tests.fx;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+
+import org.eclipse.gef.common.adapt.AdapterKey;
+import org.eclipse.gef.geometry.planar.Point;
+import org.eclipse.gef.graph.Edge;
+import org.eclipse.gef.graph.Graph;
+import org.eclipse.gef.graph.Node;
+import org.eclipse.gef.layout.ILayoutAlgorithm;
+import org.eclipse.gef.layout.LayoutContext;
+import org.eclipse.gef.layout.LayoutProperties;
+import org.eclipse.gef.mvc.fx.domain.IDomain;
+import org.eclipse.gef.mvc.fx.viewer.IViewer;
+import org.eclipse.gef.mvc.tests.fx.rules.FXNonApplicationThreadRule;
+import org.eclipse.gef.zest.fx.ZestFxModule;
+import org.eclipse.gef.zest.fx.ZestProperties;
+import org.eclipse.gef.zest.fx.behaviors.GraphLayoutBehavior;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import com.google.inject.Guice;
+
+/**
+ * Tests for the asynchronous layout passes of the {@link GraphLayoutBehavior}.
+ */
+public class GraphLayoutBehaviorTests {
+
+	/**
+	 * Places the nodes on a diagonal, starting at a configurable offset, and
+	 * counts the layout passes.
+	 */
+	private static class DiagonalLayoutAlgorithm implements ILayoutAlgorithm {
+
+		private volatile double offset;
+		private volatile int passes;
+
+		@Override
+		public void applyLayout(LayoutContext layoutContext, boolean clean) {
+			passes++;
+			Node[] nodes = layoutContext.getNodes();
+			for (int i = 0; i < nodes.length; i++) {
+				LayoutProperties.setLocation(nodes[i], new Point(offset + i * 50, offset + i * 50));
+			}
+		}
+	}
+
+	/**
+	 * Queues the layout passes, so that they can be executed step by step.
+	 */
+	private static class QueuedExecutor implements Executor {
+
+		private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+		@Override
+		public void execute(Runnable command) {
+			tasks.add(command);
+		}
+	}
+
+	/**
+	 * Ensure that the JavaFX toolkit is properly initialized.
+	 */
+	@Rule
+	public FXNonApplicationThreadRule ctx = new FXNonApplicationThreadRule();
+
+	private Graph graph;
+	private GraphLayoutBehavior behavior;
+	private final DiagonalLayoutAlgorithm algorithm = new DiagonalLayoutAlgorithm();
+	private final QueuedExecutor executor = new QueuedExecutor();
+	private int preLayouts;
+	// the location of the first node at each post layout pass
+	private final List<Point> postLayouts = new ArrayList<>();
+
+	private void applyLayout() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				behavior.applyLayout(true, null);
+			}
+		});
+	}
+
+	private Point getLocation(int node) {
+		return LayoutProperties.getLocation(graph.getNodes().get(node));
+	}
+
+	/**
+	 * Executes the queued layout passes and waits until their results are
+	 * applied on the JavaFX application thread.
+	 */
+	private void runLayoutPasses() throws Throwable {
+		Runnable task;
+		while ((task = executor.tasks.poll()) != null) {
+			task.run();
+			waitForApplicationThread();
+		}
+	}
+
+	/**
+	 * Waits until the runnables that were posted to the JavaFX application
+	 * thread before are executed.
+	 */
+	private void waitForApplicationThread() throws Throwable {
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				// executed after the runnables that were posted before
+			}
+		});
+	}
+
+	@Before
+	public void setUp() throws Throwable {
+		Node a = new Node.Builder().buildNode();
+		Node b = new Node.Builder().buildNode();
+		Node c = new Node.Builder().buildNode();
+		graph = new Graph(Arrays.asList(a, b, c), Arrays.asList(new Edge(a, b), new Edge(b, c)));
+		ZestProperties.setLayoutAlgorithm(graph, algorithm);
+
+		final IDomain domain = Guice.createInjector(new ZestFxModule()).getInstance(IDomain.class);
+		final IViewer viewer = domain.getAdapter(AdapterKey.get(IViewer.class, IDomain.CONTENT_VIEWER_ROLE));
+		ctx.createScene(viewer.getCanvas(), 400, 400);
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				domain.activate();
+				viewer.getContents().setAll(Collections.singletonList(graph));
+				behavior = viewer.getContentPartMap().get(graph).getAdapter(GraphLayoutBehavior.class);
+				behavior.setExecutor(executor);
+				behavior.setAsynchronous(true);
+				LayoutContext layoutContext = viewer.getContentPartMap().get(graph).getAdapter(LayoutContext.class);
+				layoutContext.schedulePreLayoutPass(new Runnable() {
+					@Override
+					public void run() {
+						preLayouts++;
+					}
+				});
+				layoutContext.schedulePostLayoutPass(new Runnable() {
+					@Override
+					public void run() {
+						postLayouts.add(getLocation(0));
+					}
+				});
+			}
+		});
+		// the initial layout passes are irrelevant
+		runLayoutPasses();
+		algorithm.passes = 0;
+		preLayouts = 0;
+		postLayouts.clear();
+	}
+
+	@Test
+	public void layoutPassIsApplied() throws Throwable {
+		algorithm.offset = 1000;
+		applyLayout();
+		// the layout is computed on the executor
+		assertEquals(0, algorithm.passes);
+		assertEquals(1, preLayouts);
+		assertEquals(0, postLayouts.size());
+
+		runLayoutPasses();
+		assertEquals(1, algorithm.passes);
+		assertEquals(1, postLayouts.size());
+		assertEquals(new Point(1000, 1000), getLocation(0));
+		assertEquals(new Point(1100, 1100), getLocation(2));
+	}
+
+	@Test
+	public void layoutPassSupersededBeforeStarted() throws Throwable {
+		algorithm.offset = 1000;
+		applyLayout();
+		algorithm.offset = 2000;
+		applyLayout();
+		assertEquals(2, preLayouts);
+
+		// the first layout pass is not computed, but the post layout pass is
+		// executed nevertheless
+		runLayoutPasses();
+		assertEquals(1, algorithm.passes);
+		assertEquals(2, postLayouts.size());
+		assertEquals(new Point(2000, 2000), getLocation(0));
+	}
+
+	@Test
+	public void layoutPassSupersededWhileComputed() throws Throwable {
+		algorithm.offset = 1000;
+		applyLayout();
+		final Runnable first = executor.tasks.poll();
+		ctx.runAndWait(new Runnable() {
+			@Override
+			public void run() {
+				// the results of the first layout pass are posted before the
+				// second layout pass is initiated
+				first.run();
+				algorithm.offset = 2000;
+				behavior.applyLayout(true, null);
+			}
+		});
+		waitForApplicationThread();
+		assertEquals(1, algorithm.passes);
+		assertEquals(2, preLayouts);
+
+		// the results of the first layout pass are discarded, but the post
+		// layout pass is executed nevertheless
+		assertEquals(1, postLayouts.size());
+		assertNotEquals(new Point(1000, 1000), postLayouts.get(0));
+
+		runLayoutPasses();
+		assertEquals(2, algorithm.passes);
+		assertEquals(2, postLayouts.size());
+		assertEquals(new Point(2000, 2000), getLocation(0));
+	}
+
+}